@@ -0,0 +1,70 @@
+package com.quant.analysis.alert;
+
+import java.time.LocalDateTime;
+
+/**
+ * 触发的预警
+ */
+public class AlertEvent {
+
+    private final long ruleId;
+    private final String symbol;
+    private final String expression;
+    private final double value;
+    private final double reference;
+    private final LocalDateTime quoteTime;
+    private final LocalDateTime triggeredAt;
+
+    public AlertEvent(AlertRule rule, double value, double reference, LocalDateTime quoteTime) {
+        this.ruleId = rule.getId();
+        this.symbol = rule.getSymbol();
+        this.expression = rule.getExpression();
+        this.value = value;
+        this.reference = reference;
+        this.quoteTime = quoteTime;
+        this.triggeredAt = LocalDateTime.now();
+    }
+
+    public long getRuleId() {
+        return ruleId;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * 触发时的指标值
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * 触发时的参照值
+     */
+    public double getReference() {
+        return reference;
+    }
+
+    /**
+     * 触发预警的行情时间
+     */
+    public LocalDateTime getQuoteTime() {
+        return quoteTime;
+    }
+
+    public LocalDateTime getTriggeredAt() {
+        return triggeredAt;
+    }
+
+    @Override
+    public String toString() {
+        return "AlertEvent{symbol='" + symbol + "', expression='" + expression
+                + "', value=" + value + ", reference=" + reference + ", quoteTime=" + quoteTime + "}";
+    }
+}
@@ -0,0 +1,104 @@
+package com.quant.analysis.alert;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.quant.analysis.kernel.IndicatorKernels;
+import com.quant.analysis.kernel.IndicatorState;
+
+/**
+ * 预警条件可以引用的指标，取值来自增量指标状态
+ * 名称不区分大小写，空格和下划线可省略，如 "rsi 14"、"RSI14"、"upper Bollinger" 均可识别
+ */
+public enum AlertIndicator {
+    PRICE, SMA_20, SMA_50, EMA_12, EMA_26, RSI_14, MACD, MACD_SIGNAL, MACD_HISTOGRAM,
+    BB_UPPER, BB_MIDDLE, BB_LOWER;
+
+    /** 布林带三条线共用一次计算 */
+    private static final int BOLLINGER_MASK = bit(BB_UPPER) | bit(BB_MIDDLE) | bit(BB_LOWER);
+
+    private static final Map<String, AlertIndicator> NAMES = new HashMap<>();
+
+    static {
+        for (AlertIndicator indicator : values()) {
+            NAMES.put(normalize(indicator.name()), indicator);
+        }
+        alias(PRICE, "CLOSE", "LAST", "LASTPRICE");
+        alias(RSI_14, "RSI");
+        alias(MACD_SIGNAL, "SIGNAL");
+        alias(MACD_HISTOGRAM, "MACDHIST", "HISTOGRAM");
+        alias(BB_UPPER, "UPPERBOLLINGER", "BOLLINGERUPPER", "UPPERBAND");
+        alias(BB_MIDDLE, "MIDDLEBOLLINGER", "BOLLINGERMIDDLE", "MIDDLEBAND");
+        alias(BB_LOWER, "LOWERBOLLINGER", "BOLLINGERLOWER", "LOWERBAND");
+    }
+
+    /**
+     * 解析指标名称
+     * @throws IllegalArgumentException 未知的指标
+     */
+    public static AlertIndicator parse(String name) {
+        AlertIndicator indicator = NAMES.get(normalize(name));
+        if (indicator == null) {
+            throw new IllegalArgumentException("未知的预警指标: " + name);
+        }
+        return indicator;
+    }
+
+    /**
+     * 读取mask中各指标的当前值，按ordinal写入out，未引用的位置不修改
+     * @param bands 布林带临时数组，长度至少为3
+     */
+    public static void read(IndicatorState state, int mask, double[] out, double[] bands) {
+        if ((mask & bit(PRICE)) != 0) {
+            out[PRICE.ordinal()] = state.getLastPrice();
+        }
+        if ((mask & bit(SMA_20)) != 0) {
+            out[SMA_20.ordinal()] = state.sma20();
+        }
+        if ((mask & bit(SMA_50)) != 0) {
+            out[SMA_50.ordinal()] = state.sma50();
+        }
+        if ((mask & bit(EMA_12)) != 0) {
+            out[EMA_12.ordinal()] = state.ema12();
+        }
+        if ((mask & bit(EMA_26)) != 0) {
+            out[EMA_26.ordinal()] = state.ema26();
+        }
+        if ((mask & bit(RSI_14)) != 0) {
+            out[RSI_14.ordinal()] = state.rsi14();
+        }
+        if ((mask & bit(MACD)) != 0) {
+            out[MACD.ordinal()] = state.macd();
+        }
+        if ((mask & bit(MACD_SIGNAL)) != 0) {
+            out[MACD_SIGNAL.ordinal()] = state.macdSignal();
+        }
+        if ((mask & bit(MACD_HISTOGRAM)) != 0) {
+            out[MACD_HISTOGRAM.ordinal()] = state.macdHistogram();
+        }
+        if ((mask & BOLLINGER_MASK) != 0) {
+            state.bollinger20(2.0, bands);
+            out[BB_UPPER.ordinal()] = bands[IndicatorKernels.BAND_UPPER];
+            out[BB_MIDDLE.ordinal()] = bands[IndicatorKernels.BAND_MIDDLE];
+            out[BB_LOWER.ordinal()] = bands[IndicatorKernels.BAND_LOWER];
+        }
+    }
+
+    /**
+     * 该指标在引用掩码中的位
+     */
+    public static int bit(AlertIndicator indicator) {
+        return 1 << indicator.ordinal();
+    }
+
+    private static void alias(AlertIndicator indicator, String... names) {
+        for (String name : names) {
+            NAMES.put(name, indicator);
+        }
+    }
+
+    private static String normalize(String name) {
+        return name.toUpperCase(Locale.ROOT).replaceAll("[\\s_-]", "");
+    }
+}
@@ -0,0 +1,51 @@
+package com.quant.analysis.alert;
+
+/**
+ * 预警条件运算符
+ * 对差值 d = 指标 - 参照值 判断。比较类条件在由不满足变为满足时触发一次（首次取值即满足也触发），
+ * 穿越类条件需要上一次取值，d 从 <=0 变为 >0 为上穿、从 >=0 变为 <0 为下穿。NaN参与的判断一律不满足
+ */
+public enum AlertOperator {
+    GT(">"), GE(">="), LT("<"), LE("<="),
+    CROSSES("crosses"), CROSSES_ABOVE("crosses above"), CROSSES_BELOW("crosses below");
+
+    private final String symbol;
+
+    AlertOperator(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * 是否触发
+     * @param previous 上一次的差值，未知时为NaN
+     * @param current 本次的差值
+     */
+    public boolean triggers(double previous, double current) {
+        switch (this) {
+            case GT: return current > 0 && !(previous > 0);
+            case GE: return current >= 0 && !(previous >= 0);
+            case LT: return current < 0 && !(previous < 0);
+            case LE: return current <= 0 && !(previous <= 0);
+            case CROSSES_ABOVE: return previous <= 0 && current > 0;
+            case CROSSES_BELOW: return previous >= 0 && current < 0;
+            default: return previous <= 0 && current > 0 || previous >= 0 && current < 0;
+        }
+    }
+
+    /**
+     * 按运算符文本查找，如 ">="、"crosses above"
+     * @return 无法识别时返回null
+     */
+    static AlertOperator fromSymbol(String text) {
+        for (AlertOperator operator : values()) {
+            if (operator.symbol.equalsIgnoreCase(text)) {
+                return operator;
+            }
+        }
+        return null;
+    }
+}
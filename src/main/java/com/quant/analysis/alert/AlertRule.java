@@ -0,0 +1,149 @@
+package com.quant.analysis.alert;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 预警规则
+ * 文本格式为 "股票代码 指标 运算符 参照值"，参照值可以是数字或另一个指标，例如
+ * "PLTR RSI_14 crosses 30"、"AAPL price > upper Bollinger"、"TSLA MACD crosses above MACD_SIGNAL"
+ */
+public class AlertRule {
+
+    private static final Pattern SYMBOL = Pattern.compile("[A-Z0-9.]+");
+    private static final Pattern COMPARISON = Pattern.compile("(>=|<=|>|<)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final long id;
+    private final String symbol;
+    private final String expression;
+    private final AlertIndicator indicator;
+    private final AlertOperator operator;
+    private final AlertIndicator referenceIndicator;
+    private final double threshold;
+    private final LocalDateTime createdAt;
+
+    AlertRule(long id, String symbol, String expression, AlertIndicator indicator, AlertOperator operator,
+              AlertIndicator referenceIndicator, double threshold) {
+        this.id = id;
+        this.symbol = symbol;
+        this.expression = expression;
+        this.indicator = indicator;
+        this.operator = operator;
+        this.referenceIndicator = referenceIndicator;
+        this.threshold = threshold;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    /**
+     * 解析预警规则
+     * @param id 规则ID
+     * @param expression 规则文本
+     * @throws IllegalArgumentException 规则无法解析
+     */
+    public static AlertRule parse(long id, String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("预警规则不能为空");
+        }
+        String normalized = COMPARISON.matcher(expression.trim()).replaceAll(" $1 ").trim();
+        String[] tokens = WHITESPACE.split(normalized);
+
+        int operatorIndex = -1;
+        for (int i = 1; i < tokens.length && operatorIndex < 0; i++) {
+            if (COMPARISON.matcher(tokens[i]).matches() || tokens[i].toLowerCase(Locale.ROOT).startsWith("crosses")) {
+                operatorIndex = i;
+            }
+        }
+        if (operatorIndex < 2 || operatorIndex == tokens.length - 1) {
+            throw new IllegalArgumentException("预警规则格式应为 \"股票代码 指标 运算符 参照值\": " + expression);
+        }
+
+        String symbol = tokens[0].toUpperCase(Locale.ROOT);
+        if (!SYMBOL.matcher(symbol).matches()) {
+            throw new IllegalArgumentException("无效的股票代码: " + tokens[0]);
+        }
+
+        // "crosses above"、"crosses_above" 均可
+        String operatorText = tokens[operatorIndex].replace('_', ' ');
+        int referenceStart = operatorIndex + 1;
+        if (operatorText.equalsIgnoreCase("crosses") && referenceStart < tokens.length - 1
+                && (tokens[referenceStart].equalsIgnoreCase("above") || tokens[referenceStart].equalsIgnoreCase("below"))) {
+            operatorText += " " + tokens[referenceStart];
+            referenceStart++;
+        }
+        AlertOperator operator = AlertOperator.fromSymbol(operatorText);
+        if (operator == null) {
+            throw new IllegalArgumentException("未知的运算符: " + operatorText);
+        }
+
+        AlertIndicator indicator = AlertIndicator.parse(join(tokens, 1, operatorIndex));
+        String reference = join(tokens, referenceStart, tokens.length);
+        try {
+            double threshold = Double.parseDouble(reference);
+            if (!Double.isFinite(threshold)) {
+                throw new IllegalArgumentException("参照值必须是有限数值: " + reference);
+            }
+            return new AlertRule(id, symbol, expression.trim(), indicator, operator, null, threshold);
+        } catch (NumberFormatException e) {
+            return new AlertRule(id, symbol, expression.trim(), indicator, operator,
+                AlertIndicator.parse(reference), Double.NaN);
+        }
+    }
+
+    /**
+     * 规则引用的指标掩码
+     */
+    public int indicatorMask() {
+        int mask = AlertIndicator.bit(indicator);
+        return referenceIndicator != null ? mask | AlertIndicator.bit(referenceIndicator) : mask;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public AlertIndicator getIndicator() {
+        return indicator;
+    }
+
+    public AlertOperator getOperator() {
+        return operator;
+    }
+
+    /**
+     * 参照指标，参照值为数字时为null
+     */
+    public AlertIndicator getReferenceIndicator() {
+        return referenceIndicator;
+    }
+
+    /**
+     * 参照数值，参照值为指标时为null
+     */
+    public Double getThreshold() {
+        return referenceIndicator == null ? threshold : null;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "AlertRule{id=" + id + ", expression='" + expression + "'}";
+    }
+
+    private static String join(String[] tokens, int from, int to) {
+        return String.join(" ", Arrays.copyOfRange(tokens, from, to));
+    }
+}
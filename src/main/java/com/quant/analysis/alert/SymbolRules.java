@@ -0,0 +1,124 @@
+package com.quant.analysis.alert;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.quant.analysis.kernel.IndicatorState;
+
+/**
+ * 单个股票的已编译预警规则
+ * 规则展开为并行的基本类型数组（指标下标、参照下标或阈值、运算符、上一次差值），
+ * 并预先合并所有规则引用的指标掩码：每个新价格只读取被引用的指标一次，再顺序扫描数组求值，
+ * 未触发时不分配对象。增删规则时重建数组并保留已有规则的上一次差值
+ */
+public final class SymbolRules {
+
+    private static final int INDICATORS = AlertIndicator.values().length;
+
+    private AlertRule[] rules = new AlertRule[0];
+    private int[] indicators = new int[0];
+    private int[] references = new int[0]; // 参照指标下标，参照值为数字时为-1
+    private double[] thresholds = new double[0];
+    private AlertOperator[] operators = new AlertOperator[0];
+    private double[] previous = new double[0];
+    private int mask;
+
+    private final double[] values = new double[INDICATORS];
+    private final double[] bands = new double[3];
+
+    /**
+     * 加入规则
+     */
+    public synchronized void add(AlertRule rule) {
+        AlertRule[] next = Arrays.copyOf(rules, rules.length + 1);
+        next[rules.length] = rule;
+        double[] nextPrevious = Arrays.copyOf(previous, next.length);
+        nextPrevious[rules.length] = Double.NaN;
+        compile(next, nextPrevious);
+    }
+
+    /**
+     * 删除规则
+     * @return 是否存在该规则
+     */
+    public synchronized boolean remove(long ruleId) {
+        for (int i = 0; i < rules.length; i++) {
+            if (rules[i].getId() == ruleId) {
+                AlertRule[] next = new AlertRule[rules.length - 1];
+                double[] nextPrevious = new double[next.length];
+                System.arraycopy(rules, 0, next, 0, i);
+                System.arraycopy(rules, i + 1, next, i, next.length - i);
+                System.arraycopy(previous, 0, nextPrevious, 0, i);
+                System.arraycopy(previous, i + 1, nextPrevious, i, next.length - i);
+                compile(next, nextPrevious);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 用最新指标状态对全部规则求值
+     * @return 触发的预警，没有触发时为空列表
+     */
+    public synchronized List<AlertEvent> evaluate(IndicatorState state) {
+        if (rules.length == 0) {
+            return List.of();
+        }
+        AlertIndicator.read(state, mask, values, bands);
+
+        List<AlertEvent> fired = null;
+        LocalDateTime quoteTime = null;
+        for (int i = 0; i < rules.length; i++) {
+            double value = values[indicators[i]];
+            double reference = references[i] >= 0 ? values[references[i]] : thresholds[i];
+            double difference = value - reference;
+            if (operators[i].triggers(previous[i], difference)) {
+                if (fired == null) {
+                    fired = new ArrayList<>();
+                    quoteTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(state.getLastTimestamp()),
+                        ZoneId.systemDefault());
+                }
+                fired.add(new AlertEvent(rules[i], value, reference, quoteTime));
+            }
+            previous[i] = difference;
+        }
+        return fired != null ? fired : List.of();
+    }
+
+    public synchronized int size() {
+        return rules.length;
+    }
+
+    public synchronized boolean isEmpty() {
+        return rules.length == 0;
+    }
+
+    private void compile(AlertRule[] next, double[] nextPrevious) {
+        int size = next.length;
+        int[] nextIndicators = new int[size];
+        int[] nextReferences = new int[size];
+        double[] nextThresholds = new double[size];
+        AlertOperator[] nextOperators = new AlertOperator[size];
+        int nextMask = 0;
+        for (int i = 0; i < size; i++) {
+            AlertRule rule = next[i];
+            nextIndicators[i] = rule.getIndicator().ordinal();
+            nextReferences[i] = rule.getReferenceIndicator() != null ? rule.getReferenceIndicator().ordinal() : -1;
+            nextThresholds[i] = rule.getReferenceIndicator() != null ? Double.NaN : rule.getThreshold();
+            nextOperators[i] = rule.getOperator();
+            nextMask |= rule.indicatorMask();
+        }
+        rules = next;
+        indicators = nextIndicators;
+        references = nextReferences;
+        thresholds = nextThresholds;
+        operators = nextOperators;
+        previous = nextPrevious;
+        mask = nextMask;
+    }
+}
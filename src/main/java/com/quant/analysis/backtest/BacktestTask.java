@@ -0,0 +1,123 @@
+package com.quant.analysis.backtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import com.quant.analysis.model.BacktestResult;
+import com.quant.stock.store.BarCursor;
+import com.quant.stock.store.BarSeries;
+import com.quant.stock.store.PriceHistoryStore;
+
+/**
+ * 回测分治任务
+ * 先按股票二分，单个股票再按策略区间二分，直到区间不超过阈值。
+ * 叶子任务只打开一次K线游标，每读一块就依次喂给区间内的全部策略，
+ * 同一块数据在缓存中被多个参数组合复用，内存只占一块K线
+ */
+public class BacktestTask extends RecursiveTask<List<BacktestResult>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final PriceHistoryStore store;
+    private final List<String> symbols;
+    private final List<StrategySpec> strategies;
+    private final int from;
+    private final int to;
+    private final Settings settings;
+
+    /**
+     * 一次回测运行的公共设置
+     */
+    public static final class Settings {
+        private final long fromTimestamp;
+        private final long toTimestamp;
+        private final int chunkSize;
+        private final int strategiesPerTask;
+        private final double commissionRate;
+
+        public Settings(long fromTimestamp, long toTimestamp, int chunkSize,
+                        int strategiesPerTask, double commissionRate) {
+            this.fromTimestamp = fromTimestamp;
+            this.toTimestamp = toTimestamp;
+            this.chunkSize = chunkSize;
+            this.strategiesPerTask = Math.max(1, strategiesPerTask);
+            this.commissionRate = commissionRate;
+        }
+    }
+
+    public BacktestTask(PriceHistoryStore store, List<String> symbols, List<StrategySpec> strategies, Settings settings) {
+        this(store, symbols, strategies, 0, strategies.size(), settings);
+    }
+
+    private BacktestTask(PriceHistoryStore store, List<String> symbols, List<StrategySpec> strategies,
+                         int from, int to, Settings settings) {
+        this.store = store;
+        this.symbols = symbols;
+        this.strategies = strategies;
+        this.from = from;
+        this.to = to;
+        this.settings = settings;
+    }
+
+    @Override
+    protected List<BacktestResult> compute() {
+        if (symbols.size() > 1) {
+            int middle = symbols.size() / 2;
+            return join(
+                new BacktestTask(store, symbols.subList(0, middle), strategies, from, to, settings),
+                new BacktestTask(store, symbols.subList(middle, symbols.size()), strategies, from, to, settings));
+        }
+        if (to - from > settings.strategiesPerTask) {
+            int middle = (from + to) >>> 1;
+            return join(
+                new BacktestTask(store, symbols, strategies, from, middle, settings),
+                new BacktestTask(store, symbols, strategies, middle, to, settings));
+        }
+        return symbols.isEmpty() ? new ArrayList<>() : replay(symbols.get(0));
+    }
+
+    /**
+     * 结果顺序与输入一致：先股票后策略
+     */
+    private static List<BacktestResult> join(BacktestTask left, BacktestTask right) {
+        left.fork();
+        List<BacktestResult> rightResults = right.compute();
+        List<BacktestResult> results = left.join();
+        results.addAll(rightResults);
+        return results;
+    }
+
+    private List<BacktestResult> replay(String symbol) {
+        int count = to - from;
+        SignalStrategy[] running = new SignalStrategy[count];
+        TradeLedger[] ledgers = new TradeLedger[count];
+        for (int j = 0; j < count; j++) {
+            running[j] = strategies.get(from + j).create();
+            ledgers[j] = new TradeLedger(settings.commissionRate);
+        }
+
+        BarCursor cursor = store.cursor(symbol, settings.fromTimestamp, settings.toTimestamp, settings.chunkSize);
+        while (cursor.hasNext()) {
+            BarSeries chunk = cursor.next();
+            long[] timestamps = chunk.getTimestamps();
+            double[] closes = chunk.getClose();
+            for (int j = 0; j < count; j++) {
+                SignalStrategy strategy = running[j];
+                TradeLedger ledger = ledgers[j];
+                for (int i = 0; i < closes.length; i++) {
+                    double close = closes[i];
+                    if (!Double.isNaN(close)) {
+                        ledger.onBar(close, strategy.onBar(timestamps[i], close));
+                    }
+                }
+            }
+        }
+
+        List<BacktestResult> results = new ArrayList<>(count);
+        for (int j = 0; j < count; j++) {
+            results.add(ledgers[j].finish(symbol, strategies.get(from + j)));
+        }
+        return results;
+    }
+}
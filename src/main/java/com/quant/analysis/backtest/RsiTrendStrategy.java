@@ -0,0 +1,102 @@
+package com.quant.analysis.backtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.quant.analysis.kernel.IndicatorColumns;
+import com.quant.analysis.kernel.RollingWindow;
+import com.quant.analysis.kernel.WilderRsi;
+
+/**
+ * RSI + 均线趋势策略
+ * 与 TechnicalAnalysisService 的交易信号规则相同：RSI高于超买线卖出、低于超卖线买入，
+ * 否则上升趋势且RSI > 50买入、下降趋势且RSI < 50卖出。趋势由快慢SMA比较得到。
+ * 默认参数（14, 20, 50, 30, 70）即综合分析使用的规则，指标逐根增量更新
+ */
+public final class RsiTrendStrategy implements SignalStrategy {
+
+    public static final String NAME = "RSI_TREND";
+
+    private static final double RSI_MIDLINE = 50;
+
+    private final WilderRsi rsi;
+    private final RollingWindow fast;
+    private final RollingWindow slow;
+    private final double oversold;
+    private final double overbought;
+
+    public RsiTrendStrategy(int rsiPeriod, int fastPeriod, int slowPeriod, double oversold, double overbought) {
+        this.rsi = new WilderRsi(rsiPeriod);
+        this.fast = new RollingWindow(fastPeriod);
+        this.slow = new RollingWindow(slowPeriod);
+        this.oversold = oversold;
+        this.overbought = overbought;
+    }
+
+    @Override
+    public byte onBar(long timestamp, double close) {
+        double value = rsi.update(close);
+        fast.push(close);
+        slow.push(close);
+
+        // RSI为NaN时所有比较为false，结果为HOLD
+        if (value > overbought) {
+            return IndicatorColumns.SIGNAL_SELL; // 超买
+        } else if (value < oversold) {
+            return IndicatorColumns.SIGNAL_BUY;  // 超卖
+        }
+        double fastSma = fast.sma();
+        double slowSma = slow.sma();
+        if (fastSma > slowSma && value > RSI_MIDLINE) {
+            return IndicatorColumns.SIGNAL_BUY;  // 上升趋势 + RSI > 50
+        } else if (fastSma < slowSma && value < RSI_MIDLINE) {
+            return IndicatorColumns.SIGNAL_SELL; // 下降趋势 + RSI < 50
+        }
+        return IndicatorColumns.SIGNAL_HOLD;
+    }
+
+    /**
+     * 综合分析使用的默认参数
+     */
+    public static StrategySpec defaults() {
+        return spec(14, 20, 50, 30, 70);
+    }
+
+    public static StrategySpec spec(int rsiPeriod, int fastPeriod, int slowPeriod, double oversold, double overbought) {
+        Map<String, Double> parameters = new LinkedHashMap<>();
+        parameters.put("rsiPeriod", (double) rsiPeriod);
+        parameters.put("fastPeriod", (double) fastPeriod);
+        parameters.put("slowPeriod", (double) slowPeriod);
+        parameters.put("oversold", oversold);
+        parameters.put("overbought", overbought);
+        return new StrategySpec(NAME, parameters,
+            () -> new RsiTrendStrategy(rsiPeriod, fastPeriod, slowPeriod, oversold, overbought));
+    }
+
+    /**
+     * 参数网格：各参数列表的笛卡尔积，跳过快线不短于慢线、超卖线不低于超买线的组合
+     */
+    public static List<StrategySpec> grid(int[] rsiPeriods, int[] fastPeriods, int[] slowPeriods,
+                                          double[] oversoldLevels, double[] overboughtLevels) {
+        List<StrategySpec> specs = new ArrayList<>();
+        for (int rsiPeriod : rsiPeriods) {
+            for (int fastPeriod : fastPeriods) {
+                for (int slowPeriod : slowPeriods) {
+                    if (fastPeriod >= slowPeriod) {
+                        continue;
+                    }
+                    for (double oversold : oversoldLevels) {
+                        for (double overbought : overboughtLevels) {
+                            if (oversold < overbought) {
+                                specs.add(spec(rsiPeriod, fastPeriod, slowPeriod, oversold, overbought));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return specs;
+    }
+}
@@ -0,0 +1,17 @@
+package com.quant.analysis.backtest;
+
+/**
+ * 回测信号策略
+ * 按时间顺序逐根接收收盘价，返回该K线收盘时的交易信号（IndicatorColumns.SIGNAL_*）。
+ * 策略有状态且非线程安全，每次回测运行都通过 {@link StrategySpec#create()} 创建新实例
+ */
+public interface SignalStrategy {
+
+    /**
+     * 处理一根K线
+     * @param timestamp 毫秒时间戳
+     * @param close 收盘价
+     * @return 交易信号编码
+     */
+    byte onBar(long timestamp, double close);
+}
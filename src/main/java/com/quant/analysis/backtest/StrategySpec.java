@@ -0,0 +1,43 @@
+package com.quant.analysis.backtest;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 策略定义：名称 + 参数 + 实例工厂
+ * 参数网格中的每个组合对应一个StrategySpec
+ */
+public final class StrategySpec {
+
+    private final String name;
+    private final Map<String, Double> parameters;
+    private final Supplier<SignalStrategy> factory;
+
+    public StrategySpec(String name, Map<String, Double> parameters, Supplier<SignalStrategy> factory) {
+        this.name = name;
+        this.parameters = Collections.unmodifiableMap(new LinkedHashMap<>(parameters));
+        this.factory = factory;
+    }
+
+    /**
+     * 创建一个新的策略实例
+     */
+    public SignalStrategy create() {
+        return factory.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, Double> getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public String toString() {
+        return name + parameters;
+    }
+}
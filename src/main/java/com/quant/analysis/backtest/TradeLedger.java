@@ -0,0 +1,95 @@
+package com.quant.analysis.backtest;
+
+import com.quant.analysis.kernel.IndicatorColumns;
+import com.quant.analysis.model.BacktestResult;
+
+/**
+ * 单次回测的账户记录
+ * 只做多、满仓进出：空仓时BUY以收盘价买入，持仓时SELL以收盘价卖出，其余信号忽略。
+ * 权益从1.0开始按收盘价逐根盯市，同时累计最大回撤与交易胜率；结束时仍持仓则按最后收盘价平仓
+ */
+public final class TradeLedger {
+
+    private final double commissionRate;
+
+    private double equity = 1.0;
+    private double peak = 1.0;
+    private double maxDrawdown;
+
+    private boolean inPosition;
+    private double entryPrice;
+    private double equityBeforeEntry;
+
+    private int bars;
+    private int trades;
+    private int winningTrades;
+    private double firstClose = Double.NaN;
+    private double lastClose = Double.NaN;
+
+    /**
+     * @param commissionRate 单边手续费率，如0.001表示0.1%
+     */
+    public TradeLedger(double commissionRate) {
+        this.commissionRate = commissionRate;
+    }
+
+    /**
+     * 记录一根K线及其信号
+     */
+    public void onBar(double close, byte signal) {
+        bars++;
+        if (Double.isNaN(firstClose)) {
+            firstClose = close;
+        }
+        lastClose = close;
+
+        if (signal == IndicatorColumns.SIGNAL_BUY && !inPosition) {
+            equityBeforeEntry = equity;
+            equity *= 1 - commissionRate;
+            entryPrice = close;
+            inPosition = true;
+        } else if (signal == IndicatorColumns.SIGNAL_SELL && inPosition) {
+            exit(close);
+        }
+
+        double marked = inPosition ? equity * close / entryPrice : equity;
+        if (marked > peak) {
+            peak = marked;
+        } else {
+            double drawdown = (peak - marked) / peak;
+            if (drawdown > maxDrawdown) {
+                maxDrawdown = drawdown;
+            }
+        }
+    }
+
+    /**
+     * 结束回测，持仓按最后收盘价平仓
+     */
+    public BacktestResult finish(String symbol, StrategySpec spec) {
+        if (inPosition) {
+            exit(lastClose);
+        }
+        BacktestResult result = new BacktestResult();
+        result.setSymbol(symbol);
+        result.setStrategy(spec.getName());
+        result.setParameters(spec.getParameters());
+        result.setBars(bars);
+        result.setTrades(trades);
+        result.setWinningTrades(winningTrades);
+        result.setHitRate(trades == 0 ? 0.0 : (double) winningTrades / trades);
+        result.setTotalReturn(equity - 1.0);
+        result.setMaxDrawdown(maxDrawdown);
+        result.setBuyAndHoldReturn(bars == 0 ? 0.0 : lastClose / firstClose - 1.0);
+        return result;
+    }
+
+    private void exit(double price) {
+        equity = equity * price / entryPrice * (1 - commissionRate);
+        inPosition = false;
+        trades++;
+        if (equity > equityBeforeEntry) {
+            winningTrades++;
+        }
+    }
+}
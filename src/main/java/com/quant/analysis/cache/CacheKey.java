@@ -0,0 +1,61 @@
+package com.quant.analysis.cache;
+
+import java.util.Objects;
+
+/**
+ * 指标缓存键：股票 + 指标 + 参数 + 最新K线时间戳
+ * 新K线到达后时间戳变化，旧键不再被命中，由LRU淘汰
+ */
+public final class CacheKey {
+
+    private final String symbol;
+    private final String indicator;
+    private final String parameters;
+    private final long lastBarTimestamp;
+    private final int hash;
+
+    public CacheKey(String symbol, String indicator, String parameters, long lastBarTimestamp) {
+        this.symbol = symbol;
+        this.indicator = indicator;
+        this.parameters = parameters;
+        this.lastBarTimestamp = lastBarTimestamp;
+        this.hash = Objects.hash(symbol, indicator, parameters, lastBarTimestamp);
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public String getIndicator() {
+        return indicator;
+    }
+
+    public String getParameters() {
+        return parameters;
+    }
+
+    public long getLastBarTimestamp() {
+        return lastBarTimestamp;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CacheKey)) return false;
+        CacheKey other = (CacheKey) o;
+        return lastBarTimestamp == other.lastBarTimestamp
+                && symbol.equals(other.symbol)
+                && indicator.equals(other.indicator)
+                && parameters.equals(other.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return symbol + ":" + indicator + "(" + parameters + ")@" + lastBarTimestamp;
+    }
+}
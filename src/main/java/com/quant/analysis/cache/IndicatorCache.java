@@ -0,0 +1,117 @@
+package com.quant.analysis.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 有界指标结果缓存（LRU）
+ * 按访问顺序淘汰最久未使用的条目，并按指标统计命中率。
+ * 计算在锁外进行：同一键并发未命中时可能重复计算，但不会阻塞其他键的读取
+ */
+public class IndicatorCache {
+
+    private final int maxEntries;
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    private final LongAdder evictions = new LongAdder();
+
+    private final LinkedHashMap<CacheKey, Object> entries;
+
+    public IndicatorCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("缓存容量必须大于0: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, Object> eldest) {
+                if (size() > IndicatorCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 读取缓存，未命中时计算并缓存非null结果
+     */
+    public <T> T get(CacheKey key, Supplier<T> loader) {
+        return get(key, loader, Objects::nonNull);
+    }
+
+    /**
+     * 读取缓存，未命中时计算，满足cacheable的结果才写入缓存
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(CacheKey key, Supplier<T> loader, Predicate<? super T> cacheable) {
+        Counters indicatorCounters = counters.computeIfAbsent(key.getIndicator(), k -> new Counters());
+        Object cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null) {
+            indicatorCounters.hits.increment();
+            return (T) cached;
+        }
+
+        indicatorCounters.misses.increment();
+        T value = loader.get();
+        if (value != null && cacheable.test(value)) {
+            synchronized (entries) {
+                entries.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * 各指标的命中统计：hits、misses、hitRate
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new TreeMap<>();
+        counters.forEach((indicator, c) -> {
+            long hits = c.hits.sum();
+            long misses = c.misses.sum();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("hits", hits);
+            values.put("misses", misses);
+            values.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+            stats.put(indicator, values);
+        });
+        return stats;
+    }
+
+    private static final class Counters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+    }
+}
@@ -1,6 +1,9 @@
 package com.quant.analysis.controller;
 
 import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -8,14 +11,33 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.quant.analysis.service.TechnicalAnalysisService;
+import com.quant.analysis.alert.AlertEvent;
+import com.quant.analysis.alert.AlertRule;
+import com.quant.analysis.backtest.RsiTrendStrategy;
+import com.quant.analysis.backtest.StrategySpec;
+import com.quant.analysis.model.AnalysisResult;
+import com.quant.analysis.model.BacktestResult;
+import com.quant.analysis.service.AlertEngine;
+import com.quant.analysis.service.BacktestService;
+import com.quant.analysis.service.CachedAnalysisService;
+import com.quant.analysis.service.CorrelationService;
+import com.quant.analysis.service.ScreenQuery;
+import com.quant.analysis.service.ScreenerService;
+import com.quant.analysis.service.StreamingIndicatorEngine;
+import com.quant.futu.depth.OrderBookSnapshot;
+import com.quant.futu.depth.TickBatch;
+import com.quant.futu.quote.Quote;
 import com.quant.futu.service.FutuDataService;
+import com.quant.stock.bar.Timeframe;
 
 /**
  * 技术分析控制器
@@ -29,7 +51,22 @@ public class AnalysisController {
     private static final Logger logger = LoggerFactory.getLogger(AnalysisController.class);
     
     @Autowired
-    private TechnicalAnalysisService analysisService;
+    private CachedAnalysisService cachedAnalysisService;
+    
+    @Autowired
+    private StreamingIndicatorEngine streamingIndicatorEngine;
+    
+    @Autowired
+    private ScreenerService screenerService;
+    
+    @Autowired
+    private BacktestService backtestService;
+    
+    @Autowired
+    private CorrelationService correlationService;
+    
+    @Autowired
+    private AlertEngine alertEngine;
     
     @Autowired
     private FutuDataService futuDataService;
@@ -37,39 +74,196 @@ public class AnalysisController {
     /**
      * 获取综合技术分析
      * @param symbol 股票代码
+     * @param timeframe K线周期（1m/5m/1h/1d），为空时使用默认数据源
      * @return 分析结果
      */
     @GetMapping("/{symbol}")
-    public ResponseEntity<Map<String, Object>> getComprehensiveAnalysis(@PathVariable String symbol) {
-        logger.info("API请求: 获取综合技术分析 {}", symbol);
+    public ResponseEntity<Map<String, Object>> getComprehensiveAnalysis(@PathVariable String symbol,
+                                                                        @RequestParam(required = false) String timeframe) {
+        logger.info("API请求: 获取综合技术分析 {} {}", symbol, timeframe);
         
         try {
-            Map<String, Object> analysis = analysisService.comprehensiveAnalysis(symbol);
+            Map<String, Object> analysis = cachedAnalysisService.comprehensiveAnalysis(symbol, parseTimeframe(timeframe));
             return ResponseEntity.ok(analysis);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("获取技术分析失败: {}, 错误: {}", symbol, e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
     }
     
+    /**
+     * 获取增量指标引擎的实时指标快照
+     * @param symbol 股票代码
+     * @return 分析结果
+     */
+    @GetMapping("/{symbol}/live")
+    public ResponseEntity<Map<String, Object>> getLiveIndicators(@PathVariable String symbol) {
+        logger.info("API请求: 获取实时指标 {}", symbol);
+        
+        AnalysisResult snapshot = streamingIndicatorEngine.getSnapshot(symbol);
+        if (snapshot == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(snapshot.toMap());
+    }
+    
+    /**
+     * 全市场指标筛选
+     * @param filter 过滤条件，如 "RSI_14 < 30 AND PRICE < BB_LOWER"
+     * @param sort 排序字段
+     * @param order 排序方向 asc/desc
+     * @param limit 最多返回的股票数
+     * @return 筛选结果
+     */
+    @GetMapping("/screen")
+    public ResponseEntity<Map<String, Object>> screen(
+            @RequestParam(defaultValue = "") String filter,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "asc") String order,
+            @RequestParam(defaultValue = "50") int limit) {
+        
+        logger.info("API请求: 指标筛选 {} 排序: {} {} 数量: {}", filter, sort, order, limit);
+        
+        ScreenQuery query;
+        try {
+            query = ScreenQuery.parse(filter, sort, "desc".equalsIgnoreCase(order), limit);
+        } catch (IllegalArgumentException e) {
+            logger.warn("筛选条件无效: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        
+        List<Map<String, Object>> results = screenerService.screen(query);
+        Map<String, Object> response = new HashMap<>();
+        response.put("count", results.size());
+        response.put("universe", screenerService.getUniverseSize());
+        response.put("snapshotTime", screenerService.getSnapshotTime());
+        response.put("results", results);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * RSI + 趋势策略参数扫描回测
+     * 每个参数接受逗号分隔的多个值，回测全部组合
+     * @param symbols 股票代码，逗号分隔
+     * @param top 按总收益返回前N个结果
+     * @return 回测结果
+     */
+    @GetMapping("/backtest")
+    public ResponseEntity<Map<String, Object>> backtest(
+            @RequestParam List<String> symbols,
+            @RequestParam(defaultValue = "14") int[] rsiPeriod,
+            @RequestParam(defaultValue = "20") int[] fast,
+            @RequestParam(defaultValue = "50") int[] slow,
+            @RequestParam(defaultValue = "30") double[] oversold,
+            @RequestParam(defaultValue = "70") double[] overbought,
+            @RequestParam(defaultValue = "20") int top) {
+        
+        List<StrategySpec> grid = RsiTrendStrategy.grid(rsiPeriod, fast, slow, oversold, overbought);
+        logger.info("API请求: 回测 {} 参数组合: {}", symbols, grid.size());
+        
+        try {
+            List<BacktestResult> results = backtestService.run(symbols, grid);
+            results.sort(Comparator.comparingDouble(BacktestResult::getTotalReturn).reversed());
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("combinations", grid.size());
+            response.put("runs", results.size());
+            response.put("results", results.subList(0, Math.min(Math.max(0, top), results.size())));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("回测失败: {}, 错误: {}", symbols, e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    /**
+     * 获取监控列表的相关系数或协方差矩阵
+     * @param type correlation 或 covariance
+     * @return 股票列表与矩阵
+     */
+    @GetMapping("/correlation")
+    public ResponseEntity<Map<String, Object>> getCorrelationMatrix(
+            @RequestParam(defaultValue = "correlation") String type) {
+        logger.info("API请求: 获取{}矩阵", type);
+        
+        if (!"correlation".equalsIgnoreCase(type) && !"covariance".equalsIgnoreCase(type)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(correlationService.getMatrix("correlation".equalsIgnoreCase(type)));
+    }
+    
+    /**
+     * 注册指标预警规则
+     * @param expression 规则文本，如 "PLTR RSI_14 crosses 30"、"AAPL price > upper Bollinger"
+     * @return 已注册的规则
+     */
+    @PostMapping("/alerts")
+    public ResponseEntity<AlertRule> addAlertRule(@RequestParam String expression) {
+        logger.info("API请求: 注册预警规则 {}", expression);
+        
+        try {
+            return ResponseEntity.ok(alertEngine.addRule(expression));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            logger.warn("注册预警规则失败: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * 获取全部预警规则
+     * @return 规则列表
+     */
+    @GetMapping("/alerts")
+    public ResponseEntity<List<AlertRule>> getAlertRules() {
+        return ResponseEntity.ok(alertEngine.getRules());
+    }
+    
+    /**
+     * 删除预警规则
+     * @param id 规则ID
+     * @return 操作结果
+     */
+    @DeleteMapping("/alerts/{id}")
+    public ResponseEntity<Void> removeAlertRule(@PathVariable long id) {
+        logger.info("API请求: 删除预警规则 {}", id);
+        
+        return alertEngine.removeRule(id) ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
+    }
+    
+    /**
+     * 获取最近触发的预警
+     * @param limit 最多返回的条数
+     * @return 预警列表，最新的在前
+     */
+    @GetMapping("/alerts/events")
+    public ResponseEntity<List<AlertEvent>> getRecentAlerts(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(alertEngine.getRecentAlerts(limit));
+    }
+    
     /**
      * 获取简单移动平均线
      * @param symbol 股票代码
      * @param period 周期
+     * @param timeframe K线周期（1m/5m/1h/1d），为空时使用默认数据源
      * @return SMA值
      */
     @GetMapping("/{symbol}/sma")
     public ResponseEntity<BigDecimal> getSMA(@PathVariable String symbol, 
-                                           @RequestParam(defaultValue = "20") int period) {
-        logger.info("API请求: 获取SMA {} 周期: {}", symbol, period);
+                                           @RequestParam(defaultValue = "20") int period,
+                                           @RequestParam(required = false) String timeframe) {
+        logger.info("API请求: 获取SMA {} {} 周期: {}", symbol, timeframe, period);
         
         try {
-            BigDecimal sma = analysisService.calculateSMA(symbol, period);
+            BigDecimal sma = cachedAnalysisService.calculateSMA(symbol, parseTimeframe(timeframe), period);
             if (sma != null) {
                 return ResponseEntity.ok(sma);
             } else {
                 return ResponseEntity.notFound().build();
             }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("计算SMA失败: {}, 错误: {}", symbol, e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -80,20 +274,24 @@ public class AnalysisController {
      * 获取指数移动平均线
      * @param symbol 股票代码
      * @param period 周期
+     * @param timeframe K线周期（1m/5m/1h/1d），为空时使用默认数据源
      * @return EMA值
      */
     @GetMapping("/{symbol}/ema")
     public ResponseEntity<BigDecimal> getEMA(@PathVariable String symbol, 
-                                           @RequestParam(defaultValue = "12") int period) {
-        logger.info("API请求: 获取EMA {} 周期: {}", symbol, period);
+                                           @RequestParam(defaultValue = "12") int period,
+                                           @RequestParam(required = false) String timeframe) {
+        logger.info("API请求: 获取EMA {} {} 周期: {}", symbol, timeframe, period);
         
         try {
-            BigDecimal ema = analysisService.calculateEMA(symbol, period);
+            BigDecimal ema = cachedAnalysisService.calculateEMA(symbol, parseTimeframe(timeframe), period);
             if (ema != null) {
                 return ResponseEntity.ok(ema);
             } else {
                 return ResponseEntity.notFound().build();
             }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("计算EMA失败: {}, 错误: {}", symbol, e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -104,20 +302,24 @@ public class AnalysisController {
      * 获取相对强弱指标
      * @param symbol 股票代码
      * @param period 周期
+     * @param timeframe K线周期（1m/5m/1h/1d），为空时使用默认数据源
      * @return RSI值
      */
     @GetMapping("/{symbol}/rsi")
     public ResponseEntity<BigDecimal> getRSI(@PathVariable String symbol, 
-                                           @RequestParam(defaultValue = "14") int period) {
-        logger.info("API请求: 获取RSI {} 周期: {}", symbol, period);
+                                           @RequestParam(defaultValue = "14") int period,
+                                           @RequestParam(required = false) String timeframe) {
+        logger.info("API请求: 获取RSI {} {} 周期: {}", symbol, timeframe, period);
         
         try {
-            BigDecimal rsi = analysisService.calculateRSI(symbol, period);
+            BigDecimal rsi = cachedAnalysisService.calculateRSI(symbol, parseTimeframe(timeframe), period);
             if (rsi != null) {
                 return ResponseEntity.ok(rsi);
             } else {
                 return ResponseEntity.notFound().build();
             }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("计算RSI失败: {}, 错误: {}", symbol, e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -127,19 +329,23 @@ public class AnalysisController {
     /**
      * 获取MACD指标
      * @param symbol 股票代码
+     * @param timeframe K线周期（1m/5m/1h/1d），为空时使用默认数据源
      * @return MACD结果
      */
     @GetMapping("/{symbol}/macd")
-    public ResponseEntity<Map<String, BigDecimal>> getMACD(@PathVariable String symbol) {
-        logger.info("API请求: 获取MACD {}", symbol);
+    public ResponseEntity<Map<String, BigDecimal>> getMACD(@PathVariable String symbol,
+                                                         @RequestParam(required = false) String timeframe) {
+        logger.info("API请求: 获取MACD {} {}", symbol, timeframe);
         
         try {
-            Map<String, BigDecimal> macd = analysisService.calculateMACD(symbol);
+            Map<String, BigDecimal> macd = cachedAnalysisService.calculateMACD(symbol, parseTimeframe(timeframe));
             if (!macd.isEmpty()) {
                 return ResponseEntity.ok(macd);
             } else {
                 return ResponseEntity.notFound().build();
             }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("计算MACD失败: {}, 错误: {}", symbol, e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -151,29 +357,43 @@ public class AnalysisController {
      * @param symbol 股票代码
      * @param period 周期
      * @param stdDev 标准差倍数
+     * @param timeframe K线周期（1m/5m/1h/1d），为空时使用默认数据源
      * @return 布林带结果
      */
     @GetMapping("/{symbol}/bollinger")
     public ResponseEntity<Map<String, BigDecimal>> getBollingerBands(
             @PathVariable String symbol,
             @RequestParam(defaultValue = "20") int period,
-            @RequestParam(defaultValue = "2.0") double stdDev) {
+            @RequestParam(defaultValue = "2.0") double stdDev,
+            @RequestParam(required = false) String timeframe) {
         
-        logger.info("API请求: 获取布林带 {} 周期: {} 标准差: {}", symbol, period, stdDev);
+        logger.info("API请求: 获取布林带 {} {} 周期: {} 标准差: {}", symbol, timeframe, period, stdDev);
         
         try {
-            Map<String, BigDecimal> bollinger = analysisService.calculateBollingerBands(symbol, period, stdDev);
+            Map<String, BigDecimal> bollinger = cachedAnalysisService.calculateBollingerBands(
+                symbol, parseTimeframe(timeframe), period, stdDev);
             if (!bollinger.isEmpty()) {
                 return ResponseEntity.ok(bollinger);
             } else {
                 return ResponseEntity.notFound().build();
             }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("计算布林带失败: {}, 错误: {}", symbol, e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
     }
     
+    /**
+     * 获取指标缓存统计
+     * @return 缓存大小、淘汰次数和各指标命中率
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(cachedAnalysisService.getStats());
+    }
+    
     /**
      * 获取富途连接状态
      * @return 连接状态
@@ -182,14 +402,110 @@ public class AnalysisController {
     public ResponseEntity<Map<String, Object>> getFutuStatus() {
         logger.info("API请求: 获取富途连接状态");
         
-        Map<String, Object> status = Map.of(
-            "connected", futuDataService.isConnected(),
-            "timestamp", java.time.LocalDateTime.now()
-        );
+        Map<String, Object> status = new HashMap<>();
+        status.put("connected", futuDataService.isConnected());
+        status.put("transport", futuDataService.getQuoteTransportName());
+        status.put("subscriptions", futuDataService.getSubscriptions().size());
+        status.put("maxSubscriptions", futuDataService.getMaxSubscriptions());
+        status.put("batchQuotes", futuDataService.getBatchQuoteStats());
+        status.put("klineCache", futuDataService.getKLineCacheStats());
+        status.put("timestamp", java.time.LocalDateTime.now());
         
         return ResponseEntity.ok(status);
     }
     
+    /**
+     * 订阅富途实时行情推送
+     * @param symbols 股票代码列表
+     * @return 处于订阅状态的富途代码，超出订阅上限的股票不包含在内
+     */
+    @PostMapping("/futu/subscribe")
+    public ResponseEntity<List<String>> subscribeFutuQuotes(@RequestBody List<String> symbols) {
+        logger.info("API请求: 订阅富途实时行情 {}", symbols);
+        
+        if (!futuDataService.isConnected()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(futuDataService.subscribeRealTimeQuote(symbols));
+    }
+    
+    /**
+     * 取消订阅富途实时行情推送
+     * @param symbols 股票代码列表
+     * @return 实际取消订阅的富途代码
+     */
+    @PostMapping("/futu/unsubscribe")
+    public ResponseEntity<List<String>> unsubscribeFutuQuotes(@RequestBody List<String> symbols) {
+        logger.info("API请求: 取消订阅富途实时行情 {}", symbols);
+        
+        return ResponseEntity.ok(futuDataService.unsubscribeRealTimeQuote(symbols));
+    }
+    
+    /**
+     * 获取已订阅股票的最新推送报价
+     * @return 股票代码到最新报价的映射
+     */
+    @GetMapping("/futu/quotes")
+    public ResponseEntity<Map<String, Quote>> getFutuQuotes() {
+        return ResponseEntity.ok(futuDataService.getLatestQuotes());
+    }
+    
+    /**
+     * 获取最新盘口快照
+     * @param symbol 股票代码
+     * @return 盘口快照，未订阅、未启用盘口或尚无数据时返回404
+     */
+    @GetMapping("/futu/orderbook/{symbol}")
+    public ResponseEntity<OrderBookSnapshot> getFutuOrderBook(@PathVariable String symbol) {
+        OrderBookSnapshot snapshot = futuDataService.getOrderBook(symbol);
+        return snapshot != null ? ResponseEntity.ok(snapshot) : ResponseEntity.notFound().build();
+    }
+    
+    /**
+     * 增量获取盘口快照
+     * @param symbol 股票代码
+     * @param from 起始序列号，通常为上次最后一个快照的序列号加1
+     * @param max 最多返回的快照数
+     * @return 盘口快照列表
+     */
+    @GetMapping("/futu/orderbook/{symbol}/updates")
+    public ResponseEntity<List<OrderBookSnapshot>> getFutuOrderBookUpdates(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "0") long from,
+            @RequestParam(defaultValue = "100") int max) {
+        return ResponseEntity.ok(futuDataService.getOrderBookUpdates(symbol, from, max));
+    }
+    
+    /**
+     * 增量获取逐笔成交
+     * @param symbol 股票代码
+     * @param from 起始序列号，通常为上次返回的nextSequence
+     * @param max 最多返回的成交数
+     * @return 按列存放的逐笔成交，未订阅或未启用逐笔时返回404
+     */
+    @GetMapping("/futu/ticks/{symbol}")
+    public ResponseEntity<TickBatch> getFutuTicks(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "0") long from,
+            @RequestParam(defaultValue = "1000") int max) {
+        TickBatch ticks = futuDataService.getTicks(symbol, from, max);
+        return ticks != null ? ResponseEntity.ok(ticks) : ResponseEntity.notFound().build();
+    }
+    
+    /**
+     * 获取盘口和逐笔派生指标
+     * @param symbol 股票代码
+     * @param windowMs 成交统计窗口（毫秒）
+     * @return VWAP、价差、中间价和不平衡度
+     */
+    @GetMapping("/futu/depth/{symbol}")
+    public ResponseEntity<Map<String, Object>> getFutuDepthMetrics(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "60000") long windowMs) {
+        Map<String, Object> metrics = futuDataService.getDepthMetrics(symbol, windowMs);
+        return metrics != null ? ResponseEntity.ok(metrics) : ResponseEntity.notFound().build();
+    }
+    
     /**
      * 初始化富途连接
      * @return 操作结果
@@ -219,4 +535,12 @@ public class AnalysisController {
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Technical Analysis Service is running");
     }
+    
+    /**
+     * 解析K线周期参数，为空时返回null
+     * @throws IllegalArgumentException 未知周期
+     */
+    private static Timeframe parseTimeframe(String timeframe) {
+        return timeframe == null || timeframe.isBlank() ? null : Timeframe.parse(timeframe);
+    }
 }
@@ -0,0 +1,288 @@
+package com.quant.analysis.kernel;
+
+import java.util.Arrays;
+
+/**
+ * 多股票批量指标内核
+ * 在 {@link PriceMatrix} 上一次计算所有股票的指标：外层循环沿时间，内层循环沿股票，
+ * 内层循环无分支、顺序访问，由C2自动向量化为SIMD指令。
+ * 每个指标的窗口与 {@link com.quant.analysis.service.AnalysisSession} 相同，
+ * computeScalar 逐个股票调用 {@link IndicatorKernels}，作为回退实现和正确性基准
+ */
+public final class BatchIndicatorKernels {
+
+    private BatchIndicatorKernels() {
+    }
+
+    /**
+     * 计算综合分析使用的全部批量指标和筛选结果
+     */
+    public static IndicatorColumns compute(PriceMatrix matrix) {
+        IndicatorColumns columns = new IndicatorColumns(matrix.getSymbols());
+        double[] gains = new double[matrix.width()];
+        double[] losses = new double[matrix.width()];
+
+        last(matrix, columns.getClose());
+        sma(matrix, 20, columns.getSma20());
+        sma(matrix, 50, columns.getSma50());
+        ema(matrix, 12, columns.getEma12());
+        ema(matrix, 26, columns.getEma26());
+        rsi(matrix, 14, columns.getRsi14(), gains, losses);
+        bollinger(matrix, 20, 2.0, columns.getBollingerMiddle(),
+            columns.getBollingerUpper(), columns.getBollingerLower());
+
+        trend(columns.getSma20(), columns.getSma50(), columns.getTrend());
+        signal(columns.getRsi14(), columns.getTrend(), columns.getSignal());
+        return columns;
+    }
+
+    /**
+     * 标量回退：逐个股票计算，结果与compute一致
+     */
+    public static IndicatorColumns computeScalar(PriceMatrix matrix) {
+        IndicatorColumns columns = new IndicatorColumns(matrix.getSymbols());
+        int bars = matrix.bars();
+        double[] bands = new double[3];
+        for (int s = 0; s < matrix.width(); s++) {
+            double[] closes = matrix.column(s);
+            columns.getClose()[s] = bars > 0 ? closes[bars - 1] : Double.NaN;
+            columns.getSma20()[s] = IndicatorKernels.sma(closes, 20);
+            columns.getSma50()[s] = IndicatorKernels.sma(closes, 50);
+            columns.getEma12()[s] = emaOfAvailable(closes, bars, 12);
+            columns.getEma26()[s] = emaOfAvailable(closes, bars, 26);
+            columns.getRsi14()[s] = IndicatorKernels.rsi(closes, Math.max(0, bars - 24), bars, 14);
+            IndicatorKernels.bollinger(closes, 20, 2.0, bands);
+            columns.getBollingerMiddle()[s] = bands[IndicatorKernels.BAND_MIDDLE];
+            columns.getBollingerUpper()[s] = bands[IndicatorKernels.BAND_UPPER];
+            columns.getBollingerLower()[s] = bands[IndicatorKernels.BAND_LOWER];
+        }
+        trend(columns.getSma20(), columns.getSma50(), columns.getTrend());
+        signal(columns.getRsi14(), columns.getTrend(), columns.getSignal());
+        return columns;
+    }
+
+    /**
+     * 所有股票的最新收盘价
+     */
+    public static void last(PriceMatrix matrix, double[] out) {
+        int width = matrix.width();
+        if (matrix.bars() == 0) {
+            Arrays.fill(out, 0, width, Double.NaN);
+            return;
+        }
+        System.arraycopy(matrix.getCloses(), (matrix.bars() - 1) * width, out, 0, width);
+    }
+
+    /**
+     * 所有股票最近period根K线的简单移动平均
+     */
+    public static void sma(PriceMatrix matrix, int period, double[] out) {
+        int width = matrix.width();
+        int bars = matrix.bars();
+        double[] closes = matrix.getCloses();
+        if (period <= 0 || bars < period) {
+            Arrays.fill(out, 0, width, Double.NaN);
+            return;
+        }
+
+        Arrays.fill(out, 0, width, 0.0);
+        for (int t = bars - period; t < bars; t++) {
+            int base = t * width;
+            for (int s = 0; s < width; s++) {
+                out[s] += closes[base + s];
+            }
+        }
+        for (int s = 0; s < width; s++) {
+            out[s] /= period;
+        }
+    }
+
+    /**
+     * 所有股票在最近2*period根K线上的指数移动平均（以区间前period根的SMA为种子）
+     * 与AnalysisSession相同，窗口内历史不足的股票以其全部已有K线为窗口、前min(period, 已有根数)根为种子，
+     * 这些股票窗口起点不同，单独按列计算；没有任何K线时为NaN
+     */
+    public static void ema(PriceMatrix matrix, int period, double[] out) {
+        int width = matrix.width();
+        int bars = matrix.bars();
+        double[] closes = matrix.getCloses();
+        int from = Math.max(0, bars - period * 2);
+        if (period <= 0) {
+            Arrays.fill(out, 0, width, Double.NaN);
+            return;
+        }
+        if (bars - from < period) {
+            for (int s = 0; s < width; s++) {
+                out[s] = emaOfAvailable(matrix.column(s), bars, period);
+            }
+            return;
+        }
+
+        Arrays.fill(out, 0, width, 0.0);
+        for (int t = from; t < from + period; t++) {
+            int base = t * width;
+            for (int s = 0; s < width; s++) {
+                out[s] += closes[base + s];
+            }
+        }
+        for (int s = 0; s < width; s++) {
+            out[s] /= period;
+        }
+
+        double alpha = 2.0 / (period + 1);
+        for (int t = from + period; t < bars; t++) {
+            int base = t * width;
+            for (int s = 0; s < width; s++) {
+                out[s] += alpha * (closes[base + s] - out[s]);
+            }
+        }
+
+        // 矩阵右对齐，窗口起点为NaN填充即说明该股票历史不足
+        int base = from * width;
+        for (int s = 0; s < width; s++) {
+            if (Double.isNaN(closes[base + s])) {
+                out[s] = emaOfAvailable(matrix.column(s), bars, period);
+            }
+        }
+    }
+
+    /**
+     * 单个股票的EMA，跳过左侧NaN填充，窗口和种子长度与AnalysisSession.ema相同
+     */
+    private static double emaOfAvailable(double[] closes, int bars, int period) {
+        int first = Math.max(0, bars - period * 2);
+        while (first < bars && Double.isNaN(closes[first])) {
+            first++;
+        }
+        if (first == bars) {
+            return Double.NaN;
+        }
+        return IndicatorKernels.ema(closes, first, bars, Math.min(period, bars - first));
+    }
+
+    /**
+     * 所有股票在最近period+10根K线上的Wilder RSI
+     * @param gains 长度不小于股票数的临时数组
+     * @param losses 长度不小于股票数的临时数组
+     */
+    public static void rsi(PriceMatrix matrix, int period, double[] out, double[] gains, double[] losses) {
+        int width = matrix.width();
+        int bars = matrix.bars();
+        double[] closes = matrix.getCloses();
+        int from = Math.max(0, bars - (period + 10));
+        if (period <= 0 || bars - from < period + 1) {
+            Arrays.fill(out, 0, width, Double.NaN);
+            return;
+        }
+
+        Arrays.fill(gains, 0, width, 0.0);
+        Arrays.fill(losses, 0, width, 0.0);
+        for (int t = from + 1; t <= from + period; t++) {
+            int base = t * width;
+            int previous = base - width;
+            for (int s = 0; s < width; s++) {
+                double change = closes[base + s] - closes[previous + s];
+                gains[s] += Math.max(change, 0.0);
+                losses[s] += Math.max(-change, 0.0);
+            }
+        }
+        for (int s = 0; s < width; s++) {
+            gains[s] /= period;
+            losses[s] /= period;
+        }
+
+        for (int t = from + period + 1; t < bars; t++) {
+            int base = t * width;
+            int previous = base - width;
+            for (int s = 0; s < width; s++) {
+                double change = closes[base + s] - closes[previous + s];
+                gains[s] = (gains[s] * (period - 1) + Math.max(change, 0.0)) / period;
+                losses[s] = (losses[s] * (period - 1) + Math.max(-change, 0.0)) / period;
+            }
+        }
+
+        for (int s = 0; s < width; s++) {
+            out[s] = IndicatorKernels.rsiFromAverages(gains[s], losses[s]);
+        }
+    }
+
+    /**
+     * 所有股票最近period根K线的总体标准差
+     * @param mean 同一窗口的均值（sma的结果）
+     */
+    public static void stdDev(PriceMatrix matrix, int period, double[] mean, double[] out) {
+        int width = matrix.width();
+        int bars = matrix.bars();
+        double[] closes = matrix.getCloses();
+        if (period <= 0 || bars < period) {
+            Arrays.fill(out, 0, width, Double.NaN);
+            return;
+        }
+
+        Arrays.fill(out, 0, width, 0.0);
+        for (int t = bars - period; t < bars; t++) {
+            int base = t * width;
+            for (int s = 0; s < width; s++) {
+                double diff = closes[base + s] - mean[s];
+                out[s] += diff * diff;
+            }
+        }
+        for (int s = 0; s < width; s++) {
+            out[s] = Math.sqrt(out[s] / period);
+        }
+    }
+
+    /**
+     * 所有股票的布林带
+     */
+    public static void bollinger(PriceMatrix matrix, int period, double multiplier,
+                                 double[] middle, double[] upper, double[] lower) {
+        int width = matrix.width();
+        sma(matrix, period, middle);
+        stdDev(matrix, period, middle, upper);
+        for (int s = 0; s < width; s++) {
+            double bandwidth = upper[s] * multiplier;
+            upper[s] = middle[s] + bandwidth;
+            lower[s] = middle[s] - bandwidth;
+        }
+    }
+
+    /**
+     * 批量趋势判断：SMA20与SMA50比较，任一为NaN时为UNKNOWN
+     */
+    public static void trend(double[] sma20, double[] sma50, byte[] out) {
+        for (int s = 0; s < out.length; s++) {
+            double fast = sma20[s];
+            double slow = sma50[s];
+            if (Double.isNaN(fast) || Double.isNaN(slow)) {
+                out[s] = IndicatorColumns.TREND_UNKNOWN;
+            } else if (fast > slow) {
+                out[s] = IndicatorColumns.TREND_UP;
+            } else if (fast < slow) {
+                out[s] = IndicatorColumns.TREND_DOWN;
+            } else {
+                out[s] = IndicatorColumns.TREND_SIDEWAYS;
+            }
+        }
+    }
+
+    /**
+     * 批量交易信号：超买卖出、超卖买入，其余按趋势与RSI 50的关系判断；RSI为NaN时所有比较为false，结果为HOLD
+     */
+    public static void signal(double[] rsi, byte[] trend, byte[] out) {
+        for (int s = 0; s < out.length; s++) {
+            double value = rsi[s];
+            byte code = IndicatorColumns.SIGNAL_HOLD;
+            if (value > 70) {
+                code = IndicatorColumns.SIGNAL_SELL; // 超买
+            } else if (value < 30) {
+                code = IndicatorColumns.SIGNAL_BUY;  // 超卖
+            } else if (trend[s] == IndicatorColumns.TREND_UP && value > 50) {
+                code = IndicatorColumns.SIGNAL_BUY;
+            } else if (trend[s] == IndicatorColumns.TREND_DOWN && value < 50) {
+                code = IndicatorColumns.SIGNAL_SELL;
+            }
+            out[s] = code;
+        }
+    }
+}
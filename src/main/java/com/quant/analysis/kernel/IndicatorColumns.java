@@ -0,0 +1,183 @@
+package com.quant.analysis.kernel;
+
+import java.util.Arrays;
+
+/**
+ * 多股票指标结果（列式）
+ * 每个指标一个数组，下标与股票代码数组一致；数据不足的指标为NaN。
+ * 趋势和交易信号以字节编码保存，便于批量筛选
+ */
+public final class IndicatorColumns {
+
+    public static final byte TREND_UNKNOWN = 0;
+    public static final byte TREND_UP = 1;
+    public static final byte TREND_DOWN = 2;
+    public static final byte TREND_SIDEWAYS = 3;
+
+    public static final byte SIGNAL_HOLD = 0;
+    public static final byte SIGNAL_BUY = 1;
+    public static final byte SIGNAL_SELL = 2;
+
+    private static final String[] TREND_NAMES = {"UNKNOWN", "UPTREND", "DOWNTREND", "SIDEWAYS"};
+    private static final String[] SIGNAL_NAMES = {"HOLD", "BUY", "SELL"};
+
+    private final String[] symbols;
+    private final double[] close; // 最新收盘价
+    private final double[] sma20;
+    private final double[] sma50;
+    private final double[] ema12;
+    private final double[] ema26;
+    private final double[] rsi14;
+    private final double[] bollingerMiddle;
+    private final double[] bollingerUpper;
+    private final double[] bollingerLower;
+    private final byte[] trend;
+    private final byte[] signal;
+
+    public IndicatorColumns(String[] symbols) {
+        int width = symbols.length;
+        this.symbols = symbols;
+        this.close = new double[width];
+        this.sma20 = new double[width];
+        this.sma50 = new double[width];
+        this.ema12 = new double[width];
+        this.ema26 = new double[width];
+        this.rsi14 = new double[width];
+        this.bollingerMiddle = new double[width];
+        this.bollingerUpper = new double[width];
+        this.bollingerLower = new double[width];
+        this.trend = new byte[width];
+        this.signal = new byte[width];
+    }
+
+    public int size() {
+        return symbols.length;
+    }
+
+    /**
+     * 股票代码的下标，不存在时返回-1
+     */
+    public int indexOf(String symbol) {
+        for (int i = 0; i < symbols.length; i++) {
+            if (symbols[i].equalsIgnoreCase(symbol)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 深拷贝，用于写时复制地更新部分股票
+     */
+    public IndicatorColumns copy() {
+        IndicatorColumns copy = new IndicatorColumns(symbols.clone());
+        for (int i = 0; i < symbols.length; i++) {
+            copy.copyRow(this, i, i);
+        }
+        return copy;
+    }
+
+    /**
+     * 将另一个结果中第sourceIndex个股票的全部指标复制到本结果的第targetIndex行
+     */
+    public void copyRow(IndicatorColumns source, int sourceIndex, int targetIndex) {
+        close[targetIndex] = source.close[sourceIndex];
+        sma20[targetIndex] = source.sma20[sourceIndex];
+        sma50[targetIndex] = source.sma50[sourceIndex];
+        ema12[targetIndex] = source.ema12[sourceIndex];
+        ema26[targetIndex] = source.ema26[sourceIndex];
+        rsi14[targetIndex] = source.rsi14[sourceIndex];
+        bollingerMiddle[targetIndex] = source.bollingerMiddle[sourceIndex];
+        bollingerUpper[targetIndex] = source.bollingerUpper[sourceIndex];
+        bollingerLower[targetIndex] = source.bollingerLower[sourceIndex];
+        trend[targetIndex] = source.trend[sourceIndex];
+        signal[targetIndex] = source.signal[sourceIndex];
+    }
+
+    public static String trendName(byte code) {
+        return TREND_NAMES[code];
+    }
+
+    public static String signalName(byte code) {
+        return SIGNAL_NAMES[code];
+    }
+
+    /**
+     * 趋势名称对应的编码，未知名称返回-1
+     */
+    public static int trendCode(String name) {
+        return indexOfName(TREND_NAMES, name);
+    }
+
+    /**
+     * 交易信号名称对应的编码，未知名称返回-1
+     */
+    public static int signalCode(String name) {
+        return indexOfName(SIGNAL_NAMES, name);
+    }
+
+    private static int indexOfName(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public String[] getSymbols() {
+        return symbols;
+    }
+
+    public double[] getClose() {
+        return close;
+    }
+
+    public double[] getSma20() {
+        return sma20;
+    }
+
+    public double[] getSma50() {
+        return sma50;
+    }
+
+    public double[] getEma12() {
+        return ema12;
+    }
+
+    public double[] getEma26() {
+        return ema26;
+    }
+
+    public double[] getRsi14() {
+        return rsi14;
+    }
+
+    public double[] getBollingerMiddle() {
+        return bollingerMiddle;
+    }
+
+    public double[] getBollingerUpper() {
+        return bollingerUpper;
+    }
+
+    public double[] getBollingerLower() {
+        return bollingerLower;
+    }
+
+    public byte[] getTrend() {
+        return trend;
+    }
+
+    public byte[] getSignal() {
+        return signal;
+    }
+
+    @Override
+    public String toString() {
+        return "IndicatorColumns{" +
+                "size=" + size() +
+                ", symbols=" + Arrays.toString(symbols.length > 10 ? Arrays.copyOf(symbols, 10) : symbols) +
+                '}';
+    }
+}
@@ -0,0 +1,169 @@
+package com.quant.analysis.kernel;
+
+/**
+ * 技术指标计算内核
+ * 基于double[]价格序列（按时间升序，最后一个元素为最新价格）的无分配实现，
+ * 所有方法只使用基本类型运算，多值结果写入调用方提供的数组。
+ * 数据不足时返回Double.NaN，由API层转换为null
+ */
+public final class IndicatorKernels {
+
+    /** 布林带结果下标 */
+    public static final int BAND_MIDDLE = 0;
+    public static final int BAND_UPPER = 1;
+    public static final int BAND_LOWER = 2;
+
+    private IndicatorKernels() {
+    }
+
+    /**
+     * 简单移动平均线：最近period个价格的均值
+     */
+    public static double sma(double[] prices, int length, int period) {
+        if (period <= 0 || length < period) {
+            return Double.NaN;
+        }
+        double sum = 0.0;
+        for (int i = length - period; i < length; i++) {
+            sum += prices[i];
+        }
+        return sum / period;
+    }
+
+    public static double sma(double[] prices, int period) {
+        return sma(prices, prices.length, period);
+    }
+
+    /**
+     * 指数移动平均线：以前period个价格的SMA为种子，之后按 2/(period+1) 递推
+     */
+    public static double ema(double[] prices, int length, int period) {
+        return ema(prices, 0, length, period);
+    }
+
+    /**
+     * 区间[from, to)上的指数移动平均线，种子取区间内前period个价格的SMA
+     */
+    public static double ema(double[] prices, int from, int to, int period) {
+        if (period <= 0 || to - from < period) {
+            return Double.NaN;
+        }
+        double ema = 0.0;
+        for (int i = from; i < from + period; i++) {
+            ema += prices[i];
+        }
+        ema /= period;
+
+        double alpha = 2.0 / (period + 1);
+        for (int i = from + period; i < to; i++) {
+            ema += alpha * (prices[i] - ema);
+        }
+        return ema;
+    }
+
+    public static double ema(double[] prices, int period) {
+        return ema(prices, prices.length, period);
+    }
+
+    /**
+     * 相对强弱指标（Wilder平滑）
+     * 前period个涨跌幅取简单平均作为初值，之后按 (prev*(period-1)+current)/period 平滑
+     */
+    public static double rsi(double[] prices, int length, int period) {
+        return rsi(prices, 0, length, period);
+    }
+
+    /**
+     * 区间[from, to)上的相对强弱指标
+     */
+    public static double rsi(double[] prices, int from, int to, int period) {
+        if (period <= 0 || to - from < period + 1) {
+            return Double.NaN;
+        }
+        double avgGain = 0.0;
+        double avgLoss = 0.0;
+        for (int i = from + 1; i <= from + period; i++) {
+            double change = prices[i] - prices[i - 1];
+            if (change > 0) {
+                avgGain += change;
+            } else {
+                avgLoss -= change;
+            }
+        }
+        avgGain /= period;
+        avgLoss /= period;
+
+        for (int i = from + period + 1; i < to; i++) {
+            double change = prices[i] - prices[i - 1];
+            double gain = change > 0 ? change : 0.0;
+            double loss = change < 0 ? -change : 0.0;
+            avgGain = (avgGain * (period - 1) + gain) / period;
+            avgLoss = (avgLoss * (period - 1) + loss) / period;
+        }
+        return rsiFromAverages(avgGain, avgLoss);
+    }
+
+    public static double rsi(double[] prices, int period) {
+        return rsi(prices, prices.length, period);
+    }
+
+    /**
+     * 由平均涨幅和平均跌幅计算RSI
+     */
+    public static double rsiFromAverages(double avgGain, double avgLoss) {
+        if (avgLoss == 0.0) {
+            return 100.0;
+        }
+        double rs = avgGain / avgLoss;
+        return 100.0 - 100.0 / (1.0 + rs);
+    }
+
+    /**
+     * 最近period个价格的总体标准差
+     */
+    public static double stdDev(double[] prices, int length, int period) {
+        if (period <= 0 || length < period) {
+            return Double.NaN;
+        }
+        double mean = sma(prices, length, period);
+        double sumSquares = 0.0;
+        for (int i = length - period; i < length; i++) {
+            double diff = prices[i] - mean;
+            sumSquares += diff * diff;
+        }
+        return Math.sqrt(sumSquares / period);
+    }
+
+    /**
+     * 布林带：中轨为SMA，上下轨为中轨 ± multiplier × 标准差
+     * @param out 长度至少为3，按 BAND_MIDDLE/BAND_UPPER/BAND_LOWER 写入
+     * @return 数据充足时返回true
+     */
+    public static boolean bollinger(double[] prices, int length, int period, double multiplier, double[] out) {
+        if (period <= 0 || length < period) {
+            out[BAND_MIDDLE] = Double.NaN;
+            out[BAND_UPPER] = Double.NaN;
+            out[BAND_LOWER] = Double.NaN;
+            return false;
+        }
+        double sum = 0.0;
+        for (int i = length - period; i < length; i++) {
+            sum += prices[i];
+        }
+        double mean = sum / period;
+        double sumSquares = 0.0;
+        for (int i = length - period; i < length; i++) {
+            double diff = prices[i] - mean;
+            sumSquares += diff * diff;
+        }
+        double bandwidth = Math.sqrt(sumSquares / period) * multiplier;
+        out[BAND_MIDDLE] = mean;
+        out[BAND_UPPER] = mean + bandwidth;
+        out[BAND_LOWER] = mean - bandwidth;
+        return true;
+    }
+
+    public static boolean bollinger(double[] prices, int period, double multiplier, double[] out) {
+        return bollinger(prices, prices.length, period, multiplier, out);
+    }
+}
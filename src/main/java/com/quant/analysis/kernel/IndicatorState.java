@@ -0,0 +1,106 @@
+package com.quant.analysis.kernel;
+
+/**
+ * 单个股票的增量指标状态
+ * 每个新价格O(1)更新综合分析使用的全部指标：SMA20/50（滑动和）、EMA12/26、RSI14（Wilder）、
+ * 布林带20（Welford方差）、MACD(12,26,9)。非线程安全，由调用方加锁
+ */
+public final class IndicatorState {
+
+    private final RollingWindow window20 = new RollingWindow(20);
+    private final RollingWindow window50 = new RollingWindow(50);
+    private final StreamingEma ema12 = new StreamingEma(12);
+    private final StreamingEma ema26 = new StreamingEma(26);
+    private final WilderRsi rsi14 = new WilderRsi(14);
+    private final StreamingMacd macd = new StreamingMacd(12, 26, 9);
+
+    private long lastTimestamp = Long.MIN_VALUE;
+    private double lastPrice = Double.NaN;
+    private long updates;
+
+    /**
+     * 加入一个新价格
+     * @param timestamp 毫秒时间戳，不晚于上一个价格的时间戳时视为重复或乱序并忽略
+     * @return 是否已更新
+     */
+    public boolean update(long timestamp, double price) {
+        if (timestamp <= lastTimestamp || Double.isNaN(price)) {
+            return false;
+        }
+        window20.push(price);
+        window50.push(price);
+        ema12.update(price);
+        ema26.update(price);
+        rsi14.update(price);
+        macd.update(price);
+
+        lastTimestamp = timestamp;
+        lastPrice = price;
+        updates++;
+        return true;
+    }
+
+    public double sma20() {
+        return window20.sma();
+    }
+
+    public double sma50() {
+        return window50.sma();
+    }
+
+    public double ema12() {
+        return ema12.value();
+    }
+
+    public double ema26() {
+        return ema26.value();
+    }
+
+    public double rsi14() {
+        return rsi14.value();
+    }
+
+    public double macd() {
+        return macd.isReady() ? macd.macd() : Double.NaN;
+    }
+
+    public double macdSignal() {
+        return macd.signal();
+    }
+
+    public double macdHistogram() {
+        return macd.isReady() ? macd.histogram() : Double.NaN;
+    }
+
+    /**
+     * 20周期布林带
+     * @param out 按 BAND_MIDDLE/BAND_UPPER/BAND_LOWER 写入
+     * @return 窗口已满时返回true
+     */
+    public boolean bollinger20(double multiplier, double[] out) {
+        if (!window20.isFull()) {
+            out[IndicatorKernels.BAND_MIDDLE] = Double.NaN;
+            out[IndicatorKernels.BAND_UPPER] = Double.NaN;
+            out[IndicatorKernels.BAND_LOWER] = Double.NaN;
+            return false;
+        }
+        double middle = window20.sma();
+        double bandwidth = window20.stdDev() * multiplier;
+        out[IndicatorKernels.BAND_MIDDLE] = middle;
+        out[IndicatorKernels.BAND_UPPER] = middle + bandwidth;
+        out[IndicatorKernels.BAND_LOWER] = middle - bandwidth;
+        return true;
+    }
+
+    public long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public double getLastPrice() {
+        return lastPrice;
+    }
+
+    public long getUpdates() {
+        return updates;
+    }
+}
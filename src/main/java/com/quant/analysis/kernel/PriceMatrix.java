@@ -0,0 +1,80 @@
+package com.quant.analysis.kernel;
+
+import java.util.Arrays;
+
+/**
+ * 多股票收盘价矩阵（结构数组布局）
+ * N个股票 × T根K线按时间优先存放：closes[t * N + s]，同一时刻所有股票的价格连续，
+ * 批量内核的内层循环沿股票方向顺序访问，便于JIT生成SIMD指令。
+ * 各股票序列右对齐（最后一行为最新价格），数据不足的位置以NaN填充，计算结果自然为NaN
+ */
+public final class PriceMatrix {
+
+    private final String[] symbols;
+    private final int bars;
+    private final double[] closes;
+
+    private PriceMatrix(String[] symbols, int bars, double[] closes) {
+        this.symbols = symbols;
+        this.bars = bars;
+        this.closes = closes;
+    }
+
+    /**
+     * 由每个股票的升序收盘价构建矩阵，每个序列只取最近bars个
+     * @param symbols 股票代码
+     * @param series 与symbols一一对应的收盘价序列（按时间升序）
+     * @param bars 矩阵行数
+     */
+    public static PriceMatrix of(String[] symbols, double[][] series, int bars) {
+        if (symbols.length != series.length) {
+            throw new IllegalArgumentException("股票数量与序列数量不一致");
+        }
+        int width = symbols.length;
+        double[] closes = new double[bars * width];
+        Arrays.fill(closes, Double.NaN);
+        for (int s = 0; s < width; s++) {
+            double[] prices = series[s];
+            int count = Math.min(bars, prices.length);
+            int source = prices.length - count;
+            for (int t = bars - count; t < bars; t++) {
+                closes[t * width + s] = prices[source++];
+            }
+        }
+        return new PriceMatrix(symbols.clone(), bars, closes);
+    }
+
+    public String[] getSymbols() {
+        return symbols;
+    }
+
+    public int width() {
+        return symbols.length;
+    }
+
+    public int bars() {
+        return bars;
+    }
+
+    /**
+     * 时间优先的原始数组
+     */
+    public double[] getCloses() {
+        return closes;
+    }
+
+    public double get(int bar, int symbol) {
+        return closes[bar * symbols.length + symbol];
+    }
+
+    /**
+     * 拷贝出单个股票的收盘价序列（包括NaN填充）
+     */
+    public double[] column(int symbol) {
+        double[] column = new double[bars];
+        for (int t = 0; t < bars; t++) {
+            column[t] = closes[t * symbols.length + symbol];
+        }
+        return column;
+    }
+}
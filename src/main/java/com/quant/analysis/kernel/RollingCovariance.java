@@ -0,0 +1,191 @@
+package com.quant.analysis.kernel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * 滑动窗口协方差矩阵
+ * 保存最近window期的N维收益向量，维护各维度的和与两两乘积和（上三角）。
+ * 每加入一期收益只做 O(N²) 的增量更新：加上新向量的外积、减去移出窗口的向量外积；
+ * 乘积和按B×B分块，维度较大时各块并行更新。为抑制滑动和的累积误差，每window次更新从窗口重算一次，
+ * 摊还后仍为 O(N²)。非线程安全，由调用方加锁
+ */
+public final class RollingCovariance {
+
+    private static final int BLOCK_SIZE = 64;
+
+    private final int dimension;
+    private final int window;
+    private final int parallelThreshold;
+
+    private final double[] ring; // window × dimension，行主序
+    private final double[] sums;
+    private final double[] products; // dimension × dimension，只使用 i <= j 的上三角
+    private final int[][] blocks; // 上三角分块的行、列起点
+
+    private int next;
+    private int count;
+    private int updatesSinceRebuild;
+
+    /**
+     * @param dimension 维度（股票数量）
+     * @param window 窗口长度（期数）
+     * @param parallelThreshold 维度不小于该值时并行更新各分块
+     */
+    public RollingCovariance(int dimension, int window, int parallelThreshold) {
+        if (dimension <= 0 || window < 2) {
+            throw new IllegalArgumentException("维度必须大于0且窗口不小于2: " + dimension + ", " + window);
+        }
+        this.dimension = dimension;
+        this.window = window;
+        this.parallelThreshold = parallelThreshold;
+        this.ring = new double[window * dimension];
+        this.sums = new double[dimension];
+        this.products = new double[dimension * dimension];
+        this.blocks = upperTriangleBlocks(dimension);
+    }
+
+    /**
+     * 加入一期收益
+     * @param returns 长度为dimension的收益向量
+     */
+    public void add(double[] returns) {
+        if (returns.length != dimension) {
+            throw new IllegalArgumentException("收益向量长度应为" + dimension + ": " + returns.length);
+        }
+        int offset = next * dimension;
+        boolean evict = count == window;
+        double[] evicted = evict ? Arrays.copyOfRange(ring, offset, offset + dimension) : null;
+
+        System.arraycopy(returns, 0, ring, offset, dimension);
+        next = (next + 1) % window;
+        if (!evict) {
+            count++;
+        }
+
+        if (++updatesSinceRebuild >= window) {
+            rebuild();
+            return;
+        }
+
+        for (int i = 0; i < dimension; i++) {
+            sums[i] += evict ? returns[i] - evicted[i] : returns[i];
+        }
+        if (dimension >= parallelThreshold && blocks.length > 1) {
+            IntStream.range(0, blocks.length).parallel().forEach(b -> updateBlock(blocks[b], returns, evicted));
+        } else {
+            for (int[] block : blocks) {
+                updateBlock(block, returns, evicted);
+            }
+        }
+    }
+
+    /**
+     * 样本协方差，窗口内不足2期时返回NaN
+     */
+    public double covariance(int i, int j) {
+        if (count < 2) {
+            return Double.NaN;
+        }
+        int row = Math.min(i, j);
+        int col = Math.max(i, j);
+        return (products[row * dimension + col] - sums[row] * sums[col] / count) / (count - 1);
+    }
+
+    /**
+     * 相关系数，任一维度方差为0时返回NaN
+     */
+    public double correlation(int i, int j) {
+        double denominator = Math.sqrt(covariance(i, i) * covariance(j, j));
+        if (!(denominator > 0)) {
+            return Double.NaN;
+        }
+        return Math.max(-1.0, Math.min(1.0, covariance(i, j) / denominator));
+    }
+
+    /**
+     * 完整协方差矩阵（行主序）写入out
+     */
+    public void covarianceMatrix(double[] out) {
+        for (int i = 0; i < dimension; i++) {
+            for (int j = i; j < dimension; j++) {
+                double value = covariance(i, j);
+                out[i * dimension + j] = value;
+                out[j * dimension + i] = value;
+            }
+        }
+    }
+
+    /**
+     * 完整相关系数矩阵（行主序）写入out
+     */
+    public void correlationMatrix(double[] out) {
+        for (int i = 0; i < dimension; i++) {
+            for (int j = i; j < dimension; j++) {
+                double value = correlation(i, j);
+                out[i * dimension + j] = value;
+                out[j * dimension + i] = value;
+            }
+        }
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    public int window() {
+        return window;
+    }
+
+    /**
+     * 窗口内的期数
+     */
+    public int count() {
+        return count;
+    }
+
+    private void updateBlock(int[] block, double[] added, double[] evicted) {
+        int rowEnd = Math.min(block[0] + BLOCK_SIZE, dimension);
+        int colEnd = Math.min(block[1] + BLOCK_SIZE, dimension);
+        for (int i = block[0]; i < rowEnd; i++) {
+            double a = added[i];
+            double e = evicted != null ? evicted[i] : 0.0;
+            int base = i * dimension;
+            for (int j = Math.max(i, block[1]); j < colEnd; j++) {
+                products[base + j] += evicted != null ? a * added[j] - e * evicted[j] : a * added[j];
+            }
+        }
+    }
+
+    /**
+     * 从窗口内的收益重算和与乘积和
+     */
+    private void rebuild() {
+        Arrays.fill(sums, 0.0);
+        Arrays.fill(products, 0.0);
+        for (int t = 0; t < count; t++) {
+            int offset = t * dimension;
+            for (int i = 0; i < dimension; i++) {
+                double a = ring[offset + i];
+                sums[i] += a;
+                int base = i * dimension;
+                for (int j = i; j < dimension; j++) {
+                    products[base + j] += a * ring[offset + j];
+                }
+            }
+        }
+        updatesSinceRebuild = 0;
+    }
+
+    private static int[][] upperTriangleBlocks(int dimension) {
+        List<int[]> blocks = new ArrayList<>();
+        for (int row = 0; row < dimension; row += BLOCK_SIZE) {
+            for (int col = row; col < dimension; col += BLOCK_SIZE) {
+                blocks.add(new int[] {row, col});
+            }
+        }
+        return blocks.toArray(new int[0][]);
+    }
+}
@@ -0,0 +1,86 @@
+package com.quant.analysis.kernel;
+
+/**
+ * 定长滑动窗口
+ * 环形缓冲区保存最近capacity个值，维护滑动和（SMA）与滑动Welford均值/二阶矩（方差），
+ * 每次更新O(1)，不分配内存
+ */
+public final class RollingWindow {
+
+    private final double[] buffer;
+    private int next;
+    private int count;
+
+    private double sum;
+    private double mean;
+    private double m2;
+
+    public RollingWindow(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("窗口长度必须大于0: " + capacity);
+        }
+        this.buffer = new double[capacity];
+    }
+
+    /**
+     * 加入一个新值，窗口已满时替换最旧的值
+     */
+    public void push(double value) {
+        if (count < buffer.length) {
+            buffer[next] = value;
+            count++;
+            sum += value;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+        } else {
+            double removed = buffer[next];
+            buffer[next] = value;
+            sum += value - removed;
+            double oldMean = mean;
+            mean += (value - removed) / count;
+            m2 += (value - removed) * (value - mean + removed - oldMean);
+            if (m2 < 0) {
+                m2 = 0; // 浮点误差
+            }
+        }
+        next = next + 1 == buffer.length ? 0 : next + 1;
+    }
+
+    public boolean isFull() {
+        return count == buffer.length;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * 窗口均值（滑动和），窗口未满时返回NaN
+     */
+    public double sma() {
+        return isFull() ? sum / count : Double.NaN;
+    }
+
+    /**
+     * 窗口总体方差（Welford），窗口未满时返回NaN
+     */
+    public double variance() {
+        return isFull() ? m2 / count : Double.NaN;
+    }
+
+    public double stdDev() {
+        return Math.sqrt(variance());
+    }
+
+    /**
+     * Welford均值，与sma()相同但不受滑动和累积误差影响
+     */
+    public double mean() {
+        return isFull() ? mean : Double.NaN;
+    }
+}
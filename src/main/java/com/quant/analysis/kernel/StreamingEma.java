@@ -0,0 +1,50 @@
+package com.quant.analysis.kernel;
+
+/**
+ * 增量指数移动平均线
+ * 与 {@link IndicatorKernels#ema} 相同：前period个值取SMA为种子，之后按 2/(period+1) 递推
+ */
+public final class StreamingEma {
+
+    private final int period;
+    private final double alpha;
+    private int count;
+    private double value;
+
+    public StreamingEma(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("周期必须大于0: " + period);
+        }
+        this.period = period;
+        this.alpha = 2.0 / (period + 1);
+    }
+
+    /**
+     * 加入一个新值
+     * @return 当前EMA，尚未完成播种时返回NaN
+     */
+    public double update(double price) {
+        if (count < period) {
+            value += price;
+            count++;
+            if (count == period) {
+                value /= period;
+            }
+            return value();
+        }
+        value += alpha * (price - value);
+        return value;
+    }
+
+    public boolean isReady() {
+        return count >= period;
+    }
+
+    public double value() {
+        return isReady() ? value : Double.NaN;
+    }
+
+    public int getPeriod() {
+        return period;
+    }
+}
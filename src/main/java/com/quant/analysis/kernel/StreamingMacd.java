@@ -0,0 +1,54 @@
+package com.quant.analysis.kernel;
+
+/**
+ * 增量MACD
+ * MACD线 = EMA(fast) - EMA(slow)，信号线为MACD线的EMA(signal)，柱状图 = MACD线 - 信号线
+ */
+public final class StreamingMacd {
+
+    private final StreamingEma fast;
+    private final StreamingEma slow;
+    private final StreamingEma signal;
+    private double macd = Double.NaN;
+
+    public StreamingMacd() {
+        this(12, 26, 9);
+    }
+
+    public StreamingMacd(int fastPeriod, int slowPeriod, int signalPeriod) {
+        this.fast = new StreamingEma(fastPeriod);
+        this.slow = new StreamingEma(slowPeriod);
+        this.signal = new StreamingEma(signalPeriod);
+    }
+
+    /**
+     * 加入一个新价格
+     */
+    public void update(double price) {
+        double fastValue = fast.update(price);
+        double slowValue = slow.update(price);
+        if (fast.isReady() && slow.isReady()) {
+            macd = fastValue - slowValue;
+            signal.update(macd);
+        }
+    }
+
+    /**
+     * 信号线完成播种后为true
+     */
+    public boolean isReady() {
+        return signal.isReady();
+    }
+
+    public double macd() {
+        return macd;
+    }
+
+    public double signal() {
+        return signal.value();
+    }
+
+    public double histogram() {
+        return macd - signal.value();
+    }
+}
@@ -0,0 +1,62 @@
+package com.quant.analysis.kernel;
+
+/**
+ * 增量相对强弱指标（Wilder平滑）
+ * 与 {@link IndicatorKernels#rsi} 相同：前period个涨跌幅取简单平均，之后按 (prev*(period-1)+current)/period 平滑
+ */
+public final class WilderRsi {
+
+    private final int period;
+    private int changes;
+    private double previousPrice = Double.NaN;
+    private double avgGain;
+    private double avgLoss;
+
+    public WilderRsi(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("周期必须大于0: " + period);
+        }
+        this.period = period;
+    }
+
+    /**
+     * 加入一个新价格
+     * @return 当前RSI，涨跌幅不足period个时返回NaN
+     */
+    public double update(double price) {
+        if (Double.isNaN(previousPrice)) {
+            previousPrice = price;
+            return Double.NaN;
+        }
+        double change = price - previousPrice;
+        previousPrice = price;
+        double gain = change > 0 ? change : 0.0;
+        double loss = change < 0 ? -change : 0.0;
+
+        if (changes < period) {
+            avgGain += gain;
+            avgLoss += loss;
+            changes++;
+            if (changes == period) {
+                avgGain /= period;
+                avgLoss /= period;
+            }
+        } else {
+            avgGain = (avgGain * (period - 1) + gain) / period;
+            avgLoss = (avgLoss * (period - 1) + loss) / period;
+        }
+        return value();
+    }
+
+    public boolean isReady() {
+        return changes >= period;
+    }
+
+    public double value() {
+        return isReady() ? IndicatorKernels.rsiFromAverages(avgGain, avgLoss) : Double.NaN;
+    }
+
+    public int getPeriod() {
+        return period;
+    }
+}
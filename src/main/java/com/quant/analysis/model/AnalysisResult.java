@@ -0,0 +1,233 @@
+package com.quant.analysis.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 综合技术分析结果
+ * 由一次历史数据加载计算出的全部指标，数据不足的指标为null
+ */
+public class AnalysisResult {
+
+    private String symbol;
+    private int barCount; // 参与计算的K线数量
+
+    private BigDecimal sma20;
+    private BigDecimal sma50;
+    private BigDecimal ema12;
+    private BigDecimal ema26;
+    private BigDecimal rsi14;
+
+    private BigDecimal macd;
+    private BigDecimal macdSignal;
+    private BigDecimal macdHistogram;
+
+    private BigDecimal bollingerMiddle;
+    private BigDecimal bollingerUpper;
+    private BigDecimal bollingerLower;
+
+    private String trend; // UPTREND, DOWNTREND, SIDEWAYS, UNKNOWN
+    private String tradingSignal; // BUY, SELL, HOLD
+    private LocalDateTime analysisTime;
+    private String error;
+
+    public AnalysisResult() {}
+
+    public AnalysisResult(String symbol) {
+        this.symbol = symbol;
+        this.analysisTime = LocalDateTime.now();
+    }
+
+    /**
+     * 转换为原综合分析接口的Map结构
+     * 键名与之前保持一致：SMA_20、MACD{MACD,Signal,Histogram}、BollingerBands{Middle,Upper,Lower} 等
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> analysis = new HashMap<>();
+        if (error != null) {
+            analysis.put("Error", error);
+            return analysis;
+        }
+
+        analysis.put("SMA_20", sma20);
+        analysis.put("SMA_50", sma50);
+        analysis.put("EMA_12", ema12);
+        analysis.put("EMA_26", ema26);
+        analysis.put("RSI_14", rsi14);
+
+        Map<String, BigDecimal> macdMap = new HashMap<>();
+        if (macd != null) {
+            macdMap.put("MACD", macd);
+            macdMap.put("Signal", macdSignal);
+            macdMap.put("Histogram", macdHistogram);
+        }
+        analysis.put("MACD", macdMap);
+
+        Map<String, BigDecimal> bollingerMap = new HashMap<>();
+        if (bollingerMiddle != null) {
+            bollingerMap.put("Middle", bollingerMiddle);
+            bollingerMap.put("Upper", bollingerUpper);
+            bollingerMap.put("Lower", bollingerLower);
+        }
+        analysis.put("BollingerBands", bollingerMap);
+
+        analysis.put("Trend", trend);
+        analysis.put("TradingSignal", tradingSignal);
+        analysis.put("AnalysisTime", analysisTime);
+        return analysis;
+    }
+
+    // Getter和Setter方法
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public int getBarCount() {
+        return barCount;
+    }
+
+    public void setBarCount(int barCount) {
+        this.barCount = barCount;
+    }
+
+    public BigDecimal getSma20() {
+        return sma20;
+    }
+
+    public void setSma20(BigDecimal sma20) {
+        this.sma20 = sma20;
+    }
+
+    public BigDecimal getSma50() {
+        return sma50;
+    }
+
+    public void setSma50(BigDecimal sma50) {
+        this.sma50 = sma50;
+    }
+
+    public BigDecimal getEma12() {
+        return ema12;
+    }
+
+    public void setEma12(BigDecimal ema12) {
+        this.ema12 = ema12;
+    }
+
+    public BigDecimal getEma26() {
+        return ema26;
+    }
+
+    public void setEma26(BigDecimal ema26) {
+        this.ema26 = ema26;
+    }
+
+    public BigDecimal getRsi14() {
+        return rsi14;
+    }
+
+    public void setRsi14(BigDecimal rsi14) {
+        this.rsi14 = rsi14;
+    }
+
+    public BigDecimal getMacd() {
+        return macd;
+    }
+
+    public void setMacd(BigDecimal macd) {
+        this.macd = macd;
+    }
+
+    public BigDecimal getMacdSignal() {
+        return macdSignal;
+    }
+
+    public void setMacdSignal(BigDecimal macdSignal) {
+        this.macdSignal = macdSignal;
+    }
+
+    public BigDecimal getMacdHistogram() {
+        return macdHistogram;
+    }
+
+    public void setMacdHistogram(BigDecimal macdHistogram) {
+        this.macdHistogram = macdHistogram;
+    }
+
+    public BigDecimal getBollingerMiddle() {
+        return bollingerMiddle;
+    }
+
+    public void setBollingerMiddle(BigDecimal bollingerMiddle) {
+        this.bollingerMiddle = bollingerMiddle;
+    }
+
+    public BigDecimal getBollingerUpper() {
+        return bollingerUpper;
+    }
+
+    public void setBollingerUpper(BigDecimal bollingerUpper) {
+        this.bollingerUpper = bollingerUpper;
+    }
+
+    public BigDecimal getBollingerLower() {
+        return bollingerLower;
+    }
+
+    public void setBollingerLower(BigDecimal bollingerLower) {
+        this.bollingerLower = bollingerLower;
+    }
+
+    public String getTrend() {
+        return trend;
+    }
+
+    public void setTrend(String trend) {
+        this.trend = trend;
+    }
+
+    public String getTradingSignal() {
+        return tradingSignal;
+    }
+
+    public void setTradingSignal(String tradingSignal) {
+        this.tradingSignal = tradingSignal;
+    }
+
+    public LocalDateTime getAnalysisTime() {
+        return analysisTime;
+    }
+
+    public void setAnalysisTime(LocalDateTime analysisTime) {
+        this.analysisTime = analysisTime;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "AnalysisResult{" +
+                "symbol='" + symbol + '\'' +
+                ", barCount=" + barCount +
+                ", sma20=" + sma20 +
+                ", sma50=" + sma50 +
+                ", rsi14=" + rsi14 +
+                ", macd=" + macd +
+                ", trend='" + trend + '\'' +
+                ", tradingSignal='" + tradingSignal + '\'' +
+                ", analysisTime=" + analysisTime +
+                '}';
+    }
+}
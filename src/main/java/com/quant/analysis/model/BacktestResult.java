@@ -0,0 +1,119 @@
+package com.quant.analysis.model;
+
+import java.util.Map;
+
+/**
+ * 单个股票、单个策略参数组合的回测结果
+ * 收益率与回撤均为小数，如0.05表示5%
+ */
+public class BacktestResult {
+
+    private String symbol;
+    private String strategy;
+    private Map<String, Double> parameters;
+
+    private int bars; // 回放的K线数量
+    private int trades; // 已平仓交易次数
+    private int winningTrades;
+    private double hitRate; // 盈利交易占比，无交易时为0
+
+    private double totalReturn;
+    private double maxDrawdown;
+    private double buyAndHoldReturn; // 同期持有不动的收益，用于对比
+
+    public BacktestResult() {}
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(String strategy) {
+        this.strategy = strategy;
+    }
+
+    public Map<String, Double> getParameters() {
+        return parameters;
+    }
+
+    public void setParameters(Map<String, Double> parameters) {
+        this.parameters = parameters;
+    }
+
+    public int getBars() {
+        return bars;
+    }
+
+    public void setBars(int bars) {
+        this.bars = bars;
+    }
+
+    public int getTrades() {
+        return trades;
+    }
+
+    public void setTrades(int trades) {
+        this.trades = trades;
+    }
+
+    public int getWinningTrades() {
+        return winningTrades;
+    }
+
+    public void setWinningTrades(int winningTrades) {
+        this.winningTrades = winningTrades;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public void setHitRate(double hitRate) {
+        this.hitRate = hitRate;
+    }
+
+    public double getTotalReturn() {
+        return totalReturn;
+    }
+
+    public void setTotalReturn(double totalReturn) {
+        this.totalReturn = totalReturn;
+    }
+
+    public double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    public void setMaxDrawdown(double maxDrawdown) {
+        this.maxDrawdown = maxDrawdown;
+    }
+
+    public double getBuyAndHoldReturn() {
+        return buyAndHoldReturn;
+    }
+
+    public void setBuyAndHoldReturn(double buyAndHoldReturn) {
+        this.buyAndHoldReturn = buyAndHoldReturn;
+    }
+
+    @Override
+    public String toString() {
+        return "BacktestResult{" +
+                "symbol='" + symbol + '\'' +
+                ", strategy='" + strategy + '\'' +
+                ", parameters=" + parameters +
+                ", bars=" + bars +
+                ", trades=" + trades +
+                ", hitRate=" + hitRate +
+                ", totalReturn=" + totalReturn +
+                ", maxDrawdown=" + maxDrawdown +
+                '}';
+    }
+}
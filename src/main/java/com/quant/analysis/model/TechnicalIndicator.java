@@ -9,6 +9,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 /**
@@ -16,7 +17,9 @@ import jakarta.persistence.Table;
  * 存储各种技术分析指标的计算结果
  */
 @Entity
-@Table(name = "technical_indicators")
+@Table(name = "technical_indicators", indexes = {
+    @Index(name = "idx_indicators_symbol_type_time", columnList = "symbol, indicator_type, calculated_at DESC")
+})
 public class TechnicalIndicator {
     
     @Id
@@ -29,7 +32,7 @@ public class TechnicalIndicator {
     @Column(nullable = false, length = 20)
     private String indicatorType;
     
-    @Column(precision = 10, scale = 4)
+    @Column(name = "indicator_value", precision = 10, scale = 4) // VALUE在H2中为保留字
     private BigDecimal value;
     
     @Column(precision = 10, scale = 4)
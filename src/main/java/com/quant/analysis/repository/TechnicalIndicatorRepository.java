@@ -0,0 +1,33 @@
+package com.quant.analysis.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.quant.analysis.model.TechnicalIndicator;
+
+/**
+ * 技术指标仓库接口
+ * 存储增量指标引擎定期输出的指标快照
+ */
+@Repository
+public interface TechnicalIndicatorRepository extends JpaRepository<TechnicalIndicator, Long> {
+    
+    /**
+     * 查找某股票某指标的最新记录
+     * @param symbol 股票代码
+     * @param indicatorType 指标类型
+     * @return 技术指标
+     */
+    Optional<TechnicalIndicator> findFirstBySymbolAndIndicatorTypeOrderByCalculatedAtDesc(String symbol, String indicatorType);
+    
+    /**
+     * 查找某股票某指标的历史记录
+     * @param symbol 股票代码
+     * @param indicatorType 指标类型
+     * @return 技术指标列表（按时间倒序）
+     */
+    List<TechnicalIndicator> findBySymbolAndIndicatorTypeOrderByCalculatedAtDesc(String symbol, String indicatorType);
+}
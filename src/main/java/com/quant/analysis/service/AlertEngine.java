@@ -0,0 +1,189 @@
+package com.quant.analysis.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.quant.analysis.alert.AlertEvent;
+import com.quant.analysis.alert.AlertRule;
+import com.quant.analysis.alert.SymbolRules;
+import com.quant.analysis.kernel.IndicatorState;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 指标预警引擎
+ * 规则按股票编译为 {@link SymbolRules}，由增量技术指标引擎在每次更新后回调：
+ * 只对该股票的规则求值，未注册规则的股票只需一次哈希查找。
+ * 触发的预警交给单线程分发器异步通知监听器并记入最近预警，不阻塞行情处理
+ */
+@Service
+public class AlertEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertEngine.class);
+
+    @Autowired
+    private StreamingIndicatorEngine streamingIndicatorEngine;
+
+    @Value("${analysis.alert.max-rules:10000}")
+    private int maxRules = 10000;
+
+    @Value("${analysis.alert.history-size:500}")
+    private int historySize = 500;
+
+    private final Map<String, SymbolRules> rulesBySymbol = new ConcurrentHashMap<>();
+    private final Map<Long, AlertRule> rules = new ConcurrentHashMap<>();
+    private final AtomicLong nextRuleId = new AtomicLong(1);
+
+    private final List<AlertListener> listeners = new CopyOnWriteArrayList<>();
+
+    /** 最近触发的预警，最新的在队首 */
+    private final Deque<AlertEvent> history = new ArrayDeque<>();
+
+    private ExecutorService dispatcher;
+
+    @PostConstruct
+    public void registerListeners() {
+        dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "alert-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        streamingIndicatorEngine.addIndicatorListener(this::onIndicators);
+        logger.info("指标预警引擎已启动，规则上限: {}", maxRules);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    /**
+     * 添加监听器
+     */
+    public void addListener(AlertListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 注册预警规则
+     * @param expression 规则文本，如 "PLTR RSI_14 crosses 30"
+     * @return 已注册的规则
+     * @throws IllegalArgumentException 规则无法解析
+     * @throws IllegalStateException 规则数已达上限
+     */
+    public AlertRule addRule(String expression) {
+        AlertRule rule = AlertRule.parse(nextRuleId.getAndIncrement(), expression);
+        if (rules.size() >= maxRules) {
+            throw new IllegalStateException("预警规则数已达上限: " + maxRules);
+        }
+        rules.put(rule.getId(), rule);
+        // 在compute内加入，避免与删除最后一条规则时移除该股票的条目交错
+        rulesBySymbol.compute(rule.getSymbol(), (symbol, symbolRules) -> {
+            SymbolRules target = symbolRules != null ? symbolRules : new SymbolRules();
+            target.add(rule);
+            return target;
+        });
+        logger.info("注册预警规则: {} {}", rule.getId(), rule.getExpression());
+        return rule;
+    }
+
+    /**
+     * 删除预警规则
+     * @return 是否存在该规则
+     */
+    public boolean removeRule(long ruleId) {
+        AlertRule rule = rules.remove(ruleId);
+        if (rule == null) {
+            return false;
+        }
+        rulesBySymbol.computeIfPresent(rule.getSymbol(), (symbol, symbolRules) -> {
+            symbolRules.remove(ruleId);
+            return symbolRules.isEmpty() ? null : symbolRules;
+        });
+        logger.info("删除预警规则: {} {}", ruleId, rule.getExpression());
+        return true;
+    }
+
+    /**
+     * 全部规则，按ID排序
+     */
+    public List<AlertRule> getRules() {
+        List<AlertRule> result = new ArrayList<>(rules.values());
+        result.sort(Comparator.comparingLong(AlertRule::getId));
+        return result;
+    }
+
+    /**
+     * 最近触发的预警，最新的在前
+     */
+    public List<AlertEvent> getRecentAlerts(int limit) {
+        List<AlertEvent> result = new ArrayList<>();
+        synchronized (history) {
+            Iterator<AlertEvent> iterator = history.iterator();
+            while (iterator.hasNext() && result.size() < limit) {
+                result.add(iterator.next());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 指标更新回调，在该股票的状态锁内执行，只做求值，通知交给分发线程
+     */
+    public void onIndicators(String symbol, IndicatorState state) {
+        SymbolRules symbolRules = rulesBySymbol.get(symbol);
+        if (symbolRules == null) {
+            return;
+        }
+        List<AlertEvent> fired = symbolRules.evaluate(state);
+        if (!fired.isEmpty()) {
+            dispatcher.execute(() -> dispatch(fired));
+        }
+    }
+
+    private void dispatch(List<AlertEvent> events) {
+        for (AlertEvent event : events) {
+            logger.info("触发预警: {} {} 指标值: {} 参照值: {}",
+                event.getSymbol(), event.getExpression(), event.getValue(), event.getReference());
+            synchronized (history) {
+                history.addFirst(event);
+                while (history.size() > historySize) {
+                    history.removeLast();
+                }
+            }
+            for (AlertListener listener : listeners) {
+                try {
+                    listener.onAlert(event);
+                } catch (Exception e) {
+                    logger.error("通知预警监听器时发生错误: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 预警监听器接口
+     */
+    public interface AlertListener {
+        void onAlert(AlertEvent event);
+    }
+}
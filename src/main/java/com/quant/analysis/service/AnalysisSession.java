@@ -0,0 +1,179 @@
+package com.quant.analysis.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.quant.analysis.kernel.IndicatorKernels;
+import com.quant.analysis.kernel.StreamingMacd;
+import com.quant.analysis.model.AnalysisResult;
+
+/**
+ * 技术分析会话
+ * 持有一次加载的收盘价序列（按时间升序），所有指标都在该序列上计算，不再重复获取历史数据。
+ * 每个指标使用与单指标接口相同的窗口（SMA/布林带取最近period个，EMA取最近2*period个，
+ * RSI取最近period+10个，MACD取最近52个），保证两种方式结果一致
+ */
+public class AnalysisSession {
+
+    private final String symbol;
+    private final double[] closes;
+    private final double[] bands = new double[3];
+
+    public AnalysisSession(String symbol, double[] closes) {
+        this.symbol = symbol;
+        this.closes = closes;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public int size() {
+        return closes.length;
+    }
+
+    /**
+     * 简单移动平均线，数据不足时返回null
+     */
+    public BigDecimal sma(int period) {
+        return toDecimal(IndicatorKernels.sma(closes, period), 4);
+    }
+
+    /**
+     * 指数移动平均线，数据不足一个周期时以全部数据为种子
+     */
+    public BigDecimal ema(int period) {
+        int to = closes.length;
+        int from = Math.max(0, to - period * 2);
+        if (to == from) {
+            return null;
+        }
+        return toDecimal(IndicatorKernels.ema(closes, from, to, Math.min(period, to - from)), 4);
+    }
+
+    /**
+     * 相对强弱指标，数据不足时返回null
+     */
+    public BigDecimal rsi(int period) {
+        int to = closes.length;
+        int from = Math.max(0, to - (period + 10));
+        return toDecimal(IndicatorKernels.rsi(closes, from, to, period), 2);
+    }
+
+    /**
+     * MACD指标 (MACD线、信号线、柱状图)
+     * 在最近2*26个价格上递推EMA12/EMA26，信号线为MACD线的9日EMA，信号线未完成播种时返回空Map
+     */
+    public Map<String, BigDecimal> macd() {
+        Map<String, BigDecimal> result = new HashMap<>();
+
+        StreamingMacd macd = new StreamingMacd(12, 26, 9);
+        for (int i = Math.max(0, closes.length - 26 * 2); i < closes.length; i++) {
+            macd.update(closes[i]);
+        }
+        if (!macd.isReady()) {
+            return result;
+        }
+
+        result.put("MACD", toDecimal(macd.macd(), 4));
+        result.put("Signal", toDecimal(macd.signal(), 4));
+        result.put("Histogram", toDecimal(macd.histogram(), 4));
+        return result;
+    }
+
+    /**
+     * 布林带，数据不足时返回空Map
+     */
+    public Map<String, BigDecimal> bollingerBands(int period, double stdDev) {
+        Map<String, BigDecimal> result = new HashMap<>();
+        if (!IndicatorKernels.bollinger(closes, period, stdDev, bands)) {
+            return result;
+        }
+        result.put("Middle", toDecimal(bands[IndicatorKernels.BAND_MIDDLE], 4));
+        result.put("Upper", toDecimal(bands[IndicatorKernels.BAND_UPPER], 4));
+        result.put("Lower", toDecimal(bands[IndicatorKernels.BAND_LOWER], 4));
+        return result;
+    }
+
+    /**
+     * 在同一序列上计算综合分析的全部指标
+     */
+    public AnalysisResult analyze() {
+        AnalysisResult result = new AnalysisResult(symbol);
+        result.setBarCount(closes.length);
+
+        // 基础指标
+        result.setSma20(sma(20));
+        result.setSma50(sma(50));
+        result.setEma12(ema(12));
+        result.setEma26(ema(26));
+        result.setRsi14(rsi(14));
+
+        // 复合指标
+        Map<String, BigDecimal> macd = macd();
+        result.setMacd(macd.get("MACD"));
+        result.setMacdSignal(macd.get("Signal"));
+        result.setMacdHistogram(macd.get("Histogram"));
+
+        Map<String, BigDecimal> bollinger = bollingerBands(20, 2.0);
+        result.setBollingerMiddle(bollinger.get("Middle"));
+        result.setBollingerUpper(bollinger.get("Upper"));
+        result.setBollingerLower(bollinger.get("Lower"));
+
+        // 趋势分析与买卖信号
+        result.setTrend(analyzeTrend(result.getSma20(), result.getSma50()));
+        result.setTradingSignal(generateTradingSignal(result.getRsi14(), result.getTrend()));
+        return result;
+    }
+
+    /**
+     * 趋势分析
+     */
+    static String analyzeTrend(BigDecimal sma20, BigDecimal sma50) {
+        if (sma20 == null || sma50 == null) {
+            return "UNKNOWN";
+        }
+
+        if (sma20.compareTo(sma50) > 0) {
+            return "UPTREND";
+        } else if (sma20.compareTo(sma50) < 0) {
+            return "DOWNTREND";
+        } else {
+            return "SIDEWAYS";
+        }
+    }
+
+    /**
+     * 生成交易信号
+     */
+    static String generateTradingSignal(BigDecimal rsi, String trend) {
+        if (rsi == null || trend == null) {
+            return "HOLD";
+        }
+
+        // 简单的交易信号逻辑
+        if (rsi.compareTo(BigDecimal.valueOf(70)) > 0) {
+            return "SELL"; // 超买
+        } else if (rsi.compareTo(BigDecimal.valueOf(30)) < 0) {
+            return "BUY";  // 超卖
+        } else if ("UPTREND".equals(trend) && rsi.compareTo(BigDecimal.valueOf(50)) > 0) {
+            return "BUY";  // 上升趋势 + RSI > 50
+        } else if ("DOWNTREND".equals(trend) && rsi.compareTo(BigDecimal.valueOf(50)) < 0) {
+            return "SELL"; // 下降趋势 + RSI < 50
+        }
+
+        return "HOLD";
+    }
+
+    /**
+     * 内核结果转换为BigDecimal，NaN表示数据不足
+     */
+    static BigDecimal toDecimal(double value, int scale) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return null;
+        }
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+}
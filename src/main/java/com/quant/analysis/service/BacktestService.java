@@ -0,0 +1,98 @@
+package com.quant.analysis.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.quant.analysis.backtest.BacktestTask;
+import com.quant.analysis.backtest.StrategySpec;
+import com.quant.analysis.model.BacktestResult;
+import com.quant.stock.store.PriceHistoryStore;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 回测服务
+ * 在独立的ForkJoinPool中按股票 × 参数组合分治回放列式价格历史，
+ * 不占用公共池，避免长时间的参数扫描影响其他并行流
+ */
+@Service
+public class BacktestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BacktestService.class);
+
+    @Autowired
+    private PriceHistoryStore priceHistoryStore;
+
+    @Value("${analysis.backtest.parallelism:0}")
+    private int parallelism = 0;
+
+    @Value("${analysis.backtest.chunk-size:4096}")
+    private int chunkSize = 4096;
+
+    @Value("${analysis.backtest.strategies-per-task:32}")
+    private int strategiesPerTask = 32;
+
+    @Value("${analysis.backtest.commission-rate:0.0}")
+    private double commissionRate = 0.0;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void init() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(threads);
+        logger.info("回测线程池已创建: {}个线程", threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 在全部历史上回测
+     */
+    public List<BacktestResult> run(List<String> symbols, List<StrategySpec> strategies) {
+        return run(symbols, strategies, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * 回测一组股票和策略参数组合
+     * @param symbols 股票代码
+     * @param strategies 策略参数组合
+     * @param fromTimestamp 起始毫秒时间戳（含）
+     * @param toTimestamp 结束毫秒时间戳（含）
+     * @return 每个股票 × 参数组合一个结果，先按股票再按策略排列
+     */
+    public List<BacktestResult> run(List<String> symbols, List<StrategySpec> strategies,
+                                    long fromTimestamp, long toTimestamp) {
+        if (symbols.isEmpty() || strategies.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> normalized = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            normalized.add(symbol.toUpperCase());
+        }
+
+        long start = System.nanoTime();
+        BacktestTask.Settings settings = new BacktestTask.Settings(
+            fromTimestamp, toTimestamp, chunkSize, strategiesPerTask, commissionRate);
+        List<BacktestResult> results = pool.invoke(
+            new BacktestTask(priceHistoryStore, normalized, new ArrayList<>(strategies), settings));
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("回测完成: {}只股票 × {}个参数组合, 耗时{}ms",
+            normalized.size(), strategies.size(), elapsedMillis);
+        return results;
+    }
+}
@@ -0,0 +1,177 @@
+package com.quant.analysis.service;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.quant.analysis.cache.CacheKey;
+import com.quant.analysis.cache.IndicatorCache;
+import com.quant.analysis.model.AnalysisResult;
+import com.quant.futu.service.FutuDataService;
+import com.quant.stock.bar.Timeframe;
+import com.quant.stock.service.BarAggregationService;
+import com.quant.stock.store.PriceHistoryStore;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * 带缓存的技术分析服务
+ * 在TechnicalAnalysisService外包一层结果缓存，键包含分析所读数据中最新K线的版本：
+ * 版本取自已写入的数据（列式价格存储、富途本地K线缓存或聚合K线），不取自尚未落库的行情，
+ * 新K线写入后之前的结果自动失效；没有新K线时相同请求直接返回缓存
+ */
+@Service
+public class CachedAnalysisService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachedAnalysisService.class);
+
+    @Autowired
+    private TechnicalAnalysisService analysisService;
+
+    @Autowired
+    private FutuDataService futuDataService;
+
+    @Autowired
+    private PriceHistoryStore priceHistoryStore;
+
+    @Autowired
+    private BarAggregationService barAggregationService;
+
+    @Value("${analysis.cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${analysis.cache.max-entries:10000}")
+    private int maxEntries = 10000;
+
+    private IndicatorCache cache;
+
+    @PostConstruct
+    public void init() {
+        cache = new IndicatorCache(maxEntries);
+        logger.info("指标缓存已启用: {}, 容量: {}", enabled, maxEntries);
+    }
+
+    public BigDecimal calculateSMA(String symbol, int period) {
+        return calculateSMA(symbol, null, period);
+    }
+
+    public BigDecimal calculateSMA(String symbol, Timeframe timeframe, int period) {
+        return cached(symbol, timeframe, "SMA", String.valueOf(period),
+            () -> analysisService.calculateSMA(symbol, timeframe, period));
+    }
+
+    public BigDecimal calculateEMA(String symbol, int period) {
+        return calculateEMA(symbol, null, period);
+    }
+
+    public BigDecimal calculateEMA(String symbol, Timeframe timeframe, int period) {
+        return cached(symbol, timeframe, "EMA", String.valueOf(period),
+            () -> analysisService.calculateEMA(symbol, timeframe, period));
+    }
+
+    public BigDecimal calculateRSI(String symbol, int period) {
+        return calculateRSI(symbol, null, period);
+    }
+
+    public BigDecimal calculateRSI(String symbol, Timeframe timeframe, int period) {
+        return cached(symbol, timeframe, "RSI", String.valueOf(period),
+            () -> analysisService.calculateRSI(symbol, timeframe, period));
+    }
+
+    public Map<String, BigDecimal> calculateMACD(String symbol) {
+        return calculateMACD(symbol, null);
+    }
+
+    public Map<String, BigDecimal> calculateMACD(String symbol, Timeframe timeframe) {
+        return cached(symbol, timeframe, "MACD", "12,26,9",
+            () -> readOnly(analysisService.calculateMACD(symbol, timeframe)));
+    }
+
+    public Map<String, BigDecimal> calculateBollingerBands(String symbol, int period, double stdDev) {
+        return calculateBollingerBands(symbol, null, period, stdDev);
+    }
+
+    public Map<String, BigDecimal> calculateBollingerBands(String symbol, Timeframe timeframe, int period, double stdDev) {
+        return cached(symbol, timeframe, "BOLLINGER", period + "," + stdDev,
+            () -> readOnly(analysisService.calculateBollingerBands(symbol, timeframe, period, stdDev)));
+    }
+
+    public AnalysisResult analyze(String symbol) {
+        return analyze(symbol, null);
+    }
+
+    /**
+     * 综合技术分析，出错的结果不缓存
+     */
+    public AnalysisResult analyze(String symbol, Timeframe timeframe) {
+        return cached(symbol, timeframe, "ANALYSIS", "", () -> analysisService.analyze(symbol, timeframe),
+            result -> result.getError() == null);
+    }
+
+    public Map<String, Object> comprehensiveAnalysis(String symbol) {
+        return comprehensiveAnalysis(symbol, null);
+    }
+
+    public Map<String, Object> comprehensiveAnalysis(String symbol, Timeframe timeframe) {
+        return analyze(symbol, timeframe).toMap();
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", cache.size());
+        stats.put("maxEntries", cache.getMaxEntries());
+        stats.put("evictions", cache.getEvictions());
+        stats.put("indicators", cache.getStats());
+        return stats;
+    }
+
+    private <T> T cached(String symbol, Timeframe timeframe, String indicator, String parameters, Supplier<T> loader) {
+        return cached(symbol, timeframe, indicator, parameters, loader, value -> true);
+    }
+
+    private <T> T cached(String symbol, Timeframe timeframe, String indicator, String parameters, Supplier<T> loader,
+                         Predicate<? super T> cacheable) {
+        if (!enabled) {
+            return loader.get();
+        }
+        String key = symbol.toUpperCase();
+        boolean futu = futuDataService.isConnected();
+        String source = (futu ? "futu:" : "local:") + (timeframe != null ? timeframe.getLabel() : "default");
+        CacheKey cacheKey = new CacheKey(key, indicator, source + ":" + parameters,
+            lastBarVersion(key, timeframe, futu));
+        return cache.get(cacheKey, loader, cacheable);
+    }
+
+    /**
+     * 与TechnicalAnalysisService选择相同的数据源，读取其中已写入的最新K线的版本：
+     * 富途已连接时为本地K线缓存的修订号（按刷新间隔先同步），未连接时指定周期为聚合K线最后一个行情的时间戳，
+     * 默认数据源为列式价格存储最后一根K线的时间戳（行情由落库线程写入后才前进）
+     */
+    private long lastBarVersion(String symbol, Timeframe timeframe, boolean futu) {
+        if (futu) {
+            String kLineType = timeframe != null ? timeframe.getFutuKLineType() : Timeframe.D1.getFutuKLineType();
+            return futuDataService.getKLineRevision("US." + symbol, kLineType);
+        }
+        if (timeframe != null) {
+            return barAggregationService.getLastTickTimestamp(symbol);
+        }
+        return priceHistoryStore.lastTimestamp(symbol);
+    }
+
+    private static <K, V> Map<K, V> readOnly(Map<K, V> map) {
+        return map == null ? null : Collections.unmodifiableMap(map);
+    }
+}
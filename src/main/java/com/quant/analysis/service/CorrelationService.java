@@ -0,0 +1,174 @@
+package com.quant.analysis.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.quant.analysis.kernel.RollingCovariance;
+import com.quant.futu.service.FutuDataService;
+import com.quant.stock.model.StockData;
+import com.quant.stock.service.StockDataService;
+import com.quant.stockpltr.config.StockPltrConfig;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * 监控列表相关性服务
+ * 监控列表为StockPltr监控股票与默认股票列表的并集。价格监听器记录每只股票的最新价，
+ * 定时采样一次，计算各股票相对上次采样的对数收益并加入滑动窗口协方差矩阵，
+ * 每次采样只做 O(N²) 的增量更新，查询时直接读取矩阵
+ */
+@Service
+public class CorrelationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CorrelationService.class);
+
+    @Autowired
+    private StockDataService stockDataService;
+
+    @Autowired
+    private FutuDataService futuDataService;
+
+    @Autowired
+    private StockPltrConfig stockPltrConfig;
+
+    @Value("${analysis.correlation.window:120}")
+    private int window = 120;
+
+    @Value("${analysis.correlation.parallel-threshold:64}")
+    private int parallelThreshold = 64;
+
+    private String[] symbols;
+    private Map<String, Integer> indexes;
+    private RollingCovariance covariance;
+
+    /** 最新价，由价格监听器更新 */
+    private final Map<String, Double> latestPrices = new ConcurrentHashMap<>();
+
+    private double[] previousPrices;
+    private volatile boolean dirty;
+    private LocalDateTime lastSampleTime;
+
+    @PostConstruct
+    public void init() {
+        TreeSet<String> watchlist = new TreeSet<>();
+        stockPltrConfig.getMonitoring().getSymbols().forEach(symbol -> watchlist.add(symbol.toUpperCase()));
+        stockDataService.getDefaultSymbols().forEach(symbol -> watchlist.add(symbol.toUpperCase()));
+
+        symbols = watchlist.toArray(new String[0]);
+        indexes = new ConcurrentHashMap<>();
+        for (int i = 0; i < symbols.length; i++) {
+            indexes.put(symbols[i], i);
+        }
+        covariance = new RollingCovariance(symbols.length, window, parallelThreshold);
+        previousPrices = new double[symbols.length];
+        Arrays.fill(previousPrices, Double.NaN);
+
+        stockDataService.addPriceListener(this::onPrice);
+        futuDataService.addPriceListener(this::onPrice);
+        logger.info("相关性矩阵已初始化: {}只股票, 窗口{}期", symbols.length, window);
+    }
+
+    /**
+     * 采样一期收益并更新矩阵
+     * 自上次采样以来没有任何新价格时跳过，避免休市期间用全0收益冲淡窗口；
+     * 尚无价格或首次出现价格的股票本期收益记为0
+     */
+    @Scheduled(fixedDelayString = "${analysis.correlation.sample-interval-ms:60000}")
+    public synchronized void sample() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+
+        double[] returns = new double[symbols.length];
+        boolean hasReturn = false;
+        for (int i = 0; i < symbols.length; i++) {
+            Double price = latestPrices.get(symbols[i]);
+            double current = price != null ? price : Double.NaN;
+            double previous = previousPrices[i];
+            if (current > 0 && previous > 0) {
+                returns[i] = Math.log(current / previous);
+                hasReturn = true;
+            }
+            if (!Double.isNaN(current)) {
+                previousPrices[i] = current;
+            }
+        }
+        if (!hasReturn) {
+            return;
+        }
+        covariance.add(returns);
+        lastSampleTime = LocalDateTime.now();
+    }
+
+    /**
+     * 当前矩阵
+     * @param correlation true返回相关系数矩阵，false返回协方差矩阵
+     * @return 股票列表、窗口期数和矩阵（数据不足的元素为null）
+     */
+    public synchronized Map<String, Object> getMatrix(boolean correlation) {
+        int n = symbols.length;
+        double[] values = new double[n * n];
+        if (correlation) {
+            covariance.correlationMatrix(values);
+        } else {
+            covariance.covarianceMatrix(values);
+        }
+
+        List<List<Double>> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            List<Double> row = new ArrayList<>(n);
+            for (int j = 0; j < n; j++) {
+                double value = values[i * n + j];
+                row.add(Double.isNaN(value) ? null : value);
+            }
+            rows.add(row);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("type", correlation ? "correlation" : "covariance");
+        result.put("symbols", Arrays.asList(symbols));
+        result.put("samples", covariance.count());
+        result.put("window", covariance.window());
+        result.put("sampleTime", lastSampleTime);
+        result.put("matrix", rows);
+        return result;
+    }
+
+    /**
+     * 两只股票的相关系数，任一不在监控列表或数据不足时返回NaN
+     */
+    public synchronized double correlation(String first, String second) {
+        Integer i = indexes.get(first.toUpperCase());
+        Integer j = indexes.get(second.toUpperCase());
+        return i == null || j == null ? Double.NaN : covariance.correlation(i, j);
+    }
+
+    public List<String> getSymbols() {
+        return Arrays.asList(symbols);
+    }
+
+    private void onPrice(StockData stockData) {
+        if (stockData.getSymbol() == null || stockData.getCurrentPrice() == null) {
+            return;
+        }
+        String symbol = stockData.getSymbol().toUpperCase();
+        if (indexes.containsKey(symbol)) {
+            latestPrices.put(symbol, stockData.getCurrentPrice().doubleValue());
+            dirty = true;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.quant.analysis.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.quant.analysis.kernel.IndicatorColumns;
+
+/**
+ * 筛选查询
+ * 过滤条件以AND连接，每个条件可以是：
+ * 字段比较（如 "RSI_14 < 30"、"PRICE <= BB_LOWER"）、趋势（UPTREND/DOWNTREND/SIDEWAYS/UNKNOWN）
+ * 或交易信号（BUY/SELL/HOLD）。条件逐列扫描求值，NaN参与的比较一律不满足
+ */
+public class ScreenQuery {
+
+    private static final Pattern AND = Pattern.compile("\\s+(?i:and)\\s+|\\s*&&\\s*");
+    private static final Pattern COMPARISON = Pattern.compile("^([A-Za-z_0-9]+)\\s*(<=|>=|<|>|=)\\s*([A-Za-z_0-9.+-]+)$");
+
+    // 比较运算符
+    private static final int LT = 0;
+    private static final int LE = 1;
+    private static final int GT = 2;
+    private static final int GE = 3;
+    private static final int EQ = 4;
+
+    /**
+     * 可筛选和排序的指标字段
+     */
+    public enum Field {
+        PRICE, SMA_20, SMA_50, EMA_12, EMA_26, RSI_14, BB_UPPER, BB_MIDDLE, BB_LOWER;
+
+        double[] column(IndicatorColumns columns) {
+            switch (this) {
+                case PRICE: return columns.getClose();
+                case SMA_20: return columns.getSma20();
+                case SMA_50: return columns.getSma50();
+                case EMA_12: return columns.getEma12();
+                case EMA_26: return columns.getEma26();
+                case RSI_14: return columns.getRsi14();
+                case BB_UPPER: return columns.getBollingerUpper();
+                case BB_MIDDLE: return columns.getBollingerMiddle();
+                default: return columns.getBollingerLower();
+            }
+        }
+
+        static Field parse(String name) {
+            try {
+                return Field.valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("未知的筛选字段: " + name);
+            }
+        }
+    }
+
+    /**
+     * 单个过滤条件，在掩码上原地求值
+     */
+    private interface Condition {
+        void apply(IndicatorColumns columns, boolean[] mask);
+    }
+
+    private final String filter;
+    private final List<Condition> conditions;
+    private final Field sortField;
+    private final boolean descending;
+    private final int limit;
+
+    private ScreenQuery(String filter, List<Condition> conditions, Field sortField, boolean descending, int limit) {
+        this.filter = filter;
+        this.conditions = conditions;
+        this.sortField = sortField;
+        this.descending = descending;
+        this.limit = limit;
+    }
+
+    /**
+     * 解析筛选查询
+     * @param filter 过滤条件，为空时不过滤
+     * @param sort 排序字段，为空时保持股票代码顺序
+     * @param descending 是否倒序
+     * @param limit 最多返回的股票数
+     * @throws IllegalArgumentException 条件无法解析
+     */
+    public static ScreenQuery parse(String filter, String sort, boolean descending, int limit) {
+        List<Condition> conditions = new ArrayList<>();
+        String trimmed = filter == null ? "" : filter.trim();
+        if (!trimmed.isEmpty()) {
+            for (String clause : AND.split(trimmed)) {
+                conditions.add(parseCondition(clause.trim()));
+            }
+        }
+        Field sortField = sort == null || sort.isBlank() ? null : Field.parse(sort.trim());
+        return new ScreenQuery(trimmed, conditions, sortField, descending, Math.max(0, limit));
+    }
+
+    /**
+     * 在列式指标上执行查询
+     * @return 满足条件的股票下标，已排序并截断到limit
+     */
+    public int[] apply(IndicatorColumns columns) {
+        int size = columns.size();
+        boolean[] mask = new boolean[size];
+        Arrays.fill(mask, true);
+        for (Condition condition : conditions) {
+            condition.apply(columns, mask);
+        }
+
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (mask[i]) {
+                matches.add(i);
+            }
+        }
+
+        if (sortField != null) {
+            double[] values = sortField.column(columns);
+            // NaN始终排在最后
+            Comparator<Integer> byValue = (a, b) -> descending
+                    ? Double.compare(values[b], values[a])
+                    : Double.compare(values[a], values[b]);
+            matches.sort(Comparator.<Integer, Boolean>comparing(i -> Double.isNaN(values[i])).thenComparing(byValue));
+        }
+
+        int count = Math.min(limit, matches.size());
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = matches.get(i);
+        }
+        return result;
+    }
+
+    public String getFilter() {
+        return filter;
+    }
+
+    public Field getSortField() {
+        return sortField;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    private static Condition parseCondition(String clause) {
+        int trend = IndicatorColumns.trendCode(clause);
+        if (trend >= 0) {
+            byte code = (byte) trend;
+            return (columns, mask) -> {
+                byte[] trends = columns.getTrend();
+                for (int i = 0; i < mask.length; i++) {
+                    mask[i] &= trends[i] == code;
+                }
+            };
+        }
+        int signal = IndicatorColumns.signalCode(clause);
+        if (signal >= 0) {
+            byte code = (byte) signal;
+            return (columns, mask) -> {
+                byte[] signals = columns.getSignal();
+                for (int i = 0; i < mask.length; i++) {
+                    mask[i] &= signals[i] == code;
+                }
+            };
+        }
+
+        Matcher matcher = COMPARISON.matcher(clause);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("无法解析筛选条件: " + clause);
+        }
+        Field left = Field.parse(matcher.group(1));
+        int operator = operatorCode(matcher.group(2));
+        String right = matcher.group(3);
+
+        Double constant = parseNumber(right);
+        if (constant != null) {
+            double value = constant;
+            return (columns, mask) -> {
+                double[] column = left.column(columns);
+                for (int i = 0; i < mask.length; i++) {
+                    mask[i] &= compare(column[i], operator, value);
+                }
+            };
+        }
+        Field rightField = Field.parse(right);
+        return (columns, mask) -> {
+            double[] column = left.column(columns);
+            double[] other = rightField.column(columns);
+            for (int i = 0; i < mask.length; i++) {
+                mask[i] &= compare(column[i], operator, other[i]);
+            }
+        };
+    }
+
+    private static int operatorCode(String operator) {
+        switch (operator) {
+            case "<": return LT;
+            case "<=": return LE;
+            case ">": return GT;
+            case ">=": return GE;
+            default: return EQ;
+        }
+    }
+
+    private static boolean compare(double left, int operator, double right) {
+        switch (operator) {
+            case LT: return left < right;
+            case LE: return left <= right;
+            case GT: return left > right;
+            case GE: return left >= right;
+            default: return left == right;
+        }
+    }
+
+    private static Double parseNumber(String text) {
+        try {
+            return Double.valueOf(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ScreenQuery{" +
+                "filter='" + filter + '\'' +
+                ", sortField=" + sortField +
+                ", descending=" + descending +
+                ", limit=" + limit +
+                '}';
+    }
+}
@@ -0,0 +1,168 @@
+package com.quant.analysis.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.quant.analysis.kernel.IndicatorColumns;
+import com.quant.futu.service.FutuDataService;
+import com.quant.stock.model.StockData;
+import com.quant.stock.service.StockDataService;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * 全市场筛选服务
+ * 在内存中保存所有活跃股票最新指标的列式快照，筛选请求只扫描数组，不做任何指标计算。
+ * 股票列表变化时整体重建；否则只重新计算有新价格的股票，写时复制后整体替换快照
+ */
+@Service
+public class ScreenerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScreenerService.class);
+
+    @Autowired
+    private TechnicalAnalysisService analysisService;
+
+    @Autowired
+    private StockDataService stockDataService;
+
+    @Autowired
+    private FutuDataService futuDataService;
+
+    private volatile Snapshot snapshot;
+
+    /** 上次刷新之后有新价格的股票 */
+    private final Set<String> dirtySymbols = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void registerListeners() {
+        stockDataService.addPriceListener(this::markDirty);
+        futuDataService.addPriceListener(this::markDirty);
+    }
+
+    /**
+     * 刷新指标快照
+     */
+    @Scheduled(fixedDelayString = "${analysis.screener.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        try {
+            String[] symbols = stockDataService.getAllActiveSymbols().stream()
+                .map(String::toUpperCase)
+                .distinct()
+                .sorted()
+                .toArray(String[]::new);
+
+            Snapshot current = snapshot;
+            if (current == null || !Arrays.equals(current.columns.getSymbols(), symbols)) {
+                dirtySymbols.clear();
+                publish(analysisService.analyzeBatch(Arrays.asList(symbols)));
+                logger.info("重建筛选快照: {}只股票", symbols.length);
+                return;
+            }
+
+            if (dirtySymbols.isEmpty()) {
+                return;
+            }
+            List<String> changed = new ArrayList<>();
+            for (String symbol : new ArrayList<>(dirtySymbols)) {
+                dirtySymbols.remove(symbol);
+                if (current.columns.indexOf(symbol) >= 0) {
+                    changed.add(symbol);
+                }
+            }
+            if (changed.isEmpty()) {
+                return;
+            }
+
+            IndicatorColumns updates = analysisService.analyzeBatch(changed);
+            IndicatorColumns next = current.columns.copy();
+            for (int i = 0; i < updates.size(); i++) {
+                next.copyRow(updates, i, next.indexOf(updates.getSymbols()[i]));
+            }
+            publish(next);
+            logger.debug("增量刷新筛选快照: {}只股票", changed.size());
+        } catch (Exception e) {
+            logger.error("刷新筛选快照失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 执行筛选
+     * @param query 筛选查询
+     * @return 满足条件的股票及其指标，按查询排序
+     */
+    public List<Map<String, Object>> screen(ScreenQuery query) {
+        Snapshot current = snapshot;
+        List<Map<String, Object>> results = new ArrayList<>();
+        if (current == null) {
+            return results;
+        }
+        for (int index : query.apply(current.columns)) {
+            results.add(toRow(current.columns, index));
+        }
+        return results;
+    }
+
+    /**
+     * 当前快照覆盖的股票数
+     */
+    public int getUniverseSize() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.columns.size();
+    }
+
+    /**
+     * 当前快照的生成时间，尚未生成时返回null
+     */
+    public LocalDateTime getSnapshotTime() {
+        Snapshot current = snapshot;
+        return current == null ? null : current.refreshedAt;
+    }
+
+    private void markDirty(StockData stockData) {
+        if (stockData.getSymbol() != null) {
+            dirtySymbols.add(stockData.getSymbol().toUpperCase());
+        }
+    }
+
+    private void publish(IndicatorColumns columns) {
+        snapshot = new Snapshot(columns, LocalDateTime.now());
+    }
+
+    private static Map<String, Object> toRow(IndicatorColumns columns, int index) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("symbol", columns.getSymbols()[index]);
+        for (ScreenQuery.Field field : ScreenQuery.Field.values()) {
+            double value = field.column(columns)[index];
+            row.put(field.name(), Double.isNaN(value) ? null : value);
+        }
+        row.put("Trend", IndicatorColumns.trendName(columns.getTrend()[index]));
+        row.put("TradingSignal", IndicatorColumns.signalName(columns.getSignal()[index]));
+        return row;
+    }
+
+    /**
+     * 不可变快照：指标列与生成时间一起替换，读者不会看到不一致的组合
+     */
+    private static final class Snapshot {
+        private final IndicatorColumns columns;
+        private final LocalDateTime refreshedAt;
+
+        private Snapshot(IndicatorColumns columns, LocalDateTime refreshedAt) {
+            this.columns = columns;
+            this.refreshedAt = refreshedAt;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.quant.analysis.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.quant.analysis.kernel.IndicatorKernels;
+import com.quant.analysis.kernel.IndicatorState;
+import com.quant.analysis.model.AnalysisResult;
+import com.quant.analysis.model.TechnicalIndicator;
+import com.quant.analysis.repository.TechnicalIndicatorRepository;
+import com.quant.futu.service.FutuDataService;
+import com.quant.stock.model.StockData;
+import com.quant.stock.service.StockDataService;
+import com.quant.stock.store.BarSeries;
+import com.quant.stock.store.PriceHistoryStore;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * 增量技术指标引擎
+ * 监听StockDataService和FutuDataService的每条新价格，按股票维护滚动指标状态并O(1)更新；
+ * 读取指标直接返回当前状态，不再回放历史。首次出现的股票先用列式价格历史预热，
+ * 指标快照定期写入technical_indicators表；每次更新后通知指标监听器
+ */
+@Service
+public class StreamingIndicatorEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingIndicatorEngine.class);
+
+    /** 预热使用的K线数量，足够MACD信号线和SMA50完成播种 */
+    private static final int WARMUP_BARS = 120;
+
+    @Autowired
+    private StockDataService stockDataService;
+
+    @Autowired
+    private FutuDataService futuDataService;
+
+    @Autowired
+    private PriceHistoryStore priceHistoryStore;
+
+    @Autowired
+    private TechnicalIndicatorRepository technicalIndicatorRepository;
+
+    @Value("${analysis.streaming.persist-enabled:true}")
+    private boolean persistEnabled = true;
+
+    private final Map<String, IndicatorState> states = new ConcurrentHashMap<>();
+
+    /** 上次持久化之后有更新的股票 */
+    private final Set<String> dirtySymbols = ConcurrentHashMap.newKeySet();
+
+    private final List<IndicatorListener> indicatorListeners = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    public void registerListeners() {
+        stockDataService.addPriceListener(this::onPrice);
+        futuDataService.addPriceListener(this::onPrice);
+        logger.info("增量技术指标引擎已启动");
+    }
+
+    /**
+     * 添加指标监听器
+     */
+    public void addIndicatorListener(IndicatorListener listener) {
+        indicatorListeners.add(listener);
+    }
+
+    /**
+     * 处理一条行情
+     * @param stockData 股票数据
+     */
+    public void onPrice(StockData stockData) {
+        if (stockData.getSymbol() == null || stockData.getCurrentPrice() == null
+                || stockData.getLastUpdated() == null) {
+            return;
+        }
+        onPrice(stockData.getSymbol(), PriceHistoryStore.toEpochMillis(stockData.getLastUpdated()),
+            stockData.getCurrentPrice().doubleValue());
+    }
+
+    /**
+     * 处理一个新价格
+     * @param symbol 股票代码
+     * @param timestamp 毫秒时间戳
+     * @param price 价格
+     * @return 是否更新了指标（重复或乱序的价格被忽略）
+     */
+    public boolean onPrice(String symbol, long timestamp, double price) {
+        String key = symbol.toUpperCase();
+        IndicatorState state = states.computeIfAbsent(key, k -> warmUp(k, timestamp));
+        boolean updated;
+        synchronized (state) {
+            updated = state.update(timestamp, price);
+            if (updated) {
+                notifyIndicatorListeners(key, state);
+            }
+        }
+        if (updated) {
+            dirtySymbols.add(key);
+        }
+        return updated;
+    }
+
+    /**
+     * 获取当前指标快照
+     * @param symbol 股票代码
+     * @return 分析结果，没有该股票的状态时返回null
+     */
+    public AnalysisResult getSnapshot(String symbol) {
+        IndicatorState state = states.get(symbol.toUpperCase());
+        if (state == null) {
+            return null;
+        }
+
+        AnalysisResult result = new AnalysisResult(symbol.toUpperCase());
+        double[] bands = new double[3];
+        synchronized (state) {
+            result.setBarCount((int) Math.min(Integer.MAX_VALUE, state.getUpdates()));
+            result.setAnalysisTime(state.getUpdates() > 0 ? toLocalDateTime(state.getLastTimestamp()) : null);
+            result.setSma20(AnalysisSession.toDecimal(state.sma20(), 4));
+            result.setSma50(AnalysisSession.toDecimal(state.sma50(), 4));
+            result.setEma12(AnalysisSession.toDecimal(state.ema12(), 4));
+            result.setEma26(AnalysisSession.toDecimal(state.ema26(), 4));
+            result.setRsi14(AnalysisSession.toDecimal(state.rsi14(), 2));
+            result.setMacd(AnalysisSession.toDecimal(state.macd(), 4));
+            result.setMacdSignal(AnalysisSession.toDecimal(state.macdSignal(), 4));
+            result.setMacdHistogram(AnalysisSession.toDecimal(state.macdHistogram(), 4));
+            state.bollinger20(2.0, bands);
+        }
+        result.setBollingerMiddle(AnalysisSession.toDecimal(bands[IndicatorKernels.BAND_MIDDLE], 4));
+        result.setBollingerUpper(AnalysisSession.toDecimal(bands[IndicatorKernels.BAND_UPPER], 4));
+        result.setBollingerLower(AnalysisSession.toDecimal(bands[IndicatorKernels.BAND_LOWER], 4));
+
+        result.setTrend(AnalysisSession.analyzeTrend(result.getSma20(), result.getSma50()));
+        result.setTradingSignal(AnalysisSession.generateTradingSignal(result.getRsi14(), result.getTrend()));
+        return result;
+    }
+
+    /**
+     * 已有指标状态的股票代码
+     */
+    public Set<String> getSymbols() {
+        return states.keySet();
+    }
+
+    /**
+     * 将有更新的股票的指标快照写入数据库
+     * @return 写入的记录数
+     */
+    @Scheduled(fixedDelayString = "${analysis.streaming.persist-interval-ms:60000}")
+    public int persistSnapshots() {
+        if (!persistEnabled || dirtySymbols.isEmpty()) {
+            return 0;
+        }
+
+        List<TechnicalIndicator> rows = new ArrayList<>();
+        for (String symbol : new ArrayList<>(dirtySymbols)) {
+            dirtySymbols.remove(symbol);
+            AnalysisResult snapshot = getSnapshot(symbol);
+            if (snapshot != null) {
+                toIndicatorRows(snapshot, rows);
+            }
+        }
+
+        try {
+            technicalIndicatorRepository.saveAll(rows);
+            logger.debug("持久化技术指标快照: {}条", rows.size());
+        } catch (Exception e) {
+            logger.error("持久化技术指标快照失败: {}", e.getMessage());
+            return 0;
+        }
+        return rows.size();
+    }
+
+    /**
+     * 在状态锁内通知监听器，同一股票的通知按价格顺序串行
+     */
+    private void notifyIndicatorListeners(String symbol, IndicatorState state) {
+        for (IndicatorListener listener : indicatorListeners) {
+            try {
+                listener.onIndicators(symbol, state);
+            } catch (Exception e) {
+                logger.error("通知指标监听器时发生错误: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 用列式价格历史中早于当前价格的K线预热指标状态
+     */
+    private IndicatorState warmUp(String symbol, long beforeTimestamp) {
+        IndicatorState state = new IndicatorState();
+        try {
+            BarSeries series = priceHistoryStore.tail(symbol, WARMUP_BARS + 1);
+            long[] timestamps = series.getTimestamps();
+            double[] closes = series.getClose();
+            for (int i = 0; i < timestamps.length && timestamps[i] < beforeTimestamp; i++) {
+                state.update(timestamps[i], closes[i]);
+            }
+            logger.debug("预热指标状态: {} {}根K线", symbol, state.getUpdates());
+        } catch (Exception e) {
+            logger.warn("预热指标状态失败: {}, 错误: {}", symbol, e.getMessage());
+        }
+        return state;
+    }
+
+    private static void toIndicatorRows(AnalysisResult snapshot, List<TechnicalIndicator> rows) {
+        addRow(rows, snapshot, "SMA", 20, snapshot.getSma20(), null);
+        addRow(rows, snapshot, "SMA", 50, snapshot.getSma50(), null);
+        addRow(rows, snapshot, "EMA", 12, snapshot.getEma12(), null);
+        addRow(rows, snapshot, "EMA", 26, snapshot.getEma26(), null);
+        addRow(rows, snapshot, "RSI", 14, snapshot.getRsi14(), null);
+        addRow(rows, snapshot, "MACD", 26, snapshot.getMacd(), snapshot.getMacdSignal());
+        addRow(rows, snapshot, "BB_UPPER", 20, snapshot.getBollingerUpper(), null);
+        addRow(rows, snapshot, "BB_MIDDLE", 20, snapshot.getBollingerMiddle(), null);
+        addRow(rows, snapshot, "BB_LOWER", 20, snapshot.getBollingerLower(), null);
+    }
+
+    private static void addRow(List<TechnicalIndicator> rows, AnalysisResult snapshot, String type,
+                               int period, BigDecimal value, BigDecimal signal) {
+        if (value == null) {
+            return;
+        }
+        TechnicalIndicator indicator = new TechnicalIndicator(snapshot.getSymbol(), type, value);
+        indicator.setSignal(signal);
+        indicator.setPeriod(period);
+        indicator.setCalculatedAt(snapshot.getAnalysisTime());
+        rows.add(indicator);
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * 指标监听器接口
+     * 在该股票的状态锁内同步调用，实现应只读取状态并尽快返回，不得保留state引用
+     */
+    public interface IndicatorListener {
+        void onIndicators(String symbol, IndicatorState state);
+    }
+}
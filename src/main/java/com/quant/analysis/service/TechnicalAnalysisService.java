@@ -1,35 +1,58 @@
 package com.quant.analysis.service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.quant.analysis.kernel.BatchIndicatorKernels;
+import com.quant.analysis.kernel.IndicatorColumns;
+import com.quant.analysis.kernel.PriceMatrix;
+import com.quant.analysis.model.AnalysisResult;
 import com.quant.futu.service.FutuDataService;
+import com.quant.stock.bar.Timeframe;
 import com.quant.stock.model.StockData;
+import com.quant.stock.service.BarAggregationService;
 import com.quant.stock.service.StockDataService;
+import com.quant.stock.store.PriceHistoryStore;
 
 /**
  * 技术分析服务类
- * 提供各种技术指标的计算和分析功能
+ * 提供各种技术指标的计算和分析功能。
+ * 各指标可以指定K线周期：富途已连接时取对应周期的K线，否则取聚合服务的多周期K线；
+ * 不指定周期时沿用原有数据源（富途日K或本地行情记录）
  */
 @Service
 public class TechnicalAnalysisService {
     
     private static final Logger logger = LoggerFactory.getLogger(TechnicalAnalysisService.class);
     
+    /** 综合分析需要的K线数量：SMA50取55个、EMA26取52个 */
+    private static final int COMPREHENSIVE_LOOKBACK = 55;
+    
+    private static final int MACD_SLOW_PERIOD = 26;
+    
     @Autowired
     private StockDataService stockDataService;
     
+    @Value("${analysis.batch.vectorized:true}")
+    private boolean batchVectorized = true;
+    
     @Autowired
     private FutuDataService futuDataService;
     
+    @Autowired
+    private BarAggregationService barAggregationService;
+    
+    @Autowired
+    private PriceHistoryStore priceHistoryStore;
+    
     /**
      * 计算简单移动平均线 (SMA)
      * @param symbol 股票代码
@@ -37,22 +60,23 @@ public class TechnicalAnalysisService {
      * @return SMA值
      */
     public BigDecimal calculateSMA(String symbol, int period) {
-        logger.debug("计算SMA: {} 周期: {}", symbol, period);
+        return calculateSMA(symbol, null, period);
+    }
+    
+    /**
+     * 计算指定K线周期上的简单移动平均线 (SMA)
+     * @param timeframe K线周期，null表示默认数据源
+     */
+    public BigDecimal calculateSMA(String symbol, Timeframe timeframe, int period) {
+        logger.debug("计算SMA: {} {} 周期: {}", symbol, timeframe, period);
         
-        List<StockData> historicalData = getHistoricalData(symbol, period + 5);
-        if (historicalData.size() < period) {
-            logger.warn("历史数据不足，无法计算SMA: {} 需要: {} 实际: {}", symbol, period, historicalData.size());
+        AnalysisSession session = openSession(symbol, timeframe, period + 5);
+        if (session.size() < period) {
+            logger.warn("历史数据不足，无法计算SMA: {} 需要: {} 实际: {}", symbol, period, session.size());
             return null;
         }
         
-        BigDecimal sum = BigDecimal.ZERO;
-        for (int i = 0; i < period; i++) {
-            if (historicalData.get(i).getCurrentPrice() != null) {
-                sum = sum.add(historicalData.get(i).getCurrentPrice());
-            }
-        }
-        
-        return sum.divide(BigDecimal.valueOf(period), 4, RoundingMode.HALF_UP);
+        return session.sma(period);
     }
     
     /**
@@ -62,24 +86,17 @@ public class TechnicalAnalysisService {
      * @return EMA值
      */
     public BigDecimal calculateEMA(String symbol, int period) {
-        logger.debug("计算EMA: {} 周期: {}", symbol, period);
-        
-        List<StockData> historicalData = getHistoricalData(symbol, period * 2);
-        if (historicalData.isEmpty()) {
-            return null;
-        }
-        
-        BigDecimal multiplier = BigDecimal.valueOf(2.0 / (period + 1));
-        BigDecimal ema = historicalData.get(historicalData.size() - 1).getCurrentPrice();
-        
-        for (int i = historicalData.size() - 2; i >= 0 && i >= historicalData.size() - period; i--) {
-            BigDecimal price = historicalData.get(i).getCurrentPrice();
-            if (price != null) {
-                ema = price.multiply(multiplier).add(ema.multiply(BigDecimal.ONE.subtract(multiplier)));
-            }
-        }
+        return calculateEMA(symbol, null, period);
+    }
+    
+    /**
+     * 计算指定K线周期上的指数移动平均线 (EMA)
+     * @param timeframe K线周期，null表示默认数据源
+     */
+    public BigDecimal calculateEMA(String symbol, Timeframe timeframe, int period) {
+        logger.debug("计算EMA: {} {} 周期: {}", symbol, timeframe, period);
         
-        return ema.setScale(4, RoundingMode.HALF_UP);
+        return openSession(symbol, timeframe, period * 2).ema(period);
     }
     
     /**
@@ -89,41 +106,17 @@ public class TechnicalAnalysisService {
      * @return RSI值
      */
     public BigDecimal calculateRSI(String symbol, int period) {
-        logger.debug("计算RSI: {} 周期: {}", symbol, period);
-        
-        List<StockData> historicalData = getHistoricalData(symbol, period + 10);
-        if (historicalData.size() < period + 1) {
-            return null;
-        }
-        
-        BigDecimal avgGain = BigDecimal.ZERO;
-        BigDecimal avgLoss = BigDecimal.ZERO;
-        
-        // 计算初始平均涨跌幅
-        for (int i = 1; i <= period; i++) {
-            BigDecimal change = historicalData.get(i).getCurrentPrice()
-                    .subtract(historicalData.get(i - 1).getCurrentPrice());
-            
-            if (change.compareTo(BigDecimal.ZERO) > 0) {
-                avgGain = avgGain.add(change);
-            } else {
-                avgLoss = avgLoss.add(change.abs());
-            }
-        }
-        
-        avgGain = avgGain.divide(BigDecimal.valueOf(period), 6, RoundingMode.HALF_UP);
-        avgLoss = avgLoss.divide(BigDecimal.valueOf(period), 6, RoundingMode.HALF_UP);
-        
-        if (avgLoss.compareTo(BigDecimal.ZERO) == 0) {
-            return BigDecimal.valueOf(100);
-        }
-        
-        BigDecimal rs = avgGain.divide(avgLoss, 6, RoundingMode.HALF_UP);
-        BigDecimal rsi = BigDecimal.valueOf(100).subtract(
-                BigDecimal.valueOf(100).divide(BigDecimal.ONE.add(rs), 2, RoundingMode.HALF_UP)
-        );
+        return calculateRSI(symbol, null, period);
+    }
+    
+    /**
+     * 计算指定K线周期上的相对强弱指标 (RSI)
+     * @param timeframe K线周期，null表示默认数据源
+     */
+    public BigDecimal calculateRSI(String symbol, Timeframe timeframe, int period) {
+        logger.debug("计算RSI: {} {} 周期: {}", symbol, timeframe, period);
         
-        return rsi;
+        return openSession(symbol, timeframe, period + 10).rsi(period);
     }
     
     /**
@@ -132,31 +125,17 @@ public class TechnicalAnalysisService {
      * @return MACD结果 (包含MACD线、信号线、柱状图)
      */
     public Map<String, BigDecimal> calculateMACD(String symbol) {
-        logger.debug("计算MACD: {}", symbol);
-        
-        Map<String, BigDecimal> result = new HashMap<>();
-        
-        BigDecimal ema12 = calculateEMA(symbol, 12);
-        BigDecimal ema26 = calculateEMA(symbol, 26);
-        
-        if (ema12 == null || ema26 == null) {
-            return result;
-        }
-        
-        // MACD线 = EMA12 - EMA26
-        BigDecimal macdLine = ema12.subtract(ema26);
-        result.put("MACD", macdLine);
-        
-        // 信号线 (MACD的9日EMA)
-        // 这里简化计算，实际应该用MACD历史值计算EMA
-        BigDecimal signalLine = macdLine.multiply(BigDecimal.valueOf(0.8));
-        result.put("Signal", signalLine);
-        
-        // 柱状图 = MACD线 - 信号线
-        BigDecimal histogram = macdLine.subtract(signalLine);
-        result.put("Histogram", histogram);
+        return calculateMACD(symbol, null);
+    }
+    
+    /**
+     * 计算指定K线周期上的MACD指标
+     * @param timeframe K线周期，null表示默认数据源
+     */
+    public Map<String, BigDecimal> calculateMACD(String symbol, Timeframe timeframe) {
+        logger.debug("计算MACD: {} {}", symbol, timeframe);
         
-        return result;
+        return openSession(symbol, timeframe, MACD_SLOW_PERIOD * 2).macd();
     }
     
     /**
@@ -167,44 +146,17 @@ public class TechnicalAnalysisService {
      * @return 布林带结果
      */
     public Map<String, BigDecimal> calculateBollingerBands(String symbol, int period, double stdDev) {
-        logger.debug("计算布林带: {} 周期: {} 标准差: {}", symbol, period, stdDev);
-        
-        Map<String, BigDecimal> result = new HashMap<>();
-        
-        List<StockData> historicalData = getHistoricalData(symbol, period + 5);
-        if (historicalData.size() < period) {
-            return result;
-        }
-        
-        // 中轨 (SMA)
-        BigDecimal sma = calculateSMA(symbol, period);
-        if (sma == null) {
-            return result;
-        }
-        result.put("Middle", sma);
-        
-        // 计算标准差
-        BigDecimal sumSquares = BigDecimal.ZERO;
-        for (int i = 0; i < period; i++) {
-            BigDecimal price = historicalData.get(i).getCurrentPrice();
-            if (price != null) {
-                BigDecimal diff = price.subtract(sma);
-                sumSquares = sumSquares.add(diff.multiply(diff));
-            }
-        }
-        
-        BigDecimal variance = sumSquares.divide(BigDecimal.valueOf(period), 6, RoundingMode.HALF_UP);
-        BigDecimal standardDeviation = BigDecimal.valueOf(Math.sqrt(variance.doubleValue()));
-        
-        BigDecimal bandwidth = standardDeviation.multiply(BigDecimal.valueOf(stdDev));
-        
-        // 上轨
-        result.put("Upper", sma.add(bandwidth));
-        
-        // 下轨
-        result.put("Lower", sma.subtract(bandwidth));
+        return calculateBollingerBands(symbol, null, period, stdDev);
+    }
+    
+    /**
+     * 计算指定K线周期上的布林带
+     * @param timeframe K线周期，null表示默认数据源
+     */
+    public Map<String, BigDecimal> calculateBollingerBands(String symbol, Timeframe timeframe, int period, double stdDev) {
+        logger.debug("计算布林带: {} {} 周期: {} 标准差: {}", symbol, timeframe, period, stdDev);
         
-        return result;
+        return openSession(symbol, timeframe, period + 5).bollingerBands(period, stdDev);
     }
     
     /**
@@ -213,102 +165,136 @@ public class TechnicalAnalysisService {
      * @return 分析结果
      */
     public Map<String, Object> comprehensiveAnalysis(String symbol) {
-        logger.info("开始综合技术分析: {}", symbol);
-        
-        Map<String, Object> analysis = new HashMap<>();
+        return analyze(symbol).toMap();
+    }
+    
+    /**
+     * 综合技术分析（类型化结果）
+     * 只加载一次历史数据，所有指标在同一序列上计算
+     * @param symbol 股票代码
+     * @return 分析结果
+     */
+    public AnalysisResult analyze(String symbol) {
+        return analyze(symbol, null);
+    }
+    
+    /**
+     * 指定K线周期的综合技术分析
+     * @param timeframe K线周期，null表示默认数据源
+     */
+    public AnalysisResult analyze(String symbol, Timeframe timeframe) {
+        logger.info("开始综合技术分析: {} {}", symbol, timeframe);
         
         try {
-            // 基础指标
-            analysis.put("SMA_20", calculateSMA(symbol, 20));
-            analysis.put("SMA_50", calculateSMA(symbol, 50));
-            analysis.put("EMA_12", calculateEMA(symbol, 12));
-            analysis.put("EMA_26", calculateEMA(symbol, 26));
-            analysis.put("RSI_14", calculateRSI(symbol, 14));
-            
-            // 复合指标
-            analysis.put("MACD", calculateMACD(symbol));
-            analysis.put("BollingerBands", calculateBollingerBands(symbol, 20, 2.0));
-            
-            // 趋势分析
-            String trend = analyzeTrend(symbol);
-            analysis.put("Trend", trend);
-            
-            // 买卖信号
-            String signal = generateTradingSignal(symbol, analysis);
-            analysis.put("TradingSignal", signal);
-            
-            analysis.put("AnalysisTime", java.time.LocalDateTime.now());
-            
+            return openSession(symbol, timeframe, COMPREHENSIVE_LOOKBACK).analyze();
         } catch (Exception e) {
             logger.error("综合技术分析失败: {}, 错误: {}", symbol, e.getMessage(), e);
-            analysis.put("Error", e.getMessage());
+            AnalysisResult result = new AnalysisResult(symbol);
+            result.setError(e.getMessage());
+            return result;
         }
-        
-        return analysis;
     }
     
     /**
-     * 趋势分析
+     * 批量技术分析
+     * 将所有股票的收盘价放入结构数组矩阵，一次计算全部股票的SMA/EMA/RSI/布林带和趋势、交易信号
+     * @param symbols 股票代码列表
+     * @return 列式指标结果，下标与symbols一致
      */
-    private String analyzeTrend(String symbol) {
-        BigDecimal sma20 = calculateSMA(symbol, 20);
-        BigDecimal sma50 = calculateSMA(symbol, 50);
-        
-        if (sma20 == null || sma50 == null) {
-            return "UNKNOWN";
+    public IndicatorColumns analyzeBatch(List<String> symbols) {
+        logger.info("开始批量技术分析: {}只股票", symbols.size());
+        
+        String[] names = new String[symbols.size()];
+        double[][] series = new double[symbols.size()][];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = symbols.get(i).toUpperCase();
+            try {
+                series[i] = getClosePrices(names[i], null, COMPREHENSIVE_LOOKBACK);
+            } catch (Exception e) {
+                logger.warn("加载历史数据失败: {}, 错误: {}", names[i], e.getMessage());
+                series[i] = new double[0];
+            }
         }
         
-        if (sma20.compareTo(sma50) > 0) {
-            return "UPTREND";
-        } else if (sma20.compareTo(sma50) < 0) {
-            return "DOWNTREND";
-        } else {
-            return "SIDEWAYS";
-        }
+        PriceMatrix matrix = PriceMatrix.of(names, series, COMPREHENSIVE_LOOKBACK);
+        return batchVectorized ? BatchIndicatorKernels.compute(matrix) : BatchIndicatorKernels.computeScalar(matrix);
     }
     
     /**
-     * 生成交易信号
+     * 打开分析会话：加载一次最近lookback个收盘价
+     * @param symbol 股票代码
+     * @param lookback 需要的K线数量
+     * @return 分析会话
      */
-    private String generateTradingSignal(String symbol, Map<String, Object> analysis) {
-        try {
-            BigDecimal rsi = (BigDecimal) analysis.get("RSI_14");
-            String trend = (String) analysis.get("Trend");
-            
-            if (rsi == null || trend == null) {
-                return "HOLD";
-            }
-            
-            // 简单的交易信号逻辑
-            if (rsi.compareTo(BigDecimal.valueOf(70)) > 0) {
-                return "SELL"; // 超买
-            } else if (rsi.compareTo(BigDecimal.valueOf(30)) < 0) {
-                return "BUY";  // 超卖
-            } else if ("UPTREND".equals(trend) && rsi.compareTo(BigDecimal.valueOf(50)) > 0) {
-                return "BUY";  // 上升趋势 + RSI > 50
-            } else if ("DOWNTREND".equals(trend) && rsi.compareTo(BigDecimal.valueOf(50)) < 0) {
-                return "SELL"; // 下降趋势 + RSI < 50
-            }
-            
-            return "HOLD";
-            
-        } catch (Exception e) {
-            logger.warn("生成交易信号失败: {}", e.getMessage());
-            return "HOLD";
-        }
+    public AnalysisSession openSession(String symbol, int lookback) {
+        return openSession(symbol, null, lookback);
+    }
+    
+    /**
+     * 打开指定K线周期的分析会话
+     * @param timeframe K线周期，null表示默认数据源
+     */
+    public AnalysisSession openSession(String symbol, Timeframe timeframe, int lookback) {
+        return new AnalysisSession(symbol, getClosePrices(symbol, timeframe, lookback));
     }
     
     /**
      * 获取历史数据
      */
-    private List<StockData> getHistoricalData(String symbol, int count) {
+    private List<StockData> getHistoricalData(String symbol, Timeframe timeframe, int count) {
         // 优先使用富途数据
         if (futuDataService.isConnected()) {
             String futuSymbol = "US." + symbol.toUpperCase();
-            return futuDataService.getHistoricalKLine(futuSymbol, "K_DAY", count);
+            String kLineType = timeframe != null ? timeframe.getFutuKLineType() : Timeframe.D1.getFutuKLineType();
+            return futuDataService.getHistoricalKLine(futuSymbol, kLineType, count);
         }
         
-        // 降级使用本地数据
-        return stockDataService.getHistoricalData(symbol);
+        // 降级使用本地数据，只读取最近count条
+        return stockDataService.getHistoricalData(symbol, count);
+    }
+    
+    /**
+     * 获取最近count个收盘价，按时间升序排列（最后一个为最新价格）
+     * 富途K线按时间升序返回，本地数据按时间倒序返回，这里统一方向并跳过空价格；
+     * 富途未连接且指定了周期时直接读取聚合K线，不再把原始行情记录当作K线；
+     * 富途未连接时默认数据源直接读取列式价格存储的收盘价，列存储没有该股票数据时才回退到历史分区
+     */
+    private double[] getClosePrices(String symbol, Timeframe timeframe, int count) {
+        if (!futuDataService.isConnected()) {
+            if (timeframe != null) {
+                return barAggregationService.getCloses(symbol, timeframe, count);
+            }
+            double[] closes = priceHistoryStore.tailCloses(symbol, count);
+            if (closes.length > 0) {
+                return closes;
+            }
+        }
+        List<StockData> historicalData = getHistoricalData(symbol, timeframe, count);
+        int size = historicalData.size();
+        if (size == 0) {
+            return new double[0];
+        }
+        
+        boolean descending = size > 1 && isAfter(historicalData.get(0), historicalData.get(size - 1));
+        double[] closes = new double[Math.min(size, count)];
+        int filled = 0;
+        // 从最新一条开始向前取，再倒序写入数组
+        for (int i = 0; i < size && filled < closes.length; i++) {
+            StockData data = historicalData.get(descending ? i : size - 1 - i);
+            if (data.getCurrentPrice() != null) {
+                closes[closes.length - 1 - filled] = data.getCurrentPrice().doubleValue();
+                filled++;
+            }
+        }
+        
+        if (filled < closes.length) {
+            return Arrays.copyOfRange(closes, closes.length - filled, closes.length);
+        }
+        return closes;
+    }
+    
+    private static boolean isAfter(StockData first, StockData last) {
+        return first.getLastUpdated() != null && last.getLastUpdated() != null
+                && first.getLastUpdated().isAfter(last.getLastUpdated());
     }
 }
@@ -30,6 +30,13 @@ public class FutuConfig {
     private boolean enableRealtimeQuote = true;
     private boolean enableOrderBook = false;
     private boolean enableTicker = false;
+    private String quoteTransport = "opend";
+    private long simulatedQuoteIntervalMs = 1000;
+    private int orderBookLevels = 10;
+    private int orderBookCapacity = 512;
+    private int tickerCapacity = 4096;
+    private String klineCacheDir = "data/kline-cache";
+    private long klineRefreshMs = 60_000;
     
     // 构造函数
     public FutuConfig() {
@@ -156,6 +163,62 @@ public class FutuConfig {
         this.enableTicker = enableTicker;
     }
     
+    public String getQuoteTransport() {
+        return quoteTransport;
+    }
+    
+    public void setQuoteTransport(String quoteTransport) {
+        this.quoteTransport = quoteTransport;
+    }
+    
+    public long getSimulatedQuoteIntervalMs() {
+        return simulatedQuoteIntervalMs;
+    }
+    
+    public void setSimulatedQuoteIntervalMs(long simulatedQuoteIntervalMs) {
+        this.simulatedQuoteIntervalMs = simulatedQuoteIntervalMs;
+    }
+    
+    public int getOrderBookLevels() {
+        return orderBookLevels;
+    }
+    
+    public void setOrderBookLevels(int orderBookLevels) {
+        this.orderBookLevels = orderBookLevels;
+    }
+    
+    public int getOrderBookCapacity() {
+        return orderBookCapacity;
+    }
+    
+    public void setOrderBookCapacity(int orderBookCapacity) {
+        this.orderBookCapacity = orderBookCapacity;
+    }
+    
+    public int getTickerCapacity() {
+        return tickerCapacity;
+    }
+    
+    public void setTickerCapacity(int tickerCapacity) {
+        this.tickerCapacity = tickerCapacity;
+    }
+    
+    public String getKlineCacheDir() {
+        return klineCacheDir;
+    }
+    
+    public void setKlineCacheDir(String klineCacheDir) {
+        this.klineCacheDir = klineCacheDir;
+    }
+    
+    public long getKlineRefreshMs() {
+        return klineRefreshMs;
+    }
+    
+    public void setKlineRefreshMs(long klineRefreshMs) {
+        this.klineRefreshMs = klineRefreshMs;
+    }
+    
     /**
      * 获取完整的连接地址
      * @return 连接地址
@@ -188,6 +251,7 @@ public class FutuConfig {
                 ", enableCnStock=" + enableCnStock +
                 ", maxSubscriptions=" + maxSubscriptions +
                 ", enableRealtimeQuote=" + enableRealtimeQuote +
+                ", quoteTransport='" + quoteTransport + '\'' +
                 '}';
     }
 }
@@ -0,0 +1,166 @@
+package com.quant.futu.depth;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 盘口和逐笔成交存储
+ * 每个已注册股票各有一个盘口快照环形缓冲区和一个逐笔成交环形缓冲区，数据只保存在堆外内存中，不落库；
+ * 未注册股票的数据被丢弃。提供快照、增量查询以及VWAP、价差和不平衡度等派生指标
+ */
+public class MarketDepthStore {
+
+    private final int levels;
+    private final int orderBookCapacity;
+    private final int tickerCapacity;
+    private final boolean orderBookEnabled;
+    private final boolean tickerEnabled;
+    private final Map<String, SymbolDepth> depths = new ConcurrentHashMap<>();
+
+    /**
+     * @param levels 盘口档位数
+     * @param orderBookCapacity 每个股票保存的盘口快照数，0表示不保存盘口
+     * @param tickerCapacity 每个股票保存的逐笔成交数，0表示不保存逐笔
+     */
+    public MarketDepthStore(int levels, int orderBookCapacity, int tickerCapacity) {
+        this.levels = levels;
+        this.orderBookCapacity = orderBookCapacity;
+        this.tickerCapacity = tickerCapacity;
+        this.orderBookEnabled = orderBookCapacity > 0;
+        this.tickerEnabled = tickerCapacity > 0;
+    }
+
+    public boolean isOrderBookEnabled() {
+        return orderBookEnabled;
+    }
+
+    public boolean isTickerEnabled() {
+        return tickerEnabled;
+    }
+
+    /**
+     * 为股票分配缓冲区，已存在时保留原有数据
+     */
+    public void register(String symbol) {
+        if (orderBookEnabled || tickerEnabled) {
+            depths.computeIfAbsent(symbol, key -> new SymbolDepth());
+        }
+    }
+
+    /**
+     * 释放股票的缓冲区
+     */
+    public void remove(String symbol) {
+        depths.remove(symbol);
+    }
+
+    /**
+     * 写入盘口快照
+     * @return 未注册或未启用盘口时返回false
+     */
+    public boolean onOrderBook(String symbol, long timestamp, double[] bidPrices, double[] bidSizes,
+                               double[] askPrices, double[] askSizes) {
+        SymbolDepth depth = depths.get(symbol);
+        if (depth == null || depth.orderBook == null) {
+            return false;
+        }
+        depth.orderBook.append(timestamp, bidPrices, bidSizes, askPrices, askSizes);
+        return true;
+    }
+
+    /**
+     * 写入一笔成交
+     * @param direction {@link TickRingBuffer#BUY}、{@link TickRingBuffer#SELL} 或 {@link TickRingBuffer#NEUTRAL}
+     * @return 未注册或未启用逐笔时返回false
+     */
+    public boolean onTick(String symbol, long timestamp, double price, double volume, int direction) {
+        SymbolDepth depth = depths.get(symbol);
+        if (depth == null || depth.ticks == null) {
+            return false;
+        }
+        depth.ticks.append(timestamp, price, volume, direction);
+        return true;
+    }
+
+    /**
+     * 最新盘口快照，没有数据时返回null
+     */
+    public OrderBookSnapshot getOrderBook(String symbol) {
+        SymbolDepth depth = depths.get(symbol);
+        return depth == null || depth.orderBook == null ? null : depth.orderBook.latest();
+    }
+
+    /**
+     * 从指定序列号开始的盘口快照
+     */
+    public List<OrderBookSnapshot> getOrderBookUpdates(String symbol, long fromSequence, int max) {
+        SymbolDepth depth = depths.get(symbol);
+        return depth == null || depth.orderBook == null ? Collections.emptyList()
+                : depth.orderBook.read(fromSequence, max);
+    }
+
+    /**
+     * 从指定序列号开始的逐笔成交，没有数据时返回null
+     */
+    public TickBatch getTicks(String symbol, long fromSequence, int max) {
+        SymbolDepth depth = depths.get(symbol);
+        return depth == null || depth.ticks == null ? null : depth.ticks.read(fromSequence, max);
+    }
+
+    /**
+     * 时间戳不早于since的成交统计，没有数据时返回null
+     */
+    public TradeStats getTradeStats(String symbol, long since) {
+        SymbolDepth depth = depths.get(symbol);
+        return depth == null || depth.ticks == null ? null : depth.ticks.stats(since);
+    }
+
+    /**
+     * 派生指标：最近windowMs内的VWAP、成交量和主动买卖不平衡度，以及最新盘口的价差、中间价和挂单不平衡度
+     * @return 未注册时返回null
+     */
+    public Map<String, Object> getMetrics(String symbol, long windowMs, long now) {
+        SymbolDepth depth = depths.get(symbol);
+        if (depth == null) {
+            return null;
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("symbol", symbol);
+        if (depth.ticks != null) {
+            TradeStats stats = depth.ticks.stats(now - windowMs);
+            metrics.put("windowMs", windowMs);
+            metrics.put("trades", stats.getTrades());
+            metrics.put("volume", stats.getVolume());
+            metrics.put("vwap", stats.getVwap());
+            metrics.put("tradeImbalance", stats.getTradeImbalance());
+        }
+        OrderBookSnapshot book = depth.orderBook != null ? depth.orderBook.latest() : null;
+        if (book != null) {
+            metrics.put("bestBid", book.getBestBid());
+            metrics.put("bestAsk", book.getBestAsk());
+            metrics.put("spread", book.getSpread());
+            metrics.put("mid", book.getMid());
+            metrics.put("bookImbalance", book.getImbalance());
+        }
+        return metrics;
+    }
+
+    /**
+     * 已注册的股票数
+     */
+    public int size() {
+        return depths.size();
+    }
+
+    /**
+     * 单个股票的缓冲区，未启用的一侧为null
+     */
+    private final class SymbolDepth {
+        private final OrderBookRingBuffer orderBook = orderBookEnabled
+                ? new OrderBookRingBuffer(levels, orderBookCapacity) : null;
+        private final TickRingBuffer ticks = tickerEnabled ? new TickRingBuffer(tickerCapacity) : null;
+    }
+}
@@ -0,0 +1,162 @@
+package com.quant.futu.depth;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 盘口快照环形缓冲区
+ * 固定容量的堆外内存，每个快照占 8 + levels * 32 字节：时间戳(8)，
+ * 之后每档依次为买价、买量、卖价、卖量(各8)，不足levels档的位置填NaN。
+ * 与 {@link TickRingBuffer} 一样按序列号增量读取，读取不加锁，读完后校验是否被覆盖
+ */
+public final class OrderBookRingBuffer {
+
+    private static final int TIMESTAMP = 0;
+    private static final int LEVEL_BYTES = 32;
+
+    private final ByteBuffer buffer;
+    private final int levels;
+    private final int recordBytes;
+    private final int capacity;
+    private final int mask;
+
+    /** 已写入的快照数，即下一个快照的序列号 */
+    private volatile long written;
+
+    /**
+     * @param levels 保存的档位数，超出的档位被截断
+     * @param capacity 保存的快照数，向上取整为2的幂
+     */
+    public OrderBookRingBuffer(int levels, int capacity) {
+        if (levels <= 0 || levels > 100) {
+            throw new IllegalArgumentException("档位数超出范围: " + levels);
+        }
+        if (capacity < 2 || capacity > (1 << 20)) {
+            throw new IllegalArgumentException("容量超出范围: " + capacity);
+        }
+        this.levels = levels;
+        this.recordBytes = 8 + levels * LEVEL_BYTES;
+        this.capacity = TickRingBuffer.ceilPowerOfTwo(capacity);
+        this.mask = this.capacity - 1;
+        this.buffer = ByteBuffer.allocateDirect(this.capacity * recordBytes);
+    }
+
+    /**
+     * 写入一个快照，价格从最优档开始排列
+     * @return 快照的序列号
+     */
+    public synchronized long append(long timestamp, double[] bidPrices, double[] bidSizes,
+                                    double[] askPrices, double[] askSizes) {
+        long sequence = written;
+        int offset = offset(sequence);
+        buffer.putLong(offset + TIMESTAMP, timestamp);
+        for (int level = 0; level < levels; level++) {
+            int position = offset + 8 + level * LEVEL_BYTES;
+            boolean hasBid = level < bidPrices.length && level < bidSizes.length;
+            boolean hasAsk = level < askPrices.length && level < askSizes.length;
+            buffer.putDouble(position, hasBid ? bidPrices[level] : Double.NaN);
+            buffer.putDouble(position + 8, hasBid ? bidSizes[level] : Double.NaN);
+            buffer.putDouble(position + 16, hasAsk ? askPrices[level] : Double.NaN);
+            buffer.putDouble(position + 24, hasAsk ? askSizes[level] : Double.NaN);
+        }
+        written = sequence + 1;
+        return sequence;
+    }
+
+    public int getLevels() {
+        return levels;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 下一个快照的序列号
+     */
+    public long getNextSequence() {
+        return written;
+    }
+
+    /**
+     * 最新快照，尚无快照时返回null
+     */
+    public OrderBookSnapshot latest() {
+        while (true) {
+            long sequence = written - 1;
+            if (sequence < 0) {
+                return null;
+            }
+            OrderBookSnapshot snapshot = readRecord(sequence);
+            if (sequence >= firstIntact()) {
+                return snapshot;
+            }
+        }
+    }
+
+    /**
+     * 读取从指定序列号开始的快照（增量查询），已被覆盖的快照跳过
+     * @param fromSequence 起始序列号，通常为上一次最后一个快照的序列号加1
+     * @param max 最多返回的快照数
+     */
+    public List<OrderBookSnapshot> read(long fromSequence, int max) {
+        long end = written;
+        long start = Math.max(Math.max(fromSequence, end - capacity + 1), 0);
+        int count = (int) Math.max(0, Math.min(max, end - start));
+        List<OrderBookSnapshot> snapshots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            snapshots.add(readRecord(start + i));
+        }
+        long intact = firstIntact();
+        snapshots.removeIf(snapshot -> snapshot.getSequence() < intact);
+        return snapshots;
+    }
+
+    private OrderBookSnapshot readRecord(long sequence) {
+        int offset = offset(sequence);
+        double[] bidPrices = new double[levels];
+        double[] bidSizes = new double[levels];
+        double[] askPrices = new double[levels];
+        double[] askSizes = new double[levels];
+        int bids = 0;
+        int asks = 0;
+        for (int level = 0; level < levels; level++) {
+            int position = offset + 8 + level * LEVEL_BYTES;
+            double bidPrice = buffer.getDouble(position);
+            if (!Double.isNaN(bidPrice)) {
+                bidPrices[bids] = bidPrice;
+                bidSizes[bids++] = buffer.getDouble(position + 8);
+            }
+            double askPrice = buffer.getDouble(position + 16);
+            if (!Double.isNaN(askPrice)) {
+                askPrices[asks] = askPrice;
+                askSizes[asks++] = buffer.getDouble(position + 24);
+            }
+        }
+        return new OrderBookSnapshot(sequence, buffer.getLong(offset + TIMESTAMP),
+            trim(bidPrices, bids), trim(bidSizes, bids), trim(askPrices, asks), trim(askSizes, asks));
+    }
+
+    /**
+     * 读取完成后仍然完整的最小序列号
+     */
+    private long firstIntact() {
+        VarHandle.acquireFence();
+        return written - capacity + 1;
+    }
+
+    private int offset(long sequence) {
+        return (int) (sequence & mask) * recordBytes;
+    }
+
+    private static double[] trim(double[] values, int length) {
+        if (length == values.length) {
+            return values;
+        }
+        double[] trimmed = new double[length];
+        System.arraycopy(values, 0, trimmed, 0, length);
+        return trimmed;
+    }
+}
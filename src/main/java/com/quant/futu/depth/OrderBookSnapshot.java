@@ -0,0 +1,96 @@
+package com.quant.futu.depth;
+
+/**
+ * 盘口快照
+ * 买卖档位从最优价开始排列，并提供价差、中间价和挂单不平衡度
+ */
+public final class OrderBookSnapshot {
+
+    private final long sequence;
+    private final long timestamp;
+    private final double[] bidPrices;
+    private final double[] bidSizes;
+    private final double[] askPrices;
+    private final double[] askSizes;
+
+    OrderBookSnapshot(long sequence, long timestamp, double[] bidPrices, double[] bidSizes,
+                      double[] askPrices, double[] askSizes) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.bidPrices = bidPrices;
+        this.bidSizes = bidSizes;
+        this.askPrices = askPrices;
+        this.askSizes = askSizes;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public double[] getBidPrices() {
+        return bidPrices.clone();
+    }
+
+    public double[] getBidSizes() {
+        return bidSizes.clone();
+    }
+
+    public double[] getAskPrices() {
+        return askPrices.clone();
+    }
+
+    public double[] getAskSizes() {
+        return askSizes.clone();
+    }
+
+    /**
+     * 最优买价，没有买盘时返回NaN
+     */
+    public double getBestBid() {
+        return bidPrices.length > 0 ? bidPrices[0] : Double.NaN;
+    }
+
+    /**
+     * 最优卖价，没有卖盘时返回NaN
+     */
+    public double getBestAsk() {
+        return askPrices.length > 0 ? askPrices[0] : Double.NaN;
+    }
+
+    /**
+     * 买卖价差，任一侧为空时返回NaN
+     */
+    public double getSpread() {
+        return getBestAsk() - getBestBid();
+    }
+
+    public double getMid() {
+        return (getBestAsk() + getBestBid()) / 2;
+    }
+
+    /**
+     * 全部档位的挂单不平衡度
+     */
+    public double getImbalance() {
+        return imbalance(Math.max(bidSizes.length, askSizes.length));
+    }
+
+    /**
+     * 前levels档的挂单不平衡度 (买量 - 卖量) / (买量 + 卖量)，范围[-1, 1]，两侧都为空时返回0
+     */
+    public double imbalance(int levels) {
+        double bid = 0;
+        double ask = 0;
+        for (int i = 0; i < Math.min(levels, bidSizes.length); i++) {
+            bid += bidSizes[i];
+        }
+        for (int i = 0; i < Math.min(levels, askSizes.length); i++) {
+            ask += askSizes[i];
+        }
+        return bid + ask > 0 ? (bid - ask) / (bid + ask) : 0;
+    }
+}
@@ -0,0 +1,85 @@
+package com.quant.futu.depth;
+
+import java.util.Arrays;
+
+/**
+ * 一批连续的逐笔成交，字段按列存放，序列化为JSON时也按列输出
+ */
+public final class TickBatch {
+
+    private final long requestedSequence;
+    private final long fromSequence;
+    private final long[] timestamps;
+    private final double[] prices;
+    private final double[] volumes;
+    private final int[] directions;
+    private final int offset;
+
+    TickBatch(long requestedSequence, long fromSequence, long[] timestamps, double[] prices,
+              double[] volumes, int[] directions, int offset) {
+        this.requestedSequence = requestedSequence;
+        this.fromSequence = fromSequence;
+        this.timestamps = timestamps;
+        this.prices = prices;
+        this.volumes = volumes;
+        this.directions = directions;
+        this.offset = offset;
+    }
+
+    /**
+     * 第一笔成交的序列号
+     */
+    public long getFromSequence() {
+        return fromSequence;
+    }
+
+    /**
+     * 下一次增量查询的起始序列号
+     */
+    public long getNextSequence() {
+        return fromSequence + size();
+    }
+
+    /**
+     * 请求的起始序列号之后、本批之前已被覆盖而丢失的成交数
+     */
+    public long getDropped() {
+        return Math.max(0, fromSequence - requestedSequence);
+    }
+
+    public int size() {
+        return timestamps.length - offset;
+    }
+
+    public long getTimestamp(int index) {
+        return timestamps[offset + index];
+    }
+
+    public double getPrice(int index) {
+        return prices[offset + index];
+    }
+
+    public double getVolume(int index) {
+        return volumes[offset + index];
+    }
+
+    public int getDirection(int index) {
+        return directions[offset + index];
+    }
+
+    public long[] getTimestamps() {
+        return Arrays.copyOfRange(timestamps, offset, timestamps.length);
+    }
+
+    public double[] getPrices() {
+        return Arrays.copyOfRange(prices, offset, prices.length);
+    }
+
+    public double[] getVolumes() {
+        return Arrays.copyOfRange(volumes, offset, volumes.length);
+    }
+
+    public int[] getDirections() {
+        return Arrays.copyOfRange(directions, offset, directions.length);
+    }
+}
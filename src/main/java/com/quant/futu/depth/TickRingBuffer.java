@@ -0,0 +1,150 @@
+package com.quant.futu.depth;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+
+/**
+ * 逐笔成交环形缓冲区
+ * 固定容量的堆外内存，每笔成交占32字节：时间戳(8) | 价格(8) | 成交量(8) | 方向(4) | 填充(4)。
+ * 每笔成交有单调递增的序列号，写满后覆盖最旧的成交；最旧的一个槽位可能正被覆盖，读取时不返回，
+ * 因此最多可读 capacity - 1 笔。写入串行化；读取不加锁，读完后根据写入进度丢弃读取期间可能被覆盖的记录
+ */
+public final class TickRingBuffer {
+
+    /** 主动买入（外盘），与富途TickerDirection一致 */
+    public static final int BUY = 1;
+    /** 主动卖出（内盘） */
+    public static final int SELL = 2;
+    public static final int NEUTRAL = 3;
+
+    private static final int RECORD_BYTES = 32;
+    private static final int TIMESTAMP = 0;
+    private static final int PRICE = 8;
+    private static final int VOLUME = 16;
+    private static final int DIRECTION = 24;
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+
+    /** 已写入的成交数，即下一笔成交的序列号 */
+    private volatile long written;
+
+    /**
+     * @param capacity 容量，向上取整为2的幂
+     */
+    public TickRingBuffer(int capacity) {
+        if (capacity < 2 || capacity > (1 << 26)) {
+            throw new IllegalArgumentException("容量超出范围: " + capacity);
+        }
+        this.capacity = ceilPowerOfTwo(capacity);
+        this.mask = this.capacity - 1;
+        this.buffer = ByteBuffer.allocateDirect(this.capacity * RECORD_BYTES);
+    }
+
+    /**
+     * 写入一笔成交
+     * @return 成交的序列号
+     */
+    public synchronized long append(long timestamp, double price, double volume, int direction) {
+        long sequence = written;
+        int offset = offset(sequence);
+        buffer.putLong(offset + TIMESTAMP, timestamp);
+        buffer.putDouble(offset + PRICE, price);
+        buffer.putDouble(offset + VOLUME, volume);
+        buffer.putInt(offset + DIRECTION, direction);
+        written = sequence + 1;
+        return sequence;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 下一笔成交的序列号
+     */
+    public long getNextSequence() {
+        return written;
+    }
+
+    /**
+     * 读取从指定序列号开始的成交（增量查询）
+     * 请求的成交已被覆盖时从仍保留的最旧成交开始，可通过 {@link TickBatch#getDropped()} 发现缺口
+     * @param fromSequence 起始序列号，通常为上一次返回的 nextSequence
+     * @param max 最多返回的成交数
+     */
+    public TickBatch read(long fromSequence, int max) {
+        long end = written;
+        long start = Math.max(Math.max(fromSequence, end - capacity + 1), 0);
+        int count = (int) Math.max(0, Math.min(max, end - start));
+
+        long[] timestamps = new long[count];
+        double[] prices = new double[count];
+        double[] volumes = new double[count];
+        int[] directions = new int[count];
+        for (int i = 0; i < count; i++) {
+            int offset = offset(start + i);
+            timestamps[i] = buffer.getLong(offset + TIMESTAMP);
+            prices[i] = buffer.getDouble(offset + PRICE);
+            volumes[i] = buffer.getDouble(offset + VOLUME);
+            directions[i] = buffer.getInt(offset + DIRECTION);
+        }
+
+        int skip = (int) Math.min(count, Math.max(0, firstIntact() - start));
+        return new TickBatch(fromSequence, start + skip, timestamps, prices, volumes, directions, skip);
+    }
+
+    /**
+     * 统计时间戳不早于since的成交
+     * 从最新成交向前扫描，扫描期间被覆盖时重新扫描
+     */
+    public TradeStats stats(long since) {
+        while (true) {
+            long end = written;
+            long oldest = Math.max(0, end - capacity + 1);
+            long count = 0;
+            double volume = 0;
+            double notional = 0;
+            double buyVolume = 0;
+            double sellVolume = 0;
+            long sequence = end - 1;
+            for (; sequence >= oldest; sequence--) {
+                int offset = offset(sequence);
+                if (buffer.getLong(offset + TIMESTAMP) < since) {
+                    break;
+                }
+                double price = buffer.getDouble(offset + PRICE);
+                double size = buffer.getDouble(offset + VOLUME);
+                int direction = buffer.getInt(offset + DIRECTION);
+                count++;
+                volume += size;
+                notional += price * size;
+                if (direction == BUY) {
+                    buyVolume += size;
+                } else if (direction == SELL) {
+                    sellVolume += size;
+                }
+            }
+            if (Math.max(sequence, oldest) >= firstIntact()) {
+                return new TradeStats(count, volume, notional, buyVolume, sellVolume);
+            }
+        }
+    }
+
+    /**
+     * 读取完成后仍然完整的最小序列号：正在写入的成交会覆盖序列号为 written - capacity 的记录
+     */
+    private long firstIntact() {
+        VarHandle.acquireFence();
+        return written - capacity + 1;
+    }
+
+    static int ceilPowerOfTwo(int n) {
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    private int offset(long sequence) {
+        return (int) (sequence & mask) * RECORD_BYTES;
+    }
+}
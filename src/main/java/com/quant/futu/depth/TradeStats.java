@@ -0,0 +1,52 @@
+package com.quant.futu.depth;
+
+/**
+ * 一段时间内的成交统计
+ */
+public final class TradeStats {
+
+    private final long trades;
+    private final double volume;
+    private final double notional;
+    private final double buyVolume;
+    private final double sellVolume;
+
+    TradeStats(long trades, double volume, double notional, double buyVolume, double sellVolume) {
+        this.trades = trades;
+        this.volume = volume;
+        this.notional = notional;
+        this.buyVolume = buyVolume;
+        this.sellVolume = sellVolume;
+    }
+
+    public long getTrades() {
+        return trades;
+    }
+
+    public double getVolume() {
+        return volume;
+    }
+
+    public double getBuyVolume() {
+        return buyVolume;
+    }
+
+    public double getSellVolume() {
+        return sellVolume;
+    }
+
+    /**
+     * 成交量加权平均价，没有成交时返回NaN
+     */
+    public double getVwap() {
+        return volume > 0 ? notional / volume : Double.NaN;
+    }
+
+    /**
+     * 主动买卖不平衡度 (买 - 卖) / (买 + 卖)，范围[-1, 1]，没有带方向的成交时返回0
+     */
+    public double getTradeImbalance() {
+        double total = buyVolume + sellVolume;
+        return total > 0 ? (buyVolume - sellVolume) / total : 0;
+    }
+}
@@ -0,0 +1,192 @@
+package com.quant.futu.kline;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.quant.stock.bar.Timeframe;
+import com.quant.stock.store.BarSeries;
+import com.quant.stock.store.PriceHistoryStore;
+
+/**
+ * 本地K线缓存
+ * 每个（富途代码, 周期）一组列式文件，首次请求或本地K线数不足时整段下载，之后只下载最后一根已存K线之后的增量；
+ * 最后一根K线可能尚未收盘，增量从它开始下载并覆盖，早于它的K线被丢弃，从而合并去重。
+ * 距上次同步不足refreshMs时直接读本地，不访问行情源
+ */
+public class KLineCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(KLineCache.class);
+
+    private final PriceHistoryStore store;
+    private final KLineSource source;
+    private final long refreshMs;
+
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+    private final Map<String, Long> syncedAt = new ConcurrentHashMap<>();
+    /** 整段下载过的最大K线数，本地K线数不足但行情源也没有更多数据时不再重复整段下载 */
+    private final Map<String, Integer> loadedCounts = new ConcurrentHashMap<>();
+    /** 本地K线的修订号，每次写入K线后加一 */
+    private final Map<String, Long> revisions = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder fullLoads = new LongAdder();
+    private final LongAdder deltaLoads = new LongAdder();
+    private final LongAdder deltaBars = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * @param refreshMs 两次同步行情源的最小间隔
+     */
+    public KLineCache(PriceHistoryStore store, KLineSource source, long refreshMs) {
+        this.store = store;
+        this.source = source;
+        this.refreshMs = refreshMs;
+    }
+
+    /**
+     * 最近count根K线，按时间升序
+     * 必要时先从行情源同步；同步失败时返回本地已有的K线
+     * @param code 富途代码，如 US.AAPL
+     */
+    public BarSeries get(String code, Timeframe timeframe, int count, long now) {
+        String key = key(code, timeframe);
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            refresh(key, code, timeframe, count, now);
+            return store.tail(key, count);
+        }
+    }
+
+    /**
+     * 本地K线的修订号，按与 {@link #get} 相同的规则先从行情源同步
+     * 修订号只在K线写入本地后变化（包括未收盘K线被覆盖），可作为基于这些K线的计算结果的缓存键
+     */
+    public long revision(String code, Timeframe timeframe, long now) {
+        String key = key(code, timeframe);
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            refresh(key, code, timeframe, 1, now);
+            return revisions.getOrDefault(key, 0L);
+        }
+    }
+
+    /**
+     * 本地时间范围[from, to]内的K线，不访问行情源
+     */
+    public BarSeries range(String code, Timeframe timeframe, long fromTimestamp, long toTimestamp) {
+        return store.range(key(code, timeframe), fromTimestamp, toTimestamp);
+    }
+
+    /**
+     * 本地最近count根K线，不访问行情源
+     */
+    public BarSeries tail(String code, Timeframe timeframe, int count) {
+        return store.tail(key(code, timeframe), count);
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("fullLoads", fullLoads.sum());
+        stats.put("deltaLoads", deltaLoads.sum());
+        stats.put("deltaBars", deltaBars.sum());
+        stats.put("failures", failures.sum());
+        return stats;
+    }
+
+    /**
+     * 本地没有K线或数量不足时整段下载，距上次同步超过refreshMs时增量同步，失败只记录
+     */
+    private void refresh(String key, String code, Timeframe timeframe, int count, long now) {
+        try {
+            int cached = store.size(key);
+            if (cached == 0 || (cached < count && loadedCounts.getOrDefault(key, 0) < count)) {
+                load(key, code, timeframe, count);
+                syncedAt.put(key, now);
+            } else if (now - syncedAt.getOrDefault(key, Long.MIN_VALUE / 2) >= refreshMs) {
+                sync(key, code, timeframe, now);
+                syncedAt.put(key, now);
+            } else {
+                hits.increment();
+            }
+        } catch (Exception e) {
+            failures.increment();
+            logger.error("同步K线失败: {} {}, 错误: {}", code, timeframe.getFutuKLineType(), e.getMessage());
+        }
+    }
+
+    /**
+     * 整段下载并替换本地K线
+     */
+    private void load(String key, String code, Timeframe timeframe, int count) throws Exception {
+        BarSeries bars = source.fetchLatest(code, timeframe, count);
+        fullLoads.increment();
+        loadedCounts.merge(key, count, Math::max);
+        if (bars.isEmpty()) {
+            return;
+        }
+        store.delete(key);
+        write(key, bars);
+        revisions.merge(key, 1L, Long::sum);
+        logger.debug("整段下载K线: {} {} {}根", code, timeframe.getFutuKLineType(), bars.size());
+    }
+
+    /**
+     * 下载最后一根已存K线及之后的K线并合并
+     */
+    private void sync(String key, String code, Timeframe timeframe, long now) throws Exception {
+        long last = store.lastTimestamp(key);
+        int expected = (int) Math.min(Integer.MAX_VALUE - 1, Math.max(0, (now - last) / timeframe.getMillis())) + 1;
+        BarSeries bars = source.fetchSince(code, timeframe, last, expected);
+        deltaLoads.increment();
+        int written = write(key, bars);
+        deltaBars.add(written);
+        if (written > 0) {
+            revisions.merge(key, 1L, Long::sum);
+        }
+        logger.debug("增量下载K线: {} {} {}根，写入{}根", code, timeframe.getFutuKLineType(), bars.size(), written);
+    }
+
+    /**
+     * 按时间顺序写入，早于最后一根的K线被丢弃，时间相同的覆盖
+     * @return 写入的K线数
+     */
+    private int write(String key, BarSeries bars) {
+        long[] timestamps = bars.getTimestamps();
+        int written = 0;
+        for (int i = 0; i < timestamps.length; i++) {
+            if (store.upsert(key, timestamps[i], bars.getOpen()[i], bars.getHigh()[i], bars.getLow()[i],
+                    bars.getClose()[i], bars.getVolume()[i])) {
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private static String key(String code, Timeframe timeframe) {
+        return code + "_" + timeframe.getFutuKLineType();
+    }
+
+    /**
+     * K线行情源
+     */
+    public interface KLineSource {
+
+        /**
+         * 最近count根K线，按时间升序
+         */
+        BarSeries fetchLatest(String code, Timeframe timeframe, int count) throws Exception;
+
+        /**
+         * 起始时间不早于fromTimestamp的K线，按时间升序
+         * @param expectedCount 预计的K线数，可用作请求上限
+         */
+        BarSeries fetchSince(String code, Timeframe timeframe, long fromTimestamp, int expectedCount) throws Exception;
+    }
+}
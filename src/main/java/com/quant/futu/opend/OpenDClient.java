@@ -0,0 +1,534 @@
+package com.quant.futu.opend;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.quant.config.FutuConfig;
+
+/**
+ * OpenD NIO客户端
+ * 单个I/O线程运行事件循环，负责连接、读写、心跳、请求超时和断线重连。
+ * 请求按序列号配对，任意线程可以并发发出请求，不必等待前一个响应（流水线）；
+ * 序列号不属于任何未完成请求的帧作为推送交给推送监听器。
+ * 断线后所有未完成请求立即失败，按指数退避重连，重连成功后通知连接监听器
+ */
+public class OpenDClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenDClient.class);
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    /** 连续多少个心跳间隔没有收到任何数据视为连接失效 */
+    private static final int KEEP_ALIVE_MISSES = 3;
+
+    /** 有未完成请求时检查超时的间隔 */
+    private static final long TIMEOUT_CHECK_MS = 100;
+
+    private enum State { IDLE, CONNECTING, HANDSHAKING, CONNECTED }
+
+    private final String host;
+    private final int port;
+    private final long requestTimeoutMs;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final String clientId;
+
+    private final AtomicInteger nextSerialNo = new AtomicInteger();
+    private final Map<Integer, PendingRequest> pending = new ConcurrentHashMap<>();
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final List<PushListener> pushListeners = new CopyOnWriteArrayList<>();
+    private final List<ConnectionListener> connectionListeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong reconnects = new AtomicLong();
+
+    // 以下字段只在I/O线程访问
+    private final Queue<ByteBuffer> writeQueue = new ArrayDeque<>();
+    private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private SocketChannel channel;
+    private SelectionKey key;
+    private long keepAliveMs;
+    private long backoffMs;
+    private long nextReconnectAt = Long.MAX_VALUE;
+    private long nextKeepAliveAt = Long.MAX_VALUE;
+    private long nextTimeoutCheckAt;
+    private long lastReceivedAt;
+
+    private volatile State state = State.IDLE;
+    private volatile boolean closed;
+    /** 每次建立连接加1，旧连接上排队的帧不会写到新连接 */
+    private volatile int epoch;
+    private volatile Selector selector;
+    private final CompletableFuture<Void> connected = new CompletableFuture<>();
+    private Thread ioThread;
+
+    public OpenDClient(FutuConfig futuConfig) {
+        this(futuConfig.getHost(), futuConfig.getPort(), futuConfig.getConnectionTimeout(),
+            futuConfig.getKeepAliveInterval() * 1000L, 500, 30_000, futuConfig.getUserAgent());
+    }
+
+    /**
+     * @param requestTimeoutMs 单个请求（含连接握手）的超时
+     * @param keepAliveMs 心跳间隔，服务端在握手响应中指定时以服务端为准
+     * @param initialBackoffMs 首次重连等待，之后每次翻倍
+     * @param maxBackoffMs 重连等待上限
+     */
+    public OpenDClient(String host, int port, long requestTimeoutMs, long keepAliveMs,
+                       long initialBackoffMs, long maxBackoffMs, String clientId) {
+        this.host = host;
+        this.port = port;
+        this.requestTimeoutMs = requestTimeoutMs;
+        this.keepAliveMs = keepAliveMs;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.backoffMs = initialBackoffMs;
+        this.clientId = clientId;
+    }
+
+    /**
+     * 启动I/O线程并连接
+     * 连接失败时在后台按退避策略持续重连
+     * @return 首次握手成功时完成
+     */
+    public synchronized CompletableFuture<Void> connect() {
+        if (closed) {
+            throw new IllegalStateException("客户端已关闭");
+        }
+        if (ioThread == null) {
+            try {
+                selector = Selector.open();
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            execute(() -> nextReconnectAt = 0);
+            ioThread = new Thread(this::runLoop, "opend-io-" + host + ":" + port);
+            ioThread.setDaemon(true);
+            ioThread.start();
+        }
+        return connected;
+    }
+
+    /**
+     * 发出请求
+     * @param protoId 协议ID
+     * @param c2s 请求参数
+     * @return 响应的s2c；未连接、超时、断线或服务端返回错误时异常完成
+     */
+    public CompletableFuture<JsonNode> request(int protoId, ObjectNode c2s) {
+        if (state != State.CONNECTED) {
+            return CompletableFuture.failedFuture(new IOException("OpenD未连接: " + host + ":" + port));
+        }
+        return send(protoId, c2s);
+    }
+
+    public void addPushListener(PushListener listener) {
+        pushListeners.add(listener);
+    }
+
+    public void addConnectionListener(ConnectionListener listener) {
+        connectionListeners.add(listener);
+    }
+
+    public boolean isConnected() {
+        return state == State.CONNECTED;
+    }
+
+    /**
+     * 未完成的请求数
+     */
+    public int getPendingRequests() {
+        return pending.size();
+    }
+
+    /**
+     * 断线后重连成功的次数
+     */
+    public long getReconnects() {
+        return reconnects.get();
+    }
+
+    /**
+     * 关闭连接并停止I/O线程，未完成的请求全部失败
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Selector current = selector;
+        if (current != null) {
+            current.wakeup();
+        } else {
+            failPending(new IOException("客户端已关闭"));
+        }
+    }
+
+    private CompletableFuture<JsonNode> send(int protoId, ObjectNode c2s) {
+        int serialNo = nextSerialNo.incrementAndGet();
+        PendingRequest request = new PendingRequest(protoId, System.currentTimeMillis() + requestTimeoutMs);
+        pending.put(serialNo, request);
+
+        ByteBuffer frame;
+        try {
+            ObjectNode body = OpenDProtocol.MAPPER.createObjectNode();
+            body.set("c2s", c2s);
+            frame = new OpenDFrame(protoId, serialNo, OpenDProtocol.MAPPER.writeValueAsBytes(body)).encode();
+        } catch (IOException e) {
+            pending.remove(serialNo);
+            return CompletableFuture.failedFuture(e);
+        }
+        int frameEpoch = epoch;
+        execute(() -> enqueueWrite(frameEpoch, frame));
+        return request.future;
+    }
+
+    private void execute(Runnable task) {
+        tasks.add(task);
+        Selector current = selector;
+        if (current != null) {
+            current.wakeup();
+        }
+    }
+
+    private void runLoop() {
+        try {
+            while (!closed) {
+                long now = System.currentTimeMillis();
+                long wakeAt = Math.min(nextReconnectAt, nextKeepAliveAt);
+                if (!pending.isEmpty()) {
+                    wakeAt = Math.min(wakeAt, nextTimeoutCheckAt);
+                }
+                selector.select(Math.max(1, Math.min(wakeAt - now, 1000)));
+
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+                processSelectedKeys();
+
+                now = System.currentTimeMillis();
+                if (channel == null && !closed && now >= nextReconnectAt) {
+                    openChannel(now);
+                }
+                if (state == State.CONNECTED) {
+                    checkKeepAlive(now);
+                }
+                if (now >= nextTimeoutCheckAt) {
+                    nextTimeoutCheckAt = now + TIMEOUT_CHECK_MS;
+                    expireRequests(now);
+                }
+            }
+        } catch (ClosedSelectorException e) {
+            logger.debug("OpenD选择器已关闭");
+        } catch (Exception e) {
+            logger.error("OpenD I/O线程异常退出: {}", e.getMessage(), e);
+        } finally {
+            closeChannel();
+            failPending(new IOException("客户端已关闭"));
+            connected.completeExceptionally(new IOException("客户端已关闭"));
+            try {
+                selector.close();
+            } catch (IOException e) {
+                logger.debug("关闭选择器失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void processSelectedKeys() {
+        Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+            SelectionKey selected = iterator.next();
+            iterator.remove();
+            if (!selected.isValid()) {
+                continue;
+            }
+            try {
+                if (selected.isConnectable()) {
+                    finishConnect();
+                }
+                if (selected.isValid() && selected.isReadable()) {
+                    read();
+                }
+                if (selected.isValid() && selected.isWritable()) {
+                    flush();
+                }
+            } catch (IOException e) {
+                disconnect(e.getMessage());
+            }
+        }
+    }
+
+    private void openChannel(long now) {
+        nextReconnectAt = Long.MAX_VALUE;
+        try {
+            epoch++;
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            state = State.CONNECTING;
+            if (channel.connect(new InetSocketAddress(host, port))) {
+                key = channel.register(selector, SelectionKey.OP_READ);
+                handshake();
+            } else {
+                key = channel.register(selector, SelectionKey.OP_CONNECT);
+            }
+            lastReceivedAt = now;
+        } catch (IOException e) {
+            disconnect("连接失败: " + e.getMessage());
+        }
+    }
+
+    private void finishConnect() throws IOException {
+        channel.finishConnect();
+        key.interestOps(SelectionKey.OP_READ);
+        handshake();
+    }
+
+    /**
+     * 发送InitConnect，握手成功后才接受业务请求
+     */
+    private void handshake() {
+        state = State.HANDSHAKING;
+        int handshakeEpoch = epoch;
+        send(OpenDProtocol.INIT_CONNECT, OpenDProtocol.initConnect(clientId)).whenComplete((s2c, error) -> {
+            if (error == null) {
+                execute(() -> onHandshake(handshakeEpoch, s2c));
+            } else {
+                execute(() -> {
+                    if (handshakeEpoch == epoch && state == State.HANDSHAKING) {
+                        disconnect("握手失败: " + error.getMessage());
+                    }
+                });
+            }
+        });
+    }
+
+    private void onHandshake(int handshakeEpoch, JsonNode s2c) {
+        if (handshakeEpoch != epoch || state != State.HANDSHAKING) {
+            return;
+        }
+        int serverKeepAlive = s2c.path("keepAliveInterval").asInt(0);
+        if (serverKeepAlive > 0) {
+            keepAliveMs = serverKeepAlive * 1000L;
+        }
+        boolean reconnected = connected.isDone();
+        state = State.CONNECTED;
+        backoffMs = initialBackoffMs;
+        nextKeepAliveAt = System.currentTimeMillis() + keepAliveMs;
+        if (reconnected) {
+            reconnects.incrementAndGet();
+        }
+        logger.info("OpenD已连接: {}:{} 心跳间隔{}ms", host, port, keepAliveMs);
+        connected.complete(null);
+        for (ConnectionListener listener : connectionListeners) {
+            try {
+                listener.onConnected();
+            } catch (Exception e) {
+                logger.error("通知连接监听器时发生错误: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void read() throws IOException {
+        int read = channel.read(readBuffer);
+        if (read < 0) {
+            throw new IOException("连接被服务端关闭");
+        }
+        lastReceivedAt = System.currentTimeMillis();
+
+        readBuffer.flip();
+        OpenDFrame frame;
+        while ((frame = OpenDFrame.decode(readBuffer)) != null) {
+            dispatch(frame);
+        }
+        readBuffer.compact();
+        // 剩余数据填满缓冲区时扩容，以容纳大于默认缓冲区的帧
+        if (!readBuffer.hasRemaining()) {
+            ByteBuffer larger = ByteBuffer.allocate(readBuffer.capacity() * 2);
+            readBuffer.flip();
+            larger.put(readBuffer);
+            readBuffer = larger;
+        }
+    }
+
+    private void dispatch(OpenDFrame frame) throws IOException {
+        JsonNode body = OpenDProtocol.MAPPER.readTree(frame.getBody());
+        PendingRequest request = pending.remove(frame.getSerialNo());
+        if (request != null && request.protoId == frame.getProtoId()) {
+            int retType = body.path("retType").asInt(0);
+            if (retType != 0) {
+                request.future.completeExceptionally(new IllegalStateException(
+                    "OpenD返回错误: 协议" + frame.getProtoId() + " " + body.path("retMsg").asText()));
+            } else {
+                request.future.complete(body.path("s2c"));
+            }
+            return;
+        }
+        if (request != null) {
+            pending.put(frame.getSerialNo(), request);
+        }
+        for (PushListener listener : pushListeners) {
+            try {
+                listener.onPush(frame.getProtoId(), body.path("s2c"));
+            } catch (Exception e) {
+                logger.error("通知推送监听器时发生错误: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void enqueueWrite(int frameEpoch, ByteBuffer frame) {
+        if (frameEpoch != epoch || channel == null || key == null || !key.isValid()) {
+            return; // 连接已断开，对应请求已失败或将超时
+        }
+        writeQueue.add(frame);
+        try {
+            flush();
+        } catch (IOException e) {
+            disconnect(e.getMessage());
+        }
+    }
+
+    /**
+     * 尽量写出队列中的帧，写不完时关注OP_WRITE等待通道可写
+     */
+    private void flush() throws IOException {
+        while (!writeQueue.isEmpty()) {
+            ByteBuffer head = writeQueue.peek();
+            channel.write(head);
+            if (head.hasRemaining()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                return;
+            }
+            writeQueue.poll();
+        }
+        if (key.isValid() && (key.interestOps() & SelectionKey.OP_WRITE) != 0) {
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void checkKeepAlive(long now) {
+        if (now - lastReceivedAt > KEEP_ALIVE_MISSES * keepAliveMs) {
+            disconnect("心跳超时");
+            return;
+        }
+        if (now >= nextKeepAliveAt) {
+            nextKeepAliveAt = now + keepAliveMs;
+            send(OpenDProtocol.KEEP_ALIVE, OpenDProtocol.keepAlive(now / 1000));
+        }
+    }
+
+    private void expireRequests(long now) {
+        Iterator<Map.Entry<Integer, PendingRequest>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, PendingRequest> entry = iterator.next();
+            PendingRequest request = entry.getValue();
+            if (now >= request.deadline) {
+                iterator.remove();
+                request.future.completeExceptionally(new TimeoutException(
+                    "OpenD请求超时: 协议" + request.protoId + " 序列号" + entry.getKey()));
+            }
+        }
+    }
+
+    /**
+     * 断开当前连接，失败所有未完成请求并安排重连
+     */
+    private void disconnect(String reason) {
+        boolean wasConnected = state == State.CONNECTED;
+        closeChannel();
+        state = State.IDLE;
+        failPending(new IOException("OpenD连接断开: " + reason));
+        if (closed) {
+            return;
+        }
+        nextKeepAliveAt = Long.MAX_VALUE;
+        nextReconnectAt = System.currentTimeMillis() + backoffMs;
+        logger.warn("OpenD连接断开: {}，{}ms后重连", reason, backoffMs);
+        backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+
+        if (wasConnected) {
+            for (ConnectionListener listener : connectionListeners) {
+                try {
+                    listener.onDisconnected(reason);
+                } catch (Exception e) {
+                    logger.error("通知连接监听器时发生错误: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void closeChannel() {
+        writeQueue.clear();
+        readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        if (key != null) {
+            key.cancel();
+            key = null;
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("关闭通道失败: {}", e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    private void failPending(Exception cause) {
+        Iterator<PendingRequest> iterator = pending.values().iterator();
+        while (iterator.hasNext()) {
+            PendingRequest request = iterator.next();
+            iterator.remove();
+            request.future.completeExceptionally(cause);
+        }
+    }
+
+    private static final class PendingRequest {
+        private final int protoId;
+        private final long deadline;
+        private final CompletableFuture<JsonNode> future = new CompletableFuture<>();
+
+        PendingRequest(int protoId, long deadline) {
+            this.protoId = protoId;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * 推送监听器，在I/O线程上调用，实现不得阻塞
+     */
+    public interface PushListener {
+        void onPush(int protoId, JsonNode s2c);
+    }
+
+    /**
+     * 连接状态监听器，在I/O线程上调用，实现可以发出请求但不得等待响应
+     */
+    public interface ConnectionListener {
+        void onConnected();
+
+        default void onDisconnected(String reason) {
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.quant.futu.opend;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * OpenD协议帧
+ * 44字节小端包头 + 包体：
+ * "FT"(2) | 协议ID(4) | 包体格式(1，1为JSON) | 协议版本(1) | 序列号(4) | 包体长度(4) | 包体SHA1(20) | 保留(8)。
+ * 请求与响应用序列号配对，推送帧的序列号由服务端分配
+ */
+public final class OpenDFrame {
+
+    public static final int HEADER_LENGTH = 44;
+
+    /** 包体长度上限，超过视为协议错误 */
+    public static final int MAX_BODY_LENGTH = 16 * 1024 * 1024;
+
+    private static final byte FORMAT_JSON = 1;
+    private static final byte PROTO_VERSION = 0;
+
+    private final int protoId;
+    private final int serialNo;
+    private final byte[] body;
+
+    public OpenDFrame(int protoId, int serialNo, byte[] body) {
+        this.protoId = protoId;
+        this.serialNo = serialNo;
+        this.body = body;
+    }
+
+    /**
+     * 编码为可直接写入通道的缓冲区
+     */
+    public ByteBuffer encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + body.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put((byte) 'F').put((byte) 'T');
+        buffer.putInt(protoId);
+        buffer.put(FORMAT_JSON).put(PROTO_VERSION);
+        buffer.putInt(serialNo);
+        buffer.putInt(body.length);
+        buffer.put(sha1(body));
+        buffer.put(new byte[8]);
+        buffer.put(body);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * 从读缓冲区解码一帧（缓冲区处于读模式）
+     * @return 数据不足一帧时返回null且不移动position
+     * @throws ProtocolException 包头标志、长度或SHA1校验错误
+     */
+    public static OpenDFrame decode(ByteBuffer buffer) throws ProtocolException {
+        if (buffer.remaining() < HEADER_LENGTH) {
+            return null;
+        }
+        ByteBuffer in = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (in.get() != 'F' || in.get() != 'T') {
+            throw new ProtocolException("无效的包头标志");
+        }
+        int protoId = in.getInt();
+        in.get(); // 包体格式
+        in.get(); // 协议版本
+        int serialNo = in.getInt();
+        int bodyLength = in.getInt();
+        if (bodyLength < 0 || bodyLength > MAX_BODY_LENGTH) {
+            throw new ProtocolException("包体长度超出范围: " + bodyLength);
+        }
+        if (in.remaining() < 28 + bodyLength) {
+            return null;
+        }
+        byte[] digest = new byte[20];
+        in.get(digest);
+        in.position(in.position() + 8);
+        byte[] body = new byte[bodyLength];
+        in.get(body);
+        if (!Arrays.equals(digest, sha1(body))) {
+            throw new ProtocolException("包体SHA1校验失败: 协议" + protoId + " 序列号" + serialNo);
+        }
+        buffer.position(in.position());
+        return new OpenDFrame(protoId, serialNo, body);
+    }
+
+    public int getProtoId() {
+        return protoId;
+    }
+
+    public int getSerialNo() {
+        return serialNo;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    private static byte[] sha1(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1不可用", e);
+        }
+    }
+}
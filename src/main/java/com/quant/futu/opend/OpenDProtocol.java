@@ -0,0 +1,201 @@
+package com.quant.futu.opend;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Locale;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.quant.futu.quote.Quote;
+import com.quant.stock.bar.Timeframe;
+
+/**
+ * OpenD协议ID与JSON包体
+ * 协议ID和字段名与富途OpenAPI一致，包体使用JSON格式（c2s为请求参数，s2c为响应数据）
+ */
+public final class OpenDProtocol {
+
+    public static final int INIT_CONNECT = 1001;
+    public static final int KEEP_ALIVE = 1004;
+    public static final int QOT_SUB = 3001;
+    public static final int QOT_GET_BASIC_QOT = 3004;
+    public static final int QOT_UPDATE_BASIC_QOT = 3005;
+    public static final int QOT_UPDATE_TICKER = 3011;
+    public static final int QOT_UPDATE_ORDER_BOOK = 3013;
+    public static final int QOT_REQUEST_HISTORY_KL = 3103;
+
+    /** Qot_Common.SubType */
+    public static final int SUB_TYPE_BASIC = 1;
+    public static final int SUB_TYPE_ORDER_BOOK = 2;
+    public static final int SUB_TYPE_TICKER = 4;
+
+    private static final int MARKET_HK = 1;
+    private static final int MARKET_US = 11;
+    private static final int MARKET_SH = 21;
+    private static final int MARKET_SZ = 22;
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private OpenDProtocol() {
+    }
+
+    /**
+     * 初始化连接请求
+     */
+    public static ObjectNode initConnect(String clientId) {
+        ObjectNode c2s = MAPPER.createObjectNode();
+        c2s.put("clientVer", 100);
+        c2s.put("clientID", clientId);
+        c2s.put("recvNotify", true);
+        return c2s;
+    }
+
+    /**
+     * 心跳请求
+     */
+    public static ObjectNode keepAlive(long epochSeconds) {
+        return MAPPER.createObjectNode().put("time", epochSeconds);
+    }
+
+    /**
+     * 订阅或取消订阅，同时注册推送
+     * @param codes 富途代码，如 US.AAPL
+     * @param subTypes 订阅类型，如 {@link #SUB_TYPE_BASIC}
+     */
+    public static ObjectNode subscribe(Collection<String> codes, Collection<Integer> subTypes, boolean subscribe) {
+        ObjectNode c2s = MAPPER.createObjectNode();
+        c2s.set("securityList", securityList(codes));
+        ArrayNode subTypeList = c2s.putArray("subTypeList");
+        for (Integer subType : subTypes) {
+            subTypeList.add(subType);
+        }
+        c2s.put("isSubOrUnSub", subscribe);
+        c2s.put("isRegOrUnRegPush", subscribe);
+        return c2s;
+    }
+
+    /**
+     * 批量获取基础报价
+     */
+    public static ObjectNode getBasicQuotes(Collection<String> codes) {
+        ObjectNode c2s = MAPPER.createObjectNode();
+        c2s.set("securityList", securityList(codes));
+        return c2s;
+    }
+
+    /**
+     * 请求最近count根历史K线
+     * @param kLineType K线类型，如 K_DAY、K_5M
+     */
+    public static ObjectNode requestHistoryKLine(String code, String kLineType, int count, LocalDateTime now) {
+        Timeframe timeframe = Timeframe.parse(kLineType);
+        // 开始时间预留休市时段：日线按自然日的1.6倍、日内K线按交易时段约占全天的1/4估算
+        long spanMillis = timeframe == Timeframe.D1 ? (long) (count * timeframe.getMillis() * 1.6)
+                : count * timeframe.getMillis() * 4;
+        return requestHistoryKLine(code, timeframe, now.minusSeconds(spanMillis / 1000 + 86_400), now, count);
+    }
+
+    /**
+     * 请求时间范围[begin, end]内的历史K线
+     * @param maxCount 最多返回的K线数
+     */
+    public static ObjectNode requestHistoryKLine(String code, Timeframe timeframe, LocalDateTime begin,
+                                                 LocalDateTime end, int maxCount) {
+        ObjectNode c2s = MAPPER.createObjectNode();
+        c2s.put("rehabType", 1);
+        c2s.put("klType", klType(timeframe));
+        c2s.set("security", security(code));
+        c2s.put("beginTime", begin.format(DATE_TIME));
+        c2s.put("endTime", end.format(DATE_TIME));
+        c2s.put("maxAckKLNum", maxCount);
+        return c2s;
+    }
+
+    /**
+     * 基础报价转换为推送报价
+     */
+    public static Quote toQuote(JsonNode basicQot) {
+        return new Quote(symbol(basicQot),
+            basicQot.path("curPrice").asDouble(Double.NaN),
+            basicQot.path("openPrice").asDouble(Double.NaN),
+            basicQot.path("highPrice").asDouble(Double.NaN),
+            basicQot.path("lowPrice").asDouble(Double.NaN),
+            basicQot.path("lastClosePrice").asDouble(Double.NaN),
+            basicQot.path("volume").asDouble(Double.NaN),
+            timestampMillis(basicQot, "updateTimestamp"));
+    }
+
+    /**
+     * 推送中的证券代码（不含市场前缀）
+     */
+    public static String symbol(JsonNode s2c) {
+        return s2c.path("security").path("code").asText().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * 秒级时间戳字段转换为毫秒，缺失时使用当前时间
+     */
+    public static long timestampMillis(JsonNode node, String field) {
+        return node.has(field) ? (long) (node.path(field).asDouble() * 1000) : System.currentTimeMillis();
+    }
+
+    /**
+     * K线时间，优先使用timestamp（秒），否则解析time字符串
+     */
+    public static LocalDateTime kLineTime(JsonNode kLine) {
+        if (kLine.has("timestamp")) {
+            long millis = (long) (kLine.path("timestamp").asDouble() * 1000);
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        }
+        return LocalDateTime.parse(kLine.path("time").asText(), DATE_TIME);
+    }
+
+    /**
+     * 富途代码转换为证券对象，没有市场前缀时默认美股
+     */
+    public static ObjectNode security(String code) {
+        String upper = code.trim().toUpperCase(Locale.ROOT);
+        int dot = upper.indexOf('.');
+        String market = dot >= 0 ? upper.substring(0, dot) : "US";
+        ObjectNode security = MAPPER.createObjectNode();
+        security.put("market", market(market));
+        security.put("code", dot >= 0 ? upper.substring(dot + 1) : upper);
+        return security;
+    }
+
+    private static ArrayNode securityList(Collection<String> codes) {
+        ArrayNode list = MAPPER.createArrayNode();
+        for (String code : codes) {
+            list.add(security(code));
+        }
+        return list;
+    }
+
+    private static int market(String market) {
+        switch (market) {
+            case "HK": return MARKET_HK;
+            case "SH": return MARKET_SH;
+            case "SZ": return MARKET_SZ;
+            default: return MARKET_US;
+        }
+    }
+
+    /**
+     * Qot_Common.KLType
+     */
+    private static int klType(Timeframe timeframe) {
+        switch (timeframe) {
+            case M1: return 1;
+            case M5: return 6;
+            case H1: return 9;
+            default: return 2;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.quant.futu.opend;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.quant.futu.quote.QuoteListener;
+import com.quant.futu.quote.QuoteTransport;
+
+/**
+ * 基于OpenD连接的行情传输层
+ * 通过Qot_Sub订阅基础报价（以及构造时指定的盘口、逐笔等类型），把Qot_UpdateBasicQot推送转换为报价；
+ * 其他类型的推送由各自的推送监听器处理。断线重连后自动重新订阅
+ */
+public class OpenDQuoteTransport implements QuoteTransport, OpenDClient.PushListener, OpenDClient.ConnectionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenDQuoteTransport.class);
+
+    private final OpenDClient client;
+    private final List<Integer> subTypes;
+    private final Set<String> codes = ConcurrentHashMap.newKeySet();
+
+    private volatile QuoteListener sink;
+
+    public OpenDQuoteTransport(OpenDClient client) {
+        this(client, List.of(OpenDProtocol.SUB_TYPE_BASIC));
+    }
+
+    /**
+     * @param subTypes 订阅类型，应包含 {@link OpenDProtocol#SUB_TYPE_BASIC}
+     */
+    public OpenDQuoteTransport(OpenDClient client, List<Integer> subTypes) {
+        this.client = client;
+        this.subTypes = List.copyOf(subTypes);
+        client.addPushListener(this);
+        client.addConnectionListener(this);
+    }
+
+    @Override
+    public String getName() {
+        return "opend";
+    }
+
+    @Override
+    public void start(QuoteListener sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void subscribe(Collection<String> codes) {
+        List<String> added = new ArrayList<>();
+        for (String code : codes) {
+            if (this.codes.add(code)) {
+                added.add(code);
+            }
+        }
+        sendSubscription(added, true);
+    }
+
+    @Override
+    public void unsubscribe(Collection<String> codes) {
+        List<String> removed = new ArrayList<>();
+        for (String code : codes) {
+            if (this.codes.remove(code)) {
+                removed.add(code);
+            }
+        }
+        sendSubscription(removed, false);
+    }
+
+    @Override
+    public void stop() {
+        sink = null;
+    }
+
+    @Override
+    public void onConnected() {
+        sendSubscription(new ArrayList<>(codes), true);
+    }
+
+    @Override
+    public void onPush(int protoId, JsonNode s2c) {
+        QuoteListener current = sink;
+        if (protoId != OpenDProtocol.QOT_UPDATE_BASIC_QOT || current == null) {
+            return;
+        }
+        for (JsonNode basicQot : s2c.path("basicQotList")) {
+            try {
+                current.onQuote(OpenDProtocol.toQuote(basicQot));
+            } catch (Exception e) {
+                logger.error("处理OpenD推送报价失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 未连接时只记录订阅集合，连接建立后由 {@link #onConnected()} 统一发送
+     */
+    private void sendSubscription(List<String> changed, boolean subscribe) {
+        if (changed.isEmpty() || !client.isConnected()) {
+            return;
+        }
+        client.request(OpenDProtocol.QOT_SUB, OpenDProtocol.subscribe(changed, subTypes, subscribe))
+            .whenComplete((s2c, error) -> {
+                if (error != null) {
+                    logger.warn("OpenD{}失败: {}, 错误: {}", subscribe ? "订阅" : "取消订阅", changed, error.getMessage());
+                }
+            });
+    }
+}
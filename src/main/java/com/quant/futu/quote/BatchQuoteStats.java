@@ -0,0 +1,65 @@
+package com.quant.futu.quote;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 批量报价统计
+ * 记录每批的股票数、获取耗时和保存耗时，提供累计、平均、最大和最近一批的延迟
+ */
+public class BatchQuoteStats {
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder symbols = new LongAdder();
+    private final LongAdder fetchNanos = new LongAdder();
+    private final LongAdder persistNanos = new LongAdder();
+    private final LongAccumulator maxBatchNanos = new LongAccumulator(Math::max, 0);
+
+    private volatile long lastBatchSize;
+    private volatile long lastFetchNanos;
+    private volatile long lastPersistNanos;
+
+    /**
+     * 记录一批
+     * @param size 股票数
+     * @param fetch 获取耗时（纳秒）
+     * @param persist 保存耗时（纳秒）
+     */
+    public void record(int size, long fetch, long persist) {
+        batches.increment();
+        symbols.add(size);
+        fetchNanos.add(fetch);
+        persistNanos.add(persist);
+        maxBatchNanos.accumulate(fetch + persist);
+        lastBatchSize = size;
+        lastFetchNanos = fetch;
+        lastPersistNanos = persist;
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * 统计快照，耗时单位为毫秒
+     */
+    public Map<String, Object> toMap() {
+        long count = batches.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("batches", count);
+        stats.put("symbols", symbols.sum());
+        stats.put("avgFetchMs", count > 0 ? toMillis(fetchNanos.sum()) / count : 0.0);
+        stats.put("avgPersistMs", count > 0 ? toMillis(persistNanos.sum()) / count : 0.0);
+        stats.put("maxBatchMs", toMillis(maxBatchNanos.get()));
+        stats.put("lastBatchSize", lastBatchSize);
+        stats.put("lastFetchMs", toMillis(lastFetchNanos));
+        stats.put("lastPersistMs", toMillis(lastPersistNanos));
+        return stats;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
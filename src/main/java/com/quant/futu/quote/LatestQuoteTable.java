@@ -0,0 +1,76 @@
+package com.quant.futu.quote;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 最新报价表
+ * 每个已订阅股票在订阅时分配一个槽位，推送路径只做一次哈希查找和CAS，不加锁；
+ * 乱序到达的旧报价不会覆盖新报价。读取直接返回槽位中的不可变报价
+ */
+public final class LatestQuoteTable {
+
+    private final Map<String, AtomicReference<Quote>> slots = new ConcurrentHashMap<>();
+
+    /**
+     * 为股票分配槽位，已存在时保留原有报价
+     */
+    public void register(String symbol) {
+        slots.putIfAbsent(symbol, new AtomicReference<>());
+    }
+
+    /**
+     * 删除股票的槽位，之后到达的报价被丢弃
+     */
+    public void remove(String symbol) {
+        slots.remove(symbol);
+    }
+
+    /**
+     * 写入报价
+     * @return 未订阅或报价早于当前报价时返回false
+     */
+    public boolean update(Quote quote) {
+        AtomicReference<Quote> slot = slots.get(quote.getSymbol());
+        if (slot == null) {
+            return false;
+        }
+        while (true) {
+            Quote current = slot.get();
+            if (current != null && current.getTimestamp() > quote.getTimestamp()) {
+                return false;
+            }
+            if (slot.compareAndSet(current, quote)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 最新报价，未订阅或尚未收到报价时返回null
+     */
+    public Quote get(String symbol) {
+        AtomicReference<Quote> slot = slots.get(symbol);
+        return slot == null ? null : slot.get();
+    }
+
+    /**
+     * 全部已收到报价的股票的最新报价
+     */
+    public Map<String, Quote> snapshot() {
+        Map<String, Quote> result = new LinkedHashMap<>();
+        slots.forEach((symbol, slot) -> {
+            Quote quote = slot.get();
+            if (quote != null) {
+                result.put(symbol, quote);
+            }
+        });
+        return result;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+}
@@ -0,0 +1,71 @@
+package com.quant.futu.quote;
+
+/**
+ * 推送的实时报价
+ * 不可变，价格使用double，推送路径上不创建BigDecimal
+ */
+public final class Quote {
+
+    private final String symbol;
+    private final double price;
+    private final double open;
+    private final double high;
+    private final double low;
+    private final double previousClose;
+    private final double volume;
+    private final long timestamp;
+
+    /**
+     * @param symbol 股票代码（不带市场前缀，如 AAPL）
+     * @param volume 当日累计成交量
+     * @param timestamp 毫秒时间戳
+     */
+    public Quote(String symbol, double price, double open, double high, double low, double previousClose,
+                 double volume, long timestamp) {
+        this.symbol = symbol;
+        this.price = price;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.previousClose = previousClose;
+        this.volume = volume;
+        this.timestamp = timestamp;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public double getOpen() {
+        return open;
+    }
+
+    public double getHigh() {
+        return high;
+    }
+
+    public double getLow() {
+        return low;
+    }
+
+    public double getPreviousClose() {
+        return previousClose;
+    }
+
+    public double getVolume() {
+        return volume;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "Quote{symbol='" + symbol + "', price=" + price + ", volume=" + volume + ", timestamp=" + timestamp + "}";
+    }
+}
@@ -0,0 +1,9 @@
+package com.quant.futu.quote;
+
+/**
+ * 实时报价监听器
+ * 在行情传输线程上调用，实现应尽快返回
+ */
+public interface QuoteListener {
+    void onQuote(Quote quote);
+}
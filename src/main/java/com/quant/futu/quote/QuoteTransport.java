@@ -0,0 +1,38 @@
+package com.quant.futu.quote;
+
+import java.util.Collection;
+
+/**
+ * 实时行情传输层
+ * 负责向行情源发送订阅请求并把推送的报价交给回调，由 futu.api.quote-transport 选择实现
+ */
+public interface QuoteTransport {
+
+    /**
+     * 传输层名称，用于状态展示
+     */
+    String getName();
+
+    /**
+     * 开始接收推送
+     * @param sink 报价回调
+     */
+    void start(QuoteListener sink);
+
+    /**
+     * 订阅报价
+     * @param codes 富途代码，如 US.AAPL
+     */
+    void subscribe(Collection<String> codes);
+
+    /**
+     * 取消订阅
+     * @param codes 富途代码
+     */
+    void unsubscribe(Collection<String> codes);
+
+    /**
+     * 停止接收推送
+     */
+    void stop();
+}
@@ -0,0 +1,146 @@
+package com.quant.futu.quote;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.quant.config.FutuConfig;
+
+/**
+ * 本地模拟行情源
+ * 只在显式开启时使用（quote-transport: simulated 或 simulated 配置文件）：按固定间隔为每个已订阅股票生成一条随机游走报价并推送，
+ * 间隔为0时不自动推送，测试可以调用 {@link #tick()} 或 {@link #publish(Quote)} 精确控制
+ */
+@Component
+@ConditionalOnProperty(prefix = "futu.api", name = "quote-transport", havingValue = "simulated")
+public class SimulatedQuoteTransport implements QuoteTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulatedQuoteTransport.class);
+
+    private static final double BASE_PRICE = 150.0;
+
+    private final long intervalMs;
+    private final Random random = new Random();
+    private final Map<String, SimulatedSymbol> symbols = new ConcurrentHashMap<>();
+
+    private volatile QuoteListener sink;
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public SimulatedQuoteTransport(FutuConfig futuConfig) {
+        this(futuConfig.getSimulatedQuoteIntervalMs());
+    }
+
+    /**
+     * @param intervalMs 推送间隔（毫秒），0表示不自动推送
+     */
+    public SimulatedQuoteTransport(long intervalMs) {
+        this.intervalMs = intervalMs;
+    }
+
+    @Override
+    public String getName() {
+        return "simulated";
+    }
+
+    @Override
+    public synchronized void start(QuoteListener sink) {
+        this.sink = sink;
+        if (intervalMs > 0 && scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "simulated-quote-feed");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(this::tick, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+        logger.info("模拟行情源已启动，推送间隔: {}ms", intervalMs);
+    }
+
+    @Override
+    public void subscribe(Collection<String> codes) {
+        for (String code : codes) {
+            symbols.putIfAbsent(code, new SimulatedSymbol(toSymbol(code)));
+        }
+    }
+
+    @Override
+    public void unsubscribe(Collection<String> codes) {
+        for (String code : codes) {
+            symbols.remove(code);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        sink = null;
+        logger.info("模拟行情源已停止");
+    }
+
+    /**
+     * 为每个已订阅股票推送一条报价
+     */
+    public void tick() {
+        long now = System.currentTimeMillis();
+        for (SimulatedSymbol symbol : symbols.values()) {
+            publish(symbol.next(random, now));
+        }
+    }
+
+    /**
+     * 直接推送一条报价
+     */
+    public void publish(Quote quote) {
+        QuoteListener current = sink;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.onQuote(quote);
+        } catch (Exception e) {
+            logger.error("推送模拟报价失败: {}, 错误: {}", quote.getSymbol(), e.getMessage());
+        }
+    }
+
+    private static String toSymbol(String code) {
+        int dot = code.indexOf('.');
+        return dot >= 0 ? code.substring(dot + 1) : code;
+    }
+
+    /**
+     * 单个股票的模拟状态，价格按 ±0.2% 随机游走
+     */
+    private static final class SimulatedSymbol {
+        private final String symbol;
+        private double price = BASE_PRICE;
+        private double high = BASE_PRICE;
+        private double low = BASE_PRICE;
+        private double volume;
+
+        SimulatedSymbol(String symbol) {
+            this.symbol = symbol;
+        }
+
+        synchronized Quote next(Random random, long timestamp) {
+            price *= 1 + (random.nextDouble() - 0.5) * 0.004;
+            high = Math.max(high, price);
+            low = Math.min(low, price);
+            volume += 100 + random.nextInt(10_000);
+            return new Quote(symbol, price, BASE_PRICE, high, low, BASE_PRICE, volume, timestamp);
+        }
+    }
+}
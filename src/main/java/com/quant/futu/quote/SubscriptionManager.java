@@ -0,0 +1,67 @@
+package com.quant.futu.quote;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 行情订阅管理
+ * 记录已订阅的富途代码，订阅总数不超过 futu.api.max-subscriptions，超出额度的代码被拒绝
+ */
+public class SubscriptionManager {
+
+    private final int maxSubscriptions;
+    private final Set<String> subscriptions = new LinkedHashSet<>();
+
+    public SubscriptionManager(int maxSubscriptions) {
+        this.maxSubscriptions = maxSubscriptions;
+    }
+
+    /**
+     * 订阅
+     * @param codes 富途代码
+     * @return 本次新增的订阅，已订阅和超出额度的代码不包含在内
+     */
+    public synchronized List<String> subscribe(Collection<String> codes) {
+        List<String> added = new ArrayList<>();
+        for (String code : codes) {
+            if (!subscriptions.contains(code) && subscriptions.size() < maxSubscriptions) {
+                subscriptions.add(code);
+                added.add(code);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * 取消订阅
+     * @return 实际取消的订阅
+     */
+    public synchronized List<String> unsubscribe(Collection<String> codes) {
+        List<String> removed = new ArrayList<>();
+        for (String code : codes) {
+            if (subscriptions.remove(code)) {
+                removed.add(code);
+            }
+        }
+        return removed;
+    }
+
+    public synchronized boolean isSubscribed(String code) {
+        return subscriptions.contains(code);
+    }
+
+    public synchronized List<String> getSubscriptions() {
+        return new ArrayList<>(subscriptions);
+    }
+
+    public synchronized int size() {
+        return subscriptions.size();
+    }
+
+    public int getMaxSubscriptions() {
+        return maxSubscriptions;
+    }
+}
@@ -1,39 +1,130 @@
 package com.quant.futu.service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Paths;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.quant.config.FutuConfig;
+import com.quant.futu.depth.MarketDepthStore;
+import com.quant.futu.depth.OrderBookSnapshot;
+import com.quant.futu.depth.TickBatch;
+import com.quant.futu.kline.KLineCache;
+import com.quant.futu.opend.OpenDClient;
+import com.quant.futu.opend.OpenDProtocol;
+import com.quant.futu.opend.OpenDQuoteTransport;
+import com.quant.futu.quote.BatchQuoteStats;
+import com.quant.futu.quote.LatestQuoteTable;
+import com.quant.futu.quote.Quote;
+import com.quant.futu.quote.QuoteListener;
+import com.quant.futu.quote.QuoteTransport;
+import com.quant.futu.quote.SubscriptionManager;
+import com.quant.stock.bar.Timeframe;
 import com.quant.stock.model.StockData;
-import com.quant.stock.repository.StockDataRepository;
+import com.quant.stock.service.QuoteChangeFilter;
+import com.quant.stock.service.QuoteWriteBehind;
+import com.quant.stock.service.StockDataService;
+import com.quant.stock.store.BarSeries;
+import com.quant.stock.store.PriceHistoryStore;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 /**
  * 富途数据服务类
- * 提供富途OpenAPI的数据获取功能
+ * 提供富途OpenAPI的数据获取功能。
+ * 实时行情采用推送：订阅受 max-subscriptions 限制，传输层推送的报价写入无锁的最新报价表，
+ * 再通知报价监听器和价格监听器；已订阅股票的实时报价直接从表中读取。
+ * quote-transport 为 opend 时通过 {@link OpenDClient} 连接OpenD，报价、K线和推送都走该连接；显式配置为 simulated 时使用模拟数据。
+ * 启用盘口或逐笔时，已订阅股票的盘口快照和逐笔成交写入堆外环形缓冲区，不落库。
+ * 历史K线经本地K线缓存读取，只下载最后一根已存K线之后的增量
  */
 @Service
 public class FutuDataService {
     
     private static final Logger logger = LoggerFactory.getLogger(FutuDataService.class);
     
+    /** 报价路径上尚未创建连接时，两次尝试连接的最小间隔 */
+    private static final long CONNECT_RETRY_INTERVAL_MS = 30_000;
+    
     @Autowired
     private FutuConfig futuConfig;
     
     @Autowired
-    private StockDataRepository stockDataRepository;
+    private QuoteWriteBehind quoteWriteBehind;
+    
+    @Autowired
+    private QuoteChangeFilter quoteChangeFilter;
+    
+    @Autowired(required = false)
+    private QuoteTransport quoteTransport;
     
     // 富途连接状态
     private boolean isConnected = false;
-    private Object quoteContext = null; // 行情上下文
+    private volatile OpenDClient openDClient = null; // OpenD连接，断线后在后台自动重连
+    private boolean pushStarted = false;
+    private final Object pushLock = new Object();
+    private volatile long nextConnectAttemptAt = 0;
+    
+    private final List<StockDataService.PriceListener> priceListeners = new CopyOnWriteArrayList<>();
+    private final List<QuoteListener> quoteListeners = new CopyOnWriteArrayList<>();
+    
+    private final LatestQuoteTable latestQuotes = new LatestQuoteTable();
+    private SubscriptionManager subscriptionManager;
+    
+    private MarketDepthStore marketDepthStore;
+    private PriceHistoryStore klineStore;
+    private KLineCache klineCache;
+    
+    private final BatchQuoteStats batchQuoteStats = new BatchQuoteStats();
+    private ExecutorService batchExecutor;
+    
+    @PostConstruct
+    public void init() {
+        subscriptionManager = new SubscriptionManager(futuConfig.getMaxSubscriptions());
+        marketDepthStore = new MarketDepthStore(futuConfig.getOrderBookLevels(),
+            futuConfig.isEnableOrderBook() ? futuConfig.getOrderBookCapacity() : 0,
+            futuConfig.isEnableTicker() ? futuConfig.getTickerCapacity() : 0);
+        // 只缓存OpenD下载的K线，按传输层分目录，旧版本写入的模拟K线不会被当作真实K线读出
+        klineStore = new PriceHistoryStore(Paths.get(futuConfig.getKlineCacheDir(), "opend"));
+        klineCache = new KLineCache(klineStore, new FutuKLineSource(), futuConfig.getKlineRefreshMs());
+        batchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "futu-batch-quote");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        closeConnection();
+        if (batchExecutor != null) {
+            batchExecutor.shutdown();
+        }
+        if (klineStore != null) {
+            klineStore.close();
+        }
+    }
     
     /**
      * 初始化富途连接
@@ -51,8 +142,9 @@ public class FutuDataService {
             // 由于富途API的具体实现可能需要实际的jar包，我们先创建模拟实现
             connectToFutu();
             
-            if (isConnected) {
+            if (isConnected()) {
                 logger.info("富途API连接成功");
+                startQuotePush();
             } else {
                 logger.error("富途API连接失败");
             }
@@ -66,20 +158,34 @@ public class FutuDataService {
     /**
      * 连接到富途OpenD
      */
-    private void connectToFutu() {
+    private synchronized void connectToFutu() {
         try {
-            // 模拟连接逻辑
-            // 实际实现中应该使用富途API:
-            // QuoteContext quoteCtx = new QuoteContext(futuConfig.getHost(), futuConfig.getPort());
-            // int ret = quoteCtx.start();
-            // if (ret == 0) {
-            //     this.quoteContext = quoteCtx;
-            //     this.isConnected = true;
-            // }
+            if (isSimulatedTransport()) {
+                // 模拟连接成功
+                this.isConnected = true;
+                logger.info("模拟富途API连接成功 (实际部署时需要真实的富途OpenD)");
+                return;
+            }
+            if (!"opend".equalsIgnoreCase(futuConfig.getQuoteTransport())) {
+                logger.warn("未配置行情传输层: {}，不连接行情源", futuConfig.getQuoteTransport());
+                this.isConnected = false;
+                return;
+            }
             
-            // 模拟连接成功
-            this.isConnected = true;
-            logger.info("模拟富途API连接成功 (实际部署时需要真实的富途OpenD)");
+            if (openDClient == null) {
+                openDClient = new OpenDClient(futuConfig);
+                openDClient.addPushListener(this::onDepthPush);
+                // 首次连接超时后由OpenDClient在后台重连，连上时再启动推送
+                openDClient.addConnectionListener(this::startQuotePush);
+                if (quoteTransport == null || quoteTransport instanceof OpenDQuoteTransport) {
+                    quoteTransport = new OpenDQuoteTransport(openDClient, subTypes());
+                }
+            }
+            try {
+                openDClient.connect().get(futuConfig.getConnectionTimeout(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                logger.warn("{}ms内未连上OpenD，后台继续重连", futuConfig.getConnectionTimeout());
+            }
             
         } catch (Exception e) {
             logger.error("连接富途失败: {}", e.getMessage());
@@ -93,80 +199,155 @@ public class FutuDataService {
      * @return 股票数据
      */
     public StockData getRealTimeQuote(String symbol) {
-        if (!isConnected) {
-            logger.warn("富途API未连接，尝试重新连接");
-            initConnection();
-            if (!isConnected) {
-                return null;
+        List<StockData> quotes = getRealTimeQuotes(List.of(symbol));
+        return quotes.isEmpty() ? null : quotes.get(0);
+    }
+    
+    /**
+     * 批量获取股票实时报价
+     * 只检查一次连接；已订阅的股票直接读取推送的最新报价，其余股票合并为一次报价请求
+     * @param symbols 股票代码列表 (如: US.AAPL 或 AAPL)
+     * @return 股票数据列表，获取失败的股票不包含在内
+     */
+    public List<StockData> getRealTimeQuotes(List<String> symbols) {
+        if (!ensureConnected()) {
+            return new ArrayList<>();
+        }
+        
+        List<StockData> results = new ArrayList<>(symbols.size());
+        List<String> missing = new ArrayList<>();
+        for (String symbol : symbols) {
+            Quote latest = latestQuotes.get(toSymbol(symbol));
+            if (latest != null) {
+                results.add(toStockData(latest));
+            } else {
+                missing.add(symbol);
             }
         }
+        if (missing.isEmpty()) {
+            return results;
+        }
         
         try {
-            logger.debug("获取实时报价: {}", symbol);
+            logger.debug("获取实时报价: {}", missing);
             
-            // 模拟获取实时报价
-            // 实际实现中应该使用富途API:
-            // QuoteContext ctx = (QuoteContext) quoteContext;
-            // Result<List<Quote>> ret = ctx.getStockQuote(Arrays.asList(symbol));
-            // if (ret.retType == RetType.RET_OK) {
-            //     Quote quote = ret.data.get(0);
-            //     return convertToStockData(quote);
-            // }
-            
-            return createMockStockData(symbol);
+            List<StockData> fetched = requestQuotes(missing);
+            for (StockData stockData : fetched) {
+                notifyPriceListeners(stockData);
+            }
+            results.addAll(fetched);
             
         } catch (Exception e) {
-            logger.error("获取实时报价失败: {}, 错误: {}", symbol, e.getMessage());
-            return null;
+            logger.error("获取实时报价失败: {}, 错误: {}", missing, e.getMessage());
+        }
+        return results;
+    }
+    
+    /**
+     * 报价路径上的连接检查，不阻塞调用方等待OpenD：
+     * 连接已创建时由OpenDClient在后台按退避重连，直接返回未连接；尚未创建连接时最多每30秒尝试一次
+     */
+    private boolean ensureConnected() {
+        if (isConnected()) {
+            return true;
+        }
+        if (openDClient != null) {
+            logger.debug("富途API未连接，等待后台重连");
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (now < nextConnectAttemptAt) {
+            return false;
         }
+        nextConnectAttemptAt = now + CONNECT_RETRY_INTERVAL_MS;
+        logger.warn("富途API未连接，尝试连接");
+        initConnection();
+        return isConnected();
     }
     
     /**
-     * 批量获取股票报价
+     * 批量获取股票报价并交给异步落库队列
+     * 在批量报价线程上执行：一次报价请求，与上次落库相比没有变化的报价不入队，不等待数据库，
+     * 并记录本批的获取和入队耗时
      * @param symbols 股票代码列表
      * @return 股票数据列表
      */
-    @Async
     public CompletableFuture<List<StockData>> getBatchRealTimeQuotes(List<String> symbols) {
-        List<StockData> results = new ArrayList<>();
+        return CompletableFuture.supplyAsync(() -> fetchAndSaveBatch(symbols), batchExecutor);
+    }
+    
+    /**
+     * 批量报价统计
+     */
+    public Map<String, Object> getBatchQuoteStats() {
+        return batchQuoteStats.toMap();
+    }
+    
+    private List<StockData> fetchAndSaveBatch(List<String> symbols) {
+        long start = System.nanoTime();
+        List<StockData> results = getRealTimeQuotes(symbols);
+        long fetched = System.nanoTime();
         
-        for (String symbol : symbols) {
-            StockData data = getRealTimeQuote(symbol);
-            if (data != null) {
-                results.add(data);
-                // 保存到数据库
-                stockDataRepository.save(data);
+        List<StockData> changed = results.stream().filter(quoteChangeFilter::accept).collect(Collectors.toList());
+        if (!changed.isEmpty()) {
+            quoteWriteBehind.submitAll(changed);
+        }
+        long persisted = System.nanoTime();
+        
+        batchQuoteStats.record(results.size(), fetched - start, persisted - fetched);
+        logger.debug("批量报价: {}只, 获取{}ms, 入队{}ms", results.size(),
+            (fetched - start) / 1_000_000, (persisted - fetched) / 1_000_000);
+        return results;
+    }
+    
+    /**
+     * 一次请求获取多个股票的报价
+     */
+    private List<StockData> requestQuotes(List<String> symbols) throws Exception {
+        if (openDClient != null) {
+            List<String> codes = symbols.stream().map(FutuDataService::toFutuCode).collect(Collectors.toList());
+            JsonNode s2c = openDClient.request(OpenDProtocol.QOT_GET_BASIC_QOT, OpenDProtocol.getBasicQuotes(codes))
+                .get(futuConfig.getConnectionTimeout(), TimeUnit.MILLISECONDS);
+            List<StockData> quotes = new ArrayList<>(codes.size());
+            for (JsonNode basicQot : s2c.path("basicQotList")) {
+                quotes.add(toStockData(OpenDProtocol.toQuote(basicQot)));
             }
+            return quotes;
         }
         
-        return CompletableFuture.completedFuture(results);
+        // 模拟获取实时报价
+        List<StockData> quotes = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            quotes.add(createMockStockData(symbol));
+        }
+        return quotes;
     }
     
     /**
      * 获取历史K线数据
+     * 经本地K线缓存读取：首次整段下载，之后只下载增量；未连接时返回本地已有的K线。
+     * 模拟传输层直接生成模拟K线，不写入本地K线缓存
      * @param symbol 股票代码
      * @param period 周期 (如: K_1M, K_5M, K_DAY)
      * @param count 数量
-     * @return 历史数据列表
+     * @return 历史数据列表，按时间升序
      */
     public List<StockData> getHistoricalKLine(String symbol, String period, int count) {
-        if (!isConnected) {
-            logger.warn("富途API未连接");
-            return new ArrayList<>();
-        }
-        
         try {
-            logger.debug("获取历史K线: {} {} {}", symbol, period, count);
-            
-            // 模拟获取历史数据
-            // 实际实现中应该使用富途API:
-            // QuoteContext ctx = (QuoteContext) quoteContext;
-            // Result<List<KLine>> ret = ctx.getKLine(symbol, KLType.valueOf(period), count, null);
-            // if (ret.retType == RetType.RET_OK) {
-            //     return convertKLineToStockData(ret.data);
-            // }
+            Timeframe timeframe = Timeframe.parse(period);
+            String code = toFutuCode(symbol);
+            if (isSimulatedTransport()) {
+                long lastBucket = timeframe.bucketStart(System.currentTimeMillis());
+                return toKLineData(code, createMockKLines(timeframe,
+                    lastBucket - (count - 1) * timeframe.getMillis(), count));
+            }
+            if (!isConnected()) {
+                logger.warn("富途API未连接，使用本地缓存的K线");
+                return toKLineData(code, klineCache.tail(code, timeframe, count));
+            }
             
-            return createMockHistoricalData(symbol, count);
+            logger.debug("获取历史K线: {} {} {}", symbol, period, count);
+            return toKLineData(code, klineCache.get(code, timeframe, count, System.currentTimeMillis()));
             
         } catch (Exception e) {
             logger.error("获取历史K线失败: {}, 错误: {}", symbol, e.getMessage());
@@ -174,27 +355,225 @@ public class FutuDataService {
         }
     }
     
+    /**
+     * 本地K线缓存的修订号，必要时先按刷新间隔同步；K线写入本地缓存后才变化，用作指标结果的缓存键。
+     * 模拟传输层返回当前K线周期的起始时间
+     * @param symbol 股票代码
+     * @param period 周期 (如: K_1M, K_5M, K_DAY)
+     */
+    public long getKLineRevision(String symbol, String period) {
+        Timeframe timeframe = Timeframe.parse(period);
+        long now = System.currentTimeMillis();
+        if (isSimulatedTransport()) {
+            return timeframe.bucketStart(now);
+        }
+        return klineCache.revision(toFutuCode(symbol), timeframe, now);
+    }
+    
+    /**
+     * 从本地K线缓存读取时间范围内的历史K线，不访问富途
+     * @param symbol 股票代码
+     * @param period 周期 (如: K_1M, K_5M, K_DAY)
+     * @return 历史数据列表，按时间升序
+     */
+    public List<StockData> getHistoricalKLine(String symbol, String period, LocalDateTime from, LocalDateTime to) {
+        String code = toFutuCode(symbol);
+        return toKLineData(code, klineCache.range(code, Timeframe.parse(period),
+            PriceHistoryStore.toEpochMillis(from), PriceHistoryStore.toEpochMillis(to)));
+    }
+    
+    /**
+     * K线缓存统计
+     */
+    public Map<String, Object> getKLineCacheStats() {
+        return klineCache.toMap();
+    }
+    
     /**
      * 订阅实时行情
-     * @param symbols 股票代码列表
+     * 超出 max-subscriptions 的股票不会被订阅
+     * @param symbols 股票代码列表（如 AAPL 或 US.AAPL）
+     * @return 请求中处于订阅状态的富途代码
      */
-    public void subscribeRealTimeQuote(List<String> symbols) {
-        if (!isConnected) {
+    public List<String> subscribeRealTimeQuote(List<String> symbols) {
+        if (!isConnected()) {
             logger.warn("富途API未连接，无法订阅行情");
-            return;
+            return new ArrayList<>();
         }
         
         try {
-            logger.info("订阅实时行情: {}", symbols);
-            
-            // 实际实现中应该使用富途API:
-            // QuoteContext ctx = (QuoteContext) quoteContext;
-            // ctx.subscribeStockQuote(symbols);
+            List<String> codes = symbols.stream().map(FutuDataService::toFutuCode).distinct().collect(Collectors.toList());
+            List<String> added = subscriptionManager.subscribe(codes);
+            // 先分配报价槽位，再向传输层订阅，避免丢失第一条推送
+            for (String code : added) {
+                latestQuotes.register(toSymbol(code));
+                marketDepthStore.register(toSymbol(code));
+            }
+            if (!added.isEmpty() && quoteTransport != null) {
+                quoteTransport.subscribe(added);
+            }
             
-            logger.info("模拟订阅成功: {} 只股票", symbols.size());
+            List<String> subscribed = codes.stream().filter(subscriptionManager::isSubscribed).collect(Collectors.toList());
+            if (subscribed.size() < codes.size()) {
+                logger.warn("订阅数已达上限 {}，{} 只股票未订阅", subscriptionManager.getMaxSubscriptions(),
+                    codes.size() - subscribed.size());
+            }
+            logger.info("订阅实时行情: 新增 {} 只，当前共 {} 只", added.size(), subscriptionManager.size());
+            return subscribed;
             
         } catch (Exception e) {
             logger.error("订阅实时行情失败: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * 取消订阅实时行情
+     * @param symbols 股票代码列表
+     * @return 实际取消订阅的富途代码
+     */
+    public List<String> unsubscribeRealTimeQuote(List<String> symbols) {
+        List<String> codes = symbols.stream().map(FutuDataService::toFutuCode).collect(Collectors.toList());
+        List<String> removed = subscriptionManager.unsubscribe(codes);
+        if (!removed.isEmpty() && quoteTransport != null) {
+            quoteTransport.unsubscribe(removed);
+        }
+        for (String code : removed) {
+            latestQuotes.remove(toSymbol(code));
+            marketDepthStore.remove(toSymbol(code));
+        }
+        logger.info("取消订阅实时行情: {} 只，当前共 {} 只", removed.size(), subscriptionManager.size());
+        return removed;
+    }
+    
+    /**
+     * 处理推送的报价，在传输层线程上执行
+     * 写入最新报价表，乱序的旧报价和未订阅股票的报价被丢弃
+     */
+    public void onQuote(Quote quote) {
+        if (!latestQuotes.update(quote)) {
+            return;
+        }
+        for (QuoteListener listener : quoteListeners) {
+            try {
+                listener.onQuote(quote);
+            } catch (Exception e) {
+                logger.error("通知报价监听器时发生错误: {}", e.getMessage());
+            }
+        }
+        if (!priceListeners.isEmpty()) {
+            notifyPriceListeners(toStockData(quote));
+        }
+    }
+    
+    /**
+     * 处理OpenD的盘口和逐笔推送，在I/O线程上执行
+     * 写入对应股票的环形缓冲区，未订阅或未启用的数据被丢弃
+     */
+    public void onDepthPush(int protoId, JsonNode s2c) {
+        if (protoId == OpenDProtocol.QOT_UPDATE_ORDER_BOOK && marketDepthStore.isOrderBookEnabled()) {
+            JsonNode bids = s2c.path("orderBookBidList");
+            JsonNode asks = s2c.path("orderBookAskList");
+            marketDepthStore.onOrderBook(OpenDProtocol.symbol(s2c),
+                OpenDProtocol.timestampMillis(s2c, "svrRecvTimeBidTimestamp"),
+                column(bids, "price"), column(bids, "volume"), column(asks, "price"), column(asks, "volume"));
+        } else if (protoId == OpenDProtocol.QOT_UPDATE_TICKER && marketDepthStore.isTickerEnabled()) {
+            String symbol = OpenDProtocol.symbol(s2c);
+            for (JsonNode ticker : s2c.path("tickerList")) {
+                marketDepthStore.onTick(symbol, OpenDProtocol.timestampMillis(ticker, "timestamp"),
+                    ticker.path("price").asDouble(), ticker.path("volume").asDouble(), ticker.path("dir").asInt());
+            }
+        }
+    }
+    
+    /**
+     * 最新盘口快照
+     * @param symbol 股票代码
+     * @return 未订阅、未启用盘口或尚未收到推送时返回null
+     */
+    public OrderBookSnapshot getOrderBook(String symbol) {
+        return marketDepthStore.getOrderBook(toSymbol(symbol));
+    }
+    
+    /**
+     * 从指定序列号开始的盘口快照，用于增量拉取
+     */
+    public List<OrderBookSnapshot> getOrderBookUpdates(String symbol, long fromSequence, int max) {
+        return marketDepthStore.getOrderBookUpdates(toSymbol(symbol), fromSequence, max);
+    }
+    
+    /**
+     * 从指定序列号开始的逐笔成交，用于增量拉取
+     * @return 未订阅或未启用逐笔时返回null
+     */
+    public TickBatch getTicks(String symbol, long fromSequence, int max) {
+        return marketDepthStore.getTicks(toSymbol(symbol), fromSequence, max);
+    }
+    
+    /**
+     * 盘口和逐笔派生指标（VWAP、价差、不平衡度等）
+     * @param windowMs 成交统计窗口（毫秒）
+     * @return 未订阅或未启用盘口和逐笔时返回null
+     */
+    public Map<String, Object> getDepthMetrics(String symbol, long windowMs) {
+        return marketDepthStore.getMetrics(toSymbol(symbol), windowMs, System.currentTimeMillis());
+    }
+    
+    /**
+     * 添加报价监听器，每条推送的报价都会通知
+     */
+    public void addQuoteListener(QuoteListener listener) {
+        quoteListeners.add(listener);
+    }
+    
+    /**
+     * 最新推送报价
+     * @param symbol 股票代码
+     * @return 未订阅或尚未收到推送时返回null
+     */
+    public Quote getLatestQuote(String symbol) {
+        return latestQuotes.get(toSymbol(symbol));
+    }
+    
+    /**
+     * 全部已订阅股票的最新推送报价
+     */
+    public Map<String, Quote> getLatestQuotes() {
+        return latestQuotes.snapshot();
+    }
+    
+    /**
+     * 当前订阅的富途代码
+     */
+    public List<String> getSubscriptions() {
+        return subscriptionManager.getSubscriptions();
+    }
+    
+    public int getMaxSubscriptions() {
+        return subscriptionManager.getMaxSubscriptions();
+    }
+    
+    /**
+     * 行情传输层名称，没有传输层时返回null
+     */
+    public String getQuoteTransportName() {
+        return quoteTransport != null ? quoteTransport.getName() : null;
+    }
+    
+    /**
+     * 添加价格监听器，每条实时报价都会通知
+     */
+    public void addPriceListener(StockDataService.PriceListener listener) {
+        priceListeners.add(listener);
+    }
+    
+    private void notifyPriceListeners(StockData stockData) {
+        for (StockDataService.PriceListener listener : priceListeners) {
+            try {
+                listener.onPrice(stockData);
+            } catch (Exception e) {
+                logger.error("通知价格监听器时发生错误: {}", e.getMessage());
+            }
         }
     }
     
@@ -203,7 +582,8 @@ public class FutuDataService {
      * @return 是否连接
      */
     public boolean isConnected() {
-        return isConnected;
+        OpenDClient client = openDClient;
+        return client != null ? client.isConnected() : isConnected;
     }
     
     /**
@@ -211,9 +591,15 @@ public class FutuDataService {
      */
     public void closeConnection() {
         try {
-            if (quoteContext != null) {
-                // 实际实现中应该关闭连接:
-                // ((QuoteContext) quoteContext).close();
+            synchronized (pushLock) {
+                if (pushStarted) {
+                    quoteTransport.stop();
+                    pushStarted = false;
+                }
+            }
+            if (openDClient != null) {
+                openDClient.close();
+                openDClient = null;
                 logger.info("富途API连接已关闭");
             }
             isConnected = false;
@@ -222,6 +608,133 @@ public class FutuDataService {
         }
     }
     
+    /**
+     * 启动实时行情推送，重新连接后恢复已有订阅
+     */
+    private void startQuotePush() {
+        synchronized (pushLock) {
+            if (pushStarted || quoteTransport == null || !futuConfig.isEnableRealtimeQuote()) {
+                return;
+            }
+            quoteTransport.start(this::onQuote);
+            pushStarted = true;
+            List<String> subscriptions = subscriptionManager.getSubscriptions();
+            if (!subscriptions.isEmpty()) {
+                quoteTransport.subscribe(subscriptions);
+            }
+            logger.info("实时行情推送已启动: {}", quoteTransport.getName());
+        }
+    }
+    
+    /**
+     * 通过OpenD请求历史K线
+     */
+    private BarSeries requestKLines(ObjectNode c2s) throws Exception {
+        OpenDClient client = openDClient;
+        if (client == null) {
+            throw new IllegalStateException("OpenD未连接");
+        }
+        JsonNode klList = client.request(OpenDProtocol.QOT_REQUEST_HISTORY_KL, c2s)
+            .get(futuConfig.getConnectionTimeout(), TimeUnit.MILLISECONDS)
+            .path("klList");
+        int size = klList.size();
+        long[] timestamps = new long[size];
+        double[] open = new double[size];
+        double[] high = new double[size];
+        double[] low = new double[size];
+        double[] close = new double[size];
+        double[] volume = new double[size];
+        for (int i = 0; i < size; i++) {
+            JsonNode kLine = klList.get(i);
+            timestamps[i] = PriceHistoryStore.toEpochMillis(OpenDProtocol.kLineTime(kLine));
+            open[i] = kLine.path("openPrice").asDouble();
+            high[i] = kLine.path("highPrice").asDouble();
+            low[i] = kLine.path("lowPrice").asDouble();
+            close[i] = kLine.path("closePrice").asDouble();
+            volume[i] = kLine.path("volume").asDouble();
+        }
+        return new BarSeries(timestamps, open, high, low, close, volume);
+    }
+    
+    /**
+     * 缓存的K线转换为股票数据
+     */
+    private List<StockData> toKLineData(String code, BarSeries bars) {
+        String cleanSymbol = toSymbol(code);
+        String name = getCompanyName(cleanSymbol);
+        List<StockData> data = new ArrayList<>(bars.size());
+        for (int i = 0; i < bars.size(); i++) {
+            StockData stockData = new StockData(cleanSymbol, name);
+            stockData.setCurrentPrice(BigDecimal.valueOf(bars.getClose()[i]));
+            stockData.setOpenPrice(BigDecimal.valueOf(bars.getOpen()[i]));
+            stockData.setHighPrice(BigDecimal.valueOf(bars.getHigh()[i]));
+            stockData.setLowPrice(BigDecimal.valueOf(bars.getLow()[i]));
+            if (!Double.isNaN(bars.getVolume()[i])) {
+                stockData.setVolume(BigDecimal.valueOf(bars.getVolume()[i]));
+            }
+            stockData.setLastUpdated(LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(bars.getTimestamps()[i]), ZoneId.systemDefault()));
+            data.add(stockData);
+        }
+        return data;
+    }
+    
+    /**
+     * 订阅类型：基础报价，以及按配置启用的盘口和逐笔
+     */
+    private List<Integer> subTypes() {
+        List<Integer> subTypes = new ArrayList<>();
+        subTypes.add(OpenDProtocol.SUB_TYPE_BASIC);
+        if (futuConfig.isEnableOrderBook()) {
+            subTypes.add(OpenDProtocol.SUB_TYPE_ORDER_BOOK);
+        }
+        if (futuConfig.isEnableTicker()) {
+            subTypes.add(OpenDProtocol.SUB_TYPE_TICKER);
+        }
+        return subTypes;
+    }
+    
+    private static double[] column(JsonNode levels, String field) {
+        double[] values = new double[levels.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = levels.get(i).path(field).asDouble();
+        }
+        return values;
+    }
+    
+    private StockData toStockData(Quote quote) {
+        StockData stockData = new StockData(quote.getSymbol(), getCompanyName(quote.getSymbol()));
+        stockData.setCurrentPrice(BigDecimal.valueOf(quote.getPrice()));
+        stockData.setOpenPrice(BigDecimal.valueOf(quote.getOpen()));
+        stockData.setHighPrice(BigDecimal.valueOf(quote.getHigh()));
+        stockData.setLowPrice(BigDecimal.valueOf(quote.getLow()));
+        stockData.setPreviousClose(BigDecimal.valueOf(quote.getPreviousClose()));
+        stockData.setVolume(BigDecimal.valueOf(quote.getVolume()));
+        if (quote.getPreviousClose() > 0) {
+            double changePercent = (quote.getPrice() - quote.getPreviousClose()) / quote.getPreviousClose() * 100;
+            stockData.setChangePercent(BigDecimal.valueOf(changePercent).setScale(4, RoundingMode.HALF_UP));
+        }
+        stockData.setLastUpdated(LocalDateTime.ofInstant(Instant.ofEpochMilli(quote.getTimestamp()), ZoneId.systemDefault()));
+        return stockData;
+    }
+    
+    /**
+     * 股票代码转换为富途代码，没有市场前缀时默认美股
+     */
+    private static String toFutuCode(String symbol) {
+        String code = symbol.trim().toUpperCase(Locale.ROOT);
+        return code.contains(".") ? code : "US." + code;
+    }
+    
+    /**
+     * 富途代码转换为股票代码
+     */
+    private static String toSymbol(String code) {
+        String symbol = code.trim().toUpperCase(Locale.ROOT);
+        int dot = symbol.indexOf('.');
+        return dot >= 0 ? symbol.substring(dot + 1) : symbol;
+    }
+    
     /**
      * 创建模拟股票数据 (用于测试)
      */
@@ -250,32 +763,52 @@ public class FutuDataService {
     }
     
     /**
-     * 创建模拟历史数据
+     * 创建模拟历史K线，K线起始时间按周期对齐，重复下载的K线时间戳一致
+     * @param firstBucket 第一根K线的起始时间
      */
-    private List<StockData> createMockHistoricalData(String symbol, int count) {
-        List<StockData> data = new ArrayList<>();
-        String cleanSymbol = symbol.contains(".") ? symbol.split("\\.")[1] : symbol;
-        
-        BigDecimal basePrice = new BigDecimal("150.00");
-        LocalDateTime time = LocalDateTime.now().minusDays(count);
+    private static BarSeries createMockKLines(Timeframe timeframe, long firstBucket, int count) {
+        long[] timestamps = new long[count];
+        double[] open = new double[count];
+        double[] high = new double[count];
+        double[] low = new double[count];
+        double[] close = new double[count];
+        double[] volume = new double[count];
         
         for (int i = 0; i < count; i++) {
-            StockData stockData = new StockData(cleanSymbol, getCompanyName(cleanSymbol));
-            
-            double random = Math.random() * 0.05 - 0.025;
-            BigDecimal price = basePrice.multiply(BigDecimal.valueOf(1 + random));
-            
-            stockData.setCurrentPrice(price);
-            stockData.setOpenPrice(price.multiply(BigDecimal.valueOf(0.995 + Math.random() * 0.01)));
-            stockData.setHighPrice(price.multiply(BigDecimal.valueOf(1.01)));
-            stockData.setLowPrice(price.multiply(BigDecimal.valueOf(0.99)));
-            stockData.setVolume(BigDecimal.valueOf((long)(Math.random() * 5000000 + 500000)));
-            stockData.setLastUpdated(time.plusDays(i));
-            
-            data.add(stockData);
+            // 加半个周期再对齐，日线跨夏令时切换时仍落在当天
+            timestamps[i] = timeframe.bucketStart(firstBucket + i * timeframe.getMillis() + timeframe.getMillis() / 2);
+            double price = 150.0 * (1 + Math.random() * 0.05 - 0.025);
+            close[i] = price;
+            open[i] = price * (0.995 + Math.random() * 0.01);
+            high[i] = price * 1.01;
+            low[i] = price * 0.99;
+            volume[i] = (long) (Math.random() * 5000000 + 500000);
         }
+        return new BarSeries(timestamps, open, high, low, close, volume);
+    }
+    
+    /**
+     * 本地K线缓存的行情源，只从OpenD下载；模拟K线不经过缓存，避免随机K线被持久化后在切换到OpenD时继续返回
+     */
+    private final class FutuKLineSource implements KLineCache.KLineSource {
         
-        return data;
+        @Override
+        public BarSeries fetchLatest(String code, Timeframe timeframe, int count) throws Exception {
+            return requestKLines(OpenDProtocol.requestHistoryKLine(code, timeframe.getFutuKLineType(),
+                count, LocalDateTime.now()));
+        }
+        
+        @Override
+        public BarSeries fetchSince(String code, Timeframe timeframe, long fromTimestamp, int expectedCount)
+                throws Exception {
+            LocalDateTime from = LocalDateTime.ofInstant(Instant.ofEpochMilli(fromTimestamp), ZoneId.systemDefault());
+            return requestKLines(OpenDProtocol.requestHistoryKLine(code, timeframe, from,
+                LocalDateTime.now(), expectedCount));
+        }
+    }
+    
+    private boolean isSimulatedTransport() {
+        return "simulated".equalsIgnoreCase(futuConfig.getQuoteTransport());
     }
     
     /**
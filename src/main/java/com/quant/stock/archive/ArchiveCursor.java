@@ -0,0 +1,104 @@
+package com.quant.stock.archive;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.quant.stock.store.BarSeries;
+
+/**
+ * 归档游标
+ * 在归档文件的只读映射上按块顺序解码时间范围内的K线，只读块头即可跳过范围外的块，
+ * 任意时刻只持有一块解码后的数据。与 {@link com.quant.stock.store.BarCursor} 用法相同，非线程安全
+ */
+public final class ArchiveCursor {
+
+    private static final ArchiveCursor EMPTY = new ArchiveCursor(null, Long.MIN_VALUE, Long.MAX_VALUE);
+
+    private final ByteBuffer buffer;
+    private final long fromTimestamp;
+    private final long toTimestamp;
+    private int position;
+    private boolean ready;
+
+    ArchiveCursor(ByteBuffer buffer, long fromTimestamp, long toTimestamp) {
+        this.buffer = buffer;
+        this.fromTimestamp = fromTimestamp;
+        this.toTimestamp = toTimestamp;
+    }
+
+    static ArchiveCursor empty() {
+        return EMPTY;
+    }
+
+    public boolean hasNext() {
+        if (buffer == null) {
+            return false;
+        }
+        if (!ready) {
+            ready = seek();
+        }
+        return ready;
+    }
+
+    /**
+     * 解码下一个与时间范围重叠的块，只返回范围内的K线；没有剩余数据时返回空序列
+     */
+    public BarSeries next() {
+        if (!hasNext()) {
+            return BarSeries.empty();
+        }
+        ready = false;
+        int count = buffer.getInt(position + HistoryArchive.COUNT_OFFSET);
+        long first = buffer.getLong(position + HistoryArchive.FIRST_OFFSET);
+        long last = buffer.getLong(position + HistoryArchive.LAST_OFFSET);
+        int length = buffer.getInt(position + HistoryArchive.LENGTH_OFFSET);
+        BarSeries block = BlockCodec.decode(buffer, position + HistoryArchive.HEADER_BYTES, length, count);
+        position += HistoryArchive.HEADER_BYTES + length;
+        if (first >= fromTimestamp && last <= toTimestamp) {
+            return block;
+        }
+        return trim(block);
+    }
+
+    /**
+     * 跳到下一个与时间范围重叠的完整块
+     * @return 没有这样的块时返回false
+     */
+    private boolean seek() {
+        while (buffer.limit() - position >= HistoryArchive.HEADER_BYTES) {
+            if (buffer.getInt(position) != HistoryArchive.MAGIC) {
+                throw new IllegalStateException("归档文件已损坏，位置: " + position);
+            }
+            int length = buffer.getInt(position + HistoryArchive.LENGTH_OFFSET);
+            if (buffer.limit() - position - HistoryArchive.HEADER_BYTES < length) {
+                return false; // 正在写入的块
+            }
+            if (buffer.getLong(position + HistoryArchive.FIRST_OFFSET) > toTimestamp) {
+                return false; // 块按时间升序，之后的块都在范围外
+            }
+            if (buffer.getLong(position + HistoryArchive.LAST_OFFSET) >= fromTimestamp) {
+                return true;
+            }
+            position += HistoryArchive.HEADER_BYTES + length;
+        }
+        return false;
+    }
+
+    private BarSeries trim(BarSeries block) {
+        long[] timestamps = block.getTimestamps();
+        int from = 0;
+        while (from < timestamps.length && timestamps[from] < fromTimestamp) {
+            from++;
+        }
+        int to = from;
+        while (to < timestamps.length && timestamps[to] <= toTimestamp) {
+            to++;
+        }
+        return new BarSeries(Arrays.copyOfRange(timestamps, from, to),
+            Arrays.copyOfRange(block.getOpen(), from, to),
+            Arrays.copyOfRange(block.getHigh(), from, to),
+            Arrays.copyOfRange(block.getLow(), from, to),
+            Arrays.copyOfRange(block.getClose(), from, to),
+            Arrays.copyOfRange(block.getVolume(), from, to));
+    }
+}
@@ -0,0 +1,77 @@
+package com.quant.stock.archive;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 按位读取 {@link BitOutput} 写出的数据，直接读取（可能是内存映射的）缓冲区，不复制
+ */
+final class BitInput {
+
+    private final ByteBuffer buffer;
+    private final int end;
+    private int position;
+    private long current;
+    private int available;
+
+    /**
+     * @param offset 数据在缓冲区中的起始位置
+     * @param length 数据字节数
+     */
+    BitInput(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.end = offset + length;
+    }
+
+    boolean readBit() {
+        return readBits(1) != 0;
+    }
+
+    /**
+     * @param count 1到64
+     */
+    long readBits(int count) {
+        long result = 0;
+        while (count > 0) {
+            if (available == 0) {
+                refill();
+            }
+            int take = Math.min(count, available);
+            long chunk = current >>> (64 - take);
+            current = take == 64 ? 0 : current << take;
+            available -= take;
+            result = take == 64 ? chunk : (result << take) | chunk;
+            count -= take;
+        }
+        return result;
+    }
+
+    long readVarLong() {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            long group = readBits(8);
+            value |= (group & 0x7F) << shift;
+            if ((group & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private void refill() {
+        int remaining = end - position;
+        if (remaining <= 0) {
+            throw new IllegalStateException("归档块数据不完整");
+        }
+        if (remaining >= 8) {
+            current = buffer.getLong(position);
+            position += 8;
+            available = 64;
+            return;
+        }
+        current = 0;
+        for (int i = 0; i < remaining; i++) {
+            current |= (buffer.get(position++) & 0xFFL) << (56 - 8 * i);
+        }
+        available = remaining * 8;
+    }
+}
@@ -0,0 +1,85 @@
+package com.quant.stock.archive;
+
+import java.util.Arrays;
+
+/**
+ * 按位写入的缓冲区，高位在前，每凑满64位写出8个字节
+ */
+final class BitOutput {
+
+    private byte[] buffer;
+    private int size;
+    private long current;
+    private int used;
+
+    BitOutput(int initialBytes) {
+        buffer = new byte[Math.max(16, initialBytes)];
+    }
+
+    void writeBit(boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * 写入value的低count位
+     * @param count 1到64
+     */
+    void writeBits(long value, int count) {
+        if (count < 64) {
+            value &= (1L << count) - 1;
+        }
+        int free = 64 - used;
+        if (count <= free) {
+            current |= value << (free - count);
+            used += count;
+            if (used == 64) {
+                flushWord();
+            }
+        } else {
+            int rest = count - free;
+            current |= value >>> rest;
+            used = 64;
+            flushWord();
+            current = value << (64 - rest);
+            used = rest;
+        }
+    }
+
+    /**
+     * 以7位一组的变长整数写入无符号值，每组占8位
+     */
+    void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeBits((value & 0x7F) | 0x80, 8);
+            value >>>= 7;
+        }
+        writeBits(value, 8);
+    }
+
+    /**
+     * 写出剩余的位，末尾不足一个字节的部分补0
+     */
+    byte[] toByteArray() {
+        int tail = (used + 7) / 8;
+        ensureCapacity(size + tail);
+        for (int i = 0; i < tail; i++) {
+            buffer[size + i] = (byte) (current >>> (56 - 8 * i));
+        }
+        return Arrays.copyOf(buffer, size + tail);
+    }
+
+    private void flushWord() {
+        ensureCapacity(size + 8);
+        for (int i = 0; i < 8; i++) {
+            buffer[size++] = (byte) (current >>> (56 - 8 * i));
+        }
+        current = 0;
+        used = 0;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+        }
+    }
+}
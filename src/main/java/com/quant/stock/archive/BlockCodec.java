@@ -0,0 +1,256 @@
+package com.quant.stock.archive;
+
+import java.nio.ByteBuffer;
+
+import com.quant.stock.store.BarSeries;
+
+/**
+ * 归档块编解码
+ * 时间戳：首个时间戳原样写64位，第一个间隔写变长整数，之后只写间隔的变化量（delta-of-delta），
+ * 间隔不变时只占1位；价格列：整块都是不超过4位小数的价格时放大成整数，写与前一个值之差的变长整数，
+ * 否则与前一个值的位模式异或（Gorilla），相同时只占1位，否则只写异或结果中有效的中间位；
+ * 成交量：取整后写与前一个值之差的变长整数
+ */
+final class BlockCodec {
+
+    /** 缺失值（成交量或放大后的价格） */
+    private static final long MISSING = Long.MIN_VALUE;
+
+    /** 价格列放大编码最多支持的小数位数 */
+    private static final int MAX_SCALE = 4;
+    private static final double[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000};
+
+    /** 放大后能精确表示的最大整数 */
+    private static final double MAX_EXACT = 1L << 53;
+
+    private BlockCodec() {
+    }
+
+    /**
+     * 编码[from, to)范围内的K线
+     */
+    static byte[] encode(BarSeries bars, int from, int to) {
+        BitOutput out = new BitOutput((to - from) * 8);
+        encodeTimestamps(out, bars.getTimestamps(), from, to);
+        encodeDoubles(out, bars.getOpen(), from, to);
+        encodeDoubles(out, bars.getHigh(), from, to);
+        encodeDoubles(out, bars.getLow(), from, to);
+        encodeDoubles(out, bars.getClose(), from, to);
+        encodeVolumes(out, bars.getVolume(), from, to);
+        return out.toByteArray();
+    }
+
+    static BarSeries decode(ByteBuffer buffer, int offset, int length, int count) {
+        BitInput in = new BitInput(buffer, offset, length);
+        long[] timestamps = decodeTimestamps(in, count);
+        double[] open = decodeDoubles(in, count);
+        double[] high = decodeDoubles(in, count);
+        double[] low = decodeDoubles(in, count);
+        double[] close = decodeDoubles(in, count);
+        double[] volume = decodeVolumes(in, count);
+        return new BarSeries(timestamps, open, high, low, close, volume);
+    }
+
+    private static void encodeTimestamps(BitOutput out, long[] timestamps, int from, int to) {
+        out.writeBits(timestamps[from], 64);
+        if (to - from < 2) {
+            return;
+        }
+        long delta = timestamps[from + 1] - timestamps[from];
+        out.writeVarLong(zigzag(delta));
+        for (int i = from + 2; i < to; i++) {
+            long next = timestamps[i] - timestamps[i - 1];
+            long dod = next - delta;
+            delta = next;
+            if (dod == 0) {
+                out.writeBit(false);
+            } else if (dod >= -63 && dod <= 64) {
+                out.writeBits(0b10, 2);
+                out.writeBits(dod + 63, 7);
+            } else if (dod >= -255 && dod <= 256) {
+                out.writeBits(0b110, 3);
+                out.writeBits(dod + 255, 9);
+            } else if (dod >= -2047 && dod <= 2048) {
+                out.writeBits(0b1110, 4);
+                out.writeBits(dod + 2047, 12);
+            } else if (dod >= -524_287 && dod <= 524_288) {
+                out.writeBits(0b11110, 5);
+                out.writeBits(dod + 524_287, 20);
+            } else {
+                out.writeBits(0b11111, 5);
+                out.writeBits(dod, 64);
+            }
+        }
+    }
+
+    private static long[] decodeTimestamps(BitInput in, int count) {
+        long[] timestamps = new long[count];
+        timestamps[0] = in.readBits(64);
+        if (count < 2) {
+            return timestamps;
+        }
+        long delta = unzigzag(in.readVarLong());
+        timestamps[1] = timestamps[0] + delta;
+        for (int i = 2; i < count; i++) {
+            long dod;
+            if (!in.readBit()) {
+                dod = 0;
+            } else if (!in.readBit()) {
+                dod = in.readBits(7) - 63;
+            } else if (!in.readBit()) {
+                dod = in.readBits(9) - 255;
+            } else if (!in.readBit()) {
+                dod = in.readBits(12) - 2047;
+            } else if (!in.readBit()) {
+                dod = in.readBits(20) - 524_287;
+            } else {
+                dod = in.readBits(64);
+            }
+            delta += dod;
+            timestamps[i] = timestamps[i - 1] + delta;
+        }
+        return timestamps;
+    }
+
+    /**
+     * 列标记1位：0表示XOR编码；1表示放大编码，随后3位小数位数
+     */
+    private static void encodeDoubles(BitOutput out, double[] values, int from, int to) {
+        int scale = decimalScale(values, from, to);
+        if (scale < 0) {
+            out.writeBit(false);
+            encodeXor(out, values, from, to);
+            return;
+        }
+        out.writeBit(true);
+        out.writeBits(scale, 3);
+        double power = POWERS_OF_TEN[scale];
+        long previous = 0;
+        for (int i = from; i < to; i++) {
+            long scaled = Double.isNaN(values[i]) ? MISSING : Math.round(values[i] * power);
+            out.writeVarLong(zigzag(scaled - previous));
+            previous = scaled;
+        }
+    }
+
+    private static double[] decodeDoubles(BitInput in, int count) {
+        if (!in.readBit()) {
+            return decodeXor(in, count);
+        }
+        double power = POWERS_OF_TEN[(int) in.readBits(3)];
+        double[] values = new double[count];
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += unzigzag(in.readVarLong());
+            values[i] = previous == MISSING ? Double.NaN : previous / power;
+        }
+        return values;
+    }
+
+    /**
+     * 能让整块（除缺失值外）放大成整数后无损还原的最小小数位数，不存在时返回-1
+     */
+    private static int decimalScale(double[] values, int from, int to) {
+        int scale = 0;
+        for (int i = from; i < to; i++) {
+            double value = values[i];
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            while (!exactAtScale(value, scale)) {
+                if (++scale > MAX_SCALE) {
+                    return -1;
+                }
+            }
+        }
+        return scale;
+    }
+
+    private static boolean exactAtScale(double value, int scale) {
+        double power = POWERS_OF_TEN[scale];
+        double scaled = value * power;
+        if (!(Math.abs(scaled) < MAX_EXACT)) {
+            return false;
+        }
+        return Double.doubleToRawLongBits(Math.round(scaled) / power) == Double.doubleToRawLongBits(value);
+    }
+
+    private static void encodeXor(BitOutput out, double[] values, int from, int to) {
+        long previous = Double.doubleToRawLongBits(values[from]);
+        out.writeBits(previous, 64);
+        int previousLeading = -1;
+        int previousTrailing = 0;
+        for (int i = from + 1; i < to; i++) {
+            long bits = Double.doubleToRawLongBits(values[i]);
+            long xor = bits ^ previous;
+            previous = bits;
+            if (xor == 0) {
+                out.writeBit(false);
+                continue;
+            }
+            out.writeBit(true);
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                // 有效位落在上一个窗口内，沿用窗口
+                out.writeBit(false);
+                out.writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                int significant = 64 - leading - trailing;
+                out.writeBit(true);
+                out.writeBits(leading, 5);
+                out.writeBits(significant - 1, 6);
+                out.writeBits(xor >>> trailing, significant);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+    }
+
+    private static double[] decodeXor(BitInput in, int count) {
+        double[] values = new double[count];
+        long previous = in.readBits(64);
+        values[0] = Double.longBitsToDouble(previous);
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < count; i++) {
+            if (in.readBit()) {
+                if (in.readBit()) {
+                    leading = (int) in.readBits(5);
+                    int significant = (int) in.readBits(6) + 1;
+                    trailing = 64 - leading - significant;
+                }
+                previous ^= in.readBits(64 - leading - trailing) << trailing;
+            }
+            values[i] = Double.longBitsToDouble(previous);
+        }
+        return values;
+    }
+
+    private static void encodeVolumes(BitOutput out, double[] volumes, int from, int to) {
+        long previous = 0;
+        for (int i = from; i < to; i++) {
+            long volume = Double.isNaN(volumes[i]) ? MISSING : Math.round(volumes[i]);
+            out.writeVarLong(zigzag(volume - previous));
+            previous = volume;
+        }
+    }
+
+    private static double[] decodeVolumes(BitInput in, int count) {
+        double[] volumes = new double[count];
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += unzigzag(in.readVarLong());
+            volumes[i] = previous == MISSING ? Double.NaN : previous;
+        }
+        return volumes;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
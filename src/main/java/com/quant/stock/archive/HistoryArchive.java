@@ -0,0 +1,380 @@
+package com.quant.stock.archive;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.quant.stock.store.BarSeries;
+
+/**
+ * 压缩历史归档
+ * 过期数据在清理前按数据集和股票导出到只追加的归档文件（根目录/数据集/股票代码.qarc），
+ * 文件由若干块组成，每块最多blockSize行：块头记录行数和首尾时间戳，块体按 {@link BlockCodec} 压缩。
+ * 按时间升序追加，允许多行时间戳相同。早于已归档最后时间戳的行被丢弃，与最后时间戳相同的行中
+ * 已归档的前若干行被跳过，因此按相同顺序重复归档是幂等的
+ */
+@Component
+public class HistoryArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryArchive.class);
+
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    static final int MAGIC = 0x51415243; // "QARC"
+    static final byte VERSION = 1;
+    static final int COUNT_OFFSET = 5;
+    static final int FIRST_OFFSET = 9;
+    static final int LAST_OFFSET = 17;
+    static final int LENGTH_OFFSET = 25;
+    static final int HEADER_BYTES = 29;
+
+    private static final String SUFFIX = ".qarc";
+    private static final int PAGE_SIZE = 5000;
+
+    private final Path rootDirectory;
+    private final int blockSize;
+
+    /** 每个归档文件已归档的最后时间戳及该时间戳的行数 */
+    private final Map<Path, Tail> tails = new ConcurrentHashMap<>();
+
+    private final LongAdder archivedRows = new LongAdder();
+    private final LongAdder archivedBlocks = new LongAdder();
+    private final LongAdder archivedBytes = new LongAdder();
+
+    @Autowired
+    public HistoryArchive(@Value("${stock.archive.dir:data/archive}") String rootDirectory) {
+        this(Paths.get(rootDirectory), DEFAULT_BLOCK_SIZE);
+    }
+
+    public HistoryArchive(Path rootDirectory, int blockSize) {
+        this.rootDirectory = rootDirectory;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * 按时间升序追加K线并刷到磁盘，返回后即可安全删除源数据
+     * @param dataset 数据集名称（通常为表名）
+     * @return 写入的行数，早于已归档最后时间戳或前一行的行不写入，与最后时间戳相同的行跳过已归档的行数
+     */
+    public synchronized int append(String dataset, String symbol, BarSeries bars) throws IOException {
+        Path file = file(dataset, symbol);
+        Tail tail = tail(file);
+        return write(file, notEarlierThan(bars, tail.timestamp, tail.count));
+    }
+
+    /**
+     * 归档截止时间之前的数据：逐个股票按(时间, 行ID)从已归档的最后时间戳开始分页读取并追加，
+     * 时间戳相同的行不会因为分页边界丢失。任一股票失败时抛出异常，调用方不应删除源数据
+     * @return 本次写入的行数
+     */
+    public long archiveBefore(String dataset, LocalDateTime cutoffTime, ArchiveSource source) throws IOException {
+        long written = 0;
+        for (String symbol : source.findSymbols(cutoffTime)) {
+            Path file = file(dataset, symbol);
+            Tail tail = tail(file);
+            LocalDateTime afterTime = tail.timestamp == Long.MIN_VALUE
+                ? LocalDateTime.of(1970, 1, 1, 0, 0) : toLocalDateTime(tail.timestamp);
+            long afterId = Long.MIN_VALUE;
+            int skip = tail.count; // 从最后时间戳续传：该时间戳上已归档的行按行ID顺序跳过
+            while (true) {
+                Page page = source.findPage(symbol, afterTime, afterId, cutoffTime, PAGE_SIZE);
+                BarSeries bars = page.getBars();
+                if (bars.isEmpty()) {
+                    break;
+                }
+                synchronized (this) {
+                    written += write(file, notEarlierThan(bars, tail(file).timestamp, skip));
+                }
+                // 整页都在续传的时间戳上时，剩余待跳过的行在下一页
+                skip = bars.lastTimestamp() == tail.timestamp ? Math.max(0, skip - bars.size()) : 0;
+                afterTime = page.getLastTime();
+                afterId = page.getLastId();
+                if (bars.size() < PAGE_SIZE) {
+                    break;
+                }
+            }
+        }
+        logger.info("归档过期数据: {} 截止时间: {} 写入{}行", dataset, cutoffTime, written);
+        return written;
+    }
+
+    /**
+     * 追加已过滤的行并刷到磁盘
+     */
+    private int write(Path file, BarSeries rows) throws IOException {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        Tail previous = tail(file);
+        long[] timestamps = rows.getTimestamps();
+        int end = timestamps.length;
+
+        Files.createDirectories(file.getParent());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (int from = 0; from < end; from += blockSize) {
+                int to = Math.min(end, from + blockSize);
+                byte[] payload = BlockCodec.encode(rows, from, to);
+                ByteBuffer block = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+                block.putInt(MAGIC).put(VERSION).putInt(to - from)
+                    .putLong(timestamps[from]).putLong(timestamps[to - 1])
+                    .putInt(payload.length).put(payload).flip();
+                while (block.hasRemaining()) {
+                    channel.write(block);
+                }
+                archivedBlocks.increment();
+                archivedBytes.add(HEADER_BYTES + payload.length);
+            }
+            channel.force(false);
+        }
+        long last = timestamps[end - 1];
+        int equal = trailingCount(timestamps, last);
+        tails.put(file, new Tail(last, equal == end && previous.timestamp == last ? previous.count + end : equal));
+        archivedRows.add(end);
+        return end;
+    }
+
+    /**
+     * 分块顺序读取时间范围[from, to]内的归档K线
+     * 范围在创建游标时确定，之后追加的块不会被读到
+     */
+    public ArchiveCursor cursor(String dataset, String symbol, long fromTimestamp, long toTimestamp) throws IOException {
+        Path file = file(dataset, symbol);
+        if (!Files.exists(file)) {
+            return ArchiveCursor.empty();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return ArchiveCursor.empty();
+            }
+            return new ArchiveCursor(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), fromTimestamp, toTimestamp);
+        }
+    }
+
+    /**
+     * 已归档的最后时间戳，没有归档时返回Long.MIN_VALUE
+     */
+    public long lastTimestamp(String dataset, String symbol) throws IOException {
+        return tail(file(dataset, symbol)).timestamp;
+    }
+
+    /**
+     * 本进程的归档统计
+     */
+    public Map<String, Object> toMap() {
+        long rows = archivedRows.sum();
+        long bytes = archivedBytes.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("rows", rows);
+        stats.put("blocks", archivedBlocks.sum());
+        stats.put("bytes", bytes);
+        stats.put("bytesPerRow", rows > 0 ? (double) bytes / rows : 0.0);
+        return stats;
+    }
+
+    /**
+     * 首次访问时扫描块头，写入中断留下的不完整块被截断；
+     * 最后时间戳上的行数由末尾整块相同时间戳的块的行数加上最后一个跨时间戳的块中的行数得到，后者只解码这一块
+     */
+    private synchronized Tail tail(Path file) throws IOException {
+        Tail cached = tails.get(file);
+        if (cached != null) {
+            return cached;
+        }
+        long last = Long.MIN_VALUE;
+        int count = 0;
+        if (Files.exists(file)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                long position = 0;
+                long size = channel.size();
+                long mixedBlock = -1; // 最后时间戳的行从这一块中间开始
+                while (size - position >= HEADER_BYTES) {
+                    header.clear();
+                    channel.read(header, position);
+                    int length = header.getInt(LENGTH_OFFSET);
+                    if (header.getInt(0) != MAGIC || size - position - HEADER_BYTES < length) {
+                        break;
+                    }
+                    long first = header.getLong(FIRST_OFFSET);
+                    long blockLast = header.getLong(LAST_OFFSET);
+                    int rows = header.getInt(COUNT_OFFSET);
+                    if (first == blockLast && blockLast == last) {
+                        count += rows;
+                    } else if (first == blockLast) {
+                        mixedBlock = -1;
+                        count = rows;
+                    } else {
+                        mixedBlock = position;
+                        count = 0;
+                    }
+                    last = blockLast;
+                    position += HEADER_BYTES + length;
+                }
+                if (position < size) {
+                    logger.warn("归档文件末尾不完整，截断到最后一个完整块: {}", file);
+                    channel.truncate(position);
+                }
+                if (mixedBlock >= 0) {
+                    count += trailingCount(readBlock(channel, mixedBlock).getTimestamps(), last);
+                }
+            }
+        }
+        Tail tail = new Tail(last, count);
+        tails.put(file, tail);
+        return tail;
+    }
+
+    private static BarSeries readBlock(FileChannel channel, long position) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, position);
+        int length = header.getInt(LENGTH_OFFSET);
+        ByteBuffer block = ByteBuffer.allocate(HEADER_BYTES + length);
+        while (block.hasRemaining()) {
+            if (channel.read(block, position + block.position()) < 0) {
+                throw new EOFException("归档块不完整: " + position);
+            }
+        }
+        return BlockCodec.decode(block, HEADER_BYTES, length, header.getInt(COUNT_OFFSET));
+    }
+
+    /**
+     * 末尾时间戳等于last的行数
+     */
+    private static int trailingCount(long[] timestamps, long last) {
+        int count = 0;
+        for (int i = timestamps.length - 1; i >= 0 && timestamps[i] == last; i--) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 只保留不早于after且时间不递减的行，时间戳等于after的前skip行视为已归档而跳过；不需要过滤时返回原序列
+     */
+    private static BarSeries notEarlierThan(BarSeries bars, long after, int skip) {
+        long[] timestamps = bars.getTimestamps();
+        int[] keep = new int[timestamps.length];
+        int kept = 0;
+        long previous = after;
+        for (int i = 0; i < timestamps.length; i++) {
+            if (timestamps[i] < previous) {
+                continue;
+            }
+            if (timestamps[i] == after && skip > 0) {
+                skip--;
+                continue;
+            }
+            keep[kept++] = i;
+            previous = timestamps[i];
+        }
+        if (kept == timestamps.length) {
+            return bars;
+        }
+        long[] keptTimestamps = new long[kept];
+        double[][] columns = {bars.getOpen(), bars.getHigh(), bars.getLow(), bars.getClose(), bars.getVolume()};
+        double[][] keptColumns = new double[columns.length][kept];
+        for (int i = 0; i < kept; i++) {
+            keptTimestamps[i] = timestamps[keep[i]];
+            for (int c = 0; c < columns.length; c++) {
+                keptColumns[c][i] = columns[c][keep[i]];
+            }
+        }
+        return new BarSeries(keptTimestamps, keptColumns[0], keptColumns[1], keptColumns[2], keptColumns[3],
+            keptColumns[4]);
+    }
+
+    private Path file(String dataset, String symbol) {
+        return rootDirectory.resolve(dataset).resolve(symbol.toUpperCase() + SUFFIX);
+    }
+
+    private static LocalDateTime toLocalDateTime(long timestamp) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+    }
+
+    /**
+     * 待归档数据源
+     * 由调用方提供基于索引的"查找有过期数据的股票"和"按时间升序分页读取"两个操作
+     */
+    public interface ArchiveSource {
+
+        /**
+         * 有早于截止时间的数据的股票
+         */
+        List<String> findSymbols(LocalDateTime cutoffTime);
+
+        /**
+         * (时间, 行ID)在(afterTime, afterId)之后且时间早于cutoffTime的最多limit行，按时间、行ID升序
+         * @param afterId 上一页最后一行的ID，Long.MIN_VALUE表示包含时间等于afterTime的全部行
+         */
+        Page findPage(String symbol, LocalDateTime afterTime, long afterId, LocalDateTime cutoffTime, int limit);
+    }
+
+    /**
+     * 一页待归档数据及其最后一行的(时间, 行ID)，作为下一页的起点
+     */
+    public static final class Page {
+
+        private static final Page EMPTY = new Page(BarSeries.empty(), null, Long.MIN_VALUE);
+
+        private final BarSeries bars;
+        private final LocalDateTime lastTime;
+        private final long lastId;
+
+        public Page(BarSeries bars, LocalDateTime lastTime, long lastId) {
+            this.bars = bars;
+            this.lastTime = lastTime;
+            this.lastId = lastId;
+        }
+
+        public static Page empty() {
+            return EMPTY;
+        }
+
+        public BarSeries getBars() {
+            return bars;
+        }
+
+        public LocalDateTime getLastTime() {
+            return lastTime;
+        }
+
+        public long getLastId() {
+            return lastId;
+        }
+    }
+
+    /**
+     * 已归档的最后时间戳及该时间戳上的行数
+     */
+    private static final class Tail {
+
+        final long timestamp;
+        final int count;
+
+        Tail(long timestamp, int count) {
+            this.timestamp = timestamp;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.quant.stock.bar;
+
+/**
+ * 定长K线环形缓冲区（列式）
+ * 每个字段一个基本类型数组，写满后覆盖最旧的K线。非线程安全，由调用方加锁
+ */
+final class BarRing {
+
+    private final long[] timestamps;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final double[] volume;
+
+    private int next; // 下一个写入位置
+    private int size;
+
+    BarRing(int capacity) {
+        timestamps = new long[capacity];
+        open = new double[capacity];
+        high = new double[capacity];
+        low = new double[capacity];
+        close = new double[capacity];
+        volume = new double[capacity];
+    }
+
+    void add(long timestamp, double o, double h, double l, double c, double v) {
+        timestamps[next] = timestamp;
+        open[next] = o;
+        high[next] = h;
+        low[next] = l;
+        close[next] = c;
+        volume[next] = v;
+        next = (next + 1) % timestamps.length;
+        if (size < timestamps.length) {
+            size++;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 最近count根K线按时间升序拷贝到数组的[offset, offset + count)
+     * @return 实际拷贝的数量
+     */
+    int copyTail(int count, long[] ts, double[] o, double[] h, double[] l, double[] c, double[] v, int offset) {
+        int n = Math.min(count, size);
+        int capacity = timestamps.length;
+        int start = (next - n + capacity) % capacity;
+        for (int i = 0; i < n; i++) {
+            int index = (start + i) % capacity;
+            int target = offset + i;
+            ts[target] = timestamps[index];
+            o[target] = open[index];
+            h[target] = high[index];
+            l[target] = low[index];
+            c[target] = close[index];
+            v[target] = volume[index];
+        }
+        return n;
+    }
+
+    /**
+     * 最近count个收盘价按时间升序拷贝到数组的[offset, offset + count)
+     * @return 实际拷贝的数量
+     */
+    int copyTailCloses(int count, double[] out, int offset) {
+        int n = Math.min(count, size);
+        int capacity = close.length;
+        int start = (next - n + capacity) % capacity;
+        for (int i = 0; i < n; i++) {
+            out[offset + i] = close[(start + i) % capacity];
+        }
+        return n;
+    }
+}
@@ -0,0 +1,132 @@
+package com.quant.stock.bar;
+
+import com.quant.stock.store.BarSeries;
+
+/**
+ * 单个股票的多周期K线
+ * 每个行情同时更新所有周期正在形成的K线；时间进入新的周期区间时，
+ * 已完成的K线写入该周期的环形缓冲区。高周期从不回头重新聚合原始行情
+ */
+public final class SymbolBars {
+
+    private static final Timeframe[] TIMEFRAMES = Timeframe.values();
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final BarRing[] rings = new BarRing[TIMEFRAMES.length];
+
+    // 各周期正在形成的K线
+    private final long[] formingStart = new long[TIMEFRAMES.length];
+    private final double[] formingOpen = new double[TIMEFRAMES.length];
+    private final double[] formingHigh = new double[TIMEFRAMES.length];
+    private final double[] formingLow = new double[TIMEFRAMES.length];
+    private final double[] formingClose = new double[TIMEFRAMES.length];
+    private final double[] formingVolume = new double[TIMEFRAMES.length];
+
+    private long lastTickTimestamp = NONE;
+    private double lastCumulativeVolume = Double.NaN;
+
+    /**
+     * @param capacity 每个周期保留的已完成K线数量
+     */
+    public SymbolBars(int capacity) {
+        for (int i = 0; i < TIMEFRAMES.length; i++) {
+            rings[i] = new BarRing(capacity);
+            formingStart[i] = NONE;
+        }
+    }
+
+    /**
+     * 加入一个行情
+     * @param timestamp 毫秒时间戳，早于上一个行情时丢弃
+     * @param price 最新价
+     * @param cumulativeVolume 当日累计成交量，未知时为NaN；成交量取与上一个行情的差值，
+     *                         累计量变小视为新交易日，第一个行情的成交量记为0
+     * @return 是否已更新
+     */
+    public synchronized boolean onTick(long timestamp, double price, double cumulativeVolume) {
+        if (timestamp < lastTickTimestamp || Double.isNaN(price)) {
+            return false;
+        }
+        double volume = volumeDelta(cumulativeVolume);
+        lastTickTimestamp = timestamp;
+
+        for (int i = 0; i < TIMEFRAMES.length; i++) {
+            long start = TIMEFRAMES[i].bucketStart(timestamp);
+            if (formingStart[i] == start) {
+                formingHigh[i] = Math.max(formingHigh[i], price);
+                formingLow[i] = Math.min(formingLow[i], price);
+                formingClose[i] = price;
+                formingVolume[i] += volume;
+                continue;
+            }
+            if (formingStart[i] != NONE) {
+                rings[i].add(formingStart[i], formingOpen[i], formingHigh[i],
+                    formingLow[i], formingClose[i], formingVolume[i]);
+            }
+            formingStart[i] = start;
+            formingOpen[i] = price;
+            formingHigh[i] = price;
+            formingLow[i] = price;
+            formingClose[i] = price;
+            formingVolume[i] = volume;
+        }
+        return true;
+    }
+
+    /**
+     * 最近count根K线（按时间升序），最后一根为正在形成的K线
+     */
+    public synchronized BarSeries bars(Timeframe timeframe, int count) {
+        int i = timeframe.ordinal();
+        if (count <= 0 || formingStart[i] == NONE) {
+            return BarSeries.empty();
+        }
+        int completed = Math.min(rings[i].size(), count - 1);
+        int n = completed + 1;
+        long[] ts = new long[n];
+        double[] o = new double[n];
+        double[] h = new double[n];
+        double[] l = new double[n];
+        double[] c = new double[n];
+        double[] v = new double[n];
+        rings[i].copyTail(completed, ts, o, h, l, c, v, 0);
+        ts[completed] = formingStart[i];
+        o[completed] = formingOpen[i];
+        h[completed] = formingHigh[i];
+        l[completed] = formingLow[i];
+        c[completed] = formingClose[i];
+        v[completed] = formingVolume[i];
+        return new BarSeries(ts, o, h, l, c, v);
+    }
+
+    /**
+     * 最近count个收盘价（按时间升序），最后一个为正在形成的K线的最新价
+     */
+    public synchronized double[] closes(Timeframe timeframe, int count) {
+        int i = timeframe.ordinal();
+        if (count <= 0 || formingStart[i] == NONE) {
+            return new double[0];
+        }
+        int completed = Math.min(rings[i].size(), count - 1);
+        double[] closes = new double[completed + 1];
+        rings[i].copyTailCloses(completed, closes, 0);
+        closes[completed] = formingClose[i];
+        return closes;
+    }
+
+    public synchronized long getLastTickTimestamp() {
+        return lastTickTimestamp;
+    }
+
+    private double volumeDelta(double cumulativeVolume) {
+        if (Double.isNaN(cumulativeVolume)) {
+            return 0.0;
+        }
+        double previous = lastCumulativeVolume;
+        lastCumulativeVolume = cumulativeVolume;
+        if (Double.isNaN(previous)) {
+            return 0.0;
+        }
+        return cumulativeVolume >= previous ? cumulativeVolume - previous : cumulativeVolume;
+    }
+}
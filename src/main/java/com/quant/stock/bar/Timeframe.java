@@ -0,0 +1,66 @@
+package com.quant.stock.bar;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * K线周期
+ * 分钟和小时周期按毫秒时间戳整除对齐，日线按系统时区的自然日对齐
+ */
+public enum Timeframe {
+
+    M1("1m", 60_000L, "K_1M"),
+    M5("5m", 5 * 60_000L, "K_5M"),
+    H1("1h", 60 * 60_000L, "K_60M"),
+    D1("1d", 24 * 60 * 60_000L, "K_DAY");
+
+    private final String label;
+    private final long millis;
+    private final String futuKLineType;
+
+    Timeframe(String label, long millis, String futuKLineType) {
+        this.label = label;
+        this.millis = millis;
+        this.futuKLineType = futuKLineType;
+    }
+
+    /**
+     * 时间戳所在K线的起始时间
+     */
+    public long bucketStart(long timestamp) {
+        if (this == D1) {
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDate day = Instant.ofEpochMilli(timestamp).atZone(zone).toLocalDate();
+            return day.atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+        return Math.floorDiv(timestamp, millis) * millis;
+    }
+
+    /**
+     * 解析周期，接受 "5m"、"M5"、"K_5M" 三种写法
+     * @throws IllegalArgumentException 未知周期
+     */
+    public static Timeframe parse(String text) {
+        String value = text.trim();
+        for (Timeframe timeframe : values()) {
+            if (timeframe.label.equalsIgnoreCase(value) || timeframe.name().equalsIgnoreCase(value)
+                    || timeframe.futuKLineType.equalsIgnoreCase(value)) {
+                return timeframe;
+            }
+        }
+        throw new IllegalArgumentException("未知的K线周期: " + text);
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public String getFutuKLineType() {
+        return futuKLineType;
+    }
+}
@@ -0,0 +1,145 @@
+package com.quant.stock.board;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import com.quant.stock.model.StockData;
+
+/**
+ * 看板上一个股票的最新行情（只读）
+ * 数值保留与stock_data表列定义相同的小数位，时间四舍五入到微秒（与TIMESTAMP列相同），与落库后的主表行一致；
+ * 不含数据库主键和创建时间，行情可能尚未落库
+ */
+public final class LatestQuote {
+
+    private static final int PRICE_SCALE = 2;
+    private static final int RATIO_SCALE = 4;
+
+    private final String symbol;
+    private final String name;
+    private final BigDecimal currentPrice;
+    private final BigDecimal openPrice;
+    private final BigDecimal highPrice;
+    private final BigDecimal lowPrice;
+    private final BigDecimal previousClose;
+    private final BigDecimal changePercent;
+    private final BigDecimal volume;
+    private final BigDecimal marketCap;
+    private final BigDecimal peRatio;
+    private final BigDecimal dividendYield;
+    private final BigDecimal fiftyTwoWeekHigh;
+    private final BigDecimal fiftyTwoWeekLow;
+    private final LocalDateTime lastUpdated;
+
+    private LatestQuote(StockData stockData) {
+        this.symbol = stockData.getSymbol();
+        this.name = stockData.getName();
+        this.currentPrice = scale(stockData.getCurrentPrice(), PRICE_SCALE);
+        this.openPrice = scale(stockData.getOpenPrice(), PRICE_SCALE);
+        this.highPrice = scale(stockData.getHighPrice(), PRICE_SCALE);
+        this.lowPrice = scale(stockData.getLowPrice(), PRICE_SCALE);
+        this.previousClose = scale(stockData.getPreviousClose(), PRICE_SCALE);
+        this.changePercent = scale(stockData.getChangePercent(), RATIO_SCALE);
+        this.volume = scale(stockData.getVolume(), PRICE_SCALE);
+        this.marketCap = scale(stockData.getMarketCap(), PRICE_SCALE);
+        this.peRatio = scale(stockData.getPeRatio(), PRICE_SCALE);
+        this.dividendYield = scale(stockData.getDividendYield(), RATIO_SCALE);
+        this.fiftyTwoWeekHigh = scale(stockData.getFiftyTwoWeekHigh(), PRICE_SCALE);
+        this.fiftyTwoWeekLow = scale(stockData.getFiftyTwoWeekLow(), PRICE_SCALE);
+        this.lastUpdated = stockData.getLastUpdated() != null
+            ? stockData.getLastUpdated().plusNanos(500).truncatedTo(ChronoUnit.MICROS) : null;
+    }
+
+    /**
+     * 从行情实体复制，之后不受实体修改影响
+     */
+    public static LatestQuote of(StockData stockData) {
+        return new LatestQuote(stockData);
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BigDecimal getCurrentPrice() {
+        return currentPrice;
+    }
+
+    public BigDecimal getOpenPrice() {
+        return openPrice;
+    }
+
+    public BigDecimal getHighPrice() {
+        return highPrice;
+    }
+
+    public BigDecimal getLowPrice() {
+        return lowPrice;
+    }
+
+    public BigDecimal getPreviousClose() {
+        return previousClose;
+    }
+
+    public BigDecimal getChangePercent() {
+        return changePercent;
+    }
+
+    public BigDecimal getVolume() {
+        return volume;
+    }
+
+    public BigDecimal getMarketCap() {
+        return marketCap;
+    }
+
+    public BigDecimal getPeRatio() {
+        return peRatio;
+    }
+
+    public BigDecimal getDividendYield() {
+        return dividendYield;
+    }
+
+    public BigDecimal getFiftyTwoWeekHigh() {
+        return fiftyTwoWeekHigh;
+    }
+
+    public BigDecimal getFiftyTwoWeekLow() {
+        return fiftyTwoWeekLow;
+    }
+
+    public LocalDateTime getLastUpdated() {
+        return lastUpdated;
+    }
+
+    /**
+     * 价格变化金额，与 {@link StockData#getPriceChange()} 相同
+     */
+    public BigDecimal getPriceChange() {
+        if (currentPrice != null && previousClose != null) {
+            return currentPrice.subtract(previousClose);
+        }
+        return BigDecimal.ZERO;
+    }
+
+    private static BigDecimal scale(BigDecimal value, int scale) {
+        return value == null ? null : value.setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    @Override
+    public String toString() {
+        return "LatestQuote{" +
+                "symbol='" + symbol + '\'' +
+                ", currentPrice=" + currentPrice +
+                ", changePercent=" + changePercent +
+                ", lastUpdated=" + lastUpdated +
+                '}';
+    }
+}
@@ -0,0 +1,271 @@
+package com.quant.stock.board;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.quant.stock.model.StockData;
+import com.quant.stock.store.PriceHistoryStore;
+
+/**
+ * 最新行情看板
+ * 股票代码首次写入时分配一个固定槽位，各字段以double存放在按槽位排列的数组中；
+ * 每个槽位一个序列号作为顺序锁：写入方把序列号CAS为奇数后写字段，写完再加一发布，
+ * 读取方在前后两次读到相同的偶数序列号时才认为读到的是一致的行情，否则重试。
+ * 读取不加锁、不分配对象，只需要一次哈希查找和若干次数组访问。
+ * 每个槽位同时保存一份保留原始小数位的 {@link LatestQuote}，供需要精确数值的读取方使用
+ */
+public final class QuoteBoard {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    static final int PRICE = 0;
+    static final int OPEN = 1;
+    static final int HIGH = 2;
+    static final int LOW = 3;
+    static final int PREVIOUS_CLOSE = 4;
+    static final int CHANGE_PERCENT = 5;
+    static final int VOLUME = 6;
+    static final int MARKET_CAP = 7;
+    static final int PE_RATIO = 8;
+    static final int DIVIDEND_YIELD = 9;
+    static final int FIFTY_TWO_WEEK_HIGH = 10;
+    static final int FIFTY_TWO_WEEK_LOW = 11;
+    static final int FIELDS = 12;
+
+    private static final VarHandle SEQ = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int capacity;
+    private final Map<String, Integer> index = new ConcurrentHashMap<>();
+    private final String[] symbols;
+    private final String[] names;
+    private final double[] values;
+    private final long[] timestamps;
+    private final LatestQuote[] quotes;
+    private final long[] sequences;
+    private volatile int size;
+
+    public QuoteBoard() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity 最多容纳的股票数，超出后新股票的行情被丢弃
+     */
+    public QuoteBoard(int capacity) {
+        this.capacity = capacity;
+        this.symbols = new String[capacity];
+        this.names = new String[capacity];
+        this.values = new double[capacity * FIELDS];
+        this.timestamps = new long[capacity];
+        this.quotes = new LatestQuote[capacity];
+        this.sequences = new long[capacity];
+    }
+
+    /**
+     * 写入行情，股票代码需已转为大写
+     * @return 看板已满、价格为空或行情早于当前行情时返回false
+     */
+    public boolean update(StockData stockData) {
+        if (stockData.getCurrentPrice() == null || stockData.getLastUpdated() == null) {
+            return false;
+        }
+        int slot = intern(stockData.getSymbol());
+        if (slot < 0) {
+            return false;
+        }
+        long timestamp = PriceHistoryStore.toEpochMillis(stockData.getLastUpdated());
+        LatestQuote quote = LatestQuote.of(stockData);
+        long seq = lock(slot);
+        try {
+            if (seq > 0 && timestamps[slot] > timestamp) {
+                return false;
+            }
+            int base = slot * FIELDS;
+            values[base + PRICE] = toDouble(stockData.getCurrentPrice());
+            values[base + OPEN] = toDouble(stockData.getOpenPrice());
+            values[base + HIGH] = toDouble(stockData.getHighPrice());
+            values[base + LOW] = toDouble(stockData.getLowPrice());
+            values[base + PREVIOUS_CLOSE] = toDouble(stockData.getPreviousClose());
+            values[base + CHANGE_PERCENT] = toDouble(stockData.getChangePercent());
+            values[base + VOLUME] = toDouble(stockData.getVolume());
+            values[base + MARKET_CAP] = toDouble(stockData.getMarketCap());
+            values[base + PE_RATIO] = toDouble(stockData.getPeRatio());
+            values[base + DIVIDEND_YIELD] = toDouble(stockData.getDividendYield());
+            values[base + FIFTY_TWO_WEEK_HIGH] = toDouble(stockData.getFiftyTwoWeekHigh());
+            values[base + FIFTY_TWO_WEEK_LOW] = toDouble(stockData.getFiftyTwoWeekLow());
+            names[slot] = stockData.getName();
+            timestamps[slot] = timestamp;
+            quotes[slot] = quote;
+            return true;
+        } finally {
+            SEQ.setRelease(sequences, slot, seq + 2);
+        }
+    }
+
+    /**
+     * 股票的槽位，不在看板上时返回-1
+     */
+    public int slotOf(String symbol) {
+        Integer slot = index.get(symbol);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * 最新价，不在看板上时返回NaN
+     */
+    public double getPrice(String symbol) {
+        int slot = slotOf(symbol);
+        if (slot < 0) {
+            return Double.NaN;
+        }
+        while (true) {
+            long seq = (long) SEQ.getAcquire(sequences, slot);
+            double price = values[slot * FIELDS + PRICE];
+            VarHandle.acquireFence();
+            if ((seq & 1) == 0 && seq == (long) SEQ.getOpaque(sequences, slot)) {
+                return seq == 0 ? Double.NaN : price;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * 把槽位的一致行情复制到view中，不分配对象
+     * @return 槽位尚未写入行情时返回false
+     */
+    public boolean read(int slot, QuoteView view) {
+        if (slot < 0 || slot >= size) {
+            return false;
+        }
+        double[] target = view.values;
+        while (true) {
+            long seq = (long) SEQ.getAcquire(sequences, slot);
+            System.arraycopy(values, slot * FIELDS, target, 0, FIELDS);
+            String name = names[slot];
+            long timestamp = timestamps[slot];
+            VarHandle.acquireFence();
+            if ((seq & 1) == 0 && seq == (long) SEQ.getOpaque(sequences, slot)) {
+                if (seq == 0) {
+                    return false;
+                }
+                view.symbol = symbols[slot];
+                view.name = name;
+                view.timestamp = timestamp;
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * 把股票的一致行情复制到view中，不分配对象
+     * @return 不在看板上时返回false
+     */
+    public boolean read(String symbol, QuoteView view) {
+        return read(slotOf(symbol), view);
+    }
+
+    /**
+     * 保留原始小数位的最新行情，不在看板上时返回null，不分配对象
+     */
+    public LatestQuote get(String symbol) {
+        int slot = slotOf(symbol);
+        if (slot < 0) {
+            return null;
+        }
+        while (true) {
+            long seq = (long) SEQ.getAcquire(sequences, slot);
+            LatestQuote quote = quotes[slot];
+            VarHandle.acquireFence();
+            if ((seq & 1) == 0 && seq == (long) SEQ.getOpaque(sequences, slot)) {
+                return seq == 0 ? null : quote;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * 全部股票的最新行情，按首次写入顺序
+     */
+    public List<QuoteView> snapshot() {
+        int count = size;
+        List<QuoteView> result = new ArrayList<>(count);
+        for (int slot = 0; slot < count; slot++) {
+            QuoteView view = new QuoteView();
+            if (read(slot, view)) {
+                result.add(view);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 指定股票的最新行情，不在看板上的股票被跳过
+     */
+    public List<QuoteView> snapshot(Collection<String> symbols) {
+        List<QuoteView> result = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            QuoteView view = new QuoteView();
+            if (read(symbol, view)) {
+                result.add(view);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 分配槽位只在新股票首次写入时加锁，槽位分配后不再变化
+     */
+    private int intern(String symbol) {
+        Integer slot = index.get(symbol);
+        if (slot != null) {
+            return slot;
+        }
+        synchronized (index) {
+            slot = index.get(symbol);
+            if (slot != null) {
+                return slot;
+            }
+            int next = size;
+            if (next >= capacity) {
+                return -1;
+            }
+            symbols[next] = symbol;
+            index.put(symbol, next);
+            size = next + 1;
+            return next;
+        }
+    }
+
+    /**
+     * 把槽位序列号从偶数CAS为奇数，多个写入方之间互斥
+     * @return 加锁前的序列号
+     */
+    private long lock(int slot) {
+        while (true) {
+            long seq = (long) SEQ.getVolatile(sequences, slot);
+            if ((seq & 1) == 0 && SEQ.compareAndSet(sequences, slot, seq, seq + 1)) {
+                return seq;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static double toDouble(BigDecimal value) {
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+}
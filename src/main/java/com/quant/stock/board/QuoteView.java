@@ -0,0 +1,56 @@
+package com.quant.stock.board;
+
+/**
+ * 看板上一个股票的行情副本
+ * 可重复传给 {@link QuoteBoard#read(int, QuoteView)} 复用，缺失的字段为NaN
+ */
+public final class QuoteView {
+
+    final double[] values = new double[QuoteBoard.FIELDS];
+    String symbol;
+    String name;
+    long timestamp;
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 行情时间（毫秒）
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public double getPrice() {
+        return values[QuoteBoard.PRICE];
+    }
+
+    public double getOpen() {
+        return values[QuoteBoard.OPEN];
+    }
+
+    public double getHigh() {
+        return values[QuoteBoard.HIGH];
+    }
+
+    public double getLow() {
+        return values[QuoteBoard.LOW];
+    }
+
+    public double getPreviousClose() {
+        return values[QuoteBoard.PREVIOUS_CLOSE];
+    }
+
+    public double getChangePercent() {
+        return values[QuoteBoard.CHANGE_PERCENT];
+    }
+
+    public double getVolume() {
+        return values[QuoteBoard.VOLUME];
+    }
+}
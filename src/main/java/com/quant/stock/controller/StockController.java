@@ -1,6 +1,7 @@
 package com.quant.stock.controller;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.slf4j.Logger;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.quant.stock.board.LatestQuote;
 import com.quant.stock.model.StockData;
 import com.quant.stock.service.StockDataService;
 
@@ -33,17 +35,17 @@ public class StockController {
     private StockDataService stockDataService;
     
     /**
-     * 获取股票数据
+     * 获取股票最新行情
      * @param symbol 股票代码
-     * @return 股票数据
+     * @return 最新行情
      */
     @GetMapping("/{symbol}")
-    public ResponseEntity<StockData> getStock(@PathVariable String symbol) {
+    public ResponseEntity<LatestQuote> getStock(@PathVariable String symbol) {
         logger.info("API请求: 获取股票数据 {}", symbol);
         
-        Optional<StockData> stockData = stockDataService.getStockData(symbol);
-        if (stockData.isPresent()) {
-            return ResponseEntity.ok(stockData.get());
+        Optional<LatestQuote> quote = stockDataService.getLatestQuote(symbol);
+        if (quote.isPresent()) {
+            return ResponseEntity.ok(quote.get());
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -116,6 +118,24 @@ public class StockController {
         }
     }
     
+    /**
+     * 获取异步落库队列统计
+     * @return 队列深度、合并与丢弃数、落库批次和耗时
+     */
+    @GetMapping("/write-behind/stats")
+    public ResponseEntity<Map<String, Object>> getWriteBehindStats() {
+        return ResponseEntity.ok(stockDataService.getWriteBehindStats());
+    }
+    
+    /**
+     * 获取行情变化检测统计
+     * @return 落库、心跳和被跳过的行情数
+     */
+    @GetMapping("/change-suppression/stats")
+    public ResponseEntity<Map<String, Object>> getChangeSuppressionStats() {
+        return ResponseEntity.ok(stockDataService.getChangeSuppressionStats());
+    }
+    
     /**
      * 健康检查接口
      * @return 服务状态
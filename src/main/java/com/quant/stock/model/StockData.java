@@ -8,15 +8,24 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 /**
  * 股票数据实体类
- * 存储股票的基本信息和价格数据
+ * 存储股票的基本信息和价格数据；stock_data表每个股票只有一行最新行情，历史快照在按天分区中
  */
 @Entity
-@Table(name = "stock_data")
+@Table(name = "stock_data", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_stock_data_symbol", columnNames = "symbol")
+}, indexes = {
+    @Index(name = "idx_stock_data_symbol_updated", columnList = "symbol, last_updated DESC"),
+    @Index(name = "idx_stock_data_updated", columnList = "last_updated"),
+    @Index(name = "idx_stock_data_change_percent", columnList = "change_percent"),
+    @Index(name = "idx_stock_data_volume", columnList = "volume")
+})
 public class StockData {
     
     @Id
@@ -0,0 +1,321 @@
+package com.quant.stock.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * 按天分区的时序表
+ * 每天一张物理表（如 stock_data_p20250920），写入按记录时间路由到对应分区，
+ * 范围查询只访问与时间范围重叠的分区，过期数据先按分区分页导出，再通过DROP TABLE整表删除。
+ * 每个分区有自增的行ID列，时间相同的行按行ID排序，用于(时间, 行ID)分页
+ *
+ * @param <T> 记录类型
+ */
+public abstract class DailyPartitionedTable<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyPartitionedTable.class);
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    /** 分区内的自增行ID列 */
+    public static final String ROW_ID = "row_id";
+
+    protected final JdbcTemplate jdbcTemplate;
+
+    private final String baseName;
+
+    /** 已存在的分区（按日期排序） */
+    private final NavigableSet<LocalDate> partitions = new ConcurrentSkipListSet<>();
+
+    protected DailyPartitionedTable(JdbcTemplate jdbcTemplate, String baseName) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.baseName = baseName;
+        discoverPartitions();
+    }
+
+    /**
+     * 分区表的列定义（不含时间列），如 "symbol VARCHAR(20) NOT NULL, price DOUBLE"
+     */
+    protected abstract String columnDefinitions();
+
+    /**
+     * 时间列名，分区路由和范围查询都基于该列
+     */
+    protected abstract String timeColumn();
+
+    /**
+     * 插入时的列名列表（不含时间列），顺序与 {@link #toRow} 一致
+     */
+    protected abstract String[] insertColumns();
+
+    /**
+     * 记录的时间
+     */
+    protected abstract LocalDateTime timeOf(T record);
+
+    /**
+     * 记录转换为插入参数（不含时间列）
+     */
+    protected abstract Object[] toRow(T record);
+
+    /**
+     * 结果集映射
+     */
+    protected abstract RowMapper<T> rowMapper();
+
+    /**
+     * 写入一条记录
+     */
+    public void append(T record) {
+        appendAll(Collections.singletonList(record));
+    }
+
+    /**
+     * 批量写入记录，按天分组后每个分区一次批量插入
+     */
+    public void appendAll(List<T> records) {
+        Map<LocalDate, List<Object[]>> byDay = new TreeMap<>();
+        for (T record : records) {
+            LocalDateTime time = timeOf(record);
+            if (time == null) {
+                continue;
+            }
+            Object[] row = toRow(record);
+            Object[] params = new Object[row.length + 1];
+            System.arraycopy(row, 0, params, 0, row.length);
+            params[row.length] = Timestamp.valueOf(time);
+            byDay.computeIfAbsent(time.toLocalDate(), day -> new ArrayList<>()).add(params);
+        }
+
+        for (Map.Entry<LocalDate, List<Object[]>> entry : byDay.entrySet()) {
+            ensurePartition(entry.getKey());
+            jdbcTemplate.batchUpdate(insertSql(entry.getKey()), entry.getValue());
+        }
+    }
+
+    /**
+     * 按股票代码和时间范围查询，只访问与范围重叠的分区，结果按时间倒序
+     */
+    public List<T> findBySymbolAndTimeRange(String symbol, LocalDateTime startTime, LocalDateTime endTime) {
+        return findBySymbol(symbol, partitionsBetween(startTime.toLocalDate(), endTime.toLocalDate()),
+            " AND " + timeColumn() + " BETWEEN ? AND ?", Timestamp.valueOf(startTime), Timestamp.valueOf(endTime));
+    }
+
+    /**
+     * 按股票代码查询全部分区中的记录，结果按时间倒序
+     */
+    public List<T> findBySymbol(String symbol) {
+        return findBySymbol(symbol, partitions.descendingSet(), "");
+    }
+
+    /**
+     * 按股票代码读取最新的limit条记录，从最新的分区开始逐个查询，凑满limit条即停止，结果按时间倒序
+     */
+    public List<T> findLatest(String symbol, int limit) {
+        List<T> result = new ArrayList<>();
+        for (LocalDate day : partitions.descendingSet()) {
+            int remaining = limit - result.size();
+            if (remaining <= 0) {
+                break;
+            }
+            result.addAll(jdbcTemplate.query("SELECT * FROM " + partitionName(day) + " WHERE symbol = ? ORDER BY "
+                + timeColumn() + " DESC LIMIT ?", rowMapper(), symbol, remaining));
+        }
+        return result;
+    }
+
+    /**
+     * 早于截止时间的记录涉及的股票代码
+     */
+    public List<String> findSymbolsBefore(LocalDateTime cutoffTime) {
+        NavigableSet<LocalDate> days = partitions.headSet(cutoffTime.toLocalDate(), true);
+        if (days.isEmpty()) {
+            return new ArrayList<>();
+        }
+        StringBuilder sql = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        for (LocalDate day : days) {
+            if (sql.length() > 0) {
+                sql.append(" UNION ");
+            }
+            sql.append("SELECT DISTINCT symbol FROM ").append(partitionName(day))
+               .append(" WHERE ").append(timeColumn()).append(" < ?");
+            params.add(Timestamp.valueOf(cutoffTime));
+        }
+        sql.append(" ORDER BY symbol");
+        return jdbcTemplate.queryForList(sql.toString(), String.class, params.toArray());
+    }
+
+    /**
+     * 按(时间, 行ID)升序分页读取某个股票早于截止时间的记录，按日期顺序逐个分区查询，凑满limit条即停止。
+     * 时间相同的行一定在同一分区，按行ID区分，不会因为分页边界丢失
+     * @param afterTime 上一页最后一行的时间
+     * @param afterRowId 上一页最后一行的行ID（不含），Long.MIN_VALUE表示包含时间等于afterTime的全部行
+     * @param cutoffTime 截止时间（不含）
+     */
+    public List<KeyedRow<T>> findPageBefore(String symbol, LocalDateTime afterTime, long afterRowId,
+                                            LocalDateTime cutoffTime, int limit) {
+        String time = timeColumn();
+        RowMapper<T> mapper = rowMapper();
+        RowMapper<KeyedRow<T>> keyedMapper = (rs, rowNum) -> new KeyedRow<>(mapper.mapRow(rs, rowNum),
+            rs.getLong(ROW_ID));
+        Timestamp after = Timestamp.valueOf(afterTime);
+        List<KeyedRow<T>> page = new ArrayList<>();
+        for (LocalDate day : partitionsBetween(afterTime.toLocalDate(), cutoffTime.toLocalDate()).descendingSet()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.addAll(jdbcTemplate.query("SELECT * FROM " + partitionName(day) + " WHERE symbol = ? AND ("
+                    + time + " > ? OR (" + time + " = ? AND " + ROW_ID + " > ?)) AND " + time + " < ? ORDER BY "
+                    + time + " ASC, " + ROW_ID + " ASC LIMIT ?",
+                keyedMapper, symbol, after, after, afterRowId, Timestamp.valueOf(cutoffTime), limit - page.size()));
+        }
+        return page;
+    }
+
+    /**
+     * 删除指定日期之前的所有分区（DROP TABLE，与分区内行数无关）
+     * @return 删除的分区数
+     */
+    public int dropPartitionsBefore(LocalDate day) {
+        List<LocalDate> expired = new ArrayList<>(partitions.headSet(day, false));
+        for (LocalDate expiredDay : expired) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(expiredDay));
+            partitions.remove(expiredDay);
+        }
+        if (!expired.isEmpty()) {
+            logger.info("删除过期分区: {} {}个 ({} 之前)", baseName, expired.size(), day);
+        }
+        return expired.size();
+    }
+
+    /**
+     * 当前存在的分区日期
+     */
+    public List<LocalDate> listPartitions() {
+        return new ArrayList<>(partitions);
+    }
+
+    /**
+     * 分区物理表名
+     */
+    public String partitionName(LocalDate day) {
+        return baseName + "_p" + day.format(PARTITION_SUFFIX);
+    }
+
+    NavigableSet<LocalDate> partitionsBetween(LocalDate startDay, LocalDate endDay) {
+        if (startDay.isAfter(endDay)) {
+            return Collections.emptyNavigableSet();
+        }
+        return partitions.subSet(startDay, true, endDay, true).descendingSet();
+    }
+
+    /**
+     * 在给定分区上按股票代码查询，结果按时间倒序
+     * @param condition 附加的WHERE条件，以" AND "开头
+     * @param conditionParams 附加条件的参数
+     */
+    private List<T> findBySymbol(String symbol, NavigableSet<LocalDate> days, String condition,
+                                 Object... conditionParams) {
+        if (days.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        StringBuilder sql = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        for (LocalDate day : days) {
+            if (sql.length() > 0) {
+                sql.append(" UNION ALL ");
+            }
+            sql.append("SELECT * FROM ").append(partitionName(day))
+               .append(" WHERE symbol = ?").append(condition);
+            params.add(symbol);
+            params.addAll(Arrays.asList(conditionParams));
+        }
+        sql.append(" ORDER BY ").append(timeColumn()).append(" DESC");
+
+        return jdbcTemplate.query(sql.toString(), rowMapper(), params.toArray());
+    }
+
+    private void ensurePartition(LocalDate day) {
+        if (partitions.contains(day)) {
+            return;
+        }
+        String table = partitionName(day);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " (" + ROW_ID + " BIGINT AUTO_INCREMENT, "
+            + columnDefinitions() + ", " + timeColumn() + " TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_symbol_time ON "
+            + table + " (symbol, " + timeColumn() + " DESC)");
+        partitions.add(day);
+        logger.debug("创建分区: {}", table);
+    }
+
+    private String insertSql(LocalDate day) {
+        String[] columns = insertColumns();
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i <= columns.length; i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        return "INSERT INTO " + partitionName(day) + " (" + String.join(", ", columns) + ", "
+            + timeColumn() + ") VALUES (" + placeholders + ")";
+    }
+
+    /**
+     * 启动时从数据库元数据中发现已有分区
+     */
+    private void discoverPartitions() {
+        String prefix = (baseName + "_p").toUpperCase();
+        try {
+            List<String> tables = jdbcTemplate.queryForList(
+                "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE UPPER(TABLE_NAME) LIKE ?",
+                String.class, prefix + "%");
+            for (String table : tables) {
+                String suffix = table.substring(prefix.length());
+                try {
+                    partitions.add(LocalDate.parse(suffix, PARTITION_SUFFIX));
+                } catch (Exception e) {
+                    logger.debug("忽略非分区表: {}", table);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("发现已有分区失败: {} - {}", baseName, e.getMessage());
+        }
+    }
+
+    /**
+     * 记录及其分区行ID
+     */
+    public static final class KeyedRow<T> {
+
+        private final T record;
+        private final long rowId;
+
+        public KeyedRow(T record, long rowId) {
+            this.record = record;
+            this.rowId = rowId;
+        }
+
+        public T getRecord() {
+            return record;
+        }
+
+        public long getRowId() {
+            return rowId;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.quant.stock.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.quant.stock.model.StockData;
+
+/**
+ * 股票最新行情批量写入
+ * 主表每个股票只保存一行最新行情，历史快照保存在按天分区中（见 {@link StockDataHistoryStore}）。
+ * StockData的主键为IDENTITY，Hibernate无法对这类实体做JDBC批量写入，这里用JdbcTemplate.batchUpdate
+ * 把一批行情作为一个JDBC批次更新，已有行的股票原地更新，新股票再一次批量插入
+ */
+@Repository
+public class StockDataBatchWriter {
+
+    private static final String UPDATE_SQL = "UPDATE stock_data SET name = ?, current_price = ?, open_price = ?, "
+        + "high_price = ?, low_price = ?, previous_close = ?, change_percent = ?, volume = ?, market_cap = ?, "
+        + "pe_ratio = ?, dividend_yield = ?, fifty_two_week_high = ?, fifty_two_week_low = ?, last_updated = ? "
+        + "WHERE symbol = ? AND last_updated <= ?";
+
+    private static final String INSERT_SQL = "INSERT INTO stock_data (name, current_price, open_price, "
+        + "high_price, low_price, previous_close, change_percent, volume, market_cap, pe_ratio, dividend_yield, "
+        + "fifty_two_week_high, fifty_two_week_low, last_updated, symbol, created_at) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** 串行化写入，避免并发写入同一个新股票时重复插入 */
+    private final Object lock = new Object();
+
+    @Autowired
+    public StockDataBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 写入每个股票的最新行情，主表中已有更新行情的股票不会被旧行情覆盖
+     * @param rows 行情列表，每个股票最多一条
+     * @return 更新和插入的行数
+     */
+    public int upsertLatest(List<StockData> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        synchronized (lock) {
+            return upsert(rows);
+        }
+    }
+
+    private int upsert(List<StockData> rows) {
+        List<Object[]> updates = new ArrayList<>(rows.size());
+        for (StockData row : rows) {
+            updates.add(params(row, toTimestamp(row.getLastUpdated()))); // WHERE last_updated <= 本行时间
+        }
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+
+        List<StockData> missing = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                missing.add(rows.get(i));
+            }
+        }
+        int written = rows.size() - missing.size();
+        if (missing.isEmpty()) {
+            return written;
+        }
+
+        // 没有更新到的行：要么是新股票，要么主表中已有更新的行情
+        Set<String> existing = existingSymbols(missing);
+        List<Object[]> inserts = new ArrayList<>();
+        for (StockData row : missing) {
+            if (!existing.contains(row.getSymbol())) {
+                inserts.add(params(row, toTimestamp(row.getCreatedAt())));
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        }
+        return written + inserts.size();
+    }
+
+    private Set<String> existingSymbols(List<StockData> rows) {
+        StringBuilder sql = new StringBuilder("SELECT symbol FROM stock_data WHERE symbol IN (");
+        Object[] symbols = new Object[rows.size()];
+        for (int i = 0; i < symbols.length; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            symbols[i] = rows.get(i).getSymbol();
+        }
+        sql.append(")");
+        return new HashSet<>(jdbcTemplate.queryForList(sql.toString(), String.class, symbols));
+    }
+
+    /**
+     * UPDATE_SQL与INSERT_SQL共用的参数，两者只有最后一个参数不同
+     */
+    private static Object[] params(StockData row, Timestamp last) {
+        return new Object[] {
+            row.getName(), row.getCurrentPrice(), row.getOpenPrice(), row.getHighPrice(), row.getLowPrice(),
+            row.getPreviousClose(), row.getChangePercent(), row.getVolume(), row.getMarketCap(),
+            row.getPeRatio(), row.getDividendYield(), row.getFiftyTwoWeekHigh(), row.getFiftyTwoWeekLow(),
+            toTimestamp(row.getLastUpdated()), row.getSymbol(), last
+        };
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime time) {
+        return Timestamp.valueOf(time != null ? time : LocalDateTime.now());
+    }
+}
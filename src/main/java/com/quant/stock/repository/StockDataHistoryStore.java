@@ -0,0 +1,76 @@
+package com.quant.stock.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.quant.stock.model.StockData;
+
+/**
+ * 股票行情历史分区存储
+ * 按天分区保存每次轮询的行情快照，历史范围查询和过期清理都基于分区
+ */
+@Repository
+public class StockDataHistoryStore extends DailyPartitionedTable<StockData> {
+    
+    private static final String[] COLUMNS = {
+        "symbol", "name", "current_price", "open_price", "high_price", "low_price",
+        "previous_close", "change_percent", "volume"
+    };
+    
+    @Autowired
+    public StockDataHistoryStore(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate, "stock_data");
+    }
+    
+    @Override
+    protected String columnDefinitions() {
+        return "symbol VARCHAR(10) NOT NULL, name VARCHAR(100), "
+            + "current_price DECIMAL(10,2), open_price DECIMAL(10,2), high_price DECIMAL(10,2), "
+            + "low_price DECIMAL(10,2), previous_close DECIMAL(10,2), change_percent DECIMAL(10,4), "
+            + "volume DECIMAL(15,2)";
+    }
+    
+    @Override
+    protected String timeColumn() {
+        return "last_updated";
+    }
+    
+    @Override
+    protected String[] insertColumns() {
+        return COLUMNS;
+    }
+    
+    @Override
+    protected LocalDateTime timeOf(StockData record) {
+        return record.getLastUpdated();
+    }
+    
+    @Override
+    protected Object[] toRow(StockData record) {
+        return new Object[] {
+            record.getSymbol(), record.getName(), record.getCurrentPrice(), record.getOpenPrice(),
+            record.getHighPrice(), record.getLowPrice(), record.getPreviousClose(),
+            record.getChangePercent(), record.getVolume()
+        };
+    }
+    
+    @Override
+    protected RowMapper<StockData> rowMapper() {
+        return (rs, rowNum) -> {
+            StockData data = new StockData(rs.getString("symbol"), rs.getString("name"));
+            data.setCurrentPrice(rs.getBigDecimal("current_price"));
+            data.setOpenPrice(rs.getBigDecimal("open_price"));
+            data.setHighPrice(rs.getBigDecimal("high_price"));
+            data.setLowPrice(rs.getBigDecimal("low_price"));
+            data.setPreviousClose(rs.getBigDecimal("previous_close"));
+            data.setChangePercent(rs.getBigDecimal("change_percent"));
+            data.setVolume(rs.getBigDecimal("volume"));
+            data.setLastUpdated(rs.getTimestamp("last_updated").toLocalDateTime());
+            return data;
+        };
+    }
+}
@@ -4,17 +4,19 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.quant.stock.model.StockData;
 
 /**
  * 股票数据仓库接口
- * 提供股票数据的数据库操作
+ * 提供股票数据的数据库操作；主表每个股票一行最新行情，历史查询见 {@link StockDataHistoryStore}
  */
 @Repository
 public interface StockDataRepository extends JpaRepository<StockData, Long> {
@@ -26,25 +28,6 @@ public interface StockDataRepository extends JpaRepository<StockData, Long> {
      */
     Optional<StockData> findTopBySymbolOrderByLastUpdatedDesc(String symbol);
     
-    /**
-     * 根据股票代码查找所有历史数据
-     * @param symbol 股票代码
-     * @return 股票数据列表
-     */
-    List<StockData> findBySymbolOrderByLastUpdatedDesc(String symbol);
-    
-    /**
-     * 查找指定时间范围内的股票数据
-     * @param symbol 股票代码
-     * @param startTime 开始时间
-     * @param endTime 结束时间
-     * @return 股票数据列表
-     */
-    @Query("SELECT s FROM StockData s WHERE s.symbol = :symbol AND s.lastUpdated BETWEEN :startTime AND :endTime ORDER BY s.lastUpdated DESC")
-    List<StockData> findBySymbolAndTimeRange(@Param("symbol") String symbol, 
-                                           @Param("startTime") LocalDateTime startTime, 
-                                           @Param("endTime") LocalDateTime endTime);
-    
     /**
      * 查找所有活跃的股票代码
      * @return 股票代码列表
@@ -86,4 +69,23 @@ public interface StockDataRepository extends JpaRepository<StockData, Long> {
     @Modifying
     @Query("DELETE FROM StockData s WHERE s.lastUpdated < :cutoffTime")
     int deleteOldData(@Param("cutoffTime") LocalDateTime cutoffTime);
+    
+    /**
+     * 分批查找过期数据ID（走last_updated索引）
+     * @param cutoffTime 截止时间
+     * @param pageable 批大小
+     * @return ID列表
+     */
+    @Query("SELECT s.id FROM StockData s WHERE s.lastUpdated < :cutoffTime")
+    List<Long> findIdsByLastUpdatedBefore(@Param("cutoffTime") LocalDateTime cutoffTime, Pageable pageable);
+    
+    /**
+     * 按ID批量删除
+     * @param ids ID列表
+     * @return 删除的记录数
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StockData s WHERE s.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
 }
@@ -0,0 +1,113 @@
+package com.quant.stock.service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.quant.futu.service.FutuDataService;
+import com.quant.stock.bar.SymbolBars;
+import com.quant.stock.bar.Timeframe;
+import com.quant.stock.model.StockData;
+import com.quant.stock.store.BarSeries;
+import com.quant.stock.store.PriceHistoryStore;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * 多周期K线聚合服务
+ * 监听所有行情，增量聚合为1分钟、5分钟、1小时和日线K线，
+ * 每个股票每个周期保存在定长环形缓冲区中，读取时只拷贝需要的K线
+ */
+@Service
+public class BarAggregationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BarAggregationService.class);
+
+    @Autowired
+    private StockDataService stockDataService;
+
+    @Autowired
+    private FutuDataService futuDataService;
+
+    @Value("${stock.bars.capacity:1000}")
+    private int capacity = 1000;
+
+    private final Map<String, SymbolBars> symbols = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void registerListeners() {
+        stockDataService.addPriceListener(this::onTick);
+        futuDataService.addPriceListener(this::onTick);
+        logger.info("K线聚合已启动，每个周期保留{}根K线", capacity);
+    }
+
+    /**
+     * 加入一条行情
+     */
+    public void onTick(StockData stockData) {
+        if (stockData.getSymbol() == null || stockData.getCurrentPrice() == null
+                || stockData.getLastUpdated() == null) {
+            return;
+        }
+        onTick(stockData.getSymbol(),
+            PriceHistoryStore.toEpochMillis(stockData.getLastUpdated()),
+            stockData.getCurrentPrice().doubleValue(),
+            toDouble(stockData.getVolume()));
+    }
+
+    /**
+     * 加入一条行情
+     * @param symbol 股票代码
+     * @param timestamp 毫秒时间戳
+     * @param price 最新价
+     * @param cumulativeVolume 当日累计成交量，未知时为NaN
+     * @return 乱序被丢弃时返回false
+     */
+    public boolean onTick(String symbol, long timestamp, double price, double cumulativeVolume) {
+        SymbolBars bars = symbols.computeIfAbsent(symbol.toUpperCase(), key -> new SymbolBars(capacity));
+        boolean accepted = bars.onTick(timestamp, price, cumulativeVolume);
+        if (!accepted) {
+            logger.debug("丢弃乱序行情: {} {}", symbol, timestamp);
+        }
+        return accepted;
+    }
+
+    /**
+     * 最近count根K线（按时间升序），最后一根为正在形成的K线
+     */
+    public BarSeries getBars(String symbol, Timeframe timeframe, int count) {
+        SymbolBars bars = symbols.get(symbol.toUpperCase());
+        return bars == null ? BarSeries.empty() : bars.bars(timeframe, count);
+    }
+
+    /**
+     * 最近count个收盘价（按时间升序）
+     */
+    public double[] getCloses(String symbol, Timeframe timeframe, int count) {
+        SymbolBars bars = symbols.get(symbol.toUpperCase());
+        return bars == null ? new double[0] : bars.closes(timeframe, count);
+    }
+
+    /**
+     * 最后一个被聚合的行情的时间戳，没有行情时返回Long.MIN_VALUE
+     */
+    public long getLastTickTimestamp(String symbol) {
+        SymbolBars bars = symbols.get(symbol.toUpperCase());
+        return bars == null ? Long.MIN_VALUE : bars.getLastTickTimestamp();
+    }
+
+    public Set<String> getSymbols() {
+        return symbols.keySet();
+    }
+
+    private static double toDouble(BigDecimal value) {
+        return value != null ? value.doubleValue() : Double.NaN;
+    }
+}
@@ -0,0 +1,156 @@
+package com.quant.stock.service;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.quant.stock.model.StockData;
+import com.quant.stock.store.PriceHistoryStore;
+
+/**
+ * 行情变化检测
+ * 在内存中保存每个股票最近一次落库的各字段值，新行情的每个字段与之相差都不超过对应阈值时视为未变化，
+ * 不再落库；盘后和周末定时抓取到的重复行情因此不再产生新行。未变化的行情距上次落库超过心跳间隔时
+ * 仍保存一条，使历史中不会出现过长的空白。
+ * 比较基准只在行情真正写入数据库后由 {@link QuoteWriteBehind} 通过 {@link #record} 更新，
+ * 被队列丢弃或写入失败的行情不会让之后相同的行情被跳过
+ */
+@Component
+public class QuoteChangeFilter {
+
+    private static final int PRICE = 0;
+    private static final int OPEN = 1;
+    private static final int HIGH = 2;
+    private static final int LOW = 3;
+    private static final int PREVIOUS_CLOSE = 4;
+    private static final int CHANGE_PERCENT = 5;
+    private static final int VOLUME = 6;
+    private static final int FIELDS = 7;
+
+    @Value("${stock.change-suppression.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${stock.change-suppression.price-epsilon:0.0001}")
+    private double priceEpsilon = 0.0001; // 最新价、开盘、最高、最低、昨收的阈值
+
+    @Value("${stock.change-suppression.change-percent-epsilon:0.0001}")
+    private double changePercentEpsilon = 0.0001; // 涨跌幅的阈值
+
+    @Value("${stock.change-suppression.volume-epsilon:0}")
+    private double volumeEpsilon = 0; // 成交量的阈值
+
+    @Value("${stock.change-suppression.heartbeat-ms:3600000}")
+    private long heartbeatMs = 3_600_000; // 未变化时至少每隔多久仍保存一条（毫秒），0表示从不
+
+    private final Map<String, Stored> stored = new ConcurrentHashMap<>();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder heartbeats = new LongAdder();
+
+    /**
+     * 与该股票最近一次落库的行情比较，判断行情是否需要落库；只做判断，不更新比较基准
+     * @return 首次出现、任一字段超过阈值或心跳到期时返回true
+     */
+    public boolean accept(StockData stockData) {
+        if (!enabled) {
+            accepted.increment();
+            return true;
+        }
+        Stored previous = stored.get(stockData.getSymbol());
+        if (previous == null || changed(previous.values, values(stockData))) {
+            accepted.increment();
+            return true;
+        }
+        long timestamp = PriceHistoryStore.toEpochMillis(stockData.getLastUpdated());
+        if (heartbeatMs > 0 && timestamp - previous.timestamp >= heartbeatMs) {
+            heartbeats.increment();
+            return true;
+        }
+        suppressed.increment();
+        return false;
+    }
+
+    /**
+     * 行情已写入数据库后调用，记为该股票最近一次落库的行情；早于当前基准的行情被忽略
+     */
+    public void record(StockData stockData) {
+        Stored current = new Stored(values(stockData), PriceHistoryStore.toEpochMillis(stockData.getLastUpdated()));
+        stored.merge(stockData.getSymbol(), current,
+            (previous, next) -> next.timestamp >= previous.timestamp ? next : previous);
+    }
+
+    /**
+     * 统计快照
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("symbols", stored.size());
+        stats.put("accepted", accepted.sum());
+        stats.put("heartbeats", heartbeats.sum());
+        stats.put("suppressed", suppressed.sum());
+        return stats;
+    }
+
+    private boolean changed(double[] previous, double[] current) {
+        for (int i = 0; i < FIELDS; i++) {
+            if (differs(previous[i], current[i], epsilon(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private double epsilon(int field) {
+        switch (field) {
+            case CHANGE_PERCENT:
+                return changePercentEpsilon;
+            case VOLUME:
+                return volumeEpsilon;
+            default:
+                return priceEpsilon;
+        }
+    }
+
+    /**
+     * 缺失的字段只与缺失相等
+     */
+    private static boolean differs(double previous, double current, double epsilon) {
+        if (Double.isNaN(previous) || Double.isNaN(current)) {
+            return Double.isNaN(previous) != Double.isNaN(current);
+        }
+        return Math.abs(current - previous) > epsilon;
+    }
+
+    private static double[] values(StockData stockData) {
+        double[] values = new double[FIELDS];
+        values[PRICE] = toDouble(stockData.getCurrentPrice());
+        values[OPEN] = toDouble(stockData.getOpenPrice());
+        values[HIGH] = toDouble(stockData.getHighPrice());
+        values[LOW] = toDouble(stockData.getLowPrice());
+        values[PREVIOUS_CLOSE] = toDouble(stockData.getPreviousClose());
+        values[CHANGE_PERCENT] = toDouble(stockData.getChangePercent());
+        values[VOLUME] = toDouble(stockData.getVolume());
+        return values;
+    }
+
+    private static double toDouble(BigDecimal value) {
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+
+    private static final class Stored {
+        private final double[] values;
+        private final long timestamp;
+
+        private Stored(double[] values, long timestamp) {
+            this.values = values;
+            this.timestamp = timestamp;
+        }
+    }
+}
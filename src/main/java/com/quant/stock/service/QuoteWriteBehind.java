@@ -0,0 +1,293 @@
+package com.quant.stock.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.quant.stock.model.StockData;
+import com.quant.stock.repository.StockDataBatchWriter;
+import com.quant.stock.repository.StockDataHistoryStore;
+import com.quant.stock.store.PriceHistoryStore;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 行情异步落库队列
+ * 获取行情的线程只把行情放入内存并立即返回，不等待数据库或磁盘；独立的落库线程按批大小或刷新间隔
+ * 把积累的行情作为一个JDBC批次写入主表（每个股票一行最新行情），再写入历史分区和列式价格存储。同一股票在一个刷新窗口内的
+ * 多次更新合并为最后一条；队列满时新股票的行情被丢弃并计数，不阻塞调用方
+ */
+@Component
+public class QuoteWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteWriteBehind.class);
+
+    @Autowired
+    private StockDataBatchWriter stockDataBatchWriter;
+
+    @Autowired
+    private StockDataHistoryStore stockDataHistoryStore;
+
+    @Autowired
+    private PriceHistoryStore priceHistoryStore;
+
+    @Autowired
+    private QuoteChangeFilter quoteChangeFilter;
+
+    @Value("${stock.write-behind.capacity:10000}")
+    private int capacity = 10000; // 最多等待落库的股票数
+
+    @Value("${stock.write-behind.batch-size:500}")
+    private int batchSize = 500; // 每批最多写入的行数
+
+    @Value("${stock.write-behind.flush-interval-ms:1000}")
+    private long flushIntervalMs = 1000; // 第一条行情入队后最多等待多久落库（毫秒）
+
+    /** 每个股票等待落库的最新行情，队列里只保存股票代码 */
+    private final Map<String, StockData> pending = new ConcurrentHashMap<>();
+    private volatile BlockingQueue<String> queue;
+    private Thread flusher;
+    private volatile boolean running = false;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder failedRows = new LongAdder();
+    private final LongAdder historyFailedRows = new LongAdder();
+    private final LongAdder priceStoreFailedRows = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final LongAccumulator maxFlushNanos = new LongAccumulator(Math::max, 0);
+    private volatile long lastFlushNanos;
+    private volatile int lastBatchSize;
+
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        if (queue == null) {
+            queue = new ArrayBlockingQueue<>(capacity);
+        }
+        running = true;
+        flusher = new Thread(this::runFlusher, "quote-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * 停止落库线程并把剩余的行情写入数据库
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(flushIntervalMs + 5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushPending();
+    }
+
+    /**
+     * 提交一条行情，不阻塞，需在 {@link #start()} 之后调用
+     * @return 队列已满被丢弃时返回false
+     */
+    public boolean submit(StockData stockData) {
+        submitted.increment();
+        String symbol = stockData.getSymbol();
+        if (pending.put(symbol, stockData) != null) {
+            coalesced.increment();
+            return true;
+        }
+        if (!queue.offer(symbol)) {
+            pending.remove(symbol); // 期间合并进来的行情也一并丢弃，避免没有队列项的孤儿行情
+            dropped.increment();
+            logger.warn("落库队列已满，丢弃行情: {}", symbol);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 提交多条行情，不阻塞
+     * @return 被接受的行情数
+     */
+    public int submitAll(Collection<StockData> stockData) {
+        int accepted = 0;
+        for (StockData item : stockData) {
+            if (submit(item)) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * 在调用线程上立即写入一条行情，不经过队列，供需要确认写入结果的调用方使用
+     * @throws RuntimeException 主表写入失败
+     */
+    public void writeThrough(StockData stockData) {
+        write(List.of(stockData));
+    }
+
+    /**
+     * 等待落库的股票数
+     */
+    public int getQueueDepth() {
+        BlockingQueue<String> current = queue;
+        return current == null ? 0 : current.size();
+    }
+
+    /**
+     * 统计快照，耗时单位为毫秒
+     */
+    public Map<String, Object> toMap() {
+        long count = flushes.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", getQueueDepth());
+        stats.put("capacity", capacity);
+        stats.put("submitted", submitted.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("flushes", count);
+        stats.put("flushedRows", flushedRows.sum());
+        stats.put("failedRows", failedRows.sum());
+        stats.put("historyFailedRows", historyFailedRows.sum());
+        stats.put("priceStoreFailedRows", priceStoreFailedRows.sum());
+        stats.put("avgFlushMs", count > 0 ? toMillis(flushNanos.sum()) / count : 0.0);
+        stats.put("maxFlushMs", toMillis(maxFlushNanos.get()));
+        stats.put("lastFlushMs", toMillis(lastFlushNanos));
+        stats.put("lastBatchSize", lastBatchSize);
+        return stats;
+    }
+
+    /**
+     * 在当前线程上把队列中已有的行情全部写入数据库
+     */
+    void flushPending() {
+        if (queue == null) {
+            return;
+        }
+        List<String> symbols = new ArrayList<>(batchSize);
+        while (queue.drainTo(symbols, batchSize) > 0) {
+            flush(symbols);
+            symbols.clear();
+        }
+    }
+
+    /**
+     * 收到第一条行情后开启一个刷新窗口，攒满一批或窗口结束时落库
+     */
+    private void runFlusher() {
+        List<String> symbols = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                String first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                symbols.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                queue.drainTo(symbols, batchSize - symbols.size());
+                while (symbols.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    String next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    symbols.add(next);
+                    queue.drainTo(symbols, batchSize - symbols.size());
+                }
+            } catch (InterruptedException e) {
+                // 只有shutdown会中断落库线程，剩余的行情由shutdown写入
+            } finally {
+                if (!symbols.isEmpty()) {
+                    flush(symbols);
+                    symbols.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * 取出各股票的最新行情并一次写入，失败的批次记录后丢弃
+     */
+    private void flush(List<String> symbols) {
+        List<StockData> batch = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            StockData stockData = pending.remove(symbol);
+            if (stockData != null) {
+                batch.add(stockData);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            write(batch);
+            flushedRows.add(batch.size());
+        } catch (Exception e) {
+            failedRows.add(batch.size());
+            logger.error("行情批量落库失败: {}条, 错误: {}", batch.size(), e.getMessage());
+        }
+        long elapsed = System.nanoTime() - start;
+        flushes.increment();
+        flushNanos.add(elapsed);
+        maxFlushNanos.accumulate(elapsed);
+        lastFlushNanos = elapsed;
+        lastBatchSize = batch.size();
+        logger.debug("行情批量落库: {}条, 耗时{}ms", batch.size(), elapsed / 1_000_000);
+    }
+
+    /**
+     * 主表一次批量更新最新行情，成功后更新变化检测的比较基准，再分别写入历史分区和列式价格存储；
+     * 历史分区和价格存储互不影响，价格存储按股票写入，一个股票失败不影响其他股票；
+     * 这两处失败只记录日志和失败行数，不影响主表
+     */
+    private void write(List<StockData> batch) {
+        stockDataBatchWriter.upsertLatest(batch);
+        for (StockData stockData : batch) {
+            quoteChangeFilter.record(stockData);
+        }
+        try {
+            stockDataHistoryStore.appendAll(batch);
+        } catch (Exception e) {
+            historyFailedRows.add(batch.size());
+            logger.warn("写入股票历史分区失败: {}条, 错误: {}", batch.size(), e.getMessage());
+        }
+        for (StockData stockData : batch) {
+            try {
+                priceHistoryStore.append(stockData);
+            } catch (Exception e) {
+                priceStoreFailedRows.increment();
+                logger.warn("写入列式价格存储失败: {}, 错误: {}", stockData.getSymbol(), e.getMessage());
+            }
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
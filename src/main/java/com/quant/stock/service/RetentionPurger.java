@@ -0,0 +1,197 @@
+package com.quant.stock.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 数据保留清理引擎
+ * 在独立线程上按有界批次删除过期数据，批次之间暂停，避免单条大DELETE长时间持锁、
+ * 撑大事务日志并阻塞写入；每个批次记录进度和吞吐量
+ */
+@Component
+public class RetentionPurger {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetentionPurger.class);
+
+    @Value("${stock.retention.chunk-size:1000}")
+    private int chunkSize = 1000; // 每批删除的最大行数
+
+    @Value("${stock.retention.chunk-pause-ms:50}")
+    private long chunkPauseMs = 50; // 批次间暂停（毫秒）
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "retention-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, PurgeReport> lastReports = new ConcurrentHashMap<>();
+
+    private volatile boolean shuttingDown = false;
+
+    /**
+     * 清理目标
+     * 由调用方提供基于索引的"查找过期ID"和"按ID删除"两个操作
+     */
+    public interface PurgeTarget {
+
+        /**
+         * 查找最多limit条早于截止时间的记录ID
+         */
+        List<Long> findExpiredIds(LocalDateTime cutoffTime, int limit);
+
+        /**
+         * 按ID删除记录（每次调用为一个独立的短事务）
+         * @return 实际删除的行数；返回0时本次清理停止，避免反复处理同一批ID
+         */
+        int deleteByIds(List<Long> ids);
+
+        /**
+         * 删除前调用，例如把过期数据导出到归档；抛出异常时本次不删除任何数据
+         */
+        default void beforePurge(LocalDateTime cutoffTime) throws Exception {
+        }
+    }
+
+    /**
+     * 提交清理任务，在清理线程上异步执行
+     * @param name 目标名称（通常为表名）
+     * @param cutoffTime 截止时间
+     * @param target 清理目标
+     * @return 清理报告
+     */
+    public CompletableFuture<PurgeReport> submit(String name, LocalDateTime cutoffTime, PurgeTarget target) {
+        return CompletableFuture.supplyAsync(() -> purge(name, cutoffTime, target), executor);
+    }
+
+    /**
+     * 在当前线程上按批次执行清理
+     */
+    PurgeReport purge(String name, LocalDateTime cutoffTime, PurgeTarget target) {
+        long startNanos = System.nanoTime();
+        long deletedRows = 0;
+        int chunks = 0;
+
+        logger.info("开始清理过期数据: {} 截止时间: {} 批大小: {}", name, cutoffTime, chunkSize);
+
+        try {
+            target.beforePurge(cutoffTime);
+            while (!shuttingDown) {
+                List<Long> ids = target.findExpiredIds(cutoffTime, chunkSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+
+                int deleted = target.deleteByIds(ids);
+                deletedRows += deleted;
+                chunks++;
+
+                if (deleted == 0) {
+                    // 查到的ID删不掉时，继续只会反复拿到同一批ID
+                    logger.warn("清理停止: {} 第{}批 {}条过期记录删除了0行，等待下次清理", name, chunks, ids.size());
+                    break;
+                }
+
+                logger.debug("清理进度: {} 第{}批 累计删除{}条 速率{}/秒",
+                    name, chunks, deletedRows, ratePerSecond(deletedRows, System.nanoTime() - startNanos));
+
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+
+                if (chunkPauseMs > 0) {
+                    Thread.sleep(chunkPauseMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("清理任务被中断: {}", name);
+        } catch (Exception e) {
+            logger.error("清理过期数据失败: {} - {}", name, e.getMessage(), e);
+        }
+
+        PurgeReport report = new PurgeReport(name, deletedRows, chunks,
+            Duration.ofNanos(System.nanoTime() - startNanos));
+        lastReports.put(name, report);
+        logger.info("清理过期数据完成: {}", report);
+        return report;
+    }
+
+    /**
+     * 获取每个目标最近一次的清理报告
+     */
+    public Map<String, PurgeReport> getLastReports() {
+        return Map.copyOf(lastReports);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        executor.shutdownNow();
+    }
+
+    private static long ratePerSecond(long rows, long elapsedNanos) {
+        return elapsedNanos > 0 ? rows * 1_000_000_000L / elapsedNanos : rows;
+    }
+
+    /**
+     * 清理报告
+     */
+    public static class PurgeReport {
+        private final String name;
+        private final long deletedRows;
+        private final int chunks;
+        private final Duration elapsed;
+
+        public PurgeReport(String name, long deletedRows, int chunks, Duration elapsed) {
+            this.name = name;
+            this.deletedRows = deletedRows;
+            this.chunks = chunks;
+            this.elapsed = elapsed;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getDeletedRows() {
+            return deletedRows;
+        }
+
+        public int getChunks() {
+            return chunks;
+        }
+
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        public long getRowsPerSecond() {
+            return ratePerSecond(deletedRows, elapsed.toNanos());
+        }
+
+        @Override
+        public String toString() {
+            return "PurgeReport{" +
+                    "name='" + name + '\'' +
+                    ", deletedRows=" + deletedRows +
+                    ", chunks=" + chunks +
+                    ", elapsedMs=" + elapsed.toMillis() +
+                    ", rowsPerSecond=" + getRowsPerSecond() +
+                    '}';
+        }
+    }
+}
@@ -2,11 +2,15 @@ package com.quant.stock.service;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
 
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
@@ -15,12 +19,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
+
+import com.quant.futu.service.FutuDataService;
+import com.quant.stock.archive.HistoryArchive;
+import com.quant.stock.board.LatestQuote;
+import com.quant.stock.board.QuoteBoard;
+import com.quant.stock.board.QuoteView;
 import com.quant.stock.model.StockData;
+import com.quant.stock.repository.DailyPartitionedTable.KeyedRow;
+import com.quant.stock.repository.StockDataHistoryStore;
 import com.quant.stock.repository.StockDataRepository;
+import com.quant.stock.store.BarSeries;
+import com.quant.stock.store.PriceHistoryStore;
 
 /**
  * 股票数据服务类
@@ -34,12 +50,43 @@ public class StockDataService {
     @Autowired
     private StockDataRepository stockDataRepository;
     
+    @Autowired
+    private StockDataHistoryStore stockDataHistoryStore;
+    
+    @Autowired
+    private PriceHistoryStore priceHistoryStore;
+    
     @Value("${stock.data-source:yahoo-finance}")
     private String dataSource;
     
     @Value("${stock.update-interval:60}")
     private int updateInterval;
     
+    @Value("${stock.retention.days:30}")
+    private int retentionDays;
+    
+    @Autowired
+    private RetentionPurger retentionPurger;
+    
+    @Autowired
+    private QuoteWriteBehind quoteWriteBehind;
+    
+    @Autowired
+    private QuoteChangeFilter quoteChangeFilter;
+    
+    @Autowired
+    private HistoryArchive historyArchive;
+    
+    @Autowired
+    private FutuDataService futuDataService;
+    
+    @Value("${stock.archive.enabled:true}")
+    private boolean archiveEnabled;
+    
+    private final List<PriceListener> priceListeners = new CopyOnWriteArrayList<>();
+    
+    private final QuoteBoard quoteBoard = new QuoteBoard();
+    
     // 默认监控的股票列表
     private final List<String> DEFAULT_SYMBOLS = Arrays.asList(
         "AAPL", "GOOGL", "MSFT", "AMZN", "TSLA", 
@@ -47,7 +94,22 @@ public class StockDataService {
     );
     
     /**
-     * 获取股票数据
+     * 富途行情（推送和批量报价）不经过本服务的更新方法，注册为富途价格监听器，使看板包含所有来源的最新行情
+     */
+    @PostConstruct
+    public void init() {
+        futuDataService.addPriceListener(quoteBoard::update);
+    }
+    
+    /**
+     * 添加价格监听器，每条新保存的行情都会通知
+     */
+    public void addPriceListener(PriceListener listener) {
+        priceListeners.add(listener);
+    }
+    
+    /**
+     * 获取股票数据（数据库中的主表行）
      * @param symbol 股票代码
      * @return 股票数据
      */
@@ -56,13 +118,93 @@ public class StockDataService {
         return stockDataRepository.findTopBySymbolOrderByLastUpdatedDesc(symbol.toUpperCase());
     }
     
+    /**
+     * 获取最新行情
+     * 优先读取内存中的最新行情看板，看板上没有时查询数据库并写入看板；
+     * 看板上的行情可能尚未落库，因此返回不含主键的只读行情而不是实体
+     * @param symbol 股票代码
+     * @return 最新行情
+     */
+    public Optional<LatestQuote> getLatestQuote(String symbol) {
+        String key = symbol.toUpperCase();
+        LatestQuote latest = quoteBoard.get(key);
+        if (latest != null) {
+            return Optional.of(latest);
+        }
+        Optional<StockData> stockData = getStockData(key);
+        stockData.ifPresent(quoteBoard::update);
+        return stockData.map(LatestQuote::of);
+    }
+    
+    /**
+     * 最新价，看板上没有时返回NaN，不查询数据库
+     * @param symbol 股票代码
+     */
+    public double getLatestPrice(String symbol) {
+        return quoteBoard.getPrice(symbol.toUpperCase());
+    }
+    
+    /**
+     * 批量获取看板上的最新行情，不查询数据库
+     * @param symbols 股票代码列表
+     * @return 看板上存在的股票的最新行情
+     */
+    public List<QuoteView> getLatestQuotes(List<String> symbols) {
+        return quoteBoard.snapshot(symbols.stream().map(String::toUpperCase).collect(Collectors.toList()));
+    }
+    
+    /**
+     * 异步落库队列统计
+     */
+    public Map<String, Object> getWriteBehindStats() {
+        return quoteWriteBehind.toMap();
+    }
+    
+    /**
+     * 行情变化检测统计
+     */
+    public Map<String, Object> getChangeSuppressionStats() {
+        return quoteChangeFilter.toMap();
+    }
+    
+    /**
+     * 最新行情看板
+     */
+    public QuoteBoard getQuoteBoard() {
+        return quoteBoard;
+    }
+    
     /**
      * 获取股票历史数据
+     * 从按天分区读取，主表只有最新行情
      * @param symbol 股票代码
-     * @return 历史数据列表
+     * @return 历史数据列表（按时间倒序）
      */
     public List<StockData> getHistoricalData(String symbol) {
-        return stockDataRepository.findBySymbolOrderByLastUpdatedDesc(symbol.toUpperCase());
+        return stockDataHistoryStore.findBySymbol(symbol.toUpperCase());
+    }
+    
+    /**
+     * 获取股票最近的limit条历史数据
+     * 从最新的日分区开始读取，凑满即停止，不扫描全部分区
+     * @param symbol 股票代码
+     * @param limit 最多返回的条数
+     * @return 历史数据列表（按时间倒序）
+     */
+    public List<StockData> getHistoricalData(String symbol, int limit) {
+        return stockDataHistoryStore.findLatest(symbol.toUpperCase(), limit);
+    }
+    
+    /**
+     * 获取指定时间范围内的股票历史数据
+     * 只查询与时间范围重叠的日分区
+     * @param symbol 股票代码
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return 历史数据列表（按时间倒序）
+     */
+    public List<StockData> getHistoricalData(String symbol, LocalDateTime startTime, LocalDateTime endTime) {
+        return stockDataHistoryStore.findBySymbolAndTimeRange(symbol.toUpperCase(), startTime, endTime);
     }
     
     /**
@@ -73,8 +215,17 @@ public class StockDataService {
         return stockDataRepository.findAllActiveSymbols();
     }
     
+    /**
+     * 默认监控的股票列表
+     */
+    public List<String> getDefaultSymbols() {
+        return List.copyOf(DEFAULT_SYMBOLS);
+    }
+    
     /**
      * 异步更新股票数据
+     * 行情交给异步落库队列（主表、历史分区和列式价格存储都由落库线程写入），不等待数据库；
+     * 每条行情都更新看板并通知价格监听器，与上次落库相比没有变化的行情只是不入队落库
      * @param symbol 股票代码
      * @return CompletableFuture<StockData>
      */
@@ -83,8 +234,13 @@ public class StockDataService {
         try {
             StockData stockData = fetchStockDataFromYahoo(symbol);
             if (stockData != null) {
-                stockData = stockDataRepository.save(stockData);
-                logger.info("成功更新股票数据: {} - ${}", symbol, stockData.getCurrentPrice());
+                if (quoteChangeFilter.accept(stockData)) {
+                    quoteWriteBehind.submit(stockData);
+                    logger.info("成功更新股票数据: {} - ${}", symbol, stockData.getCurrentPrice());
+                } else {
+                    logger.debug("股票数据未变化，跳过保存: {}", symbol);
+                }
+                publish(stockData);
                 return CompletableFuture.completedFuture(stockData);
             }
         } catch (Exception e) {
@@ -293,7 +449,9 @@ public class StockDataService {
         try {
             StockData stockData = fetchStockDataFromYahoo(symbol);
             if (stockData != null) {
-                return stockDataRepository.save(stockData);
+                quoteWriteBehind.writeThrough(stockData);
+                publish(stockData);
+                return stockData;
             }
         } catch (Exception e) {
             logger.error("手动更新股票数据失败: {}, 错误: {}", symbol, e.getMessage(), e);
@@ -301,13 +459,113 @@ public class StockDataService {
         return null;
     }
     
+    /**
+     * 写入最新行情看板并通知价格监听器，只操作内存
+     * @param stockData 股票数据
+     */
+    private void publish(StockData stockData) {
+        quoteBoard.update(stockData);
+        notifyPriceListeners(stockData);
+    }
+    
+    /**
+     * 通知所有价格监听器，单个监听器异常不影响其他监听器
+     */
+    private void notifyPriceListeners(StockData stockData) {
+        for (PriceListener listener : priceListeners) {
+            try {
+                listener.onPrice(stockData);
+            } catch (Exception e) {
+                logger.error("通知价格监听器时发生错误: {}", e.getMessage());
+            }
+        }
+    }
+    
     /**
      * 清理过期数据
+     * 提交到清理线程，不阻塞调度线程：历史分区先导出到压缩归档，成功后整表删除；
+     * 主表只有每个股票的最新行情，长期没有更新的股票按批次删除
      */
     @Scheduled(cron = "0 0 2 * * ?") // 每天凌晨2点执行
     public void cleanupOldData() {
-        LocalDateTime cutoffTime = LocalDateTime.now().minusDays(30);
-        int deletedCount = stockDataRepository.deleteOldData(cutoffTime);
-        logger.info("清理了{}条过期股票数据", deletedCount);
+        LocalDateTime cutoffTime = LocalDateTime.now().minusDays(retentionDays);
+        retentionPurger.submit("stock_data", cutoffTime, new RetentionPurger.PurgeTarget() {
+            @Override
+            public List<Long> findExpiredIds(LocalDateTime cutoff, int limit) {
+                return stockDataRepository.findIdsByLastUpdatedBefore(cutoff, PageRequest.of(0, limit));
+            }
+            
+            @Override
+            public int deleteByIds(List<Long> ids) {
+                return stockDataRepository.deleteByIdIn(ids);
+            }
+            
+            @Override
+            public void beforePurge(LocalDateTime cutoff) throws IOException {
+                // 分区按天整表删除，只归档并删除截止日期之前的完整分区
+                LocalDate cutoffDay = cutoff.toLocalDate();
+                LocalDateTime cutoffStart = cutoffDay.atStartOfDay();
+                if (archiveEnabled) {
+                    historyArchive.archiveBefore("stock_data", cutoffStart, historyArchiveSource());
+                }
+                // 列式价格存储保留与分区相同的时间范围
+                for (String symbol : stockDataHistoryStore.findSymbolsBefore(cutoffStart)) {
+                    priceHistoryStore.truncateBefore(symbol, cutoffStart);
+                }
+                stockDataHistoryStore.dropPartitionsBefore(cutoffDay);
+            }
+        }).thenAccept(report -> logger.info("清理了{}只长期未更新的股票", report.getDeletedRows()));
+    }
+    
+    /**
+     * 历史分区的待归档数据源：最新价作为收盘价
+     */
+    private HistoryArchive.ArchiveSource historyArchiveSource() {
+        return new HistoryArchive.ArchiveSource() {
+            @Override
+            public List<String> findSymbols(LocalDateTime cutoffTime) {
+                return stockDataHistoryStore.findSymbolsBefore(cutoffTime);
+            }
+            
+            @Override
+            public HistoryArchive.Page findPage(String symbol, LocalDateTime afterTime, long afterId,
+                                                LocalDateTime cutoffTime, int limit) {
+                List<KeyedRow<StockData>> rows = stockDataHistoryStore.findPageBefore(symbol, afterTime, afterId,
+                    cutoffTime, limit);
+                int size = rows.size();
+                if (size == 0) {
+                    return HistoryArchive.Page.empty();
+                }
+                long[] timestamps = new long[size];
+                double[] open = new double[size];
+                double[] high = new double[size];
+                double[] low = new double[size];
+                double[] close = new double[size];
+                double[] volume = new double[size];
+                for (int i = 0; i < size; i++) {
+                    StockData row = rows.get(i).getRecord();
+                    timestamps[i] = PriceHistoryStore.toEpochMillis(row.getLastUpdated());
+                    open[i] = toDouble(row.getOpenPrice());
+                    high[i] = toDouble(row.getHighPrice());
+                    low[i] = toDouble(row.getLowPrice());
+                    close[i] = toDouble(row.getCurrentPrice());
+                    volume[i] = toDouble(row.getVolume());
+                }
+                KeyedRow<StockData> last = rows.get(size - 1);
+                return new HistoryArchive.Page(new BarSeries(timestamps, open, high, low, close, volume),
+                    last.getRecord().getLastUpdated(), last.getRowId());
+            }
+        };
+    }
+    
+    private static double toDouble(BigDecimal value) {
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+    
+    /**
+     * 价格监听器接口
+     */
+    public interface PriceListener {
+        void onPrice(StockData stockData);
     }
 }
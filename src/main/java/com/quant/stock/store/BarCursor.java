@@ -0,0 +1,54 @@
+package com.quant.stock.store;
+
+/**
+ * K线游标
+ * 按固定块大小顺序读取某时间范围内的K线，任意时刻只持有一块数据，
+ * 用于回放很长的历史而不把整段历史加载到内存。非线程安全
+ */
+public final class BarCursor {
+
+    private static final BarCursor EMPTY = new BarCursor(null, 0, 0, 1);
+
+    private final SymbolColumns columns;
+    private final int end;
+    private final int chunkSize;
+    private int position;
+
+    BarCursor(SymbolColumns columns, int start, int end, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("块大小必须大于0: " + chunkSize);
+        }
+        this.columns = columns;
+        this.position = start;
+        this.end = end;
+        this.chunkSize = chunkSize;
+    }
+
+    static BarCursor empty() {
+        return EMPTY;
+    }
+
+    public boolean hasNext() {
+        return columns != null && position < end;
+    }
+
+    /**
+     * 读取下一块K线，没有剩余数据时返回空序列
+     */
+    public BarSeries next() {
+        if (!hasNext()) {
+            return BarSeries.empty();
+        }
+        int to = Math.min(end, position + chunkSize);
+        BarSeries chunk = columns.read(position, to);
+        position = to;
+        return chunk;
+    }
+
+    /**
+     * 剩余的K线数量
+     */
+    public int remaining() {
+        return columns == null ? 0 : Math.max(0, end - position);
+    }
+}
@@ -0,0 +1,80 @@
+package com.quant.stock.store;
+
+/**
+ * K线序列（列式）
+ * 每个字段一个基本类型数组，下标相同即为同一根K线，按时间升序排列
+ */
+public final class BarSeries {
+
+    private static final BarSeries EMPTY = new BarSeries(
+        new long[0], new double[0], new double[0], new double[0], new double[0], new double[0]);
+
+    private final long[] timestamps; // 毫秒时间戳
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final double[] volume;
+
+    public BarSeries(long[] timestamps, double[] open, double[] high,
+                     double[] low, double[] close, double[] volume) {
+        this.timestamps = timestamps;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+    }
+
+    public static BarSeries empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return timestamps.length;
+    }
+
+    public boolean isEmpty() {
+        return timestamps.length == 0;
+    }
+
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    public double[] getOpen() {
+        return open;
+    }
+
+    public double[] getHigh() {
+        return high;
+    }
+
+    public double[] getLow() {
+        return low;
+    }
+
+    public double[] getClose() {
+        return close;
+    }
+
+    public double[] getVolume() {
+        return volume;
+    }
+
+    /**
+     * 最后一根K线的时间戳，序列为空时返回Long.MIN_VALUE
+     */
+    public long lastTimestamp() {
+        return timestamps.length == 0 ? Long.MIN_VALUE : timestamps[timestamps.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        return "BarSeries{" +
+                "size=" + size() +
+                ", first=" + (isEmpty() ? "-" : timestamps[0]) +
+                ", last=" + (isEmpty() ? "-" : lastTimestamp()) +
+                '}';
+    }
+}
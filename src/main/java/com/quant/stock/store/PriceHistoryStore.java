@@ -0,0 +1,255 @@
+package com.quant.stock.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.quant.stock.model.StockData;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 列式价格历史存储
+ * 绕过JPA，每个股票一组内存映射列文件（时间戳long + OHLCV double），只追加写入，
+ * 按时间二分查找，读取结果为基本类型数组，供指标计算直接使用
+ */
+@Component
+public class PriceHistoryStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryStore.class);
+
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private final Path rootDirectory;
+
+    private final Map<String, SymbolColumns> symbols = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PriceHistoryStore(@Value("${stock.history.store-dir:data/price-history}") String rootDirectory) {
+        this(Paths.get(rootDirectory));
+    }
+
+    public PriceHistoryStore(Path rootDirectory) {
+        this.rootDirectory = rootDirectory;
+    }
+
+    /**
+     * 追加一根K线
+     * @param symbol 股票代码
+     * @param timestamp 毫秒时间戳，必须不早于该股票最后一根K线
+     * @return 时间戳乱序被拒绝时返回false
+     */
+    public boolean append(String symbol, long timestamp, double open, double high,
+                          double low, double close, double volume) {
+        try {
+            return columns(symbol).append(timestamp, open, high, low, close, volume);
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入价格历史失败: " + symbol, e);
+        }
+    }
+
+    /**
+     * 写入一根K线，时间戳与最后一根相同时覆盖最后一根，用于合并重复下载的K线
+     * @param timestamp 毫秒时间戳，必须不早于该股票最后一根K线
+     * @return 时间戳早于最后一根时返回false
+     */
+    public boolean upsert(String symbol, long timestamp, double open, double high,
+                          double low, double close, double volume) {
+        try {
+            return columns(symbol).upsert(timestamp, open, high, low, close, volume);
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入价格历史失败: " + symbol, e);
+        }
+    }
+
+    /**
+     * 追加一条行情快照，缺失的开高低价取当前价，缺失的成交量记为NaN
+     * @param stockData 股票数据
+     * @return 是否写入
+     */
+    public boolean append(StockData stockData) {
+        if (stockData.getSymbol() == null || stockData.getLastUpdated() == null
+                || stockData.getCurrentPrice() == null) {
+            return false;
+        }
+        double close = stockData.getCurrentPrice().doubleValue();
+        return append(stockData.getSymbol(),
+            toEpochMillis(stockData.getLastUpdated()),
+            valueOrDefault(stockData.getOpenPrice(), close),
+            valueOrDefault(stockData.getHighPrice(), close),
+            valueOrDefault(stockData.getLowPrice(), close),
+            close,
+            valueOrDefault(stockData.getVolume(), Double.NaN));
+    }
+
+    /**
+     * 查询时间范围[from, to]内的K线
+     */
+    public BarSeries range(String symbol, long fromTimestamp, long toTimestamp) {
+        SymbolColumns columns = existingColumns(symbol);
+        return columns == null ? BarSeries.empty() : columns.range(fromTimestamp, toTimestamp);
+    }
+
+    /**
+     * 查询时间范围[from, to]内的K线
+     */
+    public BarSeries range(String symbol, LocalDateTime from, LocalDateTime to) {
+        return range(symbol, toEpochMillis(from), toEpochMillis(to));
+    }
+
+    /**
+     * 分块顺序读取时间范围[from, to]内的K线
+     * 范围在创建游标时确定，之后追加的K线不会被读到
+     * @param chunkSize 每次读取的K线数
+     */
+    public BarCursor cursor(String symbol, long fromTimestamp, long toTimestamp, int chunkSize) {
+        SymbolColumns columns = existingColumns(symbol);
+        if (columns == null) {
+            return BarCursor.empty();
+        }
+        int[] bounds = columns.bounds(fromTimestamp, toTimestamp);
+        return new BarCursor(columns, bounds[0], bounds[1], chunkSize);
+    }
+
+    /**
+     * 最近count根K线
+     */
+    public BarSeries tail(String symbol, int count) {
+        SymbolColumns columns = existingColumns(symbol);
+        return columns == null ? BarSeries.empty() : columns.tail(count);
+    }
+
+    /**
+     * 最近count根K线的收盘价（按时间升序）
+     */
+    public double[] tailCloses(String symbol, int count) {
+        SymbolColumns columns = existingColumns(symbol);
+        return columns == null ? new double[0] : columns.tailCloses(count);
+    }
+
+    /**
+     * 某股票已存储的K线数量
+     */
+    public int size(String symbol) {
+        SymbolColumns columns = existingColumns(symbol);
+        return columns == null ? 0 : columns.size();
+    }
+
+    /**
+     * 某股票最后一根K线的时间戳，没有数据时返回Long.MIN_VALUE
+     */
+    public long lastTimestamp(String symbol) {
+        SymbolColumns columns = existingColumns(symbol);
+        return columns == null ? Long.MIN_VALUE : columns.lastTimestamp();
+    }
+
+    /**
+     * 删除某股票时间戳早于timestamp的K线并压缩列文件，用于历史保留期清理
+     * @return 删除的K线数量
+     */
+    public int truncateBefore(String symbol, long timestamp) {
+        SymbolColumns columns = existingColumns(symbol);
+        if (columns == null) {
+            return 0;
+        }
+        try {
+            return columns.truncateBefore(timestamp);
+        } catch (IOException e) {
+            throw new UncheckedIOException("截断价格历史失败: " + symbol, e);
+        }
+    }
+
+    /**
+     * 删除某股票早于指定时间的K线并压缩列文件
+     */
+    public int truncateBefore(String symbol, LocalDateTime time) {
+        return truncateBefore(symbol, toEpochMillis(time));
+    }
+
+    /**
+     * 删除某股票的全部K线及其列文件
+     */
+    public void delete(String symbol) {
+        String key = symbol.toUpperCase();
+        try {
+            SymbolColumns columns = symbols.remove(key);
+            if (columns != null) {
+                columns.close();
+            }
+            Path directory = rootDirectory.resolve(key);
+            if (Files.isDirectory(directory)) {
+                try (Stream<Path> files = Files.list(directory)) {
+                    for (Path file : (Iterable<Path>) files::iterator) {
+                        Files.delete(file);
+                    }
+                }
+                Files.delete(directory);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("删除价格历史失败: " + key, e);
+        }
+    }
+
+    /**
+     * 将所有映射刷到磁盘
+     */
+    public void flush() {
+        symbols.values().forEach(SymbolColumns::force);
+    }
+
+    @PreDestroy
+    public void close() {
+        for (SymbolColumns columns : symbols.values()) {
+            try {
+                columns.close();
+            } catch (IOException e) {
+                logger.warn("关闭价格历史文件失败: {} - {}", columns.getDirectory(), e.getMessage());
+            }
+        }
+        symbols.clear();
+    }
+
+    public static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private SymbolColumns columns(String symbol) {
+        return symbols.computeIfAbsent(symbol.toUpperCase(), key -> {
+            try {
+                return new SymbolColumns(rootDirectory.resolve(key), INITIAL_CAPACITY);
+            } catch (IOException e) {
+                throw new UncheckedIOException("打开价格历史失败: " + key, e);
+            }
+        });
+    }
+
+    /**
+     * 只读路径：内存中没有且磁盘上也没有该股票目录时不创建文件
+     */
+    private SymbolColumns existingColumns(String symbol) {
+        String key = symbol.toUpperCase();
+        SymbolColumns columns = symbols.get(key);
+        if (columns != null || !SymbolColumns.exists(rootDirectory.resolve(key))) {
+            return columns;
+        }
+        return columns(key);
+    }
+
+    private static double valueOrDefault(BigDecimal value, double defaultValue) {
+        return value != null ? value.doubleValue() : defaultValue;
+    }
+}
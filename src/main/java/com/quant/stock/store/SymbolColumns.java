@@ -0,0 +1,349 @@
+package com.quant.stock.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+/**
+ * 单个股票的列式内存映射文件
+ * 目录下每列一个文件：ts.col(long) 与 open/high/low/close/volume.col(double)。
+ * ts.col 头部8字节保存已提交的K线数量，写入先写各列再更新数量，读者只看到已提交的数据。
+ * 截断旧K线时先把保留的K线写入 .compact 目录，再整体替换原目录；替换中断时打开会用完整的 .compact 目录恢复
+ */
+class SymbolColumns implements Closeable {
+
+    private static final int HEADER_BYTES = Long.BYTES;
+    private static final String[] VALUE_COLUMNS = {"open", "high", "low", "close", "volume"};
+    private static final String COMPACT_SUFFIX = ".compact";
+    private static final String REPLACED_SUFFIX = ".replaced";
+    private static final int COPY_CHUNK = 65536;
+
+    private final Path directory;
+    private final int initialCapacity;
+    private FileChannel timestampChannel;
+    private final FileChannel[] valueChannels = new FileChannel[VALUE_COLUMNS.length];
+
+    private MappedByteBuffer timestampMap;
+    private final MappedByteBuffer[] valueMaps = new MappedByteBuffer[VALUE_COLUMNS.length];
+    private LongBuffer timestamps;
+    private final DoubleBuffer[] values = new DoubleBuffer[VALUE_COLUMNS.length];
+
+    private int capacity;
+    private int size;
+
+    /** 已截断的K线数量，游标下标 = 文件下标 + base，截断后游标不会读到错位的数据 */
+    private int base;
+
+    SymbolColumns(Path directory, int initialCapacity) throws IOException {
+        this.directory = directory;
+        this.initialCapacity = initialCapacity;
+        recoverCompaction(directory);
+        Files.createDirectories(directory);
+        openFiles();
+    }
+
+    /**
+     * 目录中是否有已写入的列文件（包括替换中断、尚未改名的压缩目录）
+     */
+    static boolean exists(Path directory) {
+        return Files.exists(directory.resolve("ts.col"))
+            || Files.exists(sibling(directory, COMPACT_SUFFIX).resolve("ts.col"));
+    }
+
+    /**
+     * 追加一根K线，时间戳必须不早于最后一根
+     * @return 时间戳乱序时返回false
+     */
+    synchronized boolean append(long timestamp, double open, double high, double low,
+                                double close, double volume) throws IOException {
+        int index = size;
+        if (index > 0 && timestamps.get(index - 1) > timestamp) {
+            return false;
+        }
+        if (index == capacity) {
+            map(capacity * 2);
+        }
+
+        timestamps.put(index, timestamp);
+        values[0].put(index, open);
+        values[1].put(index, high);
+        values[2].put(index, low);
+        values[3].put(index, close);
+        values[4].put(index, volume);
+
+        timestampMap.putLong(0, index + 1);
+        size = index + 1;
+        return true;
+    }
+
+    /**
+     * 写入一根K线：时间戳与最后一根相同时覆盖最后一根（未收盘K线的更新），更晚时追加
+     * @return 时间戳早于最后一根时返回false
+     */
+    synchronized boolean upsert(long timestamp, double open, double high, double low,
+                                double close, double volume) throws IOException {
+        int index = size - 1;
+        if (index < 0 || timestamps.get(index) != timestamp) {
+            return append(timestamp, open, high, low, close, volume);
+        }
+        values[0].put(index, open);
+        values[1].put(index, high);
+        values[2].put(index, low);
+        values[3].put(index, close);
+        values[4].put(index, volume);
+        return true;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 删除时间戳早于timestamp的K线并压缩列文件
+     * 保留的K线分块复制到 .compact 目录并提交数量，然后替换原目录；期间持有锁，读写都等待
+     * @return 删除的K线数量
+     */
+    synchronized int truncateBefore(long timestamp) throws IOException {
+        int from = lowerBound(timestamp);
+        if (from == 0) {
+            return 0;
+        }
+
+        Path compacted = sibling(directory, COMPACT_SUFFIX);
+        Path replaced = sibling(directory, REPLACED_SUFFIX);
+        deleteDirectory(compacted);
+        try (SymbolColumns target = new SymbolColumns(compacted, Math.max(initialCapacity, size - from))) {
+            for (int start = from; start < size; start += COPY_CHUNK) {
+                target.appendSeries(slice(start, Math.min(size, start + COPY_CHUNK)));
+            }
+        }
+
+        closeChannels();
+        Files.move(directory, replaced);
+        Files.move(compacted, directory);
+        deleteDirectory(replaced);
+        openFiles();
+        base += from;
+        return from;
+    }
+
+    /**
+     * 时间范围[fromTimestamp, toTimestamp]内的K线
+     */
+    synchronized BarSeries range(long fromTimestamp, long toTimestamp) {
+        return slice(lowerBound(fromTimestamp), upperBound(toTimestamp));
+    }
+
+    /**
+     * 最近count根K线
+     */
+    synchronized BarSeries tail(int count) {
+        return slice(Math.max(0, size - count), size);
+    }
+
+    /**
+     * 最近count根K线的收盘价
+     */
+    synchronized double[] tailCloses(int count) {
+        return closes(Math.max(0, size - count), size);
+    }
+
+    /**
+     * 时间范围[fromTimestamp, toTimestamp]对应的游标下标区间[from, to)
+     */
+    synchronized int[] bounds(long fromTimestamp, long toTimestamp) {
+        return new int[] {base + lowerBound(fromTimestamp), base + upperBound(toTimestamp)};
+    }
+
+    /**
+     * 游标下标区间[from, to)内的K线，已被截断和超出已提交数量的部分被跳过
+     */
+    synchronized BarSeries read(int from, int to) {
+        return slice(Math.max(0, from - base), Math.min(to - base, size));
+    }
+
+    /**
+     * 第一个时间戳 >= timestamp 的下标（二分查找）
+     */
+    private int lowerBound(long timestamp) {
+        LongBuffer ts = timestamps;
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ts.get(mid) < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 第一个时间戳 > timestamp 的下标（二分查找）
+     */
+    private int upperBound(long timestamp) {
+        LongBuffer ts = timestamps;
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ts.get(mid) <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 将[from, to)区间批量拷贝为基本类型数组
+     */
+    private BarSeries slice(int from, int to) {
+        int length = Math.max(0, to - from);
+        if (length == 0) {
+            return BarSeries.empty();
+        }
+        long[] ts = new long[length];
+        timestamps.duplicate().position(from).get(ts, 0, length);
+        double[][] columns = new double[VALUE_COLUMNS.length][length];
+        for (int i = 0; i < VALUE_COLUMNS.length; i++) {
+            values[i].duplicate().position(from).get(columns[i], 0, length);
+        }
+        return new BarSeries(ts, columns[0], columns[1], columns[2], columns[3], columns[4]);
+    }
+
+    /**
+     * 只读取收盘价列
+     */
+    private double[] closes(int from, int to) {
+        int length = Math.max(0, to - from);
+        double[] closes = new double[length];
+        if (length > 0) {
+            values[3].duplicate().position(from).get(closes, 0, length);
+        }
+        return closes;
+    }
+
+    synchronized long lastTimestamp() {
+        int current = size;
+        return current == 0 ? Long.MIN_VALUE : timestamps.get(current - 1);
+    }
+
+    synchronized void force() {
+        timestampMap.force();
+        for (MappedByteBuffer map : valueMaps) {
+            map.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeChannels();
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 在末尾批量追加一段K线
+     */
+    private void appendSeries(BarSeries series) throws IOException {
+        int length = series.size();
+        int newCapacity = capacity;
+        while (size + length > newCapacity) {
+            newCapacity *= 2;
+        }
+        if (newCapacity != capacity) {
+            map(newCapacity);
+        }
+
+        timestamps.duplicate().position(size).put(series.getTimestamps());
+        values[0].duplicate().position(size).put(series.getOpen());
+        values[1].duplicate().position(size).put(series.getHigh());
+        values[2].duplicate().position(size).put(series.getLow());
+        values[3].duplicate().position(size).put(series.getClose());
+        values[4].duplicate().position(size).put(series.getVolume());
+
+        timestampMap.putLong(0, size + length);
+        size += length;
+    }
+
+    private void openFiles() throws IOException {
+        timestampChannel = open(directory.resolve("ts.col"));
+        for (int i = 0; i < VALUE_COLUMNS.length; i++) {
+            valueChannels[i] = open(directory.resolve(VALUE_COLUMNS[i] + ".col"));
+        }
+
+        long existingBars = Math.max(0, (timestampChannel.size() - HEADER_BYTES) / Long.BYTES);
+        map((int) Math.max(initialCapacity, existingBars));
+        size = (int) timestampMap.getLong(0);
+    }
+
+    private void closeChannels() throws IOException {
+        force();
+        timestampChannel.close();
+        for (FileChannel channel : valueChannels) {
+            channel.close();
+        }
+    }
+
+    private void map(int newCapacity) throws IOException {
+        timestampMap = timestampChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+            HEADER_BYTES + (long) newCapacity * Long.BYTES);
+        timestampMap.order(ByteOrder.nativeOrder());
+        timestamps = timestampMap.duplicate().position(HEADER_BYTES).slice()
+            .order(ByteOrder.nativeOrder()).asLongBuffer();
+
+        for (int i = 0; i < VALUE_COLUMNS.length; i++) {
+            valueMaps[i] = valueChannels[i].map(FileChannel.MapMode.READ_WRITE, 0,
+                (long) newCapacity * Double.BYTES);
+            values[i] = valueMaps[i].duplicate().order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        }
+        capacity = newCapacity;
+    }
+
+    /**
+     * 处理中断的压缩：原目录已被移走时，.compact 目录一定已经完整提交，改名为原目录；其余残留目录删除
+     */
+    private static void recoverCompaction(Path directory) throws IOException {
+        Path compacted = sibling(directory, COMPACT_SUFFIX);
+        if (!Files.exists(directory) && Files.exists(compacted)) {
+            Files.move(compacted, directory);
+        }
+        deleteDirectory(compacted);
+        deleteDirectory(sibling(directory, REPLACED_SUFFIX));
+    }
+
+    private static Path sibling(Path directory, String suffix) {
+        return directory.resolveSibling(directory.getFileName() + suffix);
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+}
@@ -7,6 +7,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 /**
@@ -14,7 +15,15 @@ import jakarta.persistence.Table;
  * 存储从stockpltr.com爬取的股票相关评论
  */
 @Entity
-@Table(name = "stockpltr_comments")
+@Table(name = "stockpltr_comments", indexes = {
+    @Index(name = "idx_comments_symbol_source_time", columnList = "stock_symbol, data_source, comment_time DESC"),
+    @Index(name = "idx_comments_symbol_time", columnList = "stock_symbol, comment_time DESC"),
+    @Index(name = "idx_comments_symbol_comment_id", columnList = "stock_symbol, comment_id"),
+    @Index(name = "idx_comments_symbol_sentiment_time", columnList = "stock_symbol, sentiment, comment_time DESC"),
+    @Index(name = "idx_comments_symbol_source_crawl", columnList = "stock_symbol, data_source, crawl_time DESC"),
+    @Index(name = "idx_comments_comment_time", columnList = "comment_time"),
+    @Index(name = "idx_comments_crawl_time", columnList = "crawl_time")
+})
 public class StockComment {
     
     @Id
@@ -8,15 +8,22 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
+import jakarta.persistence.UniqueConstraint;
 
 /**
  * StockPltr网站数据模型
  * 存储从stockpltr.com爬取的股票相关数据
  */
 @Entity
-@Table(name = "stockpltr_data")
+@Table(name = "stockpltr_data", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_stockpltr_data_symbol", columnNames = "symbol")
+}, indexes = {
+    @Index(name = "idx_stockpltr_data_symbol_crawl", columnList = "symbol, crawl_time DESC"),
+    @Index(name = "idx_stockpltr_data_crawl", columnList = "crawl_time")
+})
 public class StockPltrData {
     
     @Id
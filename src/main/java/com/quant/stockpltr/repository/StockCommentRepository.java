@@ -4,10 +4,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.quant.stockpltr.model.StockComment;
 
@@ -32,6 +35,16 @@ public interface StockCommentRepository extends JpaRepository<StockComment, Long
      */
     List<StockComment> findByStockSymbolAndDataSourceOrderByCommentTimeDesc(String stockSymbol, String dataSource);
     
+    /**
+     * 根据股票代码查找最新一条评论（LIMIT 1）
+     */
+    Optional<StockComment> findFirstByStockSymbolOrderByCommentTimeDesc(String stockSymbol);
+    
+    /**
+     * 根据股票代码和数据源查找最近一次爬取的评论（LIMIT 1），用于判断缓存是否新鲜
+     */
+    Optional<StockComment> findFirstByStockSymbolAndDataSourceOrderByCrawlTimeDesc(String stockSymbol, String dataSource);
+    
     /**
      * 查找指定时间范围内的评论
      */
@@ -74,4 +87,18 @@ public interface StockCommentRepository extends JpaRepository<StockComment, Long
      * 删除指定时间之前的评论
      */
     void deleteByCrawlTimeBefore(LocalDateTime beforeTime);
+    
+    /**
+     * 分批查找过期评论ID（走crawl_time索引）
+     */
+    @Query("SELECT c.id FROM StockComment c WHERE c.crawlTime < :beforeTime")
+    List<Long> findIdsByCrawlTimeBefore(@Param("beforeTime") LocalDateTime beforeTime, Pageable pageable);
+    
+    /**
+     * 按ID批量删除
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StockComment c WHERE c.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
 }
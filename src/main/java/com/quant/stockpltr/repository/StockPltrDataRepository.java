@@ -4,44 +4,34 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.quant.stockpltr.model.StockPltrData;
 
 /**
  * StockPltr数据仓库接口
+ * 主表每个股票只保存一行最新数据，历史数据见 {@link StockPltrHistoryStore}
  */
 @Repository
 public interface StockPltrDataRepository extends JpaRepository<StockPltrData, Long> {
     
     /**
-     * 根据股票代码查找最新数据
-     */
-    @Query("SELECT s FROM StockPltrData s WHERE s.symbol = :symbol ORDER BY s.crawlTime DESC")
-    Optional<StockPltrData> findLatestBySymbol(@Param("symbol") String symbol);
-    
-    /**
-     * 根据股票代码查找所有数据
+     * 根据股票代码查找最新数据（走symbol唯一索引）
      */
-    List<StockPltrData> findBySymbolOrderByCrawlTimeDesc(String symbol);
+    Optional<StockPltrData> findFirstBySymbolOrderByCrawlTimeDesc(String symbol);
     
     /**
-     * 根据股票代码和数据源查找数据
-     */
-    List<StockPltrData> findBySymbolAndDataSourceOrderByCrawlTimeDesc(String symbol, String dataSource);
-    
-    /**
-     * 查找指定时间范围内的数据
+     * 根据股票代码查找最新数据
      */
-    @Query("SELECT s FROM StockPltrData s WHERE s.symbol = :symbol AND s.crawlTime BETWEEN :startTime AND :endTime ORDER BY s.crawlTime DESC")
-    List<StockPltrData> findBySymbolAndCrawlTimeBetween(
-        @Param("symbol") String symbol,
-        @Param("startTime") LocalDateTime startTime,
-        @Param("endTime") LocalDateTime endTime
-    );
+    default Optional<StockPltrData> findLatestBySymbol(String symbol) {
+        return findFirstBySymbolOrderByCrawlTimeDesc(symbol);
+    }
     
     /**
      * 查找最近更新的数据
@@ -55,7 +45,16 @@ public interface StockPltrDataRepository extends JpaRepository<StockPltrData, Lo
     long countBySymbol(String symbol);
     
     /**
-     * 删除指定时间之前的数据
+     * 分批查找长期没有爬取的股票的数据ID（走crawl_time索引）
+     */
+    @Query("SELECT s.id FROM StockPltrData s WHERE s.crawlTime < :beforeTime")
+    List<Long> findIdsByCrawlTimeBefore(@Param("beforeTime") LocalDateTime beforeTime, Pageable pageable);
+    
+    /**
+     * 按ID批量删除
      */
-    void deleteByCrawlTimeBefore(LocalDateTime beforeTime);
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StockPltrData s WHERE s.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
 }
@@ -0,0 +1,84 @@
+package com.quant.stockpltr.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.quant.stock.repository.DailyPartitionedTable;
+import com.quant.stockpltr.model.StockPltrData;
+
+/**
+ * StockPltr数据历史分区存储
+ * 按爬取时间分天保存，历史范围查询只访问相关分区
+ */
+@Repository
+public class StockPltrHistoryStore extends DailyPartitionedTable<StockPltrData> {
+    
+    private static final String[] COLUMNS = {
+        "symbol", "company_name", "current_price", "price_change", "price_change_percent",
+        "volume", "market_cap", "pe_ratio", "pb_ratio", "dividend_yield",
+        "recommendation", "target_price", "data_source"
+    };
+    
+    @Autowired
+    public StockPltrHistoryStore(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate, "stockpltr_data");
+    }
+    
+    @Override
+    protected String columnDefinitions() {
+        return "symbol VARCHAR(20) NOT NULL, company_name VARCHAR(200), "
+            + "current_price DOUBLE, price_change DOUBLE, price_change_percent DOUBLE, "
+            + "volume BIGINT, market_cap BIGINT, pe_ratio DOUBLE, pb_ratio DOUBLE, dividend_yield DOUBLE, "
+            + "recommendation VARCHAR(50), target_price DOUBLE, data_source VARCHAR(50)";
+    }
+    
+    @Override
+    protected String timeColumn() {
+        return "crawl_time";
+    }
+    
+    @Override
+    protected String[] insertColumns() {
+        return COLUMNS;
+    }
+    
+    @Override
+    protected LocalDateTime timeOf(StockPltrData record) {
+        return record.getCrawlTime();
+    }
+    
+    @Override
+    protected Object[] toRow(StockPltrData record) {
+        return new Object[] {
+            record.getSymbol(), record.getCompanyName(), record.getCurrentPrice(), record.getPriceChange(),
+            record.getPriceChangePercent(), record.getVolume(), record.getMarketCap(), record.getPeRatio(),
+            record.getPbRatio(), record.getDividendYield(), record.getRecommendation(),
+            record.getTargetPrice(), record.getDataSource()
+        };
+    }
+    
+    @Override
+    protected RowMapper<StockPltrData> rowMapper() {
+        return (rs, rowNum) -> {
+            StockPltrData data = new StockPltrData(rs.getString("symbol"));
+            data.setCompanyName(rs.getString("company_name"));
+            data.setCurrentPrice(rs.getObject("current_price", Double.class));
+            data.setPriceChange(rs.getObject("price_change", Double.class));
+            data.setPriceChangePercent(rs.getObject("price_change_percent", Double.class));
+            data.setVolume(rs.getObject("volume", Long.class));
+            data.setMarketCap(rs.getObject("market_cap", Long.class));
+            data.setPeRatio(rs.getObject("pe_ratio", Double.class));
+            data.setPbRatio(rs.getObject("pb_ratio", Double.class));
+            data.setDividendYield(rs.getObject("dividend_yield", Double.class));
+            data.setRecommendation(rs.getString("recommendation"));
+            data.setTargetPrice(rs.getObject("target_price", Double.class));
+            data.setDataSource(rs.getString("data_source"));
+            data.setCrawlTime(rs.getTimestamp("crawl_time").toLocalDateTime());
+            return data;
+        };
+    }
+}
@@ -1,6 +1,9 @@
 package com.quant.stockpltr.service;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -13,15 +16,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.quant.stock.archive.HistoryArchive;
+import com.quant.stock.repository.DailyPartitionedTable.KeyedRow;
+import com.quant.stock.service.RetentionPurger;
+import com.quant.stock.store.BarSeries;
+import com.quant.stock.store.PriceHistoryStore;
 import com.quant.stockpltr.crawler.StockPltrCrawler;
 import com.quant.stockpltr.model.StockComment;
 import com.quant.stockpltr.model.StockPltrData;
 import com.quant.stockpltr.repository.StockCommentRepository;
 import com.quant.stockpltr.repository.StockPltrDataRepository;
+import com.quant.stockpltr.repository.StockPltrHistoryStore;
 
 /**
  * StockPltr数据服务
@@ -41,6 +51,18 @@ public class StockPltrDataService {
     @Autowired
     private StockCommentRepository stockCommentRepository;
     
+    @Autowired
+    private StockPltrHistoryStore stockPltrHistoryStore;
+    
+    @Autowired
+    private RetentionPurger retentionPurger;
+    
+    @Autowired
+    private HistoryArchive historyArchive;
+    
+    @Value("${stock.archive.enabled:true}")
+    private boolean archiveEnabled;
+    
     @Value("${stockpltr.crawl.enabled:true}")
     private boolean crawlEnabled;
     
@@ -65,7 +87,7 @@ public class StockPltrDataService {
             logger.info("获取股票数据: {}", symbol);
             
             // 先尝试从数据库获取最新数据
-            Optional<StockPltrData> existingData = stockPltrDataRepository.findLatestBySymbol(symbol);
+            Optional<StockPltrData> existingData = findLatestStockData(symbol);
             
             // 如果数据存在且是最近5分钟内的，直接返回
             if (existingData.isPresent()) {
@@ -103,16 +125,16 @@ public class StockPltrDataService {
         try {
             logger.info("获取股票评论: {}", symbol);
             
-            // 先尝试从数据库获取最近评论
-            List<StockComment> existingComments = stockCommentRepository.findByStockSymbolAndDataSourceOrderByCommentTimeDesc(symbol, "stockpltr");
+            // 先只取最近一次爬取的评论判断缓存是否新鲜，避免加载全部历史评论
+            Optional<StockComment> latestComment = stockCommentRepository
+                .findFirstByStockSymbolAndDataSourceOrderByCrawlTimeDesc(symbol, "stockpltr");
             
-            // 如果评论存在且是最近10分钟内的，直接返回
-            if (!existingComments.isEmpty()) {
-                StockComment latestComment = existingComments.get(0);
-                if (latestComment.getCrawlTime().isAfter(LocalDateTime.now().minusMinutes(10))) {
-                    logger.debug("返回缓存的股票评论: {} - {}条", symbol, existingComments.size());
-                    return existingComments;
-                }
+            // 如果评论存在且是最近10分钟内爬取的，直接返回
+            if (latestComment.isPresent()
+                    && latestComment.get().getCrawlTime().isAfter(LocalDateTime.now().minusMinutes(10))) {
+                List<StockComment> existingComments = stockCommentRepository.findByStockSymbolAndDataSourceOrderByCommentTimeDesc(symbol, "stockpltr");
+                logger.debug("返回缓存的股票评论: {} - {}条", symbol, existingComments.size());
+                return existingComments;
             }
             
             // 从网站爬取新评论
@@ -125,7 +147,10 @@ public class StockPltrDataService {
             }
             
             // 如果爬取失败，返回缓存评论
-            return existingComments;
+            if (latestComment.isEmpty()) {
+                return List.of();
+            }
+            return stockCommentRepository.findByStockSymbolAndDataSourceOrderByCommentTimeDesc(symbol, "stockpltr");
             
         } catch (Exception e) {
             logger.error("获取股票评论失败: {} - {}", symbol, e.getMessage());
@@ -240,7 +265,8 @@ public class StockPltrDataService {
     public StockPltrData saveStockData(StockPltrData stockData) {
         try {
             stockData.setUpdatedAt(LocalDateTime.now());
-            StockPltrData savedData = stockPltrDataRepository.save(stockData);
+            appendHistory(stockData);
+            StockPltrData savedData = saveLatest(stockData);
             logger.debug("保存股票数据成功: {}", savedData.getSymbol());
             return savedData;
         } catch (Exception e) {
@@ -249,6 +275,40 @@ public class StockPltrDataService {
         }
     }
     
+    /**
+     * 读取股票最新数据（主表每个股票只有一行）
+     */
+    private Optional<StockPltrData> findLatestStockData(String symbol) {
+        return stockPltrDataRepository.findLatestBySymbol(symbol);
+    }
+    
+    /**
+     * 写入主表的最新数据：已有行原地更新，主表中已有更新的数据时不覆盖
+     */
+    private StockPltrData saveLatest(StockPltrData stockData) {
+        Optional<StockPltrData> current = stockPltrDataRepository.findLatestBySymbol(stockData.getSymbol());
+        if (current.isPresent()) {
+            StockPltrData existing = current.get();
+            if (existing.getCrawlTime().isAfter(stockData.getCrawlTime())) {
+                return existing;
+            }
+            stockData.setId(existing.getId());
+            stockData.setCreatedAt(existing.getCreatedAt());
+        }
+        return stockPltrDataRepository.save(stockData);
+    }
+    
+    /**
+     * 每次爬取的数据写入历史分区，失败不影响主流程
+     */
+    private void appendHistory(StockPltrData stockData) {
+        try {
+            stockPltrHistoryStore.append(stockData);
+        } catch (Exception e) {
+            logger.warn("写入股票历史分区失败: {} - {}", stockData.getSymbol(), e.getMessage());
+        }
+    }
+    
     /**
      * 保存股票评论
      */
@@ -275,7 +335,8 @@ public class StockPltrDataService {
             LocalDateTime startTime = LocalDateTime.now().minusDays(days);
             LocalDateTime endTime = LocalDateTime.now();
             
-            List<StockPltrData> history = stockPltrDataRepository.findBySymbolAndCrawlTimeBetween(symbol, startTime, endTime);
+            // 只查询与时间范围重叠的日分区
+            List<StockPltrData> history = stockPltrHistoryStore.findBySymbolAndTimeRange(symbol, startTime, endTime);
             logger.info("获取股票历史数据: {} - {}条记录", symbol, history.size());
             return history;
             
@@ -310,19 +371,52 @@ public class StockPltrDataService {
     
     /**
      * 清理旧数据
+     * 提交到清理线程：历史分区先导出到压缩归档，成功后整表删除；
+     * 主表只有每个股票的最新数据，长期没有爬取的股票按批次删除；评论按批次删除
      */
-    @Transactional
     public void cleanupOldData() {
         try {
             LocalDateTime cutoffTime = LocalDateTime.now().minusDays(retentionDays);
             
-            // 删除旧的股票数据
-            stockPltrDataRepository.deleteByCrawlTimeBefore(cutoffTime);
+            CompletableFuture<RetentionPurger.PurgeReport> dataPurge = retentionPurger.submit("stockpltr_data", cutoffTime,
+                new RetentionPurger.PurgeTarget() {
+                    @Override
+                    public List<Long> findExpiredIds(LocalDateTime cutoff, int limit) {
+                        return stockPltrDataRepository.findIdsByCrawlTimeBefore(cutoff, PageRequest.of(0, limit));
+                    }
+                    
+                    @Override
+                    public int deleteByIds(List<Long> ids) {
+                        return stockPltrDataRepository.deleteByIdIn(ids);
+                    }
+                    
+                    @Override
+                    public void beforePurge(LocalDateTime cutoff) throws IOException {
+                        // 分区按天整表删除，只归档并删除截止日期之前的完整分区
+                        LocalDate cutoffDay = cutoff.toLocalDate();
+                        if (archiveEnabled) {
+                            historyArchive.archiveBefore("stockpltr_data", cutoffDay.atStartOfDay(), archiveSource());
+                        }
+                        stockPltrHistoryStore.dropPartitionsBefore(cutoffDay);
+                    }
+                });
             
-            // 删除旧的评论数据
-            stockCommentRepository.deleteByCrawlTimeBefore(cutoffTime);
+            // 分批删除旧的评论数据
+            CompletableFuture<RetentionPurger.PurgeReport> commentPurge = retentionPurger.submit("stockpltr_comments", cutoffTime,
+                new RetentionPurger.PurgeTarget() {
+                    @Override
+                    public List<Long> findExpiredIds(LocalDateTime cutoff, int limit) {
+                        return stockCommentRepository.findIdsByCrawlTimeBefore(cutoff, PageRequest.of(0, limit));
+                    }
+                    
+                    @Override
+                    public int deleteByIds(List<Long> ids) {
+                        return stockCommentRepository.deleteByIdIn(ids);
+                    }
+                });
             
-            logger.info("清理{}天前的旧数据完成", retentionDays);
+            CompletableFuture.allOf(dataPurge, commentPurge)
+                .thenRun(() -> logger.info("清理{}天前的旧数据完成", retentionDays));
             
         } catch (Exception e) {
             logger.error("清理旧数据失败: {}", e.getMessage());
@@ -351,4 +445,41 @@ public class StockPltrDataService {
             return null;
         }
     }
+    
+    /**
+     * 历史分区的待归档数据源：只有最新价和成交量，开盘、最高、最低价记为缺失
+     */
+    private HistoryArchive.ArchiveSource archiveSource() {
+        return new HistoryArchive.ArchiveSource() {
+            @Override
+            public List<String> findSymbols(LocalDateTime cutoffTime) {
+                return stockPltrHistoryStore.findSymbolsBefore(cutoffTime);
+            }
+            
+            @Override
+            public HistoryArchive.Page findPage(String symbol, LocalDateTime afterTime, long afterId,
+                                                LocalDateTime cutoffTime, int limit) {
+                List<KeyedRow<StockPltrData>> rows = stockPltrHistoryStore.findPageBefore(symbol, afterTime, afterId,
+                    cutoffTime, limit);
+                int size = rows.size();
+                if (size == 0) {
+                    return HistoryArchive.Page.empty();
+                }
+                long[] timestamps = new long[size];
+                double[] missing = new double[size];
+                double[] close = new double[size];
+                double[] volume = new double[size];
+                Arrays.fill(missing, Double.NaN);
+                for (int i = 0; i < size; i++) {
+                    StockPltrData row = rows.get(i).getRecord();
+                    timestamps[i] = PriceHistoryStore.toEpochMillis(row.getCrawlTime());
+                    close[i] = row.getCurrentPrice() != null ? row.getCurrentPrice() : Double.NaN;
+                    volume[i] = row.getVolume() != null ? row.getVolume() : Double.NaN;
+                }
+                KeyedRow<StockPltrData> last = rows.get(size - 1);
+                return new HistoryArchive.Page(new BarSeries(timestamps, missing, missing, missing, close, volume),
+                    last.getRecord().getCrawlTime(), last.getRowId());
+            }
+        };
+    }
 }
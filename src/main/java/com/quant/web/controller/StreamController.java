@@ -0,0 +1,61 @@
+package com.quant.web.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.quant.web.push.QuotePushHub;
+
+/**
+ * 实时推送控制器
+ * 浏览器通过EventSource订阅行情和指标更新，替代轮询
+ */
+@RestController
+@RequestMapping("/api/stream")
+public class StreamController {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamController.class);
+
+    @Autowired
+    private QuotePushHub quotePushHub;
+
+    /**
+     * 订阅行情和指标推送
+     * 事件quote为最新行情，indicators为增量指标快照；慢连接只收到每只股票的最新值
+     * @param symbols 股票代码，逗号分隔
+     * @return SSE事件流
+     */
+    @GetMapping(value = "/quotes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamQuotes(@RequestParam List<String> symbols) {
+        logger.info("API请求: 订阅实时推送 {}", symbols);
+
+        try {
+            return ResponseEntity.ok(quotePushHub.subscribe(symbols));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            logger.warn("拒绝推送订阅: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * 获取推送统计
+     * @return 订阅者数、构建/分发/发送/合并的帧数
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(quotePushHub.toMap());
+    }
+}
@@ -1,7 +1,7 @@
 package com.quant.web.controller;
 
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,8 +12,10 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import com.quant.analysis.service.TechnicalAnalysisService;
+import com.quant.analysis.model.AnalysisResult;
+import com.quant.analysis.service.CachedAnalysisService;
 import com.quant.futu.service.FutuDataService;
+import com.quant.stock.board.QuoteView;
 import com.quant.stock.service.StockDataService;
 
 /**
@@ -29,7 +31,7 @@ public class WebController {
     private StockDataService stockDataService;
     
     @Autowired
-    private TechnicalAnalysisService analysisService;
+    private CachedAnalysisService analysisService;
     
     @Autowired
     private FutuDataService futuDataService;
@@ -50,6 +52,8 @@ public class WebController {
             }
             
             model.addAttribute("symbols", symbols);
+            model.addAttribute("quotes", stockDataService.getLatestQuotes(symbols).stream()
+                .collect(Collectors.toMap(QuoteView::getSymbol, quote -> quote)));
             model.addAttribute("futuConnected", futuDataService.isConnected());
             model.addAttribute("title", "股票量化分析系统");
             
@@ -74,7 +78,7 @@ public class WebController {
             var stockData = stockDataService.getStockData(symbol);
             
             // 获取技术分析结果
-            Map<String, Object> analysis = analysisService.comprehensiveAnalysis(symbol);
+            AnalysisResult analysis = analysisService.analyze(symbol);
             
             model.addAttribute("symbol", symbol.toUpperCase());
             model.addAttribute("stockData", stockData.orElse(null));
@@ -100,7 +104,7 @@ public class WebController {
         
         try {
             // 获取综合技术分析
-            Map<String, Object> analysis = analysisService.comprehensiveAnalysis(symbol);
+            AnalysisResult analysis = analysisService.analyze(symbol);
             
             // 获取活跃股票列表
             List<String> symbols = stockDataService.getAllActiveSymbols();
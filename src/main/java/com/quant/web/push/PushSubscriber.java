@@ -0,0 +1,112 @@
+package com.quant.web.push;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 推送订阅者（一个浏览器连接）
+ * 待发送帧按键（事件类型+股票代码）保存，同一键只保留最新一帧：客户端写得慢时旧帧被新帧覆盖，
+ * 积压量不超过订阅的键数。任意时刻最多一个发送任务在写这个连接
+ */
+final class PushSubscriber {
+
+    private final long id;
+    private final SseEmitter emitter;
+    private final Set<String> symbols;
+    private final Executor sender;
+    private final Consumer<PushSubscriber> onClose;
+
+    /** 待发送帧，同一键只保留最新一帧 */
+    private final Map<String, Set<DataWithMediaType>> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /** 推送中心共享的统计 */
+    private final LongAdder sentFrames;
+    private final LongAdder conflatedFrames;
+
+    PushSubscriber(long id, SseEmitter emitter, Set<String> symbols, Executor sender,
+                   Consumer<PushSubscriber> onClose, LongAdder sentFrames, LongAdder conflatedFrames) {
+        this.id = id;
+        this.emitter = emitter;
+        this.symbols = symbols;
+        this.sender = sender;
+        this.onClose = onClose;
+        this.sentFrames = sentFrames;
+        this.conflatedFrames = conflatedFrames;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    Set<String> getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * 放入一帧并确保有发送任务，不阻塞调用线程
+     * @param key 合并键，同一键未发出的旧帧被丢弃
+     * @param frame 已序列化的帧，所有订阅者共享同一实例
+     */
+    void offer(String key, Set<DataWithMediaType> frame) {
+        if (closed.get()) {
+            return;
+        }
+        if (pending.put(key, frame) != null) {
+            conflatedFrames.increment();
+        }
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * 发送全部待发送帧；发送期间新到的帧由同一任务继续发送
+     */
+    private void drain() {
+        do {
+            for (String key : pending.keySet()) {
+                Set<DataWithMediaType> frame = pending.remove(key);
+                if (frame == null) {
+                    continue;
+                }
+                try {
+                    emitter.send(frame);
+                    sentFrames.increment();
+                } catch (Exception e) {
+                    close(); // 连接已断开
+                    return;
+                }
+            }
+            scheduled.set(false);
+        } while (!pending.isEmpty() && !closed.get() && scheduled.compareAndSet(false, true));
+    }
+
+    /**
+     * 停止发送并从推送中心移除，可重复调用
+     */
+    void close() {
+        if (closed.compareAndSet(false, true)) {
+            pending.clear();
+            onClose.accept(this);
+        }
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+}
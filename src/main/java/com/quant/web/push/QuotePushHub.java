@@ -0,0 +1,288 @@
+package com.quant.web.push;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quant.analysis.kernel.IndicatorState;
+import com.quant.analysis.model.AnalysisResult;
+import com.quant.analysis.service.StreamingIndicatorEngine;
+import com.quant.futu.service.FutuDataService;
+import com.quant.stock.board.LatestQuote;
+import com.quant.stock.model.StockData;
+import com.quant.stock.service.StockDataService;
+import com.quant.stock.store.PriceHistoryStore;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 实时行情推送中心（Server-Sent Events）
+ * 监听新价格和增量指标更新，每次更新只序列化一次SSE帧，同一帧实例分发给订阅该股票的所有连接；
+ * 没有订阅者的股票只需一次哈希查找。每个连接只保留每个键的最新一帧（见 {@link PushSubscriber}），
+ * 慢客户端只会错过中间值，不会拖慢行情处理或其他客户端。服务端负载随更新频率增长，而不是随查看人数×刷新频率
+ */
+@Service
+public class QuotePushHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuotePushHub.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** SSE注释行，用于保活和及时发现断开的连接 */
+    private static final Set<DataWithMediaType> HEARTBEAT = frame(":heartbeat\n\n");
+
+    @Autowired
+    private StockDataService stockDataService;
+
+    @Autowired
+    private FutuDataService futuDataService;
+
+    @Autowired
+    private StreamingIndicatorEngine streamingIndicatorEngine;
+
+    @Value("${stock.push.max-subscribers:1000}")
+    private int maxSubscribers = 1000;
+
+    @Value("${stock.push.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs = 1_800_000;
+
+    private final Map<String, Set<PushSubscriber>> subscribersBySymbol = new ConcurrentHashMap<>();
+    private final Map<Long, PushSubscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong nextSubscriberId = new AtomicLong(1);
+
+    private final LongAdder framesBuilt = new LongAdder();
+    private final LongAdder framesOffered = new LongAdder();
+    private final LongAdder framesSent = new LongAdder();
+    private final LongAdder framesConflated = new LongAdder();
+    private final LongAdder disconnected = new LongAdder();
+
+    private ExecutorService sender;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // 慢客户端的发送任务会阻塞在写操作上，每个连接最多占用一个线程，线程数受订阅者上限约束
+        sender = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "quote-push-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        stockDataService.addPriceListener(this::onQuote);
+        futuDataService.addPriceListener(this::onQuote);
+        streamingIndicatorEngine.addIndicatorListener(this::onIndicators);
+        logger.info("实时行情推送已启动，订阅者上限: {}", maxSubscribers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (PushSubscriber subscriber : subscribers.values()) {
+            subscriber.close();
+        }
+        if (sender != null) {
+            sender.shutdownNow();
+        }
+    }
+
+    /**
+     * 订阅股票的行情和指标推送，连接建立后先推送当前值
+     * @param symbols 股票代码
+     * @return SSE连接
+     * @throws IllegalArgumentException 没有股票代码
+     * @throws IllegalStateException 订阅者数已达上限
+     */
+    public SseEmitter subscribe(Collection<String> symbols) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        subscribe(emitter, symbols);
+        return emitter;
+    }
+
+    void subscribe(SseEmitter emitter, Collection<String> symbols) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String symbol : symbols) {
+            if (symbol != null && !symbol.isBlank()) {
+                keys.add(symbol.trim().toUpperCase());
+            }
+        }
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("至少需要订阅一个股票代码");
+        }
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("推送订阅者数已达上限: " + maxSubscribers);
+        }
+
+        PushSubscriber subscriber = new PushSubscriber(nextSubscriberId.getAndIncrement(), emitter,
+            keys, sender, this::unsubscribe, framesSent, framesConflated);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        subscribers.put(subscriber.getId(), subscriber);
+        for (String symbol : keys) {
+            subscribersBySymbol.computeIfAbsent(symbol, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        logger.debug("新的推送订阅: {} {}", subscriber.getId(), keys);
+
+        for (String symbol : keys) {
+            LatestQuote quote = stockDataService.getQuoteBoard().get(symbol);
+            if (quote != null) {
+                subscriber.offer(quoteKey(symbol), quoteFrame(symbol, quote.getCurrentPrice(), quote.getPriceChange(),
+                    quote.getChangePercent(), quote.getVolume(), quote.getLastUpdated()));
+            }
+            AnalysisResult snapshot = streamingIndicatorEngine.getSnapshot(symbol);
+            if (snapshot != null) {
+                subscriber.offer(indicatorKey(symbol), indicatorFrame(symbol, snapshot));
+            }
+        }
+    }
+
+    /**
+     * 处理一条新行情
+     */
+    public void onQuote(StockData stockData) {
+        if (stockData.getSymbol() == null || stockData.getCurrentPrice() == null) {
+            return;
+        }
+        String symbol = stockData.getSymbol().toUpperCase();
+        Set<PushSubscriber> targets = subscribersBySymbol.get(symbol);
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+        publish(targets, quoteKey(symbol), quoteFrame(symbol, stockData.getCurrentPrice(),
+            stockData.getPriceChange(), stockData.getChangePercent(), stockData.getVolume(),
+            stockData.getLastUpdated()));
+    }
+
+    /**
+     * 处理一次指标更新，在该股票的指标状态锁内调用
+     */
+    public void onIndicators(String symbol, IndicatorState state) {
+        Set<PushSubscriber> targets = subscribersBySymbol.get(symbol);
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+        AnalysisResult snapshot = streamingIndicatorEngine.getSnapshot(symbol);
+        if (snapshot != null) {
+            publish(targets, indicatorKey(symbol), indicatorFrame(symbol, snapshot));
+        }
+    }
+
+    /**
+     * 定期发送保活帧，断开的连接在写失败时被移除
+     */
+    @Scheduled(fixedDelayString = "${stock.push.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (PushSubscriber subscriber : subscribers.values()) {
+            subscriber.offer("heartbeat", HEARTBEAT);
+        }
+    }
+
+    /**
+     * 推送统计
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", subscribers.size());
+        stats.put("symbols", subscribersBySymbol.size());
+        stats.put("framesBuilt", framesBuilt.sum());
+        stats.put("framesOffered", framesOffered.sum());
+        stats.put("framesSent", framesSent.sum());
+        stats.put("framesConflated", framesConflated.sum());
+        stats.put("disconnected", disconnected.sum());
+        return stats;
+    }
+
+    private void publish(Set<PushSubscriber> targets, String key, Set<DataWithMediaType> frame) {
+        if (frame == null) {
+            return;
+        }
+        for (PushSubscriber subscriber : targets) {
+            subscriber.offer(key, frame);
+            framesOffered.increment();
+        }
+    }
+
+    private void unsubscribe(PushSubscriber subscriber) {
+        if (subscribers.remove(subscriber.getId()) == null) {
+            return;
+        }
+        for (String symbol : subscriber.getSymbols()) {
+            subscribersBySymbol.computeIfPresent(symbol, (key, targets) -> {
+                targets.remove(subscriber);
+                return targets.isEmpty() ? null : targets;
+            });
+        }
+        disconnected.increment();
+        logger.debug("推送订阅已断开: {}", subscriber.getId());
+    }
+
+    private Set<DataWithMediaType> quoteFrame(String symbol, BigDecimal price, BigDecimal change,
+                                              BigDecimal changePercent, BigDecimal volume, LocalDateTime time) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("symbol", symbol);
+        data.put("price", price);
+        data.put("change", change);
+        data.put("changePercent", changePercent);
+        data.put("volume", volume);
+        data.put("timestamp", time != null ? PriceHistoryStore.toEpochMillis(time) : null);
+        return eventFrame("quote", data);
+    }
+
+    private Set<DataWithMediaType> indicatorFrame(String symbol, AnalysisResult snapshot) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("symbol", symbol);
+        data.put("timestamp", snapshot.getAnalysisTime() != null
+            ? PriceHistoryStore.toEpochMillis(snapshot.getAnalysisTime()) : null);
+        data.put("indicators", snapshot.toMap());
+        return eventFrame("indicators", data);
+    }
+
+    private Set<DataWithMediaType> eventFrame(String event, Map<String, Object> data) {
+        try {
+            String json = MAPPER.writeValueAsString(data);
+            framesBuilt.increment();
+            return frame("event:" + event + "\ndata:" + json + "\n\n");
+        } catch (JsonProcessingException e) {
+            logger.error("序列化推送帧失败: {} - {}", event, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 编码为字节后的完整SSE帧，发送时按原样写出，不再逐连接序列化
+     */
+    private static Set<DataWithMediaType> frame(String text) {
+        return Set.of(new DataWithMediaType(text.getBytes(StandardCharsets.UTF_8), MediaType.TEXT_PLAIN));
+    }
+
+    private static String quoteKey(String symbol) {
+        return "quote:" + symbol;
+    }
+
+    private static String indicatorKey(String symbol) {
+        return "indicators:" + symbol;
+    }
+}
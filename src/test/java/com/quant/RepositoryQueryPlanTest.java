@@ -0,0 +1,211 @@
+package com.quant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+
+import com.quant.analysis.model.TechnicalIndicator;
+import com.quant.analysis.repository.TechnicalIndicatorRepository;
+import com.quant.stock.model.StockData;
+import com.quant.stock.repository.StockDataRepository;
+import com.quant.stockpltr.model.StockComment;
+import com.quant.stockpltr.model.StockPltrData;
+import com.quant.stockpltr.repository.StockCommentRepository;
+import com.quant.stockpltr.repository.StockPltrDataRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * 仓库查询执行计划测试
+ * 用实体注解在H2中建表，执行每个仓库查询并捕获SQL，
+ * 再对其执行EXPLAIN，确认没有任何查询退化为全表扫描
+ */
+class RepositoryQueryPlanTest {
+
+    private static final String JDBC_URL = "jdbc:h2:mem:plan_test;DB_CLOSE_DELAY=-1";
+
+    /** 被捕获的SQL语句 */
+    private static final List<String> capturedSql = new CopyOnWriteArrayList<>();
+
+    private static SessionFactory sessionFactory;
+
+    private EntityManager entityManager;
+    private StockDataRepository stockDataRepository;
+    private StockPltrDataRepository stockPltrDataRepository;
+    private StockCommentRepository stockCommentRepository;
+    private TechnicalIndicatorRepository technicalIndicatorRepository;
+
+    @BeforeAll
+    static void buildSessionFactory() {
+        Configuration configuration = new Configuration()
+            .addAnnotatedClass(StockData.class)
+            .addAnnotatedClass(StockPltrData.class)
+            .addAnnotatedClass(StockComment.class)
+            .addAnnotatedClass(TechnicalIndicator.class)
+            .setProperty("hibernate.connection.url", JDBC_URL)
+            .setProperty("hibernate.connection.username", "sa")
+            .setProperty("hibernate.connection.password", "")
+            .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+            .setProperty("hibernate.show_sql", "false");
+        // 与Spring Boot默认的命名策略保持一致
+        configuration.setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy());
+        configuration.setStatementInspector((StatementInspector) sql -> {
+            capturedSql.add(sql);
+            return sql;
+        });
+        sessionFactory = configuration.buildSessionFactory();
+    }
+
+    @AfterAll
+    static void closeSessionFactory() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        entityManager = sessionFactory.createEntityManager();
+        JpaRepositoryFactory factory = new JpaRepositoryFactory(entityManager);
+        stockDataRepository = factory.getRepository(StockDataRepository.class);
+        stockPltrDataRepository = factory.getRepository(StockPltrDataRepository.class);
+        stockCommentRepository = factory.getRepository(StockCommentRepository.class);
+        technicalIndicatorRepository = factory.getRepository(TechnicalIndicatorRepository.class);
+        capturedSql.clear();
+    }
+
+    @Test
+    void stockDataQueriesShouldUseIndexes() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+
+        inTransaction(() -> {
+            stockDataRepository.findTopBySymbolOrderByLastUpdatedDesc("AAPL");
+            stockDataRepository.findAllActiveSymbols();
+            stockDataRepository.findRecentlyUpdated(now.minusHours(1));
+            stockDataRepository.findByChangePercentRange(-1.0, 1.0);
+            stockDataRepository.findHighVolumeStocks(1000L);
+            stockDataRepository.deleteOldData(now.minusDays(30));
+            stockDataRepository.findIdsByLastUpdatedBefore(now.minusDays(30), PageRequest.of(0, 1000));
+            stockDataRepository.deleteByIdIn(List.of(1L, 2L));
+        });
+
+        assertNoTableScans("stock_data");
+    }
+
+    @Test
+    void stockPltrDataQueriesShouldUseIndexes() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+
+        inTransaction(() -> {
+            stockPltrDataRepository.findLatestBySymbol("AAPL");
+            stockPltrDataRepository.findRecentData(now.minusHours(1));
+            stockPltrDataRepository.countBySymbol("AAPL");
+            stockPltrDataRepository.findIdsByCrawlTimeBefore(now.minusDays(30), PageRequest.of(0, 1000));
+            stockPltrDataRepository.deleteByIdIn(List.of(1L, 2L));
+        });
+
+        assertNoTableScans("stockpltr_data");
+    }
+
+    @Test
+    void stockCommentQueriesShouldUseIndexes() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+
+        inTransaction(() -> {
+            stockCommentRepository.findByStockSymbolOrderByCommentTimeDesc("AAPL");
+            stockCommentRepository.findByStockSymbolAndCommentId("AAPL", "c1");
+            stockCommentRepository.findByStockSymbolAndDataSourceOrderByCommentTimeDesc("AAPL", "stockpltr");
+            stockCommentRepository.findFirstByStockSymbolOrderByCommentTimeDesc("AAPL");
+            stockCommentRepository.findFirstByStockSymbolAndDataSourceOrderByCrawlTimeDesc("AAPL", "stockpltr");
+            stockCommentRepository.findByStockSymbolAndCommentTimeBetween("AAPL", now.minusDays(1), now);
+            stockCommentRepository.findByStockSymbolAndSentimentOrderByCommentTimeDesc("AAPL", "positive");
+            stockCommentRepository.findPopularComments("AAPL");
+            stockCommentRepository.countByStockSymbol("AAPL");
+            stockCommentRepository.countByStockSymbolAndSentiment("AAPL");
+            stockCommentRepository.findRecentComments(now.minusHours(1));
+            stockCommentRepository.deleteByCrawlTimeBefore(now.minusDays(30));
+            stockCommentRepository.findIdsByCrawlTimeBefore(now.minusDays(30), PageRequest.of(0, 1000));
+            stockCommentRepository.deleteByIdIn(List.of(1L, 2L));
+        });
+
+        assertNoTableScans("stockpltr_comments");
+    }
+
+    @Test
+    void technicalIndicatorQueriesShouldUseIndexes() throws Exception {
+        inTransaction(() -> {
+            technicalIndicatorRepository.findFirstBySymbolAndIndicatorTypeOrderByCalculatedAtDesc("AAPL", "RSI");
+            technicalIndicatorRepository.findBySymbolAndIndicatorTypeOrderByCalculatedAtDesc("AAPL", "RSI");
+        });
+
+        assertNoTableScans("technical_indicators");
+    }
+
+    /**
+     * 在事务中执行仓库调用（修改类查询需要事务）
+     */
+    private void inTransaction(Runnable work) {
+        entityManager.getTransaction().begin();
+        try {
+            work.run();
+        } finally {
+            entityManager.getTransaction().rollback();
+            entityManager.close();
+        }
+    }
+
+    /**
+     * 对捕获的每条SQL执行EXPLAIN，断言其中不包含全表扫描
+     */
+    private void assertNoTableScans(String table) throws Exception {
+        List<String> statements = new ArrayList<>();
+        for (String sql : capturedSql) {
+            if (sql.toLowerCase().contains(table)) {
+                statements.add(sql);
+            }
+        }
+        assertFalse(statements.isEmpty(), "未捕获到针对表 " + table + " 的SQL");
+
+        try (Connection connection = DriverManager.getConnection(JDBC_URL, "sa", "")) {
+            for (String sql : statements) {
+                String plan = explain(connection, sql);
+                assertFalse(plan.contains("tableScan"),
+                    "查询退化为全表扫描:\n" + sql + "\n执行计划:\n" + plan);
+            }
+        }
+    }
+
+    private String explain(Connection connection, String sql) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            int parameterCount = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameterCount; i++) {
+                statement.setObject(i, null);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+}
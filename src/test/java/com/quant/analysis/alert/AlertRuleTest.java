@@ -0,0 +1,112 @@
+package com.quant.analysis.alert;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.quant.analysis.kernel.IndicatorState;
+
+/**
+ * 预警规则解析与求值测试类
+ */
+class AlertRuleTest {
+
+    @Test
+    @DisplayName("应该解析数字参照值和指标参照值")
+    void shouldParseThresholdAndIndicatorReferences() {
+        // When
+        AlertRule rsi = AlertRule.parse(1, "pltr RSI_14 crosses 30");
+        AlertRule band = AlertRule.parse(2, "AAPL price > upper Bollinger");
+        AlertRule macd = AlertRule.parse(3, "TSLA macd crosses below macd signal");
+        AlertRule compact = AlertRule.parse(4, "MSFT sma20>=-1.5");
+
+        // Then
+        assertEquals("PLTR", rsi.getSymbol());
+        assertEquals(AlertIndicator.RSI_14, rsi.getIndicator());
+        assertEquals(AlertOperator.CROSSES, rsi.getOperator());
+        assertEquals(30.0, rsi.getThreshold());
+        assertNull(rsi.getReferenceIndicator());
+
+        assertEquals(AlertIndicator.PRICE, band.getIndicator());
+        assertEquals(AlertOperator.GT, band.getOperator());
+        assertEquals(AlertIndicator.BB_UPPER, band.getReferenceIndicator());
+        assertNull(band.getThreshold());
+
+        assertEquals(AlertOperator.CROSSES_BELOW, macd.getOperator());
+        assertEquals(AlertIndicator.MACD_SIGNAL, macd.getReferenceIndicator());
+
+        assertEquals(AlertIndicator.SMA_20, compact.getIndicator());
+        assertEquals(AlertOperator.GE, compact.getOperator());
+        assertEquals(-1.5, compact.getThreshold());
+    }
+
+    @Test
+    @DisplayName("无法解析的规则应该抛出IllegalArgumentException")
+    void shouldRejectInvalidRules() {
+        assertThrows(IllegalArgumentException.class, () -> AlertRule.parse(1, ""));
+        assertThrows(IllegalArgumentException.class, () -> AlertRule.parse(1, "PLTR RSI_14 30"));
+        assertThrows(IllegalArgumentException.class, () -> AlertRule.parse(1, "PLTR > 30"));
+        assertThrows(IllegalArgumentException.class, () -> AlertRule.parse(1, "PLTR VOLUME > 30"));
+        assertThrows(IllegalArgumentException.class, () -> AlertRule.parse(1, "PLTR RSI_14 crosses sideways"));
+    }
+
+    @Test
+    @DisplayName("比较条件应该在变为满足时触发一次，穿越条件需要上一次取值")
+    void shouldTriggerOnTransitions() {
+        // Given
+        SymbolRules rules = new SymbolRules();
+        rules.add(AlertRule.parse(1, "PLTR price > 10"));
+        rules.add(AlertRule.parse(2, "PLTR price crosses 10"));
+        rules.add(AlertRule.parse(3, "PLTR price crosses below 10"));
+        IndicatorState state = new IndicatorState();
+
+        // When / Then: 首个价格满足 > 条件，但没有上一次取值，不算穿越
+        state.update(1, 11);
+        assertEquals(List.of(1L), ruleIds(rules.evaluate(state)));
+
+        // 持续满足不重复触发
+        state.update(2, 12);
+        assertTrue(rules.evaluate(state).isEmpty());
+
+        // 下穿
+        state.update(3, 9);
+        assertEquals(List.of(2L, 3L), ruleIds(rules.evaluate(state)));
+
+        // 上穿
+        state.update(4, 10.5);
+        assertEquals(List.of(1L, 2L), ruleIds(rules.evaluate(state)));
+    }
+
+    @Test
+    @DisplayName("删除规则后应该保留其余规则的上一次取值")
+    void shouldKeepStateWhenRulesChange() {
+        // Given
+        SymbolRules rules = new SymbolRules();
+        rules.add(AlertRule.parse(1, "PLTR price crosses above 10"));
+        rules.add(AlertRule.parse(2, "PLTR price crosses above 20"));
+        IndicatorState state = new IndicatorState();
+        state.update(1, 5);
+        rules.evaluate(state);
+
+        // When
+        assertTrue(rules.remove(1));
+        assertFalse(rules.remove(1));
+        rules.add(AlertRule.parse(3, "PLTR price crosses above 10"));
+        state.update(2, 25);
+        List<AlertEvent> fired = rules.evaluate(state);
+
+        // Then: 规则2保留了上一次取值，新加入的规则3还没有
+        assertEquals(List.of(2L), ruleIds(fired));
+        assertEquals(25.0, fired.get(0).getValue());
+        assertEquals(20.0, fired.get(0).getReference());
+        assertEquals(2, rules.size());
+    }
+
+    private static List<Long> ruleIds(List<AlertEvent> events) {
+        return events.stream().map(AlertEvent::getRuleId).collect(Collectors.toList());
+    }
+}
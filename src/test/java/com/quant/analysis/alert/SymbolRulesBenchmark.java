@@ -0,0 +1,79 @@
+package com.quant.analysis.alert;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.quant.analysis.kernel.IndicatorState;
+
+/**
+ * 单个股票预警规则求值基准测试
+ * 每次调用推进一个价格并对全部规则求值，运行方式同 {@link com.quant.analysis.kernel.IndicatorKernelsBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SymbolRulesBenchmark {
+
+    private static final String[] INDICATORS = {"price", "RSI_14", "SMA_20", "EMA_12", "MACD"};
+    private static final String[] OPERATORS = {">", "<", "crosses", "crosses above"};
+
+    @Param({"100", "5000"})
+    private int rules;
+
+    private SymbolRules symbolRules;
+    private IndicatorState state;
+    private Random random;
+    private long timestamp;
+    private double price;
+
+    @Setup
+    public void setUp() {
+        random = new Random(42);
+        symbolRules = new SymbolRules();
+        for (int i = 0; i < rules; i++) {
+            String reference = i % 5 == 0 ? "upper Bollinger" : String.valueOf(50 + random.nextInt(100));
+            symbolRules.add(AlertRule.parse(i, "PLTR " + INDICATORS[i % INDICATORS.length] + " "
+                + OPERATORS[i % OPERATORS.length] + " " + reference));
+        }
+        state = new IndicatorState();
+        price = 100.0;
+        for (timestamp = 0; timestamp < 100; timestamp++) {
+            price += random.nextGaussian();
+            state.update(timestamp, price);
+        }
+    }
+
+    @Benchmark
+    public List<AlertEvent> evaluate() {
+        price += random.nextGaussian();
+        state.update(++timestamp, price);
+        return symbolRules.evaluate(state);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SymbolRulesBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
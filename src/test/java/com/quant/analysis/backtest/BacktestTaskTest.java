@@ -0,0 +1,159 @@
+package com.quant.analysis.backtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.quant.analysis.kernel.BatchIndicatorKernels;
+import com.quant.analysis.kernel.IndicatorColumns;
+import com.quant.analysis.kernel.IndicatorKernels;
+import com.quant.analysis.model.BacktestResult;
+import com.quant.stock.store.PriceHistoryStore;
+
+/**
+ * 回测分治任务测试类
+ */
+class BacktestTaskTest {
+
+    private static final List<String> SYMBOLS = Arrays.asList("AAPL", "MSFT", "TSLA");
+    private static final int BARS = 600;
+
+    @TempDir
+    Path tempDir;
+
+    private PriceHistoryStore store;
+    private double[][] closes;
+
+    @BeforeEach
+    void setUp() {
+        store = new PriceHistoryStore(tempDir);
+        Random random = new Random(5);
+        closes = new double[SYMBOLS.size()][BARS];
+        for (int s = 0; s < SYMBOLS.size(); s++) {
+            double price = 100;
+            for (int t = 0; t < BARS; t++) {
+                price = Math.max(1, price + random.nextGaussian() * 2);
+                closes[s][t] = price;
+                store.append(SYMBOLS.get(s), 1000L * t, price, price, price, price, 0);
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    @DisplayName("默认参数的策略信号应该与综合分析规则一致")
+    void defaultStrategyShouldMatchAnalysisRules() {
+        // Given
+        SignalStrategy strategy = RsiTrendStrategy.defaults().create();
+        double[] prices = closes[0];
+        double[] sma20 = new double[1];
+        double[] sma50 = new double[1];
+        double[] rsi = new double[1];
+        byte[] trend = new byte[1];
+        byte[] expected = new byte[1];
+
+        for (int t = 0; t < BARS; t++) {
+            // When
+            byte signal = strategy.onBar(1000L * t, prices[t]);
+
+            // Then
+            sma20[0] = IndicatorKernels.sma(prices, t + 1, 20);
+            sma50[0] = IndicatorKernels.sma(prices, t + 1, 50);
+            rsi[0] = IndicatorKernels.rsi(prices, t + 1, 14);
+            BatchIndicatorKernels.trend(sma20, sma50, trend);
+            BatchIndicatorKernels.signal(rsi, trend, expected);
+            assertEquals(expected[0], signal, "第" + t + "根K线");
+        }
+    }
+
+    @Test
+    @DisplayName("账户应该统计收益、最大回撤和胜率")
+    void ledgerShouldTrackReturnDrawdownAndHitRate() {
+        // Given
+        TradeLedger ledger = new TradeLedger(0.0);
+
+        // When
+        ledger.onBar(100, IndicatorColumns.SIGNAL_BUY);
+        ledger.onBar(110, IndicatorColumns.SIGNAL_SELL);  // +10%
+        ledger.onBar(110, IndicatorColumns.SIGNAL_BUY);
+        ledger.onBar(104.5, IndicatorColumns.SIGNAL_HOLD);
+        ledger.onBar(99, IndicatorColumns.SIGNAL_SELL);   // -10%
+        BacktestResult result = ledger.finish("AAPL", RsiTrendStrategy.defaults());
+
+        // Then
+        assertEquals(5, result.getBars());
+        assertEquals(2, result.getTrades());
+        assertEquals(1, result.getWinningTrades());
+        assertEquals(0.5, result.getHitRate(), 1e-12);
+        assertEquals(-0.01, result.getTotalReturn(), 1e-12);
+        assertEquals(0.1, result.getMaxDrawdown(), 1e-12);
+        assertEquals(-0.01, result.getBuyAndHoldReturn(), 1e-12);
+        assertEquals(RsiTrendStrategy.NAME, result.getStrategy());
+    }
+
+    @Test
+    @DisplayName("分治并行回测结果应该与单任务顺序回放一致")
+    void forkJoinShouldMatchSequentialReplay() {
+        // Given
+        List<StrategySpec> grid = RsiTrendStrategy.grid(
+            new int[] {7, 14}, new int[] {10, 20}, new int[] {50}, new double[] {25, 30}, new double[] {70, 75});
+        BacktestTask.Settings parallel = new BacktestTask.Settings(Long.MIN_VALUE, Long.MAX_VALUE, 64, 3, 0.001);
+        BacktestTask.Settings sequential = new BacktestTask.Settings(Long.MIN_VALUE, Long.MAX_VALUE, BARS, grid.size(), 0.001);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            // When
+            List<BacktestResult> forked = pool.invoke(new BacktestTask(store, SYMBOLS, grid, parallel));
+            List<BacktestResult> expected = new ArrayList<>();
+            for (String symbol : SYMBOLS) {
+                expected.addAll(new BacktestTask(store, List.of(symbol), grid, sequential).compute());
+            }
+
+            // Then
+            assertEquals(SYMBOLS.size() * grid.size(), forked.size());
+            for (int i = 0; i < expected.size(); i++) {
+                BacktestResult a = expected.get(i);
+                BacktestResult b = forked.get(i);
+                assertEquals(a.getSymbol(), b.getSymbol());
+                assertEquals(a.getParameters(), b.getParameters());
+                assertEquals(BARS, b.getBars());
+                assertEquals(a.getTrades(), b.getTrades());
+                assertEquals(a.getTotalReturn(), b.getTotalReturn(), 1e-12);
+                assertEquals(a.getMaxDrawdown(), b.getMaxDrawdown(), 1e-12);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("应该只回放时间范围内的K线")
+    void shouldReplayOnlyRequestedRange() {
+        // Given
+        BacktestTask.Settings settings = new BacktestTask.Settings(100_000L, 199_000L, 16, 8, 0.0);
+
+        // When
+        List<BacktestResult> results = new BacktestTask(
+            store, List.of("AAPL"), List.of(RsiTrendStrategy.defaults()), settings).compute();
+
+        // Then
+        assertEquals(1, results.size());
+        assertEquals(100, results.get(0).getBars());
+        assertEquals(closes[0][199] / closes[0][100] - 1, results.get(0).getBuyAndHoldReturn(), 1e-12);
+    }
+}
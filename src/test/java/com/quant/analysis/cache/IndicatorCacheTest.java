@@ -0,0 +1,59 @@
+package com.quant.analysis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 指标结果缓存测试类
+ */
+class IndicatorCacheTest {
+
+    @Test
+    @DisplayName("应该按LRU淘汰最久未使用的条目")
+    void shouldEvictLeastRecentlyUsed() {
+        // Given
+        IndicatorCache cache = new IndicatorCache(2);
+        CacheKey a = new CacheKey("AAPL", "SMA", "20", 1L);
+        CacheKey b = new CacheKey("MSFT", "SMA", "20", 1L);
+        CacheKey c = new CacheKey("TSLA", "SMA", "20", 1L);
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        cache.get(a, () -> loads.incrementAndGet());
+        cache.get(b, () -> loads.incrementAndGet());
+        cache.get(a, () -> loads.incrementAndGet()); // a变为最近使用
+        cache.get(c, () -> loads.incrementAndGet()); // 淘汰b
+        cache.get(a, () -> loads.incrementAndGet());
+        cache.get(b, () -> loads.incrementAndGet());
+
+        // Then
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getEvictions());
+    }
+
+    @Test
+    @DisplayName("应该按指标统计命中率，null结果不缓存")
+    void shouldTrackHitRatePerIndicator() {
+        // Given
+        IndicatorCache cache = new IndicatorCache(100);
+        CacheKey sma = new CacheKey("AAPL", "SMA", "20", 1L);
+        CacheKey rsi = new CacheKey("AAPL", "RSI", "14", 1L);
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            cache.get(sma, () -> 1.0);
+            cache.get(rsi, () -> null);
+        }
+
+        // Then
+        assertEquals(3L, cache.getStats().get("SMA").get("hits"));
+        assertEquals(0.75, cache.getStats().get("SMA").get("hitRate"));
+        assertEquals(4L, cache.getStats().get("RSI").get("misses"));
+        assertEquals(1, cache.size());
+    }
+}
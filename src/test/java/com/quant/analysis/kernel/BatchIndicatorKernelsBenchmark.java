@@ -0,0 +1,75 @@
+package com.quant.analysis.kernel;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 批量指标内核基准测试
+ * 对比结构数组批量计算（compute）与逐个股票的标量回退（computeScalar），
+ * 运行方式同 {@link IndicatorKernelsBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchIndicatorKernelsBenchmark {
+
+    @Param({"100", "1000"})
+    private int symbols;
+
+    @Param({"55"})
+    private int bars;
+
+    private PriceMatrix matrix;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] names = new String[symbols];
+        double[][] series = new double[symbols][bars];
+        for (int s = 0; s < symbols; s++) {
+            names[s] = "S" + s;
+            double price = 100.0;
+            for (int t = 0; t < bars; t++) {
+                price += random.nextGaussian();
+                series[s][t] = price;
+            }
+        }
+        matrix = PriceMatrix.of(names, series, bars);
+    }
+
+    @Benchmark
+    public IndicatorColumns structOfArrays() {
+        return BatchIndicatorKernels.compute(matrix);
+    }
+
+    @Benchmark
+    public IndicatorColumns scalarPerSymbol() {
+        return BatchIndicatorKernels.computeScalar(matrix);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BatchIndicatorKernelsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
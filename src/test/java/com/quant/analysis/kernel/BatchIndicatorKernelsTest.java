@@ -0,0 +1,139 @@
+package com.quant.analysis.kernel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.quant.analysis.service.AnalysisSession;
+
+/**
+ * 多股票批量指标内核测试类
+ */
+class BatchIndicatorKernelsTest {
+
+    private static final double EPSILON = 1e-9;
+
+    private PriceMatrix matrix;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(11);
+        int width = 37;
+        String[] symbols = new String[width];
+        double[][] series = new double[width][];
+        for (int s = 0; s < width; s++) {
+            symbols[s] = "S" + s;
+            // 部分股票历史不足，用于验证NaN填充
+            int length = s % 5 == 0 ? 15 + s % 30 : 80;
+            series[s] = new double[length];
+            double price = 50 + s;
+            for (int t = 0; t < length; t++) {
+                price += random.nextGaussian();
+                series[s][t] = price;
+            }
+        }
+        matrix = PriceMatrix.of(symbols, series, 55);
+    }
+
+    @Test
+    @DisplayName("结构数组批量计算应该与逐个股票计算一致")
+    void computeShouldMatchScalarFallback() {
+        IndicatorColumns batch = BatchIndicatorKernels.compute(matrix);
+        IndicatorColumns scalar = BatchIndicatorKernels.computeScalar(matrix);
+
+        assertColumnEquals(scalar.getSma20(), batch.getSma20());
+        assertColumnEquals(scalar.getSma50(), batch.getSma50());
+        assertColumnEquals(scalar.getEma12(), batch.getEma12());
+        assertColumnEquals(scalar.getEma26(), batch.getEma26());
+        assertColumnEquals(scalar.getRsi14(), batch.getRsi14());
+        assertColumnEquals(scalar.getBollingerUpper(), batch.getBollingerUpper());
+        assertColumnEquals(scalar.getBollingerLower(), batch.getBollingerLower());
+        assertArrayEquals(scalar.getTrend(), batch.getTrend());
+        assertArrayEquals(scalar.getSignal(), batch.getSignal());
+    }
+
+    @Test
+    @DisplayName("历史不足的股票指标应该为NaN，趋势为UNKNOWN")
+    void shortSeriesShouldYieldNaN() {
+        IndicatorColumns columns = BatchIndicatorKernels.compute(matrix);
+
+        // S0只有15根K线
+        int index = columns.indexOf("S0");
+        assertTrue(Double.isNaN(columns.getSma20()[index]));
+        assertTrue(Double.isNaN(columns.getRsi14()[index]));
+        assertEquals(IndicatorColumns.TREND_UNKNOWN, columns.getTrend()[index]);
+        assertEquals(IndicatorColumns.SIGNAL_HOLD, columns.getSignal()[index]);
+
+        // S1有完整历史
+        index = columns.indexOf("S1");
+        assertEquals(IndicatorKernels.sma(matrix.column(index), 50), columns.getSma50()[index], EPSILON);
+        assertNotEquals(IndicatorColumns.TREND_UNKNOWN, columns.getTrend()[index]);
+    }
+
+    @Test
+    @DisplayName("历史不足的股票EMA应该与单股票分析一致")
+    void shortSeriesEmaShouldMatchAnalysisSession() {
+        // Given - 分别短于EMA12、EMA26窗口和种子长度的序列，与完整历史放在同一矩阵
+        double[][] series = new double[4][];
+        int[] lengths = {8, 20, 40, 80};
+        String[] symbols = new String[lengths.length];
+        for (int s = 0; s < lengths.length; s++) {
+            symbols[s] = "L" + lengths[s];
+            series[s] = new double[lengths[s]];
+            for (int t = 0; t < lengths[s]; t++) {
+                series[s][t] = 100 + s + Math.sin(t * 0.7) * 3 + t * 0.1;
+            }
+        }
+        PriceMatrix shortMatrix = PriceMatrix.of(symbols, series, 55);
+
+        // When
+        IndicatorColumns batch = BatchIndicatorKernels.compute(shortMatrix);
+        IndicatorColumns scalar = BatchIndicatorKernels.computeScalar(shortMatrix);
+
+        // Then
+        // AnalysisSession保留4位小数
+        for (int s = 0; s < symbols.length; s++) {
+            AnalysisSession session = new AnalysisSession(symbols[s], series[s]);
+            double ema12 = session.ema(12).doubleValue();
+            double ema26 = session.ema(26).doubleValue();
+            assertEquals(ema12, batch.getEma12()[s], 1e-4, symbols[s] + " EMA12");
+            assertEquals(ema26, batch.getEma26()[s], 1e-4, symbols[s] + " EMA26");
+            assertEquals(ema12, scalar.getEma12()[s], 1e-4, symbols[s] + " EMA12");
+            assertEquals(ema26, scalar.getEma26()[s], 1e-4, symbols[s] + " EMA26");
+        }
+    }
+
+    @Test
+    @DisplayName("批量交易信号应该与单股票规则一致")
+    void signalShouldFollowRsiAndTrendRules() {
+        double[] rsi = {75, 25, 55, 45, 55, Double.NaN};
+        byte[] trend = {
+            IndicatorColumns.TREND_UP, IndicatorColumns.TREND_DOWN, IndicatorColumns.TREND_UP,
+            IndicatorColumns.TREND_DOWN, IndicatorColumns.TREND_DOWN, IndicatorColumns.TREND_UP
+        };
+        byte[] signal = new byte[rsi.length];
+
+        BatchIndicatorKernels.signal(rsi, trend, signal);
+
+        assertArrayEquals(new byte[] {
+            IndicatorColumns.SIGNAL_SELL, IndicatorColumns.SIGNAL_BUY, IndicatorColumns.SIGNAL_BUY,
+            IndicatorColumns.SIGNAL_SELL, IndicatorColumns.SIGNAL_HOLD, IndicatorColumns.SIGNAL_HOLD
+        }, signal);
+        assertEquals("BUY", IndicatorColumns.signalName(signal[1]));
+    }
+
+    private static void assertColumnEquals(double[] expected, double[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            if (Double.isNaN(expected[i])) {
+                assertTrue(Double.isNaN(actual[i]), "下标" + i + "应为NaN");
+            } else {
+                assertEquals(expected[i], actual[i], 1e-7, "下标" + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.quant.analysis.kernel;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 技术指标内核基准测试
+ * 每个指标对比double[]内核与原TechnicalAnalysisService中的BigDecimal算法（legacy*），
+ * 运行方式：先 mvn test-compile，再以测试classpath执行本类的main方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndicatorKernelsBenchmark {
+
+    @Param({"20", "50"})
+    private int period;
+
+    private double[] closes;
+    private List<BigDecimal> decimalCloses;
+    private final double[] bands = new double[3];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int size = period * 2 + 10;
+        closes = new double[size];
+        decimalCloses = new ArrayList<>(size);
+        double price = 100.0;
+        for (int i = 0; i < size; i++) {
+            price += random.nextGaussian();
+            closes[i] = price;
+            decimalCloses.add(BigDecimal.valueOf(price).setScale(4, RoundingMode.HALF_UP));
+        }
+    }
+
+    @Benchmark
+    public double smaKernel() {
+        return IndicatorKernels.sma(closes, period);
+    }
+
+    @Benchmark
+    public BigDecimal smaLegacy() {
+        return legacySma(decimalCloses, period);
+    }
+
+    @Benchmark
+    public double emaKernel() {
+        return IndicatorKernels.ema(closes, period);
+    }
+
+    @Benchmark
+    public BigDecimal emaLegacy() {
+        return legacyEma(decimalCloses, period);
+    }
+
+    @Benchmark
+    public double rsiKernel() {
+        return IndicatorKernels.rsi(closes, period);
+    }
+
+    @Benchmark
+    public BigDecimal rsiLegacy() {
+        return legacyRsi(decimalCloses, period);
+    }
+
+    @Benchmark
+    public double[] bollingerKernel() {
+        IndicatorKernels.bollinger(closes, period, 2.0, bands);
+        return bands;
+    }
+
+    @Benchmark
+    public BigDecimal[] bollingerLegacy() {
+        return legacyBollinger(decimalCloses, period, 2.0);
+    }
+
+    static BigDecimal legacySma(List<BigDecimal> prices, int period) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = 0; i < period; i++) {
+            sum = sum.add(prices.get(i));
+        }
+        return sum.divide(BigDecimal.valueOf(period), 4, RoundingMode.HALF_UP);
+    }
+
+    static BigDecimal legacyEma(List<BigDecimal> prices, int period) {
+        BigDecimal multiplier = BigDecimal.valueOf(2.0 / (period + 1));
+        BigDecimal ema = prices.get(prices.size() - 1);
+        for (int i = prices.size() - 2; i >= 0 && i >= prices.size() - period; i--) {
+            ema = prices.get(i).multiply(multiplier).add(ema.multiply(BigDecimal.ONE.subtract(multiplier)));
+        }
+        return ema.setScale(4, RoundingMode.HALF_UP);
+    }
+
+    static BigDecimal legacyRsi(List<BigDecimal> prices, int period) {
+        BigDecimal avgGain = BigDecimal.ZERO;
+        BigDecimal avgLoss = BigDecimal.ZERO;
+        for (int i = 1; i <= period; i++) {
+            BigDecimal change = prices.get(i).subtract(prices.get(i - 1));
+            if (change.compareTo(BigDecimal.ZERO) > 0) {
+                avgGain = avgGain.add(change);
+            } else {
+                avgLoss = avgLoss.add(change.abs());
+            }
+        }
+        avgGain = avgGain.divide(BigDecimal.valueOf(period), 6, RoundingMode.HALF_UP);
+        avgLoss = avgLoss.divide(BigDecimal.valueOf(period), 6, RoundingMode.HALF_UP);
+        if (avgLoss.compareTo(BigDecimal.ZERO) == 0) {
+            return BigDecimal.valueOf(100);
+        }
+        BigDecimal rs = avgGain.divide(avgLoss, 6, RoundingMode.HALF_UP);
+        return BigDecimal.valueOf(100).subtract(
+                BigDecimal.valueOf(100).divide(BigDecimal.ONE.add(rs), 2, RoundingMode.HALF_UP));
+    }
+
+    static BigDecimal[] legacyBollinger(List<BigDecimal> prices, int period, double stdDev) {
+        BigDecimal sma = legacySma(prices, period);
+        BigDecimal sumSquares = BigDecimal.ZERO;
+        for (int i = 0; i < period; i++) {
+            BigDecimal diff = prices.get(i).subtract(sma);
+            sumSquares = sumSquares.add(diff.multiply(diff));
+        }
+        BigDecimal variance = sumSquares.divide(BigDecimal.valueOf(period), 6, RoundingMode.HALF_UP);
+        BigDecimal bandwidth = BigDecimal.valueOf(Math.sqrt(variance.doubleValue()))
+                .multiply(BigDecimal.valueOf(stdDev));
+        return new BigDecimal[] {sma, sma.add(bandwidth), sma.subtract(bandwidth)};
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(IndicatorKernelsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
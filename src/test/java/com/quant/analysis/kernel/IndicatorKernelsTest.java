@@ -0,0 +1,64 @@
+package com.quant.analysis.kernel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 技术指标计算内核测试类
+ */
+class IndicatorKernelsTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    @DisplayName("SMA应该取最近period个价格的均值")
+    void shouldCalculateSmaOverLatestWindow() {
+        double[] closes = {1, 2, 3, 4, 5};
+
+        assertEquals(4.0, IndicatorKernels.sma(closes, 3), EPSILON);
+        assertEquals(3.0, IndicatorKernels.sma(closes, 5), EPSILON);
+        assertEquals(3.5, IndicatorKernels.sma(closes, 4, 2), EPSILON);
+        assertTrue(Double.isNaN(IndicatorKernels.sma(closes, 6)));
+    }
+
+    @Test
+    @DisplayName("EMA应该以SMA为种子递推")
+    void shouldCalculateEmaSeededWithSma() {
+        double[] closes = {1, 2, 3, 4, 5};
+
+        // 种子 (1+2+3)/3 = 2，alpha = 0.5：3 -> 4
+        assertEquals(4.0, IndicatorKernels.ema(closes, 3), EPSILON);
+        assertEquals(3.0, IndicatorKernels.ema(closes, 5), EPSILON);
+        assertTrue(Double.isNaN(IndicatorKernels.ema(closes, 0)));
+    }
+
+    @Test
+    @DisplayName("RSI应该使用Wilder平滑")
+    void shouldCalculateRsiWithWilderSmoothing() {
+        // 初始均值 gain=0.5 loss=0.5，之后 +1 -> (0.75, 0.25)，-1 -> (0.375, 0.625)
+        double[] closes = {1, 2, 1, 2, 1};
+
+        assertEquals(37.5, IndicatorKernels.rsi(closes, 2), EPSILON);
+        assertEquals(100.0, IndicatorKernels.rsi(new double[] {1, 2, 3, 4}, 3), EPSILON);
+        assertEquals(0.0, IndicatorKernels.rsi(new double[] {4, 3, 2, 1}, 3), EPSILON);
+        assertTrue(Double.isNaN(IndicatorKernels.rsi(new double[] {1, 2, 3}, 3)));
+    }
+
+    @Test
+    @DisplayName("布林带应该使用总体标准差")
+    void shouldCalculateBollingerBands() {
+        double[] closes = {2, 4, 4, 4, 5, 5, 7, 9};
+        double[] bands = new double[3];
+
+        assertTrue(IndicatorKernels.bollinger(closes, 8, 2.0, bands));
+        assertEquals(5.0, bands[IndicatorKernels.BAND_MIDDLE], EPSILON);
+        assertEquals(9.0, bands[IndicatorKernels.BAND_UPPER], EPSILON);
+        assertEquals(1.0, bands[IndicatorKernels.BAND_LOWER], EPSILON);
+        assertEquals(2.0, IndicatorKernels.stdDev(closes, closes.length, 8), EPSILON);
+
+        assertFalse(IndicatorKernels.bollinger(closes, 9, 2.0, bands));
+        assertTrue(Double.isNaN(bands[IndicatorKernels.BAND_MIDDLE]));
+    }
+}
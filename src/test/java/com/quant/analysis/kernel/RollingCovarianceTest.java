@@ -0,0 +1,102 @@
+package com.quant.analysis.kernel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 滑动窗口协方差矩阵测试类
+ */
+class RollingCovarianceTest {
+
+    @Test
+    @DisplayName("增量更新应该与窗口内直接计算一致")
+    void shouldMatchDirectComputationOverWindow() {
+        // Given
+        int dimension = 5;
+        int window = 30;
+        Random random = new Random(3);
+        double[][] history = new double[100][dimension];
+        RollingCovariance covariance = new RollingCovariance(dimension, window, Integer.MAX_VALUE);
+
+        // When
+        for (int t = 0; t < history.length; t++) {
+            double market = random.nextGaussian() * 0.01;
+            for (int i = 0; i < dimension; i++) {
+                history[t][i] = market * (i + 1) / 2 + random.nextGaussian() * 0.005;
+            }
+            covariance.add(history[t]);
+        }
+
+        // Then
+        assertEquals(window, covariance.count());
+        for (int i = 0; i < dimension; i++) {
+            for (int j = 0; j < dimension; j++) {
+                assertEquals(directCovariance(history, history.length - window, i, j), covariance.covariance(i, j), 1e-12);
+            }
+        }
+        assertEquals(1.0, covariance.correlation(2, 2), 1e-12);
+        assertTrue(covariance.correlation(0, 4) > 0.5);
+    }
+
+    @Test
+    @DisplayName("分块并行更新应该与串行更新一致")
+    void parallelBlocksShouldMatchSerial() {
+        // Given
+        int dimension = 150;
+        RollingCovariance serial = new RollingCovariance(dimension, 20, Integer.MAX_VALUE);
+        RollingCovariance parallel = new RollingCovariance(dimension, 20, 64);
+        Random random = new Random(8);
+
+        // When
+        for (int t = 0; t < 35; t++) {
+            double[] returns = new double[dimension];
+            for (int i = 0; i < dimension; i++) {
+                returns[i] = random.nextGaussian();
+            }
+            serial.add(returns);
+            parallel.add(returns);
+        }
+
+        // Then
+        double[] expected = new double[dimension * dimension];
+        double[] actual = new double[dimension * dimension];
+        serial.correlationMatrix(expected);
+        parallel.correlationMatrix(actual);
+        assertArrayEquals(expected, actual, 1e-12);
+        assertEquals(actual[3 * dimension + 140], actual[140 * dimension + 3]);
+    }
+
+    @Test
+    @DisplayName("数据不足或方差为0时应该返回NaN")
+    void shouldReturnNaNWithoutEnoughData() {
+        RollingCovariance covariance = new RollingCovariance(2, 10, Integer.MAX_VALUE);
+        covariance.add(new double[] {0.01, 0.0});
+        assertTrue(Double.isNaN(covariance.covariance(0, 1)));
+
+        covariance.add(new double[] {-0.01, 0.0});
+        assertEquals(0.0002, covariance.covariance(0, 0), 1e-15);
+        assertTrue(Double.isNaN(covariance.correlation(0, 1)));
+        assertThrows(IllegalArgumentException.class, () -> covariance.add(new double[3]));
+    }
+
+    private static double directCovariance(double[][] history, int from, int i, int j) {
+        int n = history.length - from;
+        double meanI = 0;
+        double meanJ = 0;
+        for (int t = from; t < history.length; t++) {
+            meanI += history[t][i];
+            meanJ += history[t][j];
+        }
+        meanI /= n;
+        meanJ /= n;
+        double sum = 0;
+        for (int t = from; t < history.length; t++) {
+            sum += (history[t][i] - meanI) * (history[t][j] - meanJ);
+        }
+        return sum / (n - 1);
+    }
+}
@@ -0,0 +1,110 @@
+package com.quant.analysis.kernel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 增量指标与批量内核一致性测试类
+ */
+class StreamingIndicatorsTest {
+
+    private static final double EPSILON = 1e-9;
+
+    private double[] closes;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(7);
+        closes = new double[300];
+        double price = 100.0;
+        for (int i = 0; i < closes.length; i++) {
+            price += random.nextGaussian();
+            closes[i] = price;
+        }
+    }
+
+    @Test
+    @DisplayName("滑动窗口的SMA和方差应该与批量计算一致")
+    void rollingWindowShouldMatchBatchKernels() {
+        RollingWindow window = new RollingWindow(20);
+        for (int i = 0; i < closes.length; i++) {
+            window.push(closes[i]);
+            int length = i + 1;
+            if (length < 20) {
+                assertTrue(Double.isNaN(window.sma()));
+                continue;
+            }
+            assertEquals(IndicatorKernels.sma(closes, length, 20), window.sma(), EPSILON);
+            assertEquals(IndicatorKernels.stdDev(closes, length, 20), window.stdDev(), 1e-7);
+        }
+    }
+
+    @Test
+    @DisplayName("增量EMA应该与批量计算一致")
+    void streamingEmaShouldMatchBatchKernel() {
+        StreamingEma ema = new StreamingEma(12);
+        for (int i = 0; i < closes.length; i++) {
+            double value = ema.update(closes[i]);
+            int length = i + 1;
+            if (length < 12) {
+                assertTrue(Double.isNaN(value));
+            } else {
+                assertEquals(IndicatorKernels.ema(closes, length, 12), value, EPSILON);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("增量RSI应该与批量Wilder平滑一致")
+    void wilderRsiShouldMatchBatchKernel() {
+        WilderRsi rsi = new WilderRsi(14);
+        for (int i = 0; i < closes.length; i++) {
+            double value = rsi.update(closes[i]);
+            int length = i + 1;
+            if (length < 15) {
+                assertTrue(Double.isNaN(value));
+            } else {
+                assertEquals(IndicatorKernels.rsi(closes, length, 14), value, EPSILON);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("MACD信号线应该是MACD线的EMA")
+    void macdSignalShouldBeEmaOfMacdLine() {
+        StreamingMacd macd = new StreamingMacd(12, 26, 9);
+        double[] macdLine = new double[closes.length];
+        int lineLength = 0;
+        for (int i = 0; i < closes.length; i++) {
+            macd.update(closes[i]);
+            if (i + 1 >= 26) {
+                macdLine[lineLength++] = IndicatorKernels.ema(closes, i + 1, 12)
+                        - IndicatorKernels.ema(closes, i + 1, 26);
+                assertEquals(macdLine[lineLength - 1], macd.macd(), EPSILON);
+            }
+        }
+
+        assertTrue(macd.isReady());
+        assertEquals(IndicatorKernels.ema(macdLine, lineLength, 9), macd.signal(), EPSILON);
+        assertEquals(macd.macd() - macd.signal(), macd.histogram(), EPSILON);
+    }
+
+    @Test
+    @DisplayName("指标状态应该忽略重复和乱序的价格")
+    void indicatorStateShouldIgnoreStaleTimestamps() {
+        IndicatorState state = new IndicatorState();
+
+        assertTrue(state.update(1000L, 10.0));
+        assertFalse(state.update(1000L, 11.0));
+        assertFalse(state.update(999L, 12.0));
+        assertTrue(state.update(1001L, 13.0));
+
+        assertEquals(2, state.getUpdates());
+        assertEquals(13.0, state.getLastPrice(), EPSILON);
+    }
+}
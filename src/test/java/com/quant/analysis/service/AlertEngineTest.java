@@ -0,0 +1,111 @@
+package com.quant.analysis.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.quant.analysis.alert.AlertEvent;
+import com.quant.analysis.alert.AlertRule;
+import com.quant.analysis.kernel.IndicatorState;
+
+/**
+ * AlertEngine测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class AlertEngineTest {
+
+    @Mock
+    private StreamingIndicatorEngine streamingIndicatorEngine;
+
+    @InjectMocks
+    private AlertEngine alertEngine;
+
+    private StreamingIndicatorEngine.IndicatorListener listener;
+
+    @BeforeEach
+    void setUp() {
+        alertEngine.registerListeners();
+
+        ArgumentCaptor<StreamingIndicatorEngine.IndicatorListener> captor =
+            ArgumentCaptor.forClass(StreamingIndicatorEngine.IndicatorListener.class);
+        verify(streamingIndicatorEngine).addIndicatorListener(captor.capture());
+        listener = captor.getValue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        alertEngine.shutdown();
+    }
+
+    @Test
+    @DisplayName("应该只对行情所属股票的规则求值并异步通知监听器")
+    void testOnIndicators_DispatchesMatchingRules() throws InterruptedException {
+        // Given
+        AlertRule pltr = alertEngine.addRule("PLTR price crosses above 20");
+        alertEngine.addRule("AAPL price crosses above 20");
+        List<AlertEvent> received = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        alertEngine.addListener(event -> {
+            received.add(event);
+            latch.countDown();
+        });
+
+        IndicatorState state = new IndicatorState();
+
+        // When
+        state.update(1, 19);
+        listener.onIndicators("PLTR", state);
+        state.update(2, 21);
+        listener.onIndicators("PLTR", state);
+
+        // Then
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, received.size());
+        assertEquals(pltr.getId(), received.get(0).getRuleId());
+        assertEquals("PLTR", received.get(0).getSymbol());
+        assertEquals(21.0, received.get(0).getValue());
+        assertEquals(1, alertEngine.getRecentAlerts(10).size());
+    }
+
+    @Test
+    @DisplayName("删除规则后不应该再触发")
+    void testRemoveRule_StopsEvaluation() throws InterruptedException {
+        // Given
+        AlertRule rule = alertEngine.addRule("PLTR price > 20");
+        List<AlertEvent> received = new CopyOnWriteArrayList<>();
+        alertEngine.addListener(received::add);
+
+        // When
+        assertTrue(alertEngine.removeRule(rule.getId()));
+        IndicatorState state = new IndicatorState();
+        state.update(1, 25);
+        listener.onIndicators("PLTR", state);
+        alertEngine.shutdown();
+
+        // Then
+        assertFalse(alertEngine.removeRule(rule.getId()));
+        assertTrue(alertEngine.getRules().isEmpty());
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    @DisplayName("无效规则应该抛出IllegalArgumentException且不注册")
+    void testAddRule_RejectsInvalidExpression() {
+        assertThrows(IllegalArgumentException.class, () -> alertEngine.addRule("PLTR RSI_14 ~ 30"));
+        assertTrue(alertEngine.getRules().isEmpty());
+    }
+}
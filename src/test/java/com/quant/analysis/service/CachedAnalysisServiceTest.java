@@ -0,0 +1,113 @@
+package com.quant.analysis.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.quant.analysis.model.AnalysisResult;
+import com.quant.futu.service.FutuDataService;
+import com.quant.stock.bar.Timeframe;
+import com.quant.stock.service.BarAggregationService;
+import com.quant.stock.store.PriceHistoryStore;
+
+/**
+ * CachedAnalysisService测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class CachedAnalysisServiceTest {
+
+    @Mock
+    private TechnicalAnalysisService analysisService;
+
+    @Mock
+    private FutuDataService futuDataService;
+
+    @Mock
+    private PriceHistoryStore priceHistoryStore;
+
+    @Mock
+    private BarAggregationService barAggregationService;
+
+    @InjectMocks
+    private CachedAnalysisService cachedAnalysisService;
+
+    @BeforeEach
+    void setUp() {
+        cachedAnalysisService.init();
+    }
+
+    @Test
+    @DisplayName("没有新K线写入时相同请求应该命中缓存，新K线落库后重新计算")
+    void testCalculateSMA_CachedUntilNewBar() {
+        // Given: 第三次请求前落库线程写入了新K线
+        when(priceHistoryStore.lastTimestamp("AAPL")).thenReturn(1000L, 1000L, 2000L);
+        when(analysisService.calculateSMA("aapl", null, 20)).thenReturn(new BigDecimal("150.0000"));
+        when(analysisService.calculateSMA("AAPL", null, 20)).thenReturn(new BigDecimal("151.0000"));
+
+        // When
+        BigDecimal first = cachedAnalysisService.calculateSMA("aapl", 20);
+        BigDecimal second = cachedAnalysisService.calculateSMA("AAPL", 20);
+        BigDecimal third = cachedAnalysisService.calculateSMA("AAPL", 20);
+
+        // Then
+        assertEquals(new BigDecimal("150.0000"), first);
+        assertEquals(first, second);
+        assertEquals(new BigDecimal("151.0000"), third);
+        verify(analysisService, times(1)).calculateSMA("aapl", null, 20);
+        verify(analysisService, times(1)).calculateSMA("AAPL", null, 20);
+    }
+
+    @Test
+    @DisplayName("富途已连接时应该以本地K线缓存的修订号为键，指定周期时读取对应周期")
+    void testAnalyze_KeyedOnKLineRevision() {
+        // Given
+        when(futuDataService.isConnected()).thenReturn(true);
+        when(futuDataService.getKLineRevision("US.AAPL", Timeframe.M5.getFutuKLineType())).thenReturn(3L, 3L, 4L);
+        AnalysisResult result = new AnalysisResult("AAPL");
+        when(analysisService.analyze("AAPL", Timeframe.M5)).thenReturn(result);
+
+        // When
+        cachedAnalysisService.analyze("AAPL", Timeframe.M5);
+        cachedAnalysisService.analyze("AAPL", Timeframe.M5);
+        cachedAnalysisService.analyze("AAPL", Timeframe.M5);
+
+        // Then
+        verify(analysisService, times(2)).analyze("AAPL", Timeframe.M5);
+        verify(priceHistoryStore, never()).lastTimestamp(anyString());
+    }
+
+    @Test
+    @DisplayName("不同参数应该分别缓存，出错的综合分析不缓存")
+    void testCache_KeyedByParametersAndSkipsErrors() {
+        // Given
+        when(priceHistoryStore.lastTimestamp("AAPL")).thenReturn(1000L);
+        when(analysisService.calculateRSI("AAPL", null, 14)).thenReturn(new BigDecimal("55"));
+        when(analysisService.calculateRSI("AAPL", null, 7)).thenReturn(new BigDecimal("60"));
+        AnalysisResult failed = new AnalysisResult("AAPL");
+        failed.setError("数据源不可用");
+        when(analysisService.analyze("AAPL", null)).thenReturn(failed);
+
+        // When
+        cachedAnalysisService.calculateRSI("AAPL", 14);
+        cachedAnalysisService.calculateRSI("AAPL", 7);
+        cachedAnalysisService.calculateRSI("AAPL", 14);
+        cachedAnalysisService.analyze("AAPL");
+        cachedAnalysisService.analyze("AAPL");
+
+        // Then
+        verify(analysisService, times(1)).calculateRSI("AAPL", null, 14);
+        verify(analysisService, times(1)).calculateRSI("AAPL", null, 7);
+        verify(analysisService, times(2)).analyze("AAPL", null);
+        assertEquals(2, cachedAnalysisService.getStats().get("size"));
+    }
+}
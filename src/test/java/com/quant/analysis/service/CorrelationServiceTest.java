@@ -0,0 +1,101 @@
+package com.quant.analysis.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.quant.futu.service.FutuDataService;
+import com.quant.stock.model.StockData;
+import com.quant.stock.service.StockDataService;
+import com.quant.stockpltr.config.StockPltrConfig;
+
+/**
+ * CorrelationService测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class CorrelationServiceTest {
+
+    @Mock
+    private StockDataService stockDataService;
+
+    @Mock
+    private FutuDataService futuDataService;
+
+    @Mock
+    private StockPltrConfig stockPltrConfig;
+
+    @InjectMocks
+    private CorrelationService correlationService;
+
+    private StockDataService.PriceListener listener;
+
+    @BeforeEach
+    void setUp() {
+        StockPltrConfig.Monitoring monitoring = new StockPltrConfig.Monitoring();
+        monitoring.setSymbols(List.of("aapl", "PLTR"));
+        when(stockPltrConfig.getMonitoring()).thenReturn(monitoring);
+        when(stockDataService.getDefaultSymbols()).thenReturn(List.of("AAPL", "MSFT"));
+        correlationService.init();
+
+        ArgumentCaptor<StockDataService.PriceListener> captor = ArgumentCaptor.forClass(StockDataService.PriceListener.class);
+        verify(stockDataService).addPriceListener(captor.capture());
+        listener = captor.getValue();
+    }
+
+    @Test
+    @DisplayName("监控列表应该合并StockPltr监控股票和默认股票")
+    void testInit_MergesWatchlists() {
+        assertEquals(List.of("AAPL", "MSFT", "PLTR"), correlationService.getSymbols());
+    }
+
+    @Test
+    @DisplayName("每次采样应该增量更新相关系数矩阵")
+    @SuppressWarnings("unchecked")
+    void testSample_UpdatesCorrelation() {
+        // Given: MSFT与AAPL同向、PLTR与AAPL反向
+        double aapl = 100;
+        double msft = 200;
+        double pltr = 20;
+        for (int t = 0; t < 12; t++) {
+            double move = t % 3 == 0 ? 0.02 : -0.01 * (t % 2 + 1);
+            aapl *= 1 + move;
+            msft *= 1 + move * 1.5;
+            pltr *= 1 - move;
+            listener.onPrice(quote("AAPL", aapl));
+            listener.onPrice(quote("MSFT", msft));
+            listener.onPrice(quote("PLTR", pltr));
+            listener.onPrice(quote("TSLA", 250)); // 不在监控列表
+            correlationService.sample();
+        }
+        correlationService.sample(); // 没有新价格，跳过
+
+        // When
+        Map<String, Object> matrix = correlationService.getMatrix(true);
+
+        // Then
+        assertEquals(11, matrix.get("samples"));
+        assertTrue(correlationService.correlation("aapl", "MSFT") > 0.99);
+        assertTrue(correlationService.correlation("AAPL", "PLTR") < -0.99);
+        assertTrue(Double.isNaN(correlationService.correlation("AAPL", "TSLA")));
+        List<List<Double>> rows = (List<List<Double>>) matrix.get("matrix");
+        assertEquals(1.0, rows.get(1).get(1), 1e-12);
+    }
+
+    private static StockData quote(String symbol, double price) {
+        StockData data = new StockData(symbol, symbol);
+        data.setCurrentPrice(BigDecimal.valueOf(price));
+        return data;
+    }
+}
@@ -0,0 +1,114 @@
+package com.quant.analysis.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.quant.analysis.kernel.IndicatorColumns;
+import com.quant.futu.service.FutuDataService;
+import com.quant.stock.model.StockData;
+import com.quant.stock.service.StockDataService;
+
+/**
+ * ScreenerService测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class ScreenerServiceTest {
+
+    @Mock
+    private TechnicalAnalysisService analysisService;
+
+    @Mock
+    private StockDataService stockDataService;
+
+    @Mock
+    private FutuDataService futuDataService;
+
+    @InjectMocks
+    private ScreenerService screenerService;
+
+    @Test
+    @DisplayName("应该按条件筛选并排序，NaN不满足任何比较")
+    void testScreen_FilterAndSort() {
+        // Given
+        when(stockDataService.getAllActiveSymbols()).thenReturn(Arrays.asList("AAPL", "MSFT", "TSLA", "NVDA"));
+        when(analysisService.analyzeBatch(anyList())).thenReturn(columns(
+            new String[] {"AAPL", "MSFT", "NVDA", "TSLA"},
+            new double[] {25, 45, Double.NaN, 28},
+            new byte[] {IndicatorColumns.TREND_UP, IndicatorColumns.TREND_UP, IndicatorColumns.TREND_UNKNOWN, IndicatorColumns.TREND_DOWN}));
+        screenerService.refresh();
+
+        // When
+        List<Map<String, Object>> oversold = screenerService.screen(ScreenQuery.parse("RSI_14 < 30", "RSI_14", true, 10));
+        List<Map<String, Object>> uptrend = screenerService.screen(ScreenQuery.parse("uptrend and PRICE > BB_LOWER", null, false, 1));
+
+        // Then
+        assertEquals(4, screenerService.getUniverseSize());
+        assertNotNull(screenerService.getSnapshotTime());
+        assertEquals(2, oversold.size());
+        assertEquals("TSLA", oversold.get(0).get("symbol"));
+        assertEquals("AAPL", oversold.get(1).get("symbol"));
+        assertEquals("DOWNTREND", oversold.get(0).get("Trend"));
+        assertEquals(1, uptrend.size());
+        assertEquals("AAPL", uptrend.get(0).get("symbol"));
+    }
+
+    @Test
+    @DisplayName("只应该重新计算有新价格的股票")
+    @SuppressWarnings("unchecked")
+    void testRefresh_RecomputesOnlyDirtySymbols() {
+        // Given
+        when(stockDataService.getAllActiveSymbols()).thenReturn(Arrays.asList("AAPL", "MSFT"));
+        when(analysisService.analyzeBatch(anyList()))
+            .thenReturn(columns(new String[] {"AAPL", "MSFT"}, new double[] {50, 50}, new byte[2]))
+            .thenReturn(columns(new String[] {"MSFT"}, new double[] {20}, new byte[1]));
+        ArgumentCaptor<StockDataService.PriceListener> listener = ArgumentCaptor.forClass(StockDataService.PriceListener.class);
+        screenerService.registerListeners();
+        verify(stockDataService).addPriceListener(listener.capture());
+        screenerService.refresh();
+
+        // When
+        listener.getValue().onPrice(new StockData("msft", "Microsoft"));
+        screenerService.refresh();
+        screenerService.refresh();
+
+        // Then
+        ArgumentCaptor<List<String>> batches = ArgumentCaptor.forClass(List.class);
+        verify(analysisService, times(2)).analyzeBatch(batches.capture());
+        assertEquals(Arrays.asList("AAPL", "MSFT"), batches.getAllValues().get(0));
+        assertEquals(Arrays.asList("MSFT"), batches.getAllValues().get(1));
+        List<Map<String, Object>> results = screenerService.screen(ScreenQuery.parse("RSI_14 < 30", null, false, 10));
+        assertEquals(1, results.size());
+        assertEquals("MSFT", results.get(0).get("symbol"));
+    }
+
+    @Test
+    @DisplayName("无法解析的条件应该抛出IllegalArgumentException")
+    void testParse_InvalidFilter() {
+        assertThrows(IllegalArgumentException.class, () -> ScreenQuery.parse("RSI_14 ~ 30", null, false, 10));
+        assertThrows(IllegalArgumentException.class, () -> ScreenQuery.parse("VOLUME > 1", null, false, 10));
+        assertThrows(IllegalArgumentException.class, () -> ScreenQuery.parse("", "MACD", false, 10));
+    }
+
+    private static IndicatorColumns columns(String[] symbols, double[] rsi, byte[] trend) {
+        IndicatorColumns columns = new IndicatorColumns(symbols);
+        for (int i = 0; i < symbols.length; i++) {
+            columns.getClose()[i] = 100 + i;
+            columns.getBollingerLower()[i] = 95;
+            columns.getRsi14()[i] = rsi[i];
+            columns.getTrend()[i] = trend[i];
+        }
+        return columns;
+    }
+}
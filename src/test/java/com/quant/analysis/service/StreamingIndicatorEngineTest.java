@@ -0,0 +1,132 @@
+package com.quant.analysis.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.quant.analysis.model.AnalysisResult;
+import com.quant.analysis.model.TechnicalIndicator;
+import com.quant.analysis.repository.TechnicalIndicatorRepository;
+import com.quant.futu.service.FutuDataService;
+import com.quant.stock.model.StockData;
+import com.quant.stock.service.StockDataService;
+import com.quant.stock.store.BarSeries;
+import com.quant.stock.store.PriceHistoryStore;
+
+/**
+ * StreamingIndicatorEngine测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class StreamingIndicatorEngineTest {
+
+    @Mock
+    private StockDataService stockDataService;
+
+    @Mock
+    private FutuDataService futuDataService;
+
+    @Mock
+    private PriceHistoryStore priceHistoryStore;
+
+    @Mock
+    private TechnicalIndicatorRepository technicalIndicatorRepository;
+
+    @InjectMocks
+    private StreamingIndicatorEngine engine;
+
+    @Test
+    @DisplayName("应该在每个新价格上增量更新指标")
+    void testOnPrice_UpdatesSnapshot() {
+        // Given
+        when(priceHistoryStore.tail(eq("AAPL"), anyInt())).thenReturn(BarSeries.empty());
+
+        // When
+        for (int i = 0; i < 60; i++) {
+            engine.onPrice("aapl", 1000L * (i + 1), 100 + i);
+        }
+        AnalysisResult snapshot = engine.getSnapshot("AAPL");
+
+        // Then
+        assertEquals(60, snapshot.getBarCount());
+        assertEquals(0, new BigDecimal("149.5000").compareTo(snapshot.getSma20()));
+        assertEquals(0, new BigDecimal("134.5000").compareTo(snapshot.getSma50()));
+        assertEquals(0, new BigDecimal("100").compareTo(snapshot.getRsi14()));
+        assertNotNull(snapshot.getMacdSignal());
+        assertEquals("UPTREND", snapshot.getTrend());
+        assertEquals("SELL", snapshot.getTradingSignal());
+        verify(priceHistoryStore, times(1)).tail(eq("AAPL"), anyInt());
+    }
+
+    @Test
+    @DisplayName("首次出现的股票应该用价格历史预热")
+    void testOnPrice_WarmsUpFromHistory() {
+        // Given
+        long[] timestamps = new long[30];
+        double[] closes = new double[30];
+        for (int i = 0; i < 30; i++) {
+            timestamps[i] = 1000L * (i + 1);
+            closes[i] = 50 + i;
+        }
+        BarSeries history = new BarSeries(timestamps, closes, closes, closes, closes, closes);
+        when(priceHistoryStore.tail(eq("TSLA"), anyInt())).thenReturn(history);
+
+        // When: 最后一根历史K线与当前价格时间相同，不应重复计入
+        boolean updated = engine.onPrice("TSLA", 30_000L, 79);
+
+        // Then
+        assertTrue(updated);
+        assertEquals(30, engine.getSnapshot("TSLA").getBarCount());
+        assertNotNull(engine.getSnapshot("TSLA").getSma20());
+    }
+
+    @Test
+    @DisplayName("应该忽略重复的行情")
+    void testOnPrice_IgnoresDuplicateQuote() {
+        // Given
+        when(priceHistoryStore.tail(eq("AAPL"), anyInt())).thenReturn(BarSeries.empty());
+        StockData stockData = new StockData("AAPL", "Apple Inc.");
+        stockData.setCurrentPrice(new BigDecimal("150.00"));
+
+        // When
+        engine.onPrice(stockData);
+        engine.onPrice(stockData);
+
+        // Then
+        assertEquals(1, engine.getSnapshot("AAPL").getBarCount());
+        assertNull(engine.getSnapshot("MSFT"));
+    }
+
+    @Test
+    @DisplayName("应该只持久化有更新的股票的指标快照")
+    @SuppressWarnings("unchecked")
+    void testPersistSnapshots() {
+        // Given
+        when(priceHistoryStore.tail(eq("AAPL"), anyInt())).thenReturn(BarSeries.empty());
+        for (int i = 0; i < 60; i++) {
+            engine.onPrice("AAPL", 1000L * (i + 1), 100 + Math.sin(i));
+        }
+
+        // When
+        int saved = engine.persistSnapshots();
+        int savedAgain = engine.persistSnapshots();
+
+        // Then
+        ArgumentCaptor<List<TechnicalIndicator>> captor = ArgumentCaptor.forClass(List.class);
+        verify(technicalIndicatorRepository, times(1)).saveAll(captor.capture());
+        assertEquals(9, saved);
+        assertEquals(0, savedAgain);
+        assertTrue(captor.getValue().stream().anyMatch(row ->
+                "MACD".equals(row.getIndicatorType()) && row.getSignal() != null));
+    }
+}
@@ -0,0 +1,199 @@
+package com.quant.analysis.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.quant.analysis.kernel.IndicatorColumns;
+import com.quant.analysis.model.AnalysisResult;
+import com.quant.futu.service.FutuDataService;
+import com.quant.stock.bar.Timeframe;
+import com.quant.stock.model.StockData;
+import com.quant.stock.service.BarAggregationService;
+import com.quant.stock.service.StockDataService;
+import com.quant.stock.store.PriceHistoryStore;
+
+/**
+ * TechnicalAnalysisService测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class TechnicalAnalysisServiceTest {
+
+    @Mock
+    private StockDataService stockDataService;
+
+    @Mock
+    private FutuDataService futuDataService;
+
+    @Mock
+    private BarAggregationService barAggregationService;
+
+    @Mock
+    private PriceHistoryStore priceHistoryStore;
+
+    @InjectMocks
+    private TechnicalAnalysisService analysisService;
+
+    private List<StockData> history;
+
+    @BeforeEach
+    void setUp() {
+        // 本地数据按时间倒序：下标0为最新
+        history = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 60; i++) {
+            StockData data = new StockData("AAPL", "Apple Inc.");
+            data.setCurrentPrice(BigDecimal.valueOf(150 + Math.sin(i / 3.0) * 5 - i * 0.2));
+            data.setLastUpdated(now.minusDays(i));
+            history.add(data);
+        }
+        // 列式价格存储按时间升序
+        double[] closes = new double[history.size()];
+        for (int i = 0; i < closes.length; i++) {
+            closes[closes.length - 1 - i] = history.get(i).getCurrentPrice().doubleValue();
+        }
+        when(futuDataService.isConnected()).thenReturn(false);
+        lenient().when(priceHistoryStore.tailCloses(eq("AAPL"), anyInt()))
+                .thenAnswer(invocation -> Arrays.copyOfRange(closes,
+                        Math.max(0, closes.length - (int) invocation.getArgument(1)), closes.length));
+        lenient().when(stockDataService.getHistoricalData(eq("AAPL"), anyInt()))
+                .thenAnswer(invocation -> history.subList(0, Math.min(history.size(), (int) invocation.getArgument(1))));
+    }
+
+    @Test
+    @DisplayName("综合分析应该只加载一次历史数据")
+    void testAnalyze_SingleHistoryFetch() {
+        // When
+        AnalysisResult result = analysisService.analyze("AAPL");
+
+        // Then
+        assertNull(result.getError());
+        assertEquals(55, result.getBarCount());
+        assertNotNull(result.getSma20());
+        assertNotNull(result.getSma50());
+        assertNotNull(result.getRsi14());
+        assertNotNull(result.getMacd());
+        assertNotNull(result.getBollingerMiddle());
+        assertNotEquals("UNKNOWN", result.getTrend());
+        verify(priceHistoryStore, times(1)).tailCloses("AAPL", 55);
+        verify(stockDataService, never()).getHistoricalData(eq("AAPL"), anyInt());
+    }
+
+    @Test
+    @DisplayName("列式价格存储没有数据时应该回退到历史分区的最近记录")
+    void testAnalyze_FallsBackToHistoryPartitions() {
+        // Given
+        when(priceHistoryStore.tailCloses("AAPL", 55)).thenReturn(new double[0]);
+
+        // When
+        AnalysisResult result = analysisService.analyze("AAPL");
+
+        // Then
+        assertNull(result.getError());
+        assertEquals(55, result.getBarCount());
+        verify(stockDataService, times(1)).getHistoricalData("AAPL", 55);
+    }
+
+    @Test
+    @DisplayName("综合分析结果应该与单指标计算一致")
+    void testAnalyze_MatchesSingleIndicators() {
+        // When
+        AnalysisResult result = analysisService.analyze("AAPL");
+
+        // Then
+        assertEquals(analysisService.calculateSMA("AAPL", 20), result.getSma20());
+        assertEquals(analysisService.calculateSMA("AAPL", 50), result.getSma50());
+        assertEquals(analysisService.calculateEMA("AAPL", 12), result.getEma12());
+        assertEquals(analysisService.calculateEMA("AAPL", 26), result.getEma26());
+        assertEquals(analysisService.calculateRSI("AAPL", 14), result.getRsi14());
+        assertEquals(analysisService.calculateMACD("AAPL").get("MACD"), result.getMacd());
+        assertEquals(analysisService.calculateBollingerBands("AAPL", 20, 2.0).get("Upper"),
+                result.getBollingerUpper());
+    }
+
+    @Test
+    @DisplayName("SMA应该使用最新的价格")
+    void testCalculateSMA_UsesLatestPrices() {
+        // Given
+        BigDecimal expected = BigDecimal.ZERO;
+        for (int i = 0; i < 5; i++) {
+            expected = expected.add(history.get(i).getCurrentPrice());
+        }
+
+        // When
+        BigDecimal sma = analysisService.calculateSMA("AAPL", 5);
+
+        // Then
+        assertEquals(0, expected.divide(BigDecimal.valueOf(5), 4, RoundingMode.HALF_UP).compareTo(sma));
+    }
+
+    @Test
+    @DisplayName("批量分析结果应该与单股票综合分析一致")
+    void testAnalyzeBatch_MatchesAnalyze() {
+        // Given
+        when(priceHistoryStore.tailCloses("MSFT", 55)).thenReturn(new double[0]);
+        when(stockDataService.getHistoricalData("MSFT", 55)).thenReturn(new ArrayList<>());
+
+        // When
+        IndicatorColumns columns = analysisService.analyzeBatch(List.of("AAPL", "MSFT"));
+        AnalysisResult result = analysisService.analyze("AAPL");
+
+        // Then
+        assertEquals(0, result.getSma20().compareTo(
+                BigDecimal.valueOf(columns.getSma20()[0]).setScale(4, RoundingMode.HALF_UP)));
+        assertEquals(0, result.getRsi14().compareTo(
+                BigDecimal.valueOf(columns.getRsi14()[0]).setScale(2, RoundingMode.HALF_UP)));
+        assertEquals(result.getTrend(), IndicatorColumns.trendName(columns.getTrend()[0]));
+        assertEquals(result.getTradingSignal(), IndicatorColumns.signalName(columns.getSignal()[0]));
+        assertTrue(Double.isNaN(columns.getSma20()[1]));
+        assertEquals("UNKNOWN", IndicatorColumns.trendName(columns.getTrend()[1]));
+    }
+
+    @Test
+    @DisplayName("综合分析应该保持原Map结构")
+    void testComprehensiveAnalysis_LegacyKeys() {
+        // When
+        Map<String, Object> analysis = analysisService.comprehensiveAnalysis("AAPL");
+
+        // Then
+        assertTrue(analysis.containsKey("SMA_20"));
+        assertTrue(analysis.containsKey("RSI_14"));
+        assertTrue(((Map<?, ?>) analysis.get("MACD")).containsKey("Signal"));
+        assertTrue(((Map<?, ?>) analysis.get("BollingerBands")).containsKey("Middle"));
+        assertNotNull(analysis.get("TradingSignal"));
+    }
+
+    @Test
+    @DisplayName("指定周期时应该读取聚合K线而不是原始行情记录")
+    void testCalculateSMA_UsesAggregatedBars() {
+        // Given
+        double[] closes = new double[25];
+        for (int i = 0; i < closes.length; i++) {
+            closes[i] = i + 1;
+        }
+        when(barAggregationService.getCloses("AAPL", Timeframe.M5, 25)).thenReturn(closes);
+
+        // When
+        BigDecimal sma = analysisService.calculateSMA("AAPL", Timeframe.M5, 20);
+
+        // Then
+        assertEquals(0, new BigDecimal("15.5").compareTo(sma));
+        verify(stockDataService, never()).getHistoricalData(eq("AAPL"), anyInt());
+    }
+}
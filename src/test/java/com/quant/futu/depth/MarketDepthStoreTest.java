@@ -0,0 +1,152 @@
+package com.quant.futu.depth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * MarketDepthStore和环形缓冲区测试类
+ */
+class MarketDepthStoreTest {
+
+    @Test
+    @DisplayName("逐笔写满后应该覆盖最旧成交，增量查询报告丢失的成交数")
+    void testTicks_WrapAroundAndDelta() {
+        // Given
+        MarketDepthStore store = new MarketDepthStore(5, 0, 6); // 容量取整为8
+        store.register("PLTR");
+        for (int i = 0; i < 20; i++) {
+            store.onTick("PLTR", 1000 + i, 25.0 + i, 100, TickRingBuffer.BUY);
+        }
+
+        // When
+        TickBatch batch = store.getTicks("PLTR", 0, 100);
+        TickBatch limited = store.getTicks("PLTR", 15, 3);
+        TickBatch empty = store.getTicks("PLTR", batch.getNextSequence(), 100);
+
+        // Then
+        assertEquals(7, batch.size());
+        assertEquals(13, batch.getFromSequence());
+        assertEquals(13, batch.getDropped());
+        assertEquals(20, batch.getNextSequence());
+        assertEquals(1013, batch.getTimestamp(0));
+        assertEquals(44.0, batch.getPrice(6));
+
+        assertEquals(3, limited.size());
+        assertEquals(0, limited.getDropped());
+        assertEquals(18, limited.getNextSequence());
+        assertArrayEquals(new double[] {40.0, 41.0, 42.0}, limited.getPrices());
+
+        assertEquals(0, empty.size());
+        assertEquals(20, empty.getNextSequence());
+        assertNull(store.getOrderBook("PLTR")); // 未启用盘口
+    }
+
+    @Test
+    @DisplayName("成交统计应该只包含窗口内的成交")
+    void testTradeStats_VwapAndImbalance() {
+        // Given
+        MarketDepthStore store = new MarketDepthStore(5, 0, 64);
+        store.register("PLTR");
+        store.onTick("PLTR", 1_000, 10.0, 500, TickRingBuffer.BUY); // 窗口外
+        store.onTick("PLTR", 5_000, 20.0, 100, TickRingBuffer.BUY);
+        store.onTick("PLTR", 6_000, 22.0, 300, TickRingBuffer.SELL);
+        store.onTick("PLTR", 7_000, 21.0, 100, TickRingBuffer.NEUTRAL);
+
+        // When
+        TradeStats stats = store.getTradeStats("PLTR", 5_000);
+
+        // Then
+        assertEquals(3, stats.getTrades());
+        assertEquals(500, stats.getVolume());
+        assertEquals((20.0 * 100 + 22.0 * 300 + 21.0 * 100) / 500, stats.getVwap(), 1e-9);
+        assertEquals((100 - 300) / 400.0, stats.getTradeImbalance(), 1e-9);
+        assertTrue(Double.isNaN(store.getTradeStats("PLTR", 8_000).getVwap()));
+    }
+
+    @Test
+    @DisplayName("盘口快照应该截断到配置档位并计算价差、中间价和不平衡度")
+    void testOrderBook_SnapshotAndMetrics() {
+        // Given
+        MarketDepthStore store = new MarketDepthStore(2, 4, 16);
+        store.register("PLTR");
+        store.onOrderBook("PLTR", 1_000, new double[] {24.9}, new double[] {300},
+            new double[] {25.1}, new double[] {100});
+        store.onOrderBook("PLTR", 2_000, new double[] {24.95, 24.9, 24.85}, new double[] {200, 300, 400},
+            new double[] {25.05, 25.1}, new double[] {100, 200});
+        store.onTick("PLTR", System.currentTimeMillis(), 25.0, 100, TickRingBuffer.BUY);
+
+        // When
+        OrderBookSnapshot latest = store.getOrderBook("PLTR");
+        List<OrderBookSnapshot> updates = store.getOrderBookUpdates("PLTR", 0, 10);
+        Map<String, Object> metrics = store.getMetrics("PLTR", 60_000, System.currentTimeMillis());
+
+        // Then
+        assertEquals(1, latest.getSequence());
+        assertArrayEquals(new double[] {24.95, 24.9}, latest.getBidPrices());
+        assertArrayEquals(new double[] {200, 300}, latest.getBidSizes());
+        assertEquals(0.1, latest.getSpread(), 1e-9);
+        assertEquals(25.0, latest.getMid(), 1e-9);
+        assertEquals((500 - 300) / 800.0, latest.getImbalance(), 1e-9);
+        assertEquals((200 - 100) / 300.0, latest.imbalance(1), 1e-9);
+
+        assertEquals(2, updates.size());
+        assertEquals(1, updates.get(0).getBidPrices().length); // 不足档位的位置不返回
+        assertEquals(1_000, updates.get(0).getTimestamp());
+
+        assertEquals(25.0, (double) metrics.get("vwap"), 1e-9);
+        assertEquals(0.1, (double) metrics.get("spread"), 1e-9);
+        assertEquals(1L, metrics.get("trades"));
+    }
+
+    @Test
+    @DisplayName("未注册股票的数据应该被丢弃，删除后释放缓冲区")
+    void testRegister_DropsUnregistered() {
+        MarketDepthStore store = new MarketDepthStore(5, 8, 8);
+
+        assertFalse(store.onTick("TSLA", 1, 200.0, 1, TickRingBuffer.BUY));
+        assertNull(store.getMetrics("TSLA", 1000, 1));
+
+        store.register("TSLA");
+        assertTrue(store.onTick("TSLA", 1, 200.0, 1, TickRingBuffer.BUY));
+        store.remove("TSLA");
+        assertNull(store.getTicks("TSLA", 0, 10));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    @DisplayName("并发写入时读取不应该返回被覆盖一半的记录")
+    void testTickRingBuffer_ConcurrentReadsAreConsistent() throws Exception {
+        // Given: 每笔成交的价格和成交量都等于时间戳
+        TickRingBuffer ring = new TickRingBuffer(16);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            for (long i = 0; running.get(); i++) {
+                ring.append(i, i, i, TickRingBuffer.BUY);
+            }
+        });
+        writer.start();
+
+        // When / Then
+        try {
+            long next = 0;
+            for (int round = 0; round < 20_000; round++) {
+                TickBatch batch = ring.read(next, 16);
+                for (int i = 0; i < batch.size(); i++) {
+                    assertEquals(batch.getFromSequence() + i, batch.getTimestamp(i));
+                    assertEquals(batch.getTimestamp(i), (long) batch.getPrice(i));
+                    assertEquals(batch.getTimestamp(i), (long) batch.getVolume(i));
+                }
+                next = batch.getNextSequence();
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.quant.futu.kline;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.quant.stock.bar.Timeframe;
+import com.quant.stock.store.BarSeries;
+import com.quant.stock.store.PriceHistoryStore;
+
+/**
+ * 本地K线缓存测试类
+ */
+class KLineCacheTest {
+
+    private static final long MINUTE = Timeframe.M1.getMillis();
+
+    @TempDir
+    Path tempDir;
+
+    private PriceHistoryStore store;
+    private FakeSource source;
+    private KLineCache cache;
+
+    @BeforeEach
+    void setUp() {
+        store = new PriceHistoryStore(tempDir);
+        source = new FakeSource();
+        cache = new KLineCache(store, source, 30_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    @DisplayName("首次整段下载，刷新间隔内直接读本地，之后只下载最后一根及之后的K线")
+    void testGet_FullLoadThenDelta() {
+        // Given: 行情源有第0..99分钟的K线
+        source.lastMinute = 99;
+
+        // When
+        BarSeries first = cache.get("US.AAPL", Timeframe.M1, 50, 0);
+        BarSeries cached = cache.get("US.AAPL", Timeframe.M1, 50, 10_000);
+        source.lastMinute = 102;
+        source.version = 1; // 最后一根未收盘K线被更新
+        BarSeries refreshed = cache.get("US.AAPL", Timeframe.M1, 50, 40_000);
+
+        // Then
+        assertEquals(50, first.size());
+        assertEquals(50 * MINUTE, first.getTimestamps()[0]);
+        assertArrayEquals(first.getTimestamps(), cached.getTimestamps());
+        assertEquals(List.of("latest:50", "since:" + 99 * MINUTE), source.calls);
+
+        assertEquals(50, refreshed.size());
+        assertEquals(102 * MINUTE, refreshed.getTimestamps()[49]);
+        assertEquals(99 + 1000, refreshed.getClose()[46]); // 第99分钟被覆盖而不是重复
+        assertEquals(98, refreshed.getClose()[45]); // 更早的K线没有重新下载
+        assertEquals(53, store.size("US.AAPL_K_1M"));
+
+        assertEquals(1L, cache.toMap().get("hits"));
+        assertEquals(1L, cache.toMap().get("fullLoads"));
+        assertEquals(4L, cache.toMap().get("deltaBars"));
+    }
+
+    @Test
+    @DisplayName("本地K线数不足时重新整段下载，行情源也没有更多时不再重复下载")
+    void testGet_ReloadWhenShort() {
+        // Given
+        source.lastMinute = 29;
+        cache.get("US.AAPL", Timeframe.M1, 20, 0);
+
+        // When: 请求更多K线，但行情源只有30根
+        BarSeries longer = cache.get("US.AAPL", Timeframe.M1, 100, 1);
+        BarSeries again = cache.get("US.AAPL", Timeframe.M1, 100, 2);
+
+        // Then
+        assertEquals(30, longer.size());
+        assertEquals(30, again.size());
+        assertEquals(List.of("latest:20", "latest:100"), source.calls);
+    }
+
+    @Test
+    @DisplayName("同步失败时应该返回本地已有的K线，范围查询只读本地")
+    void testGet_FailureServesLocal() {
+        // Given
+        source.lastMinute = 9;
+        cache.get("US.AAPL", Timeframe.M1, 10, 0);
+        source.failing = true;
+
+        // When
+        BarSeries stale = cache.get("US.AAPL", Timeframe.M1, 10, 60_000);
+        BarSeries range = cache.range("US.AAPL", Timeframe.M1, 2 * MINUTE, 4 * MINUTE);
+
+        // Then
+        assertEquals(10, stale.size());
+        assertEquals(1L, cache.toMap().get("failures"));
+        assertArrayEquals(new double[] {2, 3, 4}, range.getClose());
+        assertTrue(cache.tail("US.MSFT", Timeframe.M1, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("修订号应该在K线写入本地后才变化，刷新间隔内保持不变")
+    void testRevision_AdvancesOnlyAfterWrite() {
+        // Given
+        source.lastMinute = 99;
+        cache.get("US.AAPL", Timeframe.M1, 50, 0);
+
+        // When
+        long loaded = cache.revision("US.AAPL", Timeframe.M1, 10_000);
+        source.version = 1; // 行情源已有新数据，但还没到刷新时间
+        long beforeRefresh = cache.revision("US.AAPL", Timeframe.M1, 20_000);
+        long refreshed = cache.revision("US.AAPL", Timeframe.M1, 40_000);
+
+        // Then
+        assertEquals(loaded, beforeRefresh);
+        assertTrue(refreshed > loaded);
+        assertEquals(99 + 1000, cache.tail("US.AAPL", Timeframe.M1, 1).getClose()[0]);
+    }
+
+    /**
+     * 第n分钟K线的收盘价为n，第99分钟的收盘价另加 version * 1000，模拟未收盘K线的更新
+     */
+    private static final class FakeSource implements KLineCache.KLineSource {
+        private final List<String> calls = new ArrayList<>();
+        private int lastMinute;
+        private int version;
+        private boolean failing;
+
+        @Override
+        public BarSeries fetchLatest(String code, Timeframe timeframe, int count) throws IOException {
+            calls.add("latest:" + count);
+            return bars(Math.max(0, lastMinute - count + 1), lastMinute);
+        }
+
+        @Override
+        public BarSeries fetchSince(String code, Timeframe timeframe, long fromTimestamp, int expectedCount)
+                throws IOException {
+            if (failing) {
+                throw new IOException("行情源不可用");
+            }
+            calls.add("since:" + fromTimestamp);
+            return bars((int) (fromTimestamp / MINUTE), lastMinute);
+        }
+
+        private BarSeries bars(int from, int to) {
+            int size = to - from + 1;
+            long[] timestamps = new long[size];
+            double[] close = new double[size];
+            for (int i = 0; i < size; i++) {
+                timestamps[i] = (from + i) * MINUTE;
+                close[i] = from + i + (from + i == 99 ? version * 1000 : 0);
+            }
+            return new BarSeries(timestamps, close, close, close, close, close);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.quant.futu.opend;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ProtocolException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * 测试用的本地OpenD替身
+ * 监听127.0.0.1的临时端口，按协议ID应答InitConnect、KeepAlive、Qot_Sub、Qot_GetBasicQot和Qot_RequestHistoryKL；
+ * 可以为指定股票延迟应答（验证流水线乱序完成）、主动推送报价和断开全部连接
+ */
+class LoopbackOpenDServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+    private final Map<Integer, AtomicInteger> received = new ConcurrentHashMap<>();
+    private final Map<String, Long> delays = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicInteger pushSerialNo = new AtomicInteger(1_000_000);
+
+    LoopbackOpenDServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "loopback-opend-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * 包含该股票的报价请求延迟应答
+     */
+    void delay(String code, long delayMs) {
+        delays.put(code, delayMs);
+    }
+
+    int received(int protoId) {
+        AtomicInteger count = received.get(protoId);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * 向所有连接推送一条基础报价
+     */
+    void pushBasicQuote(String code, double price, long timestampSeconds) throws IOException {
+        ObjectNode s2c = OpenDProtocol.MAPPER.createObjectNode();
+        s2c.putArray("basicQotList").add(basicQot(OpenDProtocol.security(code), price, timestampSeconds));
+        for (Connection connection : connections) {
+            connection.write(OpenDProtocol.QOT_UPDATE_BASIC_QOT, pushSerialNo.incrementAndGet(), response(s2c));
+        }
+    }
+
+    /**
+     * 断开所有连接，模拟OpenD重启
+     */
+    void dropConnections() {
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        dropConnections();
+        scheduler.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Connection connection = new Connection(serverSocket.accept());
+                connections.add(connection);
+                Thread reader = new Thread(connection::readLoop, "loopback-opend-conn");
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(Connection connection, OpenDFrame frame) throws IOException {
+        received.computeIfAbsent(frame.getProtoId(), id -> new AtomicInteger()).incrementAndGet();
+        JsonNode c2s = OpenDProtocol.MAPPER.readTree(frame.getBody()).path("c2s");
+        ObjectNode s2c = OpenDProtocol.MAPPER.createObjectNode();
+        long delayMs = 0;
+
+        switch (frame.getProtoId()) {
+            case OpenDProtocol.INIT_CONNECT:
+                s2c.put("connID", 1); // 不下发keepAliveInterval，客户端使用本地心跳间隔
+                break;
+            case OpenDProtocol.KEEP_ALIVE:
+                s2c.put("time", c2s.path("time").asLong());
+                break;
+            case OpenDProtocol.QOT_GET_BASIC_QOT:
+                ArrayNode list = s2c.putArray("basicQotList");
+                for (JsonNode security : c2s.path("securityList")) {
+                    String code = security.path("code").asText();
+                    delayMs = Math.max(delayMs, delays.getOrDefault(code, 0L));
+                    list.add(basicQot(security, 100.0 + code.length(), System.currentTimeMillis() / 1000));
+                }
+                break;
+            case OpenDProtocol.QOT_REQUEST_HISTORY_KL:
+                ArrayNode klList = s2c.putArray("klList");
+                long start = System.currentTimeMillis() / 1000 - 86_400L * c2s.path("maxAckKLNum").asInt();
+                for (int i = 0; i < c2s.path("maxAckKLNum").asInt(); i++) {
+                    ObjectNode kLine = klList.addObject();
+                    kLine.put("timestamp", start + 86_400L * i);
+                    kLine.put("openPrice", 100 + i);
+                    kLine.put("highPrice", 101 + i);
+                    kLine.put("lowPrice", 99 + i);
+                    kLine.put("closePrice", 100.5 + i);
+                    kLine.put("volume", 1000);
+                }
+                break;
+            default:
+                break;
+        }
+
+        byte[] body = response(s2c);
+        if (delayMs > 0) {
+            scheduler.schedule(() -> connection.write(frame.getProtoId(), frame.getSerialNo(), body),
+                delayMs, TimeUnit.MILLISECONDS);
+        } else {
+            connection.write(frame.getProtoId(), frame.getSerialNo(), body);
+        }
+    }
+
+    private static ObjectNode basicQot(JsonNode security, double price, long timestampSeconds) {
+        ObjectNode basicQot = OpenDProtocol.MAPPER.createObjectNode();
+        basicQot.set("security", security.deepCopy());
+        basicQot.put("curPrice", price);
+        basicQot.put("openPrice", price);
+        basicQot.put("highPrice", price);
+        basicQot.put("lowPrice", price);
+        basicQot.put("lastClosePrice", price);
+        basicQot.put("volume", 1000);
+        basicQot.put("updateTimestamp", timestampSeconds);
+        return basicQot;
+    }
+
+    private static byte[] response(ObjectNode s2c) throws IOException {
+        ObjectNode body = OpenDProtocol.MAPPER.createObjectNode();
+        body.put("retType", 0);
+        body.set("s2c", s2c);
+        return OpenDProtocol.MAPPER.writeValueAsBytes(body);
+    }
+
+    private final class Connection {
+        private final Socket socket;
+
+        Connection(Socket socket) {
+            this.socket = socket;
+        }
+
+        void readLoop() {
+            try {
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                byte[] header = new byte[OpenDFrame.HEADER_LENGTH];
+                while (true) {
+                    in.readFully(header);
+                    int bodyLength = ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN).getInt(12);
+                    byte[] frame = new byte[OpenDFrame.HEADER_LENGTH + bodyLength];
+                    System.arraycopy(header, 0, frame, 0, header.length);
+                    in.readFully(frame, header.length, bodyLength);
+                    OpenDFrame decoded = OpenDFrame.decode(ByteBuffer.wrap(frame));
+                    if (decoded == null) {
+                        throw new ProtocolException("帧不完整");
+                    }
+                    handle(this, decoded);
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        synchronized void write(int protoId, int serialNo, byte[] body) {
+            try {
+                ByteBuffer frame = new OpenDFrame(protoId, serialNo, body).encode();
+                OutputStream out = socket.getOutputStream();
+                out.write(frame.array(), 0, frame.limit());
+                out.flush();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void close() {
+            connections.remove(this);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // 已关闭
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.quant.futu.opend;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.quant.futu.quote.Quote;
+
+/**
+ * OpenDClient测试类，连接本地的OpenD替身
+ */
+class OpenDClientTest {
+
+    private LoopbackOpenDServer server;
+    private OpenDClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new LoopbackOpenDServer();
+        client = new OpenDClient("127.0.0.1", server.getPort(), 2000, 100, 20, 200, "test");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    @DisplayName("帧编码后应该能完整解码，数据不足时返回null，校验错误时抛出异常")
+    void testFrame_EncodeDecode() throws Exception {
+        // Given
+        byte[] body = "{\"c2s\":{}}".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer encoded = new OpenDFrame(OpenDProtocol.QOT_SUB, 7, body).encode();
+
+        // When
+        ByteBuffer partial = ByteBuffer.wrap(encoded.array(), 0, encoded.limit() - 1);
+        OpenDFrame decoded = OpenDFrame.decode(encoded);
+
+        // Then
+        assertNull(OpenDFrame.decode(partial));
+        assertEquals(0, partial.position());
+        assertEquals(OpenDProtocol.QOT_SUB, decoded.getProtoId());
+        assertEquals(7, decoded.getSerialNo());
+        assertArrayEquals(body, decoded.getBody());
+        assertFalse(encoded.hasRemaining());
+
+        byte[] corrupted = new OpenDFrame(OpenDProtocol.QOT_SUB, 8, body).encode().array();
+        corrupted[corrupted.length - 1] ^= 1;
+        assertThrows(ProtocolException.class, () -> OpenDFrame.decode(ByteBuffer.wrap(corrupted)));
+    }
+
+    @Test
+    @DisplayName("未连接时请求应该立即失败")
+    void testRequest_NotConnected() {
+        CompletableFuture<JsonNode> future = client.request(OpenDProtocol.QOT_GET_BASIC_QOT,
+            OpenDProtocol.getBasicQuotes(List.of("US.AAPL")));
+
+        ExecutionException error = assertThrows(ExecutionException.class, future::get);
+        assertTrue(error.getCause() instanceof IOException);
+    }
+
+    @Test
+    @DisplayName("流水线请求应该按序列号配对，慢请求不阻塞后发的请求")
+    void testRequest_PipelinedOutOfOrder() throws Exception {
+        // Given
+        server.delay("SLOW", 300);
+        client.connect().get(2, TimeUnit.SECONDS);
+        List<String> completed = new CopyOnWriteArrayList<>();
+
+        // When
+        CompletableFuture<JsonNode> slow = client.request(OpenDProtocol.QOT_GET_BASIC_QOT,
+            OpenDProtocol.getBasicQuotes(List.of("US.SLOW")));
+        CompletableFuture<JsonNode> fast = client.request(OpenDProtocol.QOT_GET_BASIC_QOT,
+            OpenDProtocol.getBasicQuotes(List.of("US.AAPL", "HK.00700")));
+        slow.thenRun(() -> completed.add("slow"));
+        fast.thenRun(() -> completed.add("fast"));
+
+        // Then
+        JsonNode fastResult = fast.get(2, TimeUnit.SECONDS);
+        assertFalse(slow.isDone());
+        assertEquals(2, fastResult.path("basicQotList").size());
+        assertEquals(1, fastResult.path("basicQotList").get(1).path("security").path("market").asInt());
+
+        Quote slowQuote = OpenDProtocol.toQuote(slow.get(2, TimeUnit.SECONDS).path("basicQotList").get(0));
+        assertEquals("SLOW", slowQuote.getSymbol());
+        assertEquals(104.0, slowQuote.getPrice());
+        assertEquals(List.of("fast", "slow"), completed);
+        await(() -> client.getPendingRequests() == 0); // 心跳请求可能仍在等待响应
+    }
+
+    @Test
+    @DisplayName("历史K线请求应该返回服务端的K线列表")
+    void testRequest_HistoryKLine() throws Exception {
+        // Given
+        client.connect().get(2, TimeUnit.SECONDS);
+
+        // When
+        JsonNode s2c = client.request(OpenDProtocol.QOT_REQUEST_HISTORY_KL,
+            OpenDProtocol.requestHistoryKLine("AAPL", "K_DAY", 5, LocalDateTime.now())).get(2, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(5, s2c.path("klList").size());
+        LocalDateTime first = OpenDProtocol.kLineTime(s2c.path("klList").get(0));
+        LocalDateTime last = OpenDProtocol.kLineTime(s2c.path("klList").get(4));
+        assertTrue(first.isBefore(last));
+    }
+
+    @Test
+    @DisplayName("没有服务端心跳间隔时应该按本地间隔发送心跳")
+    void testKeepAlive_SentPeriodically() throws Exception {
+        // When
+        client.connect().get(2, TimeUnit.SECONDS);
+
+        // Then
+        await(() -> server.received(OpenDProtocol.KEEP_ALIVE) >= 3);
+        assertTrue(client.isConnected());
+    }
+
+    @Test
+    @DisplayName("断线时未完成请求应该失败，重连后行情传输层重新订阅并继续接收推送")
+    void testReconnect_FailsPendingAndResubscribes() throws Exception {
+        // Given
+        OpenDQuoteTransport transport = new OpenDQuoteTransport(client);
+        List<Quote> quotes = new CopyOnWriteArrayList<>();
+        transport.start(quotes::add);
+        transport.subscribe(List.of("US.PLTR"));
+        client.connect().get(2, TimeUnit.SECONDS);
+        await(() -> server.received(OpenDProtocol.QOT_SUB) == 1);
+
+        server.pushBasicQuote("PLTR", 25.0, 1);
+        await(() -> quotes.size() == 1);
+        assertEquals("PLTR", quotes.get(0).getSymbol());
+        assertEquals(1000, quotes.get(0).getTimestamp());
+
+        server.delay("SLOW", 5000);
+        CompletableFuture<JsonNode> pending = client.request(OpenDProtocol.QOT_GET_BASIC_QOT,
+            OpenDProtocol.getBasicQuotes(List.of("US.SLOW")));
+        await(() -> server.received(OpenDProtocol.QOT_GET_BASIC_QOT) == 1);
+
+        // When
+        server.dropConnections();
+
+        // Then
+        ExecutionException error = assertThrows(ExecutionException.class, () -> pending.get(2, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof IOException);
+
+        await(() -> client.getReconnects() == 1 && server.received(OpenDProtocol.QOT_SUB) == 2);
+        assertTrue(client.isConnected());
+        server.pushBasicQuote("PLTR", 26.0, 2);
+        await(() -> quotes.size() == 2);
+        assertEquals(26.0, quotes.get(1).getPrice());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 3000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("等待条件超时");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
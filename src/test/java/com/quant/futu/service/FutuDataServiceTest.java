@@ -0,0 +1,202 @@
+package com.quant.futu.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.quant.config.FutuConfig;
+import com.quant.futu.quote.Quote;
+import com.quant.futu.quote.SimulatedQuoteTransport;
+import com.quant.stock.model.StockData;
+import com.quant.stock.service.QuoteChangeFilter;
+import com.quant.stock.service.QuoteWriteBehind;
+
+/**
+ * FutuDataService实时行情推送测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class FutuDataServiceTest {
+
+    @Spy
+    private FutuConfig futuConfig = new FutuConfig();
+
+    @Spy
+    private SimulatedQuoteTransport quoteTransport = new SimulatedQuoteTransport(0);
+
+    @Mock
+    private QuoteWriteBehind quoteWriteBehind;
+
+    @Spy
+    private QuoteChangeFilter quoteChangeFilter = new QuoteChangeFilter();
+
+    @InjectMocks
+    private FutuDataService futuDataService;
+
+    @TempDir
+    Path klineCacheDir;
+
+    @BeforeEach
+    void setUp() {
+        futuConfig.setQuoteTransport("simulated");
+        futuConfig.setMaxSubscriptions(2);
+        futuConfig.setKlineCacheDir(klineCacheDir.toString());
+        futuDataService.init();
+        futuDataService.initConnection();
+    }
+
+    @AfterEach
+    void tearDown() {
+        futuDataService.shutdown();
+    }
+
+    @Test
+    @DisplayName("订阅数不应该超过max-subscriptions")
+    void testSubscribe_RespectsMaxSubscriptions() {
+        // When
+        List<String> first = futuDataService.subscribeRealTimeQuote(List.of("aapl", "US.PLTR", "AAPL"));
+        List<String> second = futuDataService.subscribeRealTimeQuote(List.of("MSFT", "PLTR"));
+
+        // Then
+        assertEquals(List.of("US.AAPL", "US.PLTR"), first);
+        assertEquals(List.of("US.PLTR"), second);
+        assertEquals(List.of("US.AAPL", "US.PLTR"), futuDataService.getSubscriptions());
+
+        // 取消订阅后释放额度
+        assertEquals(List.of("US.AAPL"), futuDataService.unsubscribeRealTimeQuote(List.of("AAPL", "TSLA")));
+        assertEquals(List.of("US.MSFT"), futuDataService.subscribeRealTimeQuote(List.of("MSFT")));
+    }
+
+    @Test
+    @DisplayName("推送的报价应该写入最新报价表并通知监听器")
+    void testPush_UpdatesLatestQuotesAndNotifiesListeners() {
+        // Given
+        List<Quote> quotes = new ArrayList<>();
+        List<StockData> prices = new ArrayList<>();
+        futuDataService.addQuoteListener(quotes::add);
+        futuDataService.addPriceListener(prices::add);
+        futuDataService.subscribeRealTimeQuote(List.of("PLTR"));
+
+        // When
+        quoteTransport.tick();
+        quoteTransport.publish(new Quote("PLTR", 25.0, 24.0, 25.5, 23.5, 24.0, 1000, System.currentTimeMillis() + 60_000));
+        quoteTransport.publish(new Quote("PLTR", 20.0, 24.0, 25.5, 20.0, 24.0, 900, 1)); // 乱序
+        quoteTransport.publish(new Quote("TSLA", 200.0, 200.0, 200.0, 200.0, 200.0, 10, 2)); // 未订阅
+
+        // Then
+        assertEquals(2, quotes.size());
+        assertEquals(2, prices.size());
+        assertEquals(25.0, futuDataService.getLatestQuote("US.PLTR").getPrice());
+        assertNull(futuDataService.getLatestQuote("TSLA"));
+        assertEquals(1, futuDataService.getLatestQuotes().size());
+
+        StockData latest = futuDataService.getRealTimeQuote("PLTR");
+        assertEquals("PLTR", latest.getSymbol());
+        assertEquals(0, latest.getCurrentPrice().compareTo(new BigDecimal("25.0")));
+        assertEquals(2, prices.size()); // 从表中读取不再通知
+    }
+
+    @Test
+    @DisplayName("OpenD不可用时报价请求不应该每次都阻塞等待连接")
+    void testGetRealTimeQuotes_DoesNotBlockWhileDisconnected() throws Exception {
+        // Given: 指向没有监听的端口
+        futuDataService.closeConnection();
+        futuConfig.setQuoteTransport("opend");
+        futuConfig.setConnectionTimeout(500);
+        try (ServerSocket socket = new ServerSocket(0)) {
+            futuConfig.setPort(socket.getLocalPort());
+        }
+
+        // When
+        List<StockData> first = futuDataService.getRealTimeQuotes(List.of("AAPL"));
+        long start = System.nanoTime();
+        List<StockData> second = futuDataService.getRealTimeQuotes(List.of("AAPL"));
+        List<StockData> third = futuDataService.getRealTimeQuotes(List.of("MSFT"));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then: 第一次尝试连接，之后由后台重连，调用方立即返回
+        assertTrue(first.isEmpty());
+        assertTrue(second.isEmpty());
+        assertTrue(third.isEmpty());
+        assertTrue(elapsedMs < 250, "未连接时不应该等待连接超时: " + elapsedMs + "ms");
+        assertFalse(futuDataService.isConnected());
+    }
+
+    @Test
+    @DisplayName("关闭连接应该停止推送，重连后恢复已有订阅")
+    void testReconnect_RestoresSubscriptions() {
+        // Given
+        futuDataService.subscribeRealTimeQuote(List.of("PLTR"));
+        List<Quote> quotes = new ArrayList<>();
+        futuDataService.addQuoteListener(quotes::add);
+
+        // When
+        futuDataService.closeConnection();
+        quoteTransport.publish(new Quote("PLTR", 25.0, 24.0, 25.5, 23.5, 24.0, 1000, 1));
+        futuDataService.initConnection();
+        quoteTransport.publish(new Quote("PLTR", 26.0, 24.0, 26.0, 23.5, 24.0, 1100, 2));
+
+        // Then
+        assertEquals(1, quotes.size());
+        assertEquals(26.0, quotes.get(0).getPrice());
+        assertEquals(List.of("US.PLTR"), futuDataService.getSubscriptions());
+    }
+
+    @Test
+    @DisplayName("批量报价应该一次请求、整批交给异步落库队列并记录本批耗时")
+    @SuppressWarnings("unchecked")
+    void testGetBatchRealTimeQuotes_SavesOnce() throws Exception {
+        // Given: PLTR已订阅并收到推送，其余股票走批量请求
+        futuDataService.subscribeRealTimeQuote(List.of("PLTR"));
+        quoteTransport.publish(new Quote("PLTR", 25.0, 24.0, 25.5, 23.5, 24.0, 1000, System.currentTimeMillis()));
+
+        // When
+        List<StockData> results = futuDataService.getBatchRealTimeQuotes(List.of("US.AAPL", "PLTR", "MSFT")).get();
+
+        // Then
+        assertEquals(List.of("PLTR", "AAPL", "MSFT"),
+            List.of(results.get(0).getSymbol(), results.get(1).getSymbol(), results.get(2).getSymbol()));
+        ArgumentCaptor<List<StockData>> submitted = ArgumentCaptor.forClass(List.class);
+        verify(quoteWriteBehind).submitAll(submitted.capture());
+        verify(quoteWriteBehind, never()).submit(any());
+        assertEquals(3, submitted.getValue().size());
+
+        Map<String, Object> stats = futuDataService.getBatchQuoteStats();
+        assertEquals(1L, stats.get("batches"));
+        assertEquals(3L, stats.get("lastBatchSize"));
+    }
+
+    @Test
+    @DisplayName("模拟传输层的K线不应该写入本地K线缓存")
+    void testGetHistoricalKLine_SimulatedBarsNotCached() throws Exception {
+        // When
+        List<StockData> bars = futuDataService.getHistoricalKLine("AAPL", "K_1M", 20);
+
+        // Then
+        assertEquals(20, bars.size());
+        assertEquals(0L, futuDataService.getKLineCacheStats().get("fullLoads"));
+        try (Stream<Path> files = Files.walk(klineCacheDir)) {
+            assertTrue(files.noneMatch(Files::isRegularFile));
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.quant.stock.archive;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.quant.stock.store.BarSeries;
+import com.quant.stock.store.PriceHistoryStore;
+
+/**
+ * 压缩历史归档测试类
+ */
+class HistoryArchiveTest {
+
+    private static final long MINUTE = 60_000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("归档后按块流式读取应该无损还原，且远小于原始大小")
+    void testAppend_RoundTripAndCompression() throws Exception {
+        // Given: 带毫秒抖动的分钟行情，价格为两位小数的随机游走，含缺失值
+        HistoryArchive archive = new HistoryArchive(tempDir, 1000);
+        BarSeries bars = randomWalk(5000, 0);
+        bars.getOpen()[17] = Double.NaN;
+        bars.getVolume()[42] = Double.NaN;
+
+        // When
+        int written = archive.append("stock_data", "aapl", bars);
+        ArchiveCursor cursor = archive.cursor("stock_data", "AAPL", Long.MIN_VALUE, Long.MAX_VALUE);
+        List<BarSeries> blocks = new ArrayList<>();
+        while (cursor.hasNext()) {
+            blocks.add(cursor.next());
+        }
+
+        // Then
+        assertEquals(5000, written);
+        assertEquals(5, blocks.size());
+        BarSeries restored = concat(blocks);
+        assertArrayEquals(bars.getTimestamps(), restored.getTimestamps());
+        assertArrayEquals(bars.getOpen(), restored.getOpen());
+        assertArrayEquals(bars.getHigh(), restored.getHigh());
+        assertArrayEquals(bars.getLow(), restored.getLow());
+        assertArrayEquals(bars.getClose(), restored.getClose());
+        assertArrayEquals(bars.getVolume(), restored.getVolume());
+
+        long fileSize = Files.size(tempDir.resolve("stock_data").resolve("AAPL.qarc"));
+        assertTrue(fileSize < 5000 * 48 / 4, "归档大小: " + fileSize); // 原始为每行48字节
+        assertEquals(fileSize, archive.toMap().get("bytes"));
+    }
+
+    @Test
+    @DisplayName("非十进制小数的价格应该按位异或编码并无损还原")
+    void testAppend_NonDecimalPricesRoundTrip() throws Exception {
+        // Given: 计算得到的价格（如复权价）不是有限位小数
+        HistoryArchive archive = new HistoryArchive(tempDir, 256);
+        BarSeries bars = randomWalk(600, 1);
+        double[] close = bars.getClose();
+        for (int i = 0; i < close.length; i++) {
+            close[i] = close[i] / 3;
+        }
+        close[5] = -0.0;
+
+        // When
+        archive.append("stock_data", "AAPL", bars);
+        BarSeries restored = readAll(archive, "AAPL");
+
+        // Then
+        assertArrayEquals(bars.getTimestamps(), restored.getTimestamps());
+        assertArrayEquals(close, restored.getClose());
+        assertArrayEquals(bars.getOpen(), restored.getOpen());
+    }
+
+    @Test
+    @DisplayName("范围读取应该跳过范围外的块并裁剪边界块")
+    void testCursor_RangeSkipsAndTrimsBlocks() throws Exception {
+        // Given
+        HistoryArchive archive = new HistoryArchive(tempDir, 100);
+        BarSeries bars = randomWalk(1000, 0);
+        archive.append("stock_data", "AAPL", bars);
+        long from = bars.getTimestamps()[250];
+        long to = bars.getTimestamps()[420];
+
+        // When
+        ArchiveCursor cursor = archive.cursor("stock_data", "AAPL", from, to);
+        List<BarSeries> blocks = new ArrayList<>();
+        while (cursor.hasNext()) {
+            blocks.add(cursor.next());
+        }
+
+        // Then: 只解码第2到第4块
+        assertEquals(3, blocks.size());
+        BarSeries range = concat(blocks);
+        assertEquals(171, range.size());
+        assertEquals(from, range.getTimestamps()[0]);
+        assertEquals(to, range.lastTimestamp());
+        assertEquals(bars.getClose()[300], range.getClose()[50]);
+        assertTrue(cursor.next().isEmpty());
+        assertFalse(archive.cursor("stock_data", "MSFT", 0, Long.MAX_VALUE).hasNext());
+    }
+
+    @Test
+    @DisplayName("重复归档应该只追加新行，不完整的块在重新打开时被截断")
+    void testAppend_IdempotentAndRecoversPartialBlock() throws Exception {
+        // Given
+        HistoryArchive archive = new HistoryArchive(tempDir, 64);
+        BarSeries first = randomWalk(300, 0);
+        archive.append("stock_data", "AAPL", first);
+        Path file = tempDir.resolve("stock_data").resolve("AAPL.qarc");
+        long completeSize = Files.size(file);
+        Files.write(file, new byte[] {0x51, 0x41, 0x52}, StandardOpenOption.APPEND); // 写入中断
+
+        // When: 新实例重新扫描文件，再归档与已归档部分重叠的数据
+        HistoryArchive reopened = new HistoryArchive(tempDir, 64);
+        int written = reopened.append("stock_data", "AAPL", randomWalk(400, 0));
+
+        // Then
+        assertEquals(100, written);
+        assertEquals(first.lastTimestamp(), readAll(reopened, "AAPL").getTimestamps()[299]);
+        assertEquals(400, readAll(reopened, "AAPL").size());
+        assertTrue(Files.size(file) > completeSize);
+    }
+
+    @Test
+    @DisplayName("按截止时间分页归档各股票的过期数据")
+    void testArchiveBefore_PagesEachSymbol() throws Exception {
+        // Given
+        HistoryArchive archive = new HistoryArchive(tempDir, 1024);
+        BarSeries all = randomWalk(12_000, 0);
+        List<String> pages = new ArrayList<>();
+        HistoryArchive.ArchiveSource source = source(all, pages);
+        LocalDateTime cutoff = toLocalDateTime(all.getTimestamps()[11_000]);
+
+        // When
+        long written = archive.archiveBefore("stock_data", cutoff, source);
+        long again = archive.archiveBefore("stock_data", cutoff, source);
+
+        // Then
+        assertEquals(11_000, written);
+        assertEquals(0, again);
+        assertEquals(List.of("AAPL:5000", "AAPL:5000", "AAPL:1000", "AAPL:1"), pages); // 从最后时间戳续传
+        assertEquals(all.getTimestamps()[10_999], archive.lastTimestamp("stock_data", "AAPL"));
+    }
+
+    @Test
+    @DisplayName("时间戳相同的行跨页和重新打开续传时都不应该丢失或重复")
+    void testArchiveBefore_KeepsRowsSharingTimestamp() throws Exception {
+        // Given: 每3行时间戳相同，分页边界（第5000行）和块边界都落在同一时间戳的行中间
+        HistoryArchive archive = new HistoryArchive(tempDir, 64);
+        BarSeries walk = randomWalk(12_000, 0);
+        long start = walk.getTimestamps()[0];
+        for (int i = 0; i < walk.size(); i++) {
+            walk.getTimestamps()[i] = start + (i / 3) * MINUTE;
+        }
+        List<String> pages = new ArrayList<>();
+        HistoryArchive.ArchiveSource source = source(walk, pages);
+
+        // When: 先归档前3000个时间戳，新实例重新扫描文件后归档剩余数据
+        long first = archive.archiveBefore("stock_data", toLocalDateTime(start + 3000 * MINUTE), source);
+        HistoryArchive reopened = new HistoryArchive(tempDir, 64);
+        long second = reopened.archiveBefore("stock_data", toLocalDateTime(start + 4000 * MINUTE), source);
+        long again = reopened.archiveBefore("stock_data", toLocalDateTime(start + 4000 * MINUTE), source);
+
+        // Then
+        assertEquals(9000, first);
+        assertEquals(3000, second);
+        assertEquals(0, again);
+        BarSeries restored = readAll(reopened, "AAPL");
+        assertArrayEquals(walk.getTimestamps(), restored.getTimestamps());
+        assertArrayEquals(walk.getClose(), restored.getClose());
+    }
+
+    /**
+     * 以行下标为行ID、按(时间, 行ID)分页的待归档数据源，记录每页的行数
+     */
+    private static HistoryArchive.ArchiveSource source(BarSeries all, List<String> pages) {
+        return new HistoryArchive.ArchiveSource() {
+            @Override
+            public List<String> findSymbols(LocalDateTime cutoffTime) {
+                return List.of("AAPL");
+            }
+
+            @Override
+            public HistoryArchive.Page findPage(String symbol, LocalDateTime afterTime, long afterId,
+                                                LocalDateTime cutoffTime, int limit) {
+                long after = PriceHistoryStore.toEpochMillis(afterTime);
+                long cutoff = PriceHistoryStore.toEpochMillis(cutoffTime);
+                List<Integer> rows = new ArrayList<>();
+                for (int i = 0; i < all.size() && rows.size() < limit; i++) {
+                    long timestamp = all.getTimestamps()[i];
+                    if ((timestamp > after || (timestamp == after && i > afterId)) && timestamp < cutoff) {
+                        rows.add(i);
+                    }
+                }
+                pages.add(symbol + ":" + rows.size());
+                if (rows.isEmpty()) {
+                    return HistoryArchive.Page.empty();
+                }
+                int last = rows.get(rows.size() - 1);
+                return new HistoryArchive.Page(slice(all, rows), toLocalDateTime(all.getTimestamps()[last]), last);
+            }
+        };
+    }
+
+    private static BarSeries readAll(HistoryArchive archive, String symbol) throws Exception {
+        ArchiveCursor cursor = archive.cursor("stock_data", symbol, Long.MIN_VALUE, Long.MAX_VALUE);
+        List<BarSeries> blocks = new ArrayList<>();
+        while (cursor.hasNext()) {
+            blocks.add(cursor.next());
+        }
+        return concat(blocks);
+    }
+
+    /**
+     * 从2024-01-02开始每分钟一行，时间戳带0~999毫秒抖动
+     */
+    private static BarSeries randomWalk(int size, long seed) {
+        Random random = new Random(seed);
+        long start = PriceHistoryStore.toEpochMillis(LocalDateTime.of(2024, 1, 2, 9, 30));
+        long[] timestamps = new long[size];
+        double[] open = new double[size];
+        double[] high = new double[size];
+        double[] low = new double[size];
+        double[] close = new double[size];
+        double[] volume = new double[size];
+        long cents = 15_000;
+        for (int i = 0; i < size; i++) {
+            timestamps[i] = start + i * MINUTE + random.nextInt(1000);
+            long openCents = cents;
+            cents += random.nextInt(21) - 10;
+            open[i] = openCents / 100.0;
+            close[i] = cents / 100.0;
+            high[i] = (Math.max(openCents, cents) + random.nextInt(5)) / 100.0;
+            low[i] = (Math.min(openCents, cents) - random.nextInt(5)) / 100.0;
+            volume[i] = 1000 + random.nextInt(500) * 100;
+        }
+        return new BarSeries(timestamps, open, high, low, close, volume);
+    }
+
+    private static BarSeries slice(BarSeries bars, List<Integer> rows) {
+        int size = rows.size();
+        long[] timestamps = new long[size];
+        double[][] columns = new double[5][size];
+        double[][] source = {bars.getOpen(), bars.getHigh(), bars.getLow(), bars.getClose(), bars.getVolume()};
+        for (int i = 0; i < size; i++) {
+            timestamps[i] = bars.getTimestamps()[rows.get(i)];
+            for (int c = 0; c < 5; c++) {
+                columns[c][i] = source[c][rows.get(i)];
+            }
+        }
+        return new BarSeries(timestamps, columns[0], columns[1], columns[2], columns[3], columns[4]);
+    }
+
+    private static BarSeries concat(List<BarSeries> blocks) {
+        int size = blocks.stream().mapToInt(BarSeries::size).sum();
+        long[] timestamps = new long[size];
+        double[][] columns = new double[5][size];
+        int offset = 0;
+        for (BarSeries block : blocks) {
+            double[][] source = {block.getOpen(), block.getHigh(), block.getLow(), block.getClose(), block.getVolume()};
+            System.arraycopy(block.getTimestamps(), 0, timestamps, offset, block.size());
+            for (int c = 0; c < 5; c++) {
+                System.arraycopy(source[c], 0, columns[c], offset, block.size());
+            }
+            offset += block.size();
+        }
+        return new BarSeries(timestamps, columns[0], columns[1], columns[2], columns[3], columns[4]);
+    }
+
+    private static LocalDateTime toLocalDateTime(long timestamp) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+    }
+}
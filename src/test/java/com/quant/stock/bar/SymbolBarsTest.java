@@ -0,0 +1,92 @@
+package com.quant.stock.bar;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.quant.stock.store.BarSeries;
+
+/**
+ * 多周期K线聚合测试类
+ */
+class SymbolBarsTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    @DisplayName("行情应该同时聚合为各周期的OHLCV")
+    void shouldAggregateTicksIntoAllTimeframes() {
+        // Given
+        SymbolBars bars = new SymbolBars(100);
+        long base = Timeframe.H1.bucketStart(1_700_000_000_000L);
+
+        // When: 12分钟，每分钟两个行情，累计成交量每次增加10
+        double volume = 1000;
+        for (int minute = 0; minute < 12; minute++) {
+            bars.onTick(base + minute * MINUTE, 100 + minute, volume += 10);
+            bars.onTick(base + minute * MINUTE + 30_000L, 100.5 + minute, volume += 10);
+        }
+
+        // Then
+        BarSeries oneMinute = bars.bars(Timeframe.M1, 100);
+        assertEquals(12, oneMinute.size());
+        assertEquals(100, oneMinute.getOpen()[0]);
+        assertEquals(100.5, oneMinute.getClose()[0]);
+        assertEquals(10, oneMinute.getVolume()[0]); // 第一个行情成交量记为0
+        assertEquals(20, oneMinute.getVolume()[1]);
+
+        BarSeries fiveMinute = bars.bars(Timeframe.M5, 100);
+        assertArrayEquals(new long[] {base, base + 5 * MINUTE, base + 10 * MINUTE}, fiveMinute.getTimestamps());
+        assertEquals(105, fiveMinute.getOpen()[1]);
+        assertEquals(109.5, fiveMinute.getHigh()[1]);
+        assertEquals(105, fiveMinute.getLow()[1]);
+        assertEquals(109.5, fiveMinute.getClose()[1]);
+        assertEquals(100, fiveMinute.getVolume()[1]);
+        assertEquals(111.5, fiveMinute.getClose()[2]); // 正在形成的K线
+
+        BarSeries hour = bars.bars(Timeframe.H1, 100);
+        assertEquals(1, hour.size());
+        assertEquals(100, hour.getLow()[0]);
+        assertEquals(111.5, hour.getHigh()[0]);
+        assertArrayEquals(new double[] {109.5, 111.5}, bars.closes(Timeframe.M5, 2));
+    }
+
+    @Test
+    @DisplayName("环形缓冲区写满后应该只保留最近的K线")
+    void shouldKeepOnlyMostRecentBars() {
+        // Given
+        SymbolBars bars = new SymbolBars(3);
+
+        // When
+        for (int minute = 0; minute < 10; minute++) {
+            bars.onTick(minute * MINUTE, minute, Double.NaN);
+        }
+
+        // Then: 3根已完成 + 1根正在形成
+        assertArrayEquals(new double[] {6, 7, 8, 9}, bars.closes(Timeframe.M1, 10));
+        assertArrayEquals(new double[] {8, 9}, bars.closes(Timeframe.M1, 2));
+        assertEquals(0, bars.bars(Timeframe.M1, 10).getVolume()[0]);
+    }
+
+    @Test
+    @DisplayName("应该丢弃乱序行情，累计量变小时视为新交易日")
+    void shouldRejectOutOfOrderTicks() {
+        // Given
+        SymbolBars bars = new SymbolBars(10);
+
+        // When
+        assertTrue(bars.onTick(5 * MINUTE, 10, 500));
+        assertFalse(bars.onTick(4 * MINUTE, 99, 600));
+        assertTrue(bars.onTick(5 * MINUTE + 1, 11, 40));
+
+        // Then
+        BarSeries series = bars.bars(Timeframe.M1, 10);
+        assertEquals(1, series.size());
+        assertEquals(11, series.getHigh()[0]);
+        assertEquals(40, series.getVolume()[0]);
+        assertEquals(Timeframe.M5, Timeframe.parse("5m"));
+        assertEquals(Timeframe.H1, Timeframe.parse("K_60M"));
+        assertThrows(IllegalArgumentException.class, () -> Timeframe.parse("2h"));
+    }
+}
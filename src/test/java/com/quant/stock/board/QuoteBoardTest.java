@@ -0,0 +1,116 @@
+package com.quant.stock.board;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.quant.stock.model.StockData;
+
+/**
+ * 最新行情看板测试类
+ */
+class QuoteBoardTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 2, 10, 0);
+
+    @Test
+    @DisplayName("写入后应该能读回最新行情，旧行情不覆盖新行情")
+    void testUpdate_ReadBackAndRejectStale() {
+        // Given
+        QuoteBoard board = new QuoteBoard(8);
+        StockData first = stock("AAPL", "150.25", NOW);
+        first.setChangePercent(new BigDecimal("1.5"));
+        first.setMarketCap(new BigDecimal("2500000000000"));
+
+        // When
+        boolean written = board.update(first);
+        boolean newer = board.update(stock("AAPL", "151.00", NOW.plusMinutes(1)));
+        boolean stale = board.update(stock("AAPL", "149.00", NOW.minusMinutes(1)));
+        LatestQuote latest = board.get("AAPL");
+
+        // Then
+        assertTrue(written);
+        assertTrue(newer);
+        assertFalse(stale);
+        assertEquals(151.00, board.getPrice("AAPL"));
+        assertEquals("Apple Inc.", latest.getName());
+        assertEquals(new BigDecimal("151.00"), latest.getCurrentPrice());
+        assertNull(latest.getChangePercent()); // 新行情没有涨跌幅
+        assertEquals(NOW.plusMinutes(1), latest.getLastUpdated());
+        assertTrue(Double.isNaN(board.getPrice("MSFT")));
+        assertNull(board.get("MSFT"));
+    }
+
+    @Test
+    @DisplayName("快照应该按首次写入顺序返回，看板满后新股票被丢弃")
+    void testSnapshot_OrderAndCapacity() {
+        // Given
+        QuoteBoard board = new QuoteBoard(2);
+        board.update(stock("MSFT", "400", NOW));
+        board.update(stock("AAPL", "150", NOW));
+
+        // When
+        boolean overflow = board.update(stock("TSLA", "200", NOW));
+        List<QuoteView> all = board.snapshot();
+        List<QuoteView> selected = board.snapshot(List.of("AAPL", "TSLA"));
+
+        // Then
+        assertFalse(overflow);
+        assertEquals(2, board.size());
+        assertEquals("MSFT", all.get(0).getSymbol());
+        assertEquals(150.0, all.get(1).getPrice());
+        assertEquals(1, selected.size());
+        assertEquals("AAPL", selected.get(0).getSymbol());
+        assertEquals(-1, board.slotOf("TSLA"));
+    }
+
+    @Test
+    @DisplayName("并发写入时读取不应该返回被覆盖一半的行情")
+    void testRead_ConcurrentWritesAreConsistent() throws Exception {
+        // Given: 每条行情的开盘、最高、最低价都等于最新价
+        QuoteBoard board = new QuoteBoard(4);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Runnable writer = () -> {
+            for (int i = 1; running.get(); i++) {
+                StockData stockData = stock("AAPL", String.valueOf(i), NOW);
+                stockData.setOpenPrice(stockData.getCurrentPrice());
+                stockData.setHighPrice(stockData.getCurrentPrice());
+                stockData.setLowPrice(stockData.getCurrentPrice());
+                board.update(stockData);
+            }
+        };
+        Thread first = new Thread(writer);
+        Thread second = new Thread(writer);
+        first.start();
+        second.start();
+
+        // When / Then
+        try {
+            QuoteView view = new QuoteView();
+            for (int round = 0; round < 50_000; round++) {
+                if (board.read("AAPL", view)) {
+                    assertEquals(view.getPrice(), view.getOpen());
+                    assertEquals(view.getPrice(), view.getHigh());
+                    assertEquals(view.getPrice(), view.getLow());
+                }
+            }
+        } finally {
+            running.set(false);
+            first.join();
+            second.join();
+        }
+    }
+
+    private static StockData stock(String symbol, String price, LocalDateTime time) {
+        StockData stockData = new StockData(symbol, symbol.equals("AAPL") ? "Apple Inc." : symbol);
+        stockData.setCurrentPrice(new BigDecimal(price));
+        stockData.setLastUpdated(time);
+        return stockData;
+    }
+}
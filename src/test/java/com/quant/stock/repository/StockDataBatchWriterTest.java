@@ -0,0 +1,134 @@
+package com.quant.stock.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.quant.stock.board.LatestQuote;
+import com.quant.stock.board.QuoteBoard;
+import com.quant.stock.model.StockData;
+
+/**
+ * 股票最新行情批量写入测试类
+ */
+class StockDataBatchWriterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private StockDataBatchWriter batchWriter;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:batch_writer_test;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // 与StockData实体的列定义一致
+        jdbcTemplate.execute("CREATE TABLE stock_data (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+            + "symbol VARCHAR(10) NOT NULL, name VARCHAR(100), current_price DECIMAL(10,2), "
+            + "open_price DECIMAL(10,2), high_price DECIMAL(10,2), low_price DECIMAL(10,2), "
+            + "previous_close DECIMAL(10,2), change_percent DECIMAL(10,4), volume DECIMAL(15,2), "
+            + "market_cap DECIMAL(15,2), pe_ratio DECIMAL(8,2), dividend_yield DECIMAL(8,4), "
+            + "fifty_two_week_high DECIMAL(10,2), fifty_two_week_low DECIMAL(10,2), "
+            + "last_updated TIMESTAMP NOT NULL, created_at TIMESTAMP NOT NULL, "
+            + "CONSTRAINT uk_stock_data_symbol UNIQUE (symbol))");
+        batchWriter = new StockDataBatchWriter(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("应该一次批量写入全部行情并保留各列的值")
+    void shouldInsertNewSymbols() {
+        // Given
+        LocalDateTime time = LocalDateTime.of(2025, 9, 18, 10, 0);
+        StockData aapl = tick("AAPL", time, "150.25");
+        aapl.setChangePercent(new BigDecimal("1.2345"));
+        aapl.setVolume(new BigDecimal("1000000.00"));
+
+        // When
+        int written = batchWriter.upsertLatest(List.of(aapl, tick("MSFT", time, "400.10")));
+
+        // Then
+        assertEquals(2, written);
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM stock_data WHERE symbol = 'AAPL'");
+        assertEquals(new BigDecimal("150.25"), row.get("CURRENT_PRICE"));
+        assertEquals(new BigDecimal("1.2345"), row.get("CHANGE_PERCENT"));
+        assertEquals(new BigDecimal("1000000.00"), row.get("VOLUME"));
+        assertEquals(Timestamp.valueOf(time), row.get("LAST_UPDATED"));
+        assertEquals(0, batchWriter.upsertLatest(List.of()));
+    }
+
+    @Test
+    @DisplayName("每个股票只保留一行最新行情，旧行情不覆盖新行情")
+    void shouldKeepOneLatestRowPerSymbol() {
+        // Given
+        LocalDateTime time = LocalDateTime.of(2025, 9, 18, 10, 0);
+        batchWriter.upsertLatest(List.of(tick("AAPL", time, "150.00"), tick("MSFT", time, "400.00")));
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM stock_data WHERE symbol = 'AAPL'", Long.class);
+
+        // When
+        int written = batchWriter.upsertLatest(List.of(
+            tick("AAPL", time.plusMinutes(1), "151.00"),
+            tick("MSFT", time.minusMinutes(1), "399.00"), // 乱序到达的旧行情
+            tick("TSLA", time, "250.00")));
+
+        // Then
+        assertEquals(2, written);
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_data", Integer.class));
+        Map<String, Object> aapl = jdbcTemplate.queryForMap("SELECT * FROM stock_data WHERE symbol = 'AAPL'");
+        assertEquals(id, aapl.get("ID"));
+        assertEquals(new BigDecimal("151.00"), aapl.get("CURRENT_PRICE"));
+        assertEquals(new BigDecimal("400.00"), jdbcTemplate.queryForObject(
+            "SELECT current_price FROM stock_data WHERE symbol = 'MSFT'", BigDecimal.class));
+    }
+
+    @Test
+    @DisplayName("看板上的最新行情应该与落库后的主表行一致，小数位和时间精度相同")
+    void shouldServeQuoteBoardSameAsPersistedRow() {
+        // Given: 小数位与列定义不同，时间带纳秒
+        StockData aapl = tick("AAPL", LocalDateTime.of(2025, 9, 18, 10, 0, 0, 123_456_789), "150.5");
+        aapl.setPreviousClose(new BigDecimal("149"));
+        aapl.setChangePercent(new BigDecimal("1.006715"));
+        aapl.setVolume(new BigDecimal("1000000"));
+        aapl.setMarketCap(new BigDecimal("2500000000000"));
+        QuoteBoard board = new QuoteBoard(4);
+
+        // When
+        batchWriter.upsertLatest(List.of(aapl));
+        board.update(aapl);
+        LatestQuote quote = board.get("AAPL");
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM stock_data WHERE symbol = 'AAPL'");
+
+        // Then
+        assertEquals(row.get("NAME"), quote.getName());
+        assertEquals(row.get("CURRENT_PRICE"), quote.getCurrentPrice());
+        assertEquals(row.get("PREVIOUS_CLOSE"), quote.getPreviousClose());
+        assertEquals(row.get("CHANGE_PERCENT"), quote.getChangePercent());
+        assertEquals(row.get("VOLUME"), quote.getVolume());
+        assertEquals(row.get("MARKET_CAP"), quote.getMarketCap());
+        assertNull(row.get("OPEN_PRICE"));
+        assertNull(quote.getOpenPrice());
+        assertEquals(((Timestamp) row.get("LAST_UPDATED")).toLocalDateTime(), quote.getLastUpdated());
+        assertEquals(new BigDecimal("1.50"), quote.getPriceChange());
+    }
+
+    private StockData tick(String symbol, LocalDateTime time, String price) {
+        StockData data = new StockData(symbol, symbol + " Inc.");
+        data.setCurrentPrice(new BigDecimal(price));
+        data.setLastUpdated(time);
+        return data;
+    }
+}
@@ -0,0 +1,157 @@
+package com.quant.stock.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.quant.stock.model.StockData;
+import com.quant.stock.repository.DailyPartitionedTable.KeyedRow;
+
+/**
+ * 股票行情历史分区存储测试类
+ */
+class StockDataHistoryStoreTest {
+    
+    private JdbcTemplate jdbcTemplate;
+    private StockDataHistoryStore historyStore;
+    
+    private final LocalDateTime day1 = LocalDateTime.of(2025, 9, 18, 10, 0);
+    private final LocalDateTime day2 = day1.plusDays(1);
+    private final LocalDateTime day3 = day1.plusDays(2);
+    
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:history_test;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        historyStore = new StockDataHistoryStore(jdbcTemplate);
+        
+        historyStore.appendAll(List.of(
+            tick("AAPL", day1, "150.00"),
+            tick("AAPL", day2, "151.00"),
+            tick("AAPL", day2.plusHours(1), "152.00"),
+            tick("TSLA", day2, "250.00"),
+            tick("AAPL", day3, "153.00")
+        ));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+    
+    @Test
+    @DisplayName("应该按天创建分区")
+    void shouldCreateOnePartitionPerDay() {
+        assertEquals(List.of(day1.toLocalDate(), day2.toLocalDate(), day3.toLocalDate()),
+            historyStore.listPartitions());
+    }
+    
+    @Test
+    @DisplayName("范围查询应该只返回范围内的数据并按时间倒序")
+    void shouldQueryOnlyOverlappingPartitions() {
+        List<StockData> result = historyStore.findBySymbolAndTimeRange(
+            "AAPL", day2.withHour(0), day2.withHour(23));
+        
+        assertEquals(2, result.size());
+        assertEquals(new BigDecimal("152.00"), result.get(0).getCurrentPrice());
+        assertEquals(new BigDecimal("151.00"), result.get(1).getCurrentPrice());
+        assertEquals(1, historyStore.partitionsBetween(day2.toLocalDate(), day2.toLocalDate()).size());
+    }
+    
+    @Test
+    @DisplayName("跨分区查询应该合并多个分区的结果")
+    void shouldMergeAcrossPartitions() {
+        List<StockData> result = historyStore.findBySymbolAndTimeRange("AAPL", day1.minusDays(5), day3);
+        
+        assertEquals(4, result.size());
+        assertEquals(day3, result.get(0).getLastUpdated());
+        assertEquals(day1, result.get(3).getLastUpdated());
+    }
+    
+    @Test
+    @DisplayName("应该整表删除过期分区")
+    void shouldDropExpiredPartitions() {
+        int dropped = historyStore.dropPartitionsBefore(day3.toLocalDate());
+        
+        assertEquals(2, dropped);
+        assertEquals(List.of(day3.toLocalDate()), historyStore.listPartitions());
+        assertTrue(historyStore.findBySymbolAndTimeRange("AAPL", day1, day2.plusHours(2)).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("重新创建时应该发现已有分区")
+    void shouldDiscoverExistingPartitions() {
+        StockDataHistoryStore reopened = new StockDataHistoryStore(jdbcTemplate);
+        
+        assertEquals(3, reopened.listPartitions().size());
+        assertEquals(LocalDate.of(2025, 9, 18), reopened.listPartitions().get(0));
+    }
+    
+    @Test
+    @DisplayName("不限时间的查询应该合并全部分区")
+    void shouldFindAllHistoryOfSymbol() {
+        List<StockData> result = historyStore.findBySymbol("AAPL");
+        
+        assertEquals(4, result.size());
+        assertEquals(day3, result.get(0).getLastUpdated());
+        assertEquals(day1, result.get(3).getLastUpdated());
+    }
+    
+    @Test
+    @DisplayName("读取最新N条时应该从最新分区开始，凑满即停止")
+    void shouldFindLatestRowsNewestFirst() {
+        // When
+        List<StockData> latestTwo = historyStore.findLatest("AAPL", 2);
+        List<StockData> all = historyStore.findLatest("AAPL", 10);
+        
+        // Then
+        assertEquals(List.of(day3, day2.plusHours(1)),
+            List.of(latestTwo.get(0).getLastUpdated(), latestTwo.get(1).getLastUpdated()));
+        assertEquals(4, all.size());
+        assertEquals(day1, all.get(3).getLastUpdated());
+        assertTrue(historyStore.findLatest("MSFT", 5).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("应该按(时间, 行ID)升序跨分区分页读取截止时间之前的数据，时间相同的行不丢失")
+    void shouldPageRowsBeforeCutoff() {
+        // Given: 与day2时间相同的另一行，分页边界落在两行之间
+        historyStore.append(tick("AAPL", day2, "151.50"));
+        LocalDateTime cutoff = day3.toLocalDate().atStartOfDay();
+        
+        // When
+        List<KeyedRow<StockData>> first = historyStore.findPageBefore("AAPL", day1.minusDays(1), Long.MIN_VALUE,
+            cutoff, 2);
+        KeyedRow<StockData> last = first.get(1);
+        List<KeyedRow<StockData>> second = historyStore.findPageBefore("AAPL", last.getRecord().getLastUpdated(),
+            last.getRowId(), cutoff, 2);
+        
+        // Then
+        assertEquals(List.of("AAPL", "TSLA"), historyStore.findSymbolsBefore(cutoff));
+        assertEquals(List.of(day1, day2), List.of(first.get(0).getRecord().getLastUpdated(),
+            last.getRecord().getLastUpdated()));
+        assertEquals(new BigDecimal("151.00"), last.getRecord().getCurrentPrice());
+        assertEquals(2, second.size());
+        assertEquals(day2, second.get(0).getRecord().getLastUpdated());
+        assertEquals(new BigDecimal("151.50"), second.get(0).getRecord().getCurrentPrice());
+        assertEquals(day2.plusHours(1), second.get(1).getRecord().getLastUpdated());
+    }
+    
+    private StockData tick(String symbol, LocalDateTime time, String price) {
+        StockData data = new StockData(symbol, symbol + " Inc.");
+        data.setCurrentPrice(new BigDecimal(price));
+        data.setLastUpdated(time);
+        return data;
+    }
+}
@@ -0,0 +1,91 @@
+package com.quant.stock.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.quant.stock.model.StockData;
+
+/**
+ * 行情变化检测测试类
+ */
+class QuoteChangeFilterTest {
+
+    private static final LocalDateTime CLOSE = LocalDateTime.of(2024, 1, 5, 16, 0);
+
+    private final QuoteChangeFilter filter = new QuoteChangeFilter();
+
+    @Test
+    @DisplayName("未超过阈值的行情应该被跳过，任一字段超过阈值时落库")
+    void shouldSuppressUnchangedQuotes() {
+        // Given
+        assertTrue(persist(stock("150.00", "1000", CLOSE)));
+
+        // When / Then
+        assertFalse(persist(stock("150.00", "1000", CLOSE.plusMinutes(1))));
+        assertFalse(persist(stock("150.00005", "1000", CLOSE.plusMinutes(2)))); // 价格阈值0.0001以内
+        assertTrue(persist(stock("150.00", "1001", CLOSE.plusMinutes(3)))); // 成交量阈值为0
+        assertFalse(persist(stock("150.00", "1001", CLOSE.plusMinutes(4))));
+
+        StockData withoutVolume = stock("150.00", "1001", CLOSE.plusMinutes(5));
+        withoutVolume.setVolume(null);
+        assertTrue(persist(withoutVolume)); // 字段缺失也算变化
+
+        assertEquals(3L, filter.toMap().get("accepted"));
+        assertEquals(3L, filter.toMap().get("suppressed"));
+    }
+
+    @Test
+    @DisplayName("未变化的行情距上次落库超过心跳间隔时仍应该落库一条")
+    void shouldPersistHeartbeatWhenUnchangedForLong() {
+        // Given - 默认心跳间隔1小时
+        persist(stock("150.00", "1000", CLOSE));
+
+        // When / Then
+        assertFalse(persist(stock("150.00", "1000", CLOSE.plusMinutes(59))));
+        assertTrue(persist(stock("150.00", "1000", CLOSE.plusMinutes(60))));
+        assertFalse(persist(stock("150.00", "1000", CLOSE.plusMinutes(61)))); // 心跳后重新计时
+        assertEquals(1L, filter.toMap().get("heartbeats"));
+    }
+
+    @Test
+    @DisplayName("未写入数据库的行情不应该成为比较基准")
+    void shouldOnlyCompareAgainstPersistedQuotes() {
+        // Given
+        persist(stock("150.00", "1000", CLOSE));
+
+        // When: 变化的行情通过检测，但被队列丢弃或写入失败，没有record
+        assertTrue(filter.accept(stock("151.00", "1000", CLOSE.plusMinutes(1))));
+
+        // Then: 同样的行情再次到来时仍需落库
+        assertTrue(filter.accept(stock("151.00", "1000", CLOSE.plusMinutes(2))));
+
+        // 写入成功后才跳过，乱序到达的旧行情不会回退基准
+        filter.record(stock("151.00", "1000", CLOSE.plusMinutes(2)));
+        filter.record(stock("150.00", "1000", CLOSE.plusMinutes(1)));
+        assertFalse(filter.accept(stock("151.00", "1000", CLOSE.plusMinutes(3))));
+    }
+
+    /**
+     * 模拟落库流程：通过检测的行情写入成功后记为比较基准
+     */
+    private boolean persist(StockData stockData) {
+        boolean accepted = filter.accept(stockData);
+        if (accepted) {
+            filter.record(stockData);
+        }
+        return accepted;
+    }
+
+    private static StockData stock(String price, String volume, LocalDateTime time) {
+        StockData stockData = new StockData("AAPL", "Apple Inc.");
+        stockData.setCurrentPrice(new BigDecimal(price));
+        stockData.setVolume(new BigDecimal(volume));
+        stockData.setLastUpdated(time);
+        return stockData;
+    }
+}
@@ -0,0 +1,147 @@
+package com.quant.stock.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.quant.stock.model.StockData;
+import com.quant.stock.repository.StockDataBatchWriter;
+import com.quant.stock.repository.StockDataHistoryStore;
+import com.quant.stock.store.PriceHistoryStore;
+
+/**
+ * 行情异步落库队列测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class QuoteWriteBehindTest {
+
+    @Mock
+    private StockDataBatchWriter stockDataBatchWriter;
+
+    @Mock
+    private StockDataHistoryStore stockDataHistoryStore;
+
+    @Mock
+    private PriceHistoryStore priceHistoryStore;
+
+    @Mock
+    private QuoteChangeFilter quoteChangeFilter;
+
+    @InjectMocks
+    private QuoteWriteBehind quoteWriteBehind;
+
+    @AfterEach
+    void tearDown() {
+        quoteWriteBehind.shutdown();
+    }
+
+    @Test
+    @DisplayName("同一股票在刷新窗口内的多次更新应该合并为最后一条，历史分区和价格存储由落库线程写入")
+    @SuppressWarnings("unchecked")
+    void shouldCoalesceUpdatesPerSymbol() {
+        // Given
+        quoteWriteBehind.start();
+
+        // When
+        quoteWriteBehind.submit(stock("AAPL", "150.00"));
+        quoteWriteBehind.submit(stock("MSFT", "400.00"));
+        quoteWriteBehind.submit(stock("AAPL", "151.00"));
+        int depth = quoteWriteBehind.getQueueDepth();
+
+        // Then: 刷新窗口为1秒，落库线程在窗口结束时一次写入
+        ArgumentCaptor<List<StockData>> saved = ArgumentCaptor.forClass(List.class);
+        verify(stockDataBatchWriter, timeout(3000)).upsertLatest(saved.capture());
+        assertTrue(depth <= 2);
+        assertEquals(2, saved.getValue().size());
+        assertEquals("AAPL", saved.getValue().get(0).getSymbol());
+        assertEquals(new BigDecimal("151.00"), saved.getValue().get(0).getCurrentPrice());
+        verify(stockDataHistoryStore, timeout(3000)).appendAll(saved.getValue());
+        verify(priceHistoryStore, timeout(3000).times(2)).append(any(StockData.class));
+        verify(quoteChangeFilter).record(saved.getValue().get(0));
+        verify(quoteChangeFilter).record(saved.getValue().get(1));
+
+        Map<String, Object> stats = quoteWriteBehind.toMap();
+        assertEquals(3L, stats.get("submitted"));
+        assertEquals(1L, stats.get("coalesced"));
+        assertEquals(1L, stats.get("flushes"));
+        assertEquals(2L, stats.get("flushedRows"));
+    }
+
+    @Test
+    @DisplayName("积压的行情应该按批大小分批写入，写入失败时记录失败行数")
+    @SuppressWarnings("unchecked")
+    void shouldFlushInBatchesAndCountFailures() {
+        // Given - 1200个股票，默认批大小500
+        quoteWriteBehind.start();
+        quoteWriteBehind.shutdown(); // 停止落库线程，积压的行情只在flushPending时写入
+        List<StockData> batch = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            batch.add(stock("S" + i, "10.00"));
+        }
+        List<Integer> sizes = new ArrayList<>();
+        when(stockDataBatchWriter.upsertLatest(anyList())).thenAnswer(invocation -> {
+            List<StockData> rows = invocation.getArgument(0);
+            sizes.add(rows.size());
+            if (sizes.size() == 3) {
+                throw new IllegalStateException("数据库不可用");
+            }
+            return rows.size();
+        });
+
+        // When
+        int accepted = quoteWriteBehind.submitAll(batch);
+        int depth = quoteWriteBehind.getQueueDepth();
+        quoteWriteBehind.flushPending();
+
+        // Then
+        assertEquals(1200, accepted);
+        assertEquals(1200, depth);
+        assertEquals(List.of(500, 500, 200), sizes);
+        assertEquals(0, quoteWriteBehind.getQueueDepth());
+        assertEquals(1000L, quoteWriteBehind.toMap().get("flushedRows"));
+        assertEquals(200L, quoteWriteBehind.toMap().get("failedRows"));
+        verify(quoteChangeFilter, times(1000)).record(any(StockData.class)); // 失败批次不更新比较基准
+    }
+
+    @Test
+    @DisplayName("历史分区和价格存储的写入失败应该互不影响，价格存储按股票单独计数")
+    void shouldIsolateHistoryAndPriceStoreFailures() {
+        // Given
+        StockData apple = stock("AAPL", "150.00");
+        StockData microsoft = stock("MSFT", "400.00");
+        doThrow(new IllegalStateException("分区不可用")).when(stockDataHistoryStore).appendAll(anyList());
+        when(priceHistoryStore.append(apple)).thenThrow(new IllegalStateException("磁盘已满"));
+        when(priceHistoryStore.append(microsoft)).thenReturn(true);
+
+        // When
+        quoteWriteBehind.writeThrough(apple);
+        quoteWriteBehind.writeThrough(microsoft);
+
+        // Then
+        verify(priceHistoryStore).append(microsoft);
+        Map<String, Object> stats = quoteWriteBehind.toMap();
+        assertEquals(2L, stats.get("historyFailedRows"));
+        assertEquals(1L, stats.get("priceStoreFailedRows"));
+    }
+
+    private static StockData stock(String symbol, String price) {
+        StockData stockData = new StockData(symbol, symbol);
+        stockData.setCurrentPrice(new BigDecimal(price));
+        return stockData;
+    }
+}
@@ -0,0 +1,159 @@
+package com.quant.stock.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 数据保留清理引擎测试类
+ */
+class RetentionPurgerTest {
+    
+    private final RetentionPurger retentionPurger = new RetentionPurger();
+    
+    @AfterEach
+    void tearDown() {
+        retentionPurger.shutdown();
+    }
+    
+    @Test
+    @DisplayName("应该按批次删除全部过期数据并生成报告")
+    void shouldPurgeInBoundedChunks() throws Exception {
+        // Given - 2500条过期记录，默认批大小1000
+        List<Long> rows = new ArrayList<>();
+        for (long i = 0; i < 2500; i++) {
+            rows.add(i);
+        }
+        AtomicInteger maxChunk = new AtomicInteger();
+        
+        RetentionPurger.PurgeTarget target = new RetentionPurger.PurgeTarget() {
+            @Override
+            public List<Long> findExpiredIds(LocalDateTime cutoffTime, int limit) {
+                return new ArrayList<>(rows.subList(0, Math.min(limit, rows.size())));
+            }
+            
+            @Override
+            public int deleteByIds(List<Long> ids) {
+                maxChunk.accumulateAndGet(ids.size(), Math::max);
+                rows.removeAll(ids);
+                return ids.size();
+            }
+        };
+        
+        // When
+        RetentionPurger.PurgeReport report = retentionPurger
+            .submit("test_table", LocalDateTime.now(), target)
+            .get(10, TimeUnit.SECONDS);
+        
+        // Then
+        assertTrue(rows.isEmpty());
+        assertEquals(2500, report.getDeletedRows());
+        assertEquals(3, report.getChunks());
+        assertEquals(1000, maxChunk.get());
+        assertSame(report, retentionPurger.getLastReports().get("test_table"));
+    }
+    
+    @Test
+    @DisplayName("没有过期数据时不应执行删除")
+    void shouldDoNothingWhenNothingExpired() throws Exception {
+        // Given
+        AtomicInteger deleteCalls = new AtomicInteger();
+        RetentionPurger.PurgeTarget target = new RetentionPurger.PurgeTarget() {
+            @Override
+            public List<Long> findExpiredIds(LocalDateTime cutoffTime, int limit) {
+                return List.of();
+            }
+            
+            @Override
+            public int deleteByIds(List<Long> ids) {
+                deleteCalls.incrementAndGet();
+                return 0;
+            }
+        };
+        
+        // When
+        RetentionPurger.PurgeReport report = retentionPurger
+            .submit("empty_table", LocalDateTime.now(), target)
+            .get(10, TimeUnit.SECONDS);
+        
+        // Then
+        assertEquals(0, report.getDeletedRows());
+        assertEquals(0, report.getChunks());
+        assertEquals(0, deleteCalls.get());
+    }
+    
+    @Test
+    @DisplayName("删除前归档失败时不应删除任何数据")
+    void shouldNotDeleteWhenBeforePurgeFails() throws Exception {
+        // Given
+        AtomicInteger deleteCalls = new AtomicInteger();
+        RetentionPurger.PurgeTarget target = new RetentionPurger.PurgeTarget() {
+            @Override
+            public void beforePurge(LocalDateTime cutoffTime) throws Exception {
+                throw new IOException("磁盘已满");
+            }
+            
+            @Override
+            public List<Long> findExpiredIds(LocalDateTime cutoffTime, int limit) {
+                return List.of(1L, 2L);
+            }
+            
+            @Override
+            public int deleteByIds(List<Long> ids) {
+                deleteCalls.incrementAndGet();
+                return ids.size();
+            }
+        };
+        
+        // When
+        RetentionPurger.PurgeReport report = retentionPurger
+            .submit("archived_table", LocalDateTime.now(), target)
+            .get(10, TimeUnit.SECONDS);
+        
+        // Then
+        assertEquals(0, report.getDeletedRows());
+        assertEquals(0, deleteCalls.get());
+    }
+    
+    @Test
+    @DisplayName("一批删除0行时应该停止清理，而不是反复处理同一批ID")
+    void shouldStopWhenChunkDeletesNothing() throws Exception {
+        // Given - 查找总是返回同一批ID，删除总是失败
+        AtomicInteger deleteCalls = new AtomicInteger();
+        RetentionPurger.PurgeTarget target = new RetentionPurger.PurgeTarget() {
+            @Override
+            public List<Long> findExpiredIds(LocalDateTime cutoffTime, int limit) {
+                List<Long> ids = new ArrayList<>();
+                for (long i = 0; i < limit; i++) {
+                    ids.add(i);
+                }
+                return ids;
+            }
+            
+            @Override
+            public int deleteByIds(List<Long> ids) {
+                deleteCalls.incrementAndGet();
+                return 0;
+            }
+        };
+        
+        // When
+        RetentionPurger.PurgeReport report = retentionPurger
+            .submit("locked_table", LocalDateTime.now(), target)
+            .get(10, TimeUnit.SECONDS);
+        
+        // Then
+        assertEquals(0, report.getDeletedRows());
+        assertEquals(1, report.getChunks());
+        assertEquals(1, deleteCalls.get());
+    }
+}
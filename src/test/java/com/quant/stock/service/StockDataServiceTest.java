@@ -1,16 +1,21 @@
 package com.quant.stock.service;
 
+import com.quant.futu.service.FutuDataService;
+import com.quant.stock.board.LatestQuote;
 import com.quant.stock.model.StockData;
+import com.quant.stock.repository.StockDataHistoryStore;
 import com.quant.stock.repository.StockDataRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -29,6 +34,12 @@ class StockDataServiceTest {
     @Mock
     private StockDataRepository stockDataRepository;
     
+    @Mock
+    private StockDataHistoryStore stockDataHistoryStore;
+    
+    @Mock
+    private FutuDataService futuDataService;
+    
     @InjectMocks
     private StockDataService stockDataService;
     
@@ -77,11 +88,51 @@ class StockDataServiceTest {
     }
     
     @Test
-    @DisplayName("应该获取股票历史数据")
+    @DisplayName("最新行情应该先查数据库再由看板提供，且不暴露数据库主键")
+    void shouldServeLatestQuoteFromBoardAfterFirstRead() {
+        // Given
+        mockStockData.setLastUpdated(LocalDateTime.of(2025, 9, 18, 10, 0));
+        when(stockDataRepository.findTopBySymbolOrderByLastUpdatedDesc("AAPL"))
+            .thenReturn(Optional.of(mockStockData));
+        
+        // When
+        Optional<LatestQuote> first = stockDataService.getLatestQuote("aapl");
+        Optional<LatestQuote> second = stockDataService.getLatestQuote("AAPL");
+        
+        // Then
+        assertTrue(first.isPresent());
+        assertSame(second.get(), stockDataService.getQuoteBoard().get("AAPL"));
+        assertEquals(new BigDecimal("150.00"), second.get().getCurrentPrice());
+        assertEquals(new BigDecimal("2.5000"), second.get().getChangePercent());
+        verify(stockDataRepository, times(1)).findTopBySymbolOrderByLastUpdatedDesc("AAPL");
+    }
+    
+    @Test
+    @DisplayName("富途行情应该更新看板，不再读取数据库")
+    void shouldFeedBoardFromFutuQuotes() {
+        // Given
+        ArgumentCaptor<StockDataService.PriceListener> listener =
+            ArgumentCaptor.forClass(StockDataService.PriceListener.class);
+        stockDataService.init();
+        verify(futuDataService).addPriceListener(listener.capture());
+        mockStockData.setLastUpdated(LocalDateTime.of(2025, 9, 18, 10, 0));
+        
+        // When
+        listener.getValue().onPrice(mockStockData);
+        Optional<LatestQuote> quote = stockDataService.getLatestQuote("AAPL");
+        
+        // Then
+        assertTrue(quote.isPresent());
+        assertEquals(new BigDecimal("150.00"), quote.get().getCurrentPrice());
+        verify(stockDataRepository, never()).findTopBySymbolOrderByLastUpdatedDesc(anyString());
+    }
+    
+    @Test
+    @DisplayName("应该从历史分区获取股票历史数据")
     void shouldGetHistoricalData() {
         // Given
         List<StockData> historyData = Arrays.asList(mockStockData);
-        when(stockDataRepository.findBySymbolOrderByLastUpdatedDesc("AAPL"))
+        when(stockDataHistoryStore.findBySymbol("AAPL"))
             .thenReturn(historyData);
         
         // When
@@ -92,7 +143,7 @@ class StockDataServiceTest {
         assertEquals(1, result.size());
         assertEquals("AAPL", result.get(0).getSymbol());
         
-        verify(stockDataRepository).findBySymbolOrderByLastUpdatedDesc("AAPL");
+        verify(stockDataHistoryStore).findBySymbol("AAPL");
     }
     
     @Test
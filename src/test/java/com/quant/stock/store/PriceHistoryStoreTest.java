@@ -0,0 +1,177 @@
+package com.quant.stock.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.quant.stock.model.StockData;
+
+/**
+ * 列式价格历史存储测试类
+ */
+class PriceHistoryStoreTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private PriceHistoryStore store;
+    
+    @BeforeEach
+    void setUp() {
+        store = new PriceHistoryStore(tempDir);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+    
+    @Test
+    @DisplayName("应该按时间范围二分查找K线")
+    void shouldQueryByTimeRange() {
+        for (int i = 0; i < 10; i++) {
+            store.append("AAPL", 1000L * i, i, i + 1, i - 1, i + 0.5, 100 * i);
+        }
+        
+        BarSeries series = store.range("AAPL", 2500L, 6000L);
+        
+        assertEquals(4, series.size());
+        assertArrayEquals(new long[] {3000L, 4000L, 5000L, 6000L}, series.getTimestamps());
+        assertArrayEquals(new double[] {3.5, 4.5, 5.5, 6.5}, series.getClose());
+        assertArrayEquals(new double[] {300, 400, 500, 600}, series.getVolume());
+    }
+    
+    @Test
+    @DisplayName("游标应该按块读取时间范围内的K线")
+    void shouldStreamRangeInChunks() {
+        for (int i = 0; i < 10; i++) {
+            store.append("AAPL", 1000L * i, i, i, i, i, i);
+        }
+        
+        BarCursor cursor = store.cursor("aapl", 2000L, 8000L, 3);
+        
+        assertEquals(7, cursor.remaining());
+        assertArrayEquals(new long[] {2000L, 3000L, 4000L}, cursor.next().getTimestamps());
+        assertArrayEquals(new long[] {5000L, 6000L, 7000L}, cursor.next().getTimestamps());
+        assertArrayEquals(new double[] {8}, cursor.next().getClose());
+        assertFalse(cursor.hasNext());
+        assertTrue(cursor.next().isEmpty());
+        assertFalse(store.cursor("MSFT", 0L, Long.MAX_VALUE, 3).hasNext());
+    }
+    
+    @Test
+    @DisplayName("应该拒绝乱序写入")
+    void shouldRejectOutOfOrderAppend() {
+        assertTrue(store.append("AAPL", 2000L, 1, 1, 1, 1, 1));
+        assertFalse(store.append("AAPL", 1000L, 1, 1, 1, 1, 1));
+        assertTrue(store.append("AAPL", 2000L, 2, 2, 2, 2, 2));
+        assertEquals(2, store.size("AAPL"));
+    }
+    
+    @Test
+    @DisplayName("超过初始容量时应该自动扩容")
+    void shouldGrowBeyondInitialCapacity() {
+        int count = 10_000;
+        for (int i = 0; i < count; i++) {
+            store.append("TSLA", i, i, i, i, i, i);
+        }
+        
+        assertEquals(count, store.size("TSLA"));
+        double[] closes = store.tailCloses("TSLA", 3);
+        assertArrayEquals(new double[] {9997, 9998, 9999}, closes);
+    }
+    
+    @Test
+    @DisplayName("重新打开后应该保留已写入的数据")
+    void shouldPersistAcrossReopen() {
+        store.append("MSFT", 1L, 10, 11, 9, 10.5, 1000);
+        store.append("MSFT", 2L, 10.5, 12, 10, 11.5, 2000);
+        store.close();
+        
+        PriceHistoryStore reopened = new PriceHistoryStore(tempDir);
+        try {
+            assertEquals(2, reopened.size("MSFT"));
+            assertEquals(2L, reopened.lastTimestamp("MSFT"));
+            assertArrayEquals(new double[] {10.5, 11.5}, reopened.tail("MSFT", 5).getClose());
+        } finally {
+            reopened.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("截断应该删除旧K线并缩小列文件，游标和重新打开后的数据保持正确")
+    void shouldTruncateOldBarsAndCompactFiles() throws Exception {
+        int count = 10_000;
+        for (int i = 0; i < count; i++) {
+            store.append("TSLA", 1000L * i, i, i, i, i, i);
+        }
+        long sizeBefore = Files.size(tempDir.resolve("TSLA").resolve("close.col"));
+        BarCursor cursor = store.cursor("TSLA", 9_990_000L, Long.MAX_VALUE, 5);
+        
+        assertEquals(9990, store.truncateBefore("TSLA", 9_990_000L));
+        
+        assertEquals(0, store.truncateBefore("TSLA", 9_990_000L));
+        assertEquals(10, store.size("TSLA"));
+        assertTrue(Files.size(tempDir.resolve("TSLA").resolve("close.col")) < sizeBefore);
+        assertArrayEquals(new double[] {9990, 9991, 9992, 9993, 9994}, cursor.next().getClose());
+        assertTrue(store.append("TSLA", 10_000_000L, 1, 1, 1, 1, 1));
+        store.close();
+        
+        PriceHistoryStore reopened = new PriceHistoryStore(tempDir);
+        try {
+            assertEquals(11, reopened.size("TSLA"));
+            assertArrayEquals(new long[] {9_990_000L, 9_991_000L},
+                reopened.range("TSLA", 0L, 9_991_000L).getTimestamps());
+            assertEquals(10_000_000L, reopened.lastTimestamp("TSLA"));
+        } finally {
+            reopened.close();
+        }
+        assertFalse(Files.exists(tempDir.resolve("TSLA.compact")));
+    }
+    
+    @Test
+    @DisplayName("应该从行情快照写入并按股票代码隔离")
+    void shouldAppendStockDataSnapshot() {
+        StockData data = new StockData("nvda", "NVIDIA Corporation");
+        data.setCurrentPrice(new BigDecimal("450.25"));
+        data.setLastUpdated(LocalDateTime.of(2025, 9, 20, 10, 0));
+        
+        assertTrue(store.append(data));
+        
+        BarSeries series = store.tail("NVDA", 1);
+        assertEquals(1, series.size());
+        assertEquals(450.25, series.getClose()[0]);
+        assertEquals(450.25, series.getOpen()[0]);
+        assertTrue(Double.isNaN(series.getVolume()[0]));
+        assertTrue(store.tail("AAPL", 1).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("upsert应该覆盖时间相同的最后一根K线，delete应该删除文件")
+    void shouldUpsertLastBarAndDelete() {
+        store.append("AAPL", 1000L, 1, 1, 1, 1, 10);
+        store.append("AAPL", 2000L, 2, 2, 2, 2, 20);
+        
+        assertTrue(store.upsert("AAPL", 2000L, 2, 3, 2, 2.5, 25));
+        assertTrue(store.upsert("AAPL", 3000L, 3, 3, 3, 3, 30));
+        assertFalse(store.upsert("AAPL", 1500L, 9, 9, 9, 9, 90));
+        
+        BarSeries series = store.tail("AAPL", 10);
+        assertArrayEquals(new long[] {1000L, 2000L, 3000L}, series.getTimestamps());
+        assertArrayEquals(new double[] {1, 2.5, 3}, series.getClose());
+        
+        store.delete("aapl");
+        assertEquals(0, store.size("AAPL"));
+        assertFalse(tempDir.resolve("AAPL").toFile().exists());
+        assertTrue(store.append("AAPL", 500L, 1, 1, 1, 1, 1));
+    }
+}
@@ -20,6 +20,7 @@ import com.quant.stockpltr.model.StockComment;
 import com.quant.stockpltr.model.StockPltrData;
 import com.quant.stockpltr.repository.StockCommentRepository;
 import com.quant.stockpltr.repository.StockPltrDataRepository;
+import com.quant.stockpltr.repository.StockPltrHistoryStore;
 
 /**
  * StockPltrDataService测试类
@@ -36,6 +37,9 @@ class StockPltrDataServiceTest {
     @Mock
     private StockCommentRepository stockCommentRepository;
     
+    @Mock
+    private StockPltrHistoryStore stockPltrHistoryStore;
+    
     @InjectMocks
     private StockPltrDataService stockPltrDataService;
     
@@ -106,8 +110,8 @@ class StockPltrDataServiceTest {
         assertNotNull(result);
         assertEquals("AAPL", result.getSymbol());
         
-        // 验证方法调用
-        verify(stockPltrDataRepository).findLatestBySymbol("AAPL");
+        // 验证方法调用 - 保存时再次读取主表行以原地更新
+        verify(stockPltrDataRepository, times(2)).findLatestBySymbol("AAPL");
         verify(stockPltrCrawler).getStockDetail("AAPL");
         verify(stockPltrDataRepository).save(any(StockPltrData.class));
     }
@@ -129,16 +133,56 @@ class StockPltrDataServiceTest {
         assertNotNull(result);
         assertEquals("AAPL", result.getSymbol());
         
-        // 验证方法调用
-        verify(stockPltrDataRepository).findLatestBySymbol("AAPL");
+        // 验证方法调用 - 保存时再次读取主表行以原地更新
+        verify(stockPltrDataRepository, times(2)).findLatestBySymbol("AAPL");
         verify(stockPltrCrawler).getStockDetail("AAPL");
         verify(stockPltrDataRepository).save(any(StockPltrData.class));
     }
     
+    @Test
+    void testSaveStockData_UpdatesExistingRowAndAppendsHistory() {
+        // 准备测试数据 - 主表已有该股票较早的一行
+        StockPltrData existing = new StockPltrData("AAPL");
+        existing.setId(7L);
+        existing.setCrawlTime(testStockData.getCrawlTime().minusMinutes(10));
+        when(stockPltrDataRepository.findLatestBySymbol("AAPL"))
+            .thenReturn(Optional.of(existing));
+        when(stockPltrDataRepository.save(any(StockPltrData.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // 执行测试
+        StockPltrData result = stockPltrDataService.saveStockData(testStockData);
+        
+        // 验证结果 - 原地更新已有行，每次爬取都写入历史分区
+        assertEquals(7L, result.getId());
+        verify(stockPltrDataRepository).save(testStockData);
+        verify(stockPltrHistoryStore).append(testStockData);
+    }
+    
+    @Test
+    void testSaveStockData_OlderCrawlKeepsLatestRow() {
+        // 准备测试数据 - 主表中已有更新的数据
+        StockPltrData existing = new StockPltrData("AAPL");
+        existing.setId(7L);
+        existing.setCrawlTime(testStockData.getCrawlTime().plusMinutes(10));
+        when(stockPltrDataRepository.findLatestBySymbol("AAPL"))
+            .thenReturn(Optional.of(existing));
+        
+        // 执行测试
+        StockPltrData result = stockPltrDataService.saveStockData(testStockData);
+        
+        // 验证结果 - 不覆盖主表，历史分区照常写入
+        assertSame(existing, result);
+        verify(stockPltrDataRepository, never()).save(any(StockPltrData.class));
+        verify(stockPltrHistoryStore).append(testStockData);
+    }
+    
     @Test
     void testGetStockComments_WithFreshComments() {
         // 准备测试数据
         List<StockComment> comments = List.of(testComment);
+        when(stockCommentRepository.findFirstByStockSymbolAndDataSourceOrderByCrawlTimeDesc("AAPL", "stockpltr"))
+            .thenReturn(Optional.of(testComment));
         when(stockCommentRepository.findByStockSymbolAndDataSourceOrderByCommentTimeDesc("AAPL", "stockpltr"))
             .thenReturn(comments);
         
@@ -151,6 +195,7 @@ class StockPltrDataServiceTest {
         assertEquals("comment123", result.get(0).getCommentId());
         
         // 验证方法调用
+        verify(stockCommentRepository).findFirstByStockSymbolAndDataSourceOrderByCrawlTimeDesc("AAPL", "stockpltr");
         verify(stockCommentRepository).findByStockSymbolAndDataSourceOrderByCommentTimeDesc("AAPL", "stockpltr");
         verify(stockPltrCrawler, never()).getStockComments(anyString());
     }
@@ -161,8 +206,8 @@ class StockPltrDataServiceTest {
         testComment.setCrawlTime(LocalDateTime.now().minusMinutes(15));
         List<StockComment> comments = List.of(testComment);
         
-        when(stockCommentRepository.findByStockSymbolAndDataSourceOrderByCommentTimeDesc("AAPL", "stockpltr"))
-            .thenReturn(comments);
+        when(stockCommentRepository.findFirstByStockSymbolAndDataSourceOrderByCrawlTimeDesc("AAPL", "stockpltr"))
+            .thenReturn(Optional.of(testComment));
         when(stockPltrCrawler.getStockComments("AAPL"))
             .thenReturn(comments);
         when(stockCommentRepository.saveAll(anyList()))
@@ -175,8 +220,9 @@ class StockPltrDataServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         
-        // 验证方法调用
-        verify(stockCommentRepository).findByStockSymbolAndDataSourceOrderByCommentTimeDesc("AAPL", "stockpltr");
+        // 验证方法调用 - 过期时不加载全部历史评论
+        verify(stockCommentRepository).findFirstByStockSymbolAndDataSourceOrderByCrawlTimeDesc("AAPL", "stockpltr");
+        verify(stockCommentRepository, never()).findByStockSymbolAndDataSourceOrderByCommentTimeDesc(anyString(), anyString());
         verify(stockPltrCrawler).getStockComments("AAPL");
         verify(stockCommentRepository).saveAll(anyList());
     }
@@ -186,6 +232,8 @@ class StockPltrDataServiceTest {
         // 准备测试数据
         when(stockPltrDataRepository.findLatestBySymbol("AAPL"))
             .thenReturn(Optional.of(testStockData));
+        when(stockCommentRepository.findFirstByStockSymbolAndDataSourceOrderByCrawlTimeDesc("AAPL", "stockpltr"))
+            .thenReturn(Optional.of(testComment));
         when(stockCommentRepository.findByStockSymbolAndDataSourceOrderByCommentTimeDesc("AAPL", "stockpltr"))
             .thenReturn(List.of(testComment));
         
@@ -242,7 +290,7 @@ class StockPltrDataServiceTest {
     void testGetStockHistory() {
         // 准备测试数据
         List<StockPltrData> history = List.of(testStockData);
-        when(stockPltrDataRepository.findBySymbolAndCrawlTimeBetween(anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+        when(stockPltrHistoryStore.findBySymbolAndTimeRange(anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
             .thenReturn(history);
         
         // 执行测试
@@ -252,8 +300,8 @@ class StockPltrDataServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         
-        // 验证方法调用
-        verify(stockPltrDataRepository).findBySymbolAndCrawlTimeBetween(anyString(), any(LocalDateTime.class), any(LocalDateTime.class));
+        // 验证方法调用 - 历史查询走日分区
+        verify(stockPltrHistoryStore).findBySymbolAndTimeRange(anyString(), any(LocalDateTime.class), any(LocalDateTime.class));
     }
     
     @Test
@@ -0,0 +1,187 @@
+package com.quant.web.push;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.quant.analysis.service.StreamingIndicatorEngine;
+import com.quant.futu.service.FutuDataService;
+import com.quant.stock.board.QuoteBoard;
+import com.quant.stock.model.StockData;
+import com.quant.stock.service.StockDataService;
+import com.quant.stock.store.PriceHistoryStore;
+
+/**
+ * 实时行情推送中心测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class QuotePushHubTest {
+
+    @Mock
+    private StockDataService stockDataService;
+
+    @Mock
+    private FutuDataService futuDataService;
+
+    @Mock
+    private StreamingIndicatorEngine streamingIndicatorEngine;
+
+    @InjectMocks
+    private QuotePushHub quotePushHub;
+
+    @BeforeEach
+    void setUp() {
+        quotePushHub.start();
+        lenient().when(stockDataService.getQuoteBoard()).thenReturn(new QuoteBoard());
+    }
+
+    @AfterEach
+    void tearDown() {
+        quotePushHub.shutdown();
+    }
+
+    @Test
+    @DisplayName("一次行情更新应该只序列化一次，同一帧发给所有订阅者")
+    void testOnQuote_SharesFrameAcrossSubscribers() throws Exception {
+        // Given
+        RecordingEmitter first = new RecordingEmitter(1);
+        RecordingEmitter second = new RecordingEmitter(1);
+        RecordingEmitter other = new RecordingEmitter(1);
+        quotePushHub.subscribe(first, List.of("aapl"));
+        quotePushHub.subscribe(second, List.of("AAPL", "MSFT"));
+        quotePushHub.subscribe(other, List.of("MSFT"));
+
+        // When
+        quotePushHub.onQuote(stock("AAPL", "150.25"));
+
+        // Then
+        assertTrue(first.await());
+        assertTrue(second.await());
+        assertSame(first.frames.get(0), second.frames.get(0));
+        assertEquals("event:quote\ndata:{\"symbol\":\"AAPL\",\"price\":150.25,\"change\":0,"
+            + "\"changePercent\":null,\"volume\":null,\"timestamp\":" + first.timestamp() + "}\n\n",
+            first.text(0));
+        assertTrue(other.frames.isEmpty());
+        assertEquals(1L, quotePushHub.toMap().get("framesBuilt"));
+        assertEquals(2L, quotePushHub.toMap().get("framesOffered"));
+    }
+
+    @Test
+    @DisplayName("慢客户端应该只收到最新值，断开的连接应该被移除")
+    void testOnQuote_ConflatesForSlowSubscriber() throws Exception {
+        // Given: 第一帧发送阻塞，模拟写不出去的连接
+        RecordingEmitter slow = new RecordingEmitter(2);
+        slow.blockFirstSend();
+        quotePushHub.subscribe(slow, List.of("AAPL"));
+
+        // When
+        quotePushHub.onQuote(stock("AAPL", "100"));
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 100; i++) {
+            quotePushHub.onQuote(stock("AAPL", String.valueOf(100 + i)));
+        }
+        slow.gate.countDown();
+
+        // Then
+        assertTrue(slow.await());
+        assertEquals(2, slow.frames.size());
+        assertTrue(slow.text(1).contains("\"price\":200"));
+        assertEquals(99L, quotePushHub.toMap().get("framesConflated"));
+
+        // When: 连接断开后写失败
+        slow.fail = true;
+        quotePushHub.onQuote(stock("AAPL", "201"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((int) quotePushHub.toMap().get("subscribers") > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Then
+        assertEquals(0, quotePushHub.toMap().get("subscribers"));
+        assertEquals(0, quotePushHub.toMap().get("symbols"));
+        assertEquals(1L, quotePushHub.toMap().get("disconnected"));
+    }
+
+    @Test
+    @DisplayName("没有股票代码的订阅应该被拒绝")
+    void testSubscribe_RejectsEmptySymbols() {
+        assertThrows(IllegalArgumentException.class,
+            () -> quotePushHub.subscribe(new RecordingEmitter(0), List.of(" ")));
+        assertEquals(0, quotePushHub.toMap().get("subscribers"));
+    }
+
+    private static StockData stock(String symbol, String price) {
+        StockData stockData = new StockData(symbol, symbol);
+        stockData.setCurrentPrice(new BigDecimal(price));
+        stockData.setLastUpdated(LocalDateTime.of(2024, 1, 2, 9, 30));
+        return stockData;
+    }
+
+    /**
+     * 记录收到的帧，可以阻塞第一次发送或模拟写失败
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        final List<Set<DataWithMediaType>> frames = new CopyOnWriteArrayList<>();
+        final CountDownLatch received;
+        final CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(0);
+        volatile boolean fail;
+
+        RecordingEmitter(int expectedFrames) {
+            this.received = new CountDownLatch(expectedFrames);
+        }
+
+        void blockFirstSend() {
+            gate = new CountDownLatch(1);
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            sending.countDown();
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (fail) {
+                throw new IOException("连接已断开");
+            }
+            frames.add(items);
+            received.countDown();
+        }
+
+        boolean await() throws InterruptedException {
+            return received.await(5, TimeUnit.SECONDS);
+        }
+
+        String text(int index) {
+            byte[] bytes = (byte[]) frames.get(index).iterator().next().getData();
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        long timestamp() {
+            return PriceHistoryStore.toEpochMillis(LocalDateTime.of(2024, 1, 2, 9, 30));
+        }
+    }
+}